@@ -70,6 +70,14 @@ public class DL4JSystemProperties {
      */
     public static final String CRASH_DUMP_OUTPUT_DIRECTORY_PROPERTY = "org.deeplearning4j.crash.reporting.directory";
 
+    /**
+     * Applicability: deeplearning4j-nn<br>
+     * Description: By default, DL4J applies L1/L2/weight decay regularization and the updater (for Adam, AdaMax,
+     * Nesterovs and RmsProp) using a single fused op for each block of parameters, instead of a separate op for each
+     * step. This system property can be used to disable fused updates, by setting it to "false".
+     */
+    public static final String FUSED_UPDATER_ENABLED_PROPERTY = "org.deeplearning4j.updater.fused.enabled";
+
     /**
      * Applicability: deeplearning4j-ui<br>
      * Description: The DL4J training UI (StatsListener + UIServer.getInstance().attach(ss)) will subsample the number
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.dtypes;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MixedPrecision;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.updater.MixedPrecisionHelper;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.*;
+
+public class MixedPrecisionTests extends BaseDL4JTest {
+
+    @Test
+    public void testLossScaleOverflow() {
+        MixedPrecision conf = MixedPrecision.builder().initialLossScale(1024).growthInterval(2).build();
+        MixedPrecisionHelper mp = new MixedPrecisionHelper(conf);
+
+        INDArray grad = Nd4j.valueArrayOf(new long[]{1, 4}, 1024.0, DataType.HALF);
+        INDArray gradCopy = grad.dup();
+        assertTrue(mp.unscaleGradients(grad));
+        INDArray master = mp.getMasterGradients(grad);
+        assertEquals(DataType.FLOAT, master.dataType());
+        assertEquals(Nd4j.ones(DataType.FLOAT, 1, 4), master);
+        assertEquals(gradCopy, grad);   //Low precision gradients are not modified
+        assertFalse(mp.isLastStepSkipped());
+        assertEquals(1024, mp.getLossScale(), 0.0);
+
+        grad.putScalar(0, Double.POSITIVE_INFINITY);
+        assertFalse(mp.unscaleGradients(grad));
+        assertTrue(mp.isLastStepSkipped());
+        assertEquals(Nd4j.zeros(DataType.FLOAT, 1, 4), master);
+        assertEquals(512, mp.getLossScale(), 0.0);
+        assertEquals(1, mp.getOverflowCount());
+
+        //Loss scale grows back after growthInterval iterations without overflow
+        assertTrue(mp.unscaleGradients(Nd4j.ones(DataType.HALF, 1, 4)));
+        assertTrue(mp.unscaleGradients(Nd4j.ones(DataType.HALF, 1, 4)));
+        assertEquals(1024, mp.getLossScale(), 0.0);
+    }
+
+    @Test
+    public void testUnscaleInMasterPrecision() {
+        //Unscaled values are below the smallest HALF subnormal (~6e-8): unscaling in HALF would flush them to zero
+        double scale = Math.pow(2, 26);
+        MixedPrecision conf = MixedPrecision.builder().initialLossScale(scale).dynamicLossScaling(false).build();
+        MixedPrecisionHelper mp = new MixedPrecisionHelper(conf);
+
+        INDArray grad = Nd4j.createFromArray(new float[]{3.0f, -1.0f, 0.5f, 1000.0f}).reshape(1, 4).castTo(DataType.HALF);
+        assertTrue(mp.unscaleGradients(grad));
+
+        INDArray master = mp.getMasterGradients(grad);
+        INDArray exp = Nd4j.createFromArray(new float[]{3.0f, -1.0f, 0.5f, 1000.0f}).reshape(1, 4).divi(scale);
+        assertEquals(DataType.FLOAT, master.dataType());
+        for (int i = 0; i < 4; i++) {
+            double e = exp.getDouble(i);
+            assertEquals(e, master.getDouble(i), Math.abs(e) * 1e-6);
+        }
+        assertEquals(0.0, grad.div(scale).getDouble(2), 0.0);
+    }
+
+    @Test
+    public void testMixedPrecisionMultiLayerNetwork() {
+        for (DataType dt : new DataType[]{DataType.HALF, DataType.BFLOAT16}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .seed(12345)
+                    .mixedPrecision(dt)
+                    .updater(new Adam(1e-2))
+                    .list()
+                    .layer(new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.TANH).build())
+                    .layer(new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                    .build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            assertEquals(dt, net.params().dataType());
+            assertNotNull(net.getMixedPrecisionHelper());
+
+            INDArray labels = Nd4j.zeros(DataType.FLOAT, 10, 3);
+            for (int i = 0; i < 10; i++) {
+                labels.putScalar(i, i % 3, 1.0);
+            }
+            DataSet ds = new DataSet(Nd4j.rand(DataType.FLOAT, 10, 4), labels);
+            INDArray before = net.params().dup();
+            for (int i = 0; i < 5; i++) {
+                net.fit(ds);
+            }
+
+            assertEquals(dt, net.params().dataType());
+            assertNotEquals(before, net.params());
+            assertFalse(Double.isNaN(net.score()));
+
+            //Updater state is kept in master precision, and master params are in sync with network params
+            assertEquals(DataType.FLOAT, net.getUpdater().getStateViewArray().dataType());
+            INDArray master = net.getMixedPrecisionHelper().getMasterParams(net.params());
+            assertEquals(DataType.FLOAT, master.dataType());
+            assertEquals(net.params(), master.castTo(dt));
+        }
+    }
+
+    @Test
+    public void testMixedPrecisionComputationGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .mixedPrecision(DataType.HALF)
+                .updater(new Adam(1e-2))
+                .graphBuilder()
+                .addInputs("in")
+                .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.TANH).build(), "in")
+                .addLayer("out", new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "0")
+                .setOutputs("out")
+                .build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        assertNotNull(net.getMixedPrecisionHelper());
+
+        INDArray labels = Nd4j.zeros(DataType.FLOAT, 10, 3);
+        for (int i = 0; i < 10; i++) {
+            labels.putScalar(i, i % 3, 1.0);
+        }
+        DataSet ds = new DataSet(Nd4j.rand(DataType.FLOAT, 10, 4), labels);
+        INDArray before = net.params().dup();
+        for (int i = 0; i < 5; i++) {
+            net.fit(ds);
+        }
+
+        assertEquals(DataType.HALF, net.params().dataType());
+        assertNotEquals(before, net.params());
+        assertFalse(Double.isNaN(net.score()));
+        assertEquals(DataType.FLOAT, net.getUpdater().getStateViewArray().dataType());
+    }
+
+    @Test
+    public void testMixedPrecisionRequiresSgd() {
+        //Line search optimizers would step the (scaled) low precision gradients directly, bypassing the master params
+        for (OptimizationAlgorithm oa : new OptimizationAlgorithm[]{OptimizationAlgorithm.LBFGS,
+                OptimizationAlgorithm.CONJUGATE_GRADIENT, OptimizationAlgorithm.LINE_GRADIENT_DESCENT}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .mixedPrecision(DataType.HALF)
+                    .optimizationAlgo(oa)
+                    .list()
+                    .layer(new OutputLayer.Builder().nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                    .build();
+
+            try {
+                new MultiLayerNetwork(conf).init();
+                fail("Expected exception for " + oa);
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("STOCHASTIC_GRADIENT_DESCENT"));
+            }
+
+            ComputationGraphConfiguration cgConf = new NeuralNetConfiguration.Builder()
+                    .mixedPrecision(DataType.HALF)
+                    .optimizationAlgo(oa)
+                    .graphBuilder()
+                    .addInputs("in")
+                    .addLayer("out", new OutputLayer.Builder().nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "in")
+                    .setOutputs("out")
+                    .build();
+
+            try {
+                new ComputationGraph(cgConf).init();
+                fail("Expected exception for " + oa);
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("STOCHASTIC_GRADIENT_DESCENT"));
+            }
+        }
+    }
+}
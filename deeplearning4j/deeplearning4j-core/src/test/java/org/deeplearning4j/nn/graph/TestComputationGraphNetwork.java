@@ -44,6 +44,7 @@ import org.deeplearning4j.nn.conf.layers.*;
 import org.deeplearning4j.nn.conf.layers.misc.RepeatVector;
 import org.deeplearning4j.nn.conf.layers.recurrent.Bidirectional;
 import org.deeplearning4j.nn.conf.layers.variational.VariationalAutoencoder;
+import org.deeplearning4j.nn.conf.memory.MemoryUseMode;
 import org.deeplearning4j.nn.conf.preprocessor.*;
 import org.deeplearning4j.nn.conf.weightnoise.DropConnect;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
@@ -2178,4 +2179,137 @@ public class TestComputationGraphNetwork extends BaseDL4JTest {
         INDArray label = Nd4j.createFromArray(1, 0).reshape(1, 2);
         cg.fit(new DataSet(in, label));
     }
+
+    @Test
+    public void testActivationCheckpoints(){
+        ComputationGraphConfiguration.GraphBuilder gb = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .updater(new Sgd(0.1))
+                .activation(Activation.TANH)
+                .graphBuilder()
+                .addInputs("in")
+                .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(16).build(), "in")
+                .addLayer("1", new DenseLayer.Builder().nIn(16).nOut(16).build(), "0")
+                .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "0", "1")
+                .addLayer("2", new DenseLayer.Builder().nIn(16).nOut(16).build(), "add")
+                .addLayer("3", new DenseLayer.Builder().nIn(16).nOut(16).build(), "2")
+                .addLayer("out", new OutputLayer.Builder().nIn(16).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "3")
+                .setOutputs("out");
+
+        ComputationGraphConfiguration confStd = gb.build();
+        ComputationGraphConfiguration confRecompute = gb.activationCheckpoints("add", "3").build();
+        assertEquals(confRecompute, ComputationGraphConfiguration.fromJson(confRecompute.toJson()));
+
+        ComputationGraph netStd = new ComputationGraph(confStd);
+        netStd.init();
+        ComputationGraph netRecompute = new ComputationGraph(confRecompute);
+        netRecompute.init(netStd.params().dup(), false);
+
+        INDArray f = Nd4j.rand(DataType.FLOAT, 8, 4);
+        INDArray l = Nd4j.zeros(DataType.FLOAT, 8, 3);
+        for( int i=0; i<8; i++ ){
+            l.putScalar(i, i % 3, 1.0);
+        }
+        DataSet ds = new DataSet(f, l);
+
+        for( int i=0; i<3; i++ ) {
+            netStd.setInput(0, f);
+            netStd.setLabel(0, l);
+            netStd.computeGradientAndScore();
+            netRecompute.setInput(0, f);
+            netRecompute.setLabel(0, l);
+            netRecompute.computeGradientAndScore();
+
+            assertEquals(netStd.score(), netRecompute.score(), 1e-6);
+            assertEquals(netStd.getFlattenedGradients(), netRecompute.getFlattenedGradients());
+
+            netStd.fit(ds);
+            netRecompute.fit(ds);
+            assertEquals(netStd.params(), netRecompute.params());
+        }
+
+        //Activations for the recomputed vertices should not be counted in full for training
+        long memStd = confStd.getMemoryReport(InputType.feedForward(4))
+                .getTotalMemoryBytes(32, MemoryUseMode.TRAINING, CacheMode.NONE, DataType.FLOAT);
+        long memRecompute = confRecompute.getMemoryReport(InputType.feedForward(4))
+                .getTotalMemoryBytes(32, MemoryUseMode.TRAINING, CacheMode.NONE, DataType.FLOAT);
+        assertTrue(memRecompute < memStd);
+
+        //Recomputed activations may not be used outside of their segment, other than via the checkpoint
+        try {
+            new NeuralNetConfiguration.Builder()
+                    .graphBuilder()
+                    .addInputs("in")
+                    .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(4).build(), "in")
+                    .addLayer("1", new DenseLayer.Builder().nIn(4).nOut(4).build(), "0")
+                    .addLayer("out", new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "0", "1")
+                    .setOutputs("out")
+                    .activationCheckpoints("1")
+                    .build();
+            fail("Expected exception");
+        } catch (IllegalStateException e){
+            assertTrue(e.getMessage(), e.getMessage().contains("activation checkpoint"));
+        }
+    }
+
+    @Test
+    public void testActivationCheckpointsStochasticLayers(){
+        //Recomputed segments must reproduce the dropout masks of the original forward pass, and must not update
+        // the BatchNormalization running statistics twice
+        ComputationGraphConfiguration.GraphBuilder gb = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .updater(new Sgd(0.1))
+                .activation(Activation.TANH)
+                .graphBuilder()
+                .addInputs("in")
+                .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(16).dropOut(0.5).build(), "in")
+                .addLayer("bn", new BatchNormalization.Builder().nOut(16).build(), "0")
+                .addLayer("1", new DenseLayer.Builder().nIn(16).nOut(16).dropOut(0.5).build(), "bn")
+                .addLayer("2", new DenseLayer.Builder().nIn(16).nOut(16).build(), "1")
+                .addLayer("out", new OutputLayer.Builder().nIn(16).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "2")
+                .setOutputs("out");
+
+        ComputationGraphConfiguration confStd = gb.build();
+        ComputationGraphConfiguration confRecompute = gb.activationCheckpoints("2").build();
+
+        ComputationGraph netStd = new ComputationGraph(confStd);
+        netStd.init();
+        ComputationGraph netRecompute = new ComputationGraph(confRecompute);
+        netRecompute.init(netStd.params().dup(), false);
+
+        INDArray f = Nd4j.rand(DataType.FLOAT, 8, 4);
+        INDArray l = Nd4j.zeros(DataType.FLOAT, 8, 3);
+        for( int i=0; i<8; i++ ){
+            l.putScalar(i, i % 3, 1.0);
+        }
+        DataSet ds = new DataSet(f, l);
+
+        for( int i=0; i<3; i++ ) {
+            Nd4j.getRandom().setSeed(12345 + i);
+            netStd.setInput(0, f);
+            netStd.setLabel(0, l);
+            netStd.computeGradientAndScore();
+            long nextStd = Nd4j.getRandom().nextLong();
+
+            Nd4j.getRandom().setSeed(12345 + i);
+            netRecompute.setInput(0, f);
+            netRecompute.setLabel(0, l);
+            netRecompute.computeGradientAndScore();
+            long nextRecompute = Nd4j.getRandom().nextLong();
+
+            assertEquals(netStd.score(), netRecompute.score(), 1e-6);
+            assertEquals(netStd.getFlattenedGradients(), netRecompute.getFlattenedGradients());
+            assertEquals(nextStd, nextRecompute);
+
+            Nd4j.getRandom().setSeed(12345 + i);
+            netStd.fit(ds);
+            Nd4j.getRandom().setSeed(12345 + i);
+            netRecompute.fit(ds);
+            assertEquals(netStd.params(), netRecompute.params());
+            assertEquals(netStd.getLayer("bn").params(), netRecompute.getLayer("bn").params());
+        }
+    }
 }
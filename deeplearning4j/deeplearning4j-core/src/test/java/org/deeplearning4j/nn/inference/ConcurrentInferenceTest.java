@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.quantization.Int8Quantizer;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+import static org.nd4j.linalg.indexing.NDArrayIndex.*;
+
+public class ConcurrentInferenceTest extends BaseDL4JTest {
+
+    @Test
+    public void testConcurrentOutputComputationGraph() throws Exception {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.FLOAT)
+                .graphBuilder()
+                .addInputs("in")
+                .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.TANH).build(), "in")
+                .addLayer("out", new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX).build(), "0")
+                .setOutputs("out")
+                .build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        final ConcurrentInference ci = new ConcurrentInference(net);
+
+        int nThreads = 4;
+        final int nIter = 20;
+        final List<INDArray> inputs = new ArrayList<>();
+        final List<INDArray> expected = new ArrayList<>();
+        for (int i = 0; i < nThreads; i++) {
+            INDArray in = Nd4j.rand(DataType.FLOAT, 5, 4);
+            inputs.add(in);
+            expected.add(net.outputSingle(in));
+        }
+
+        final List<Throwable> errors = new CopyOnWriteArrayList<>();
+        Thread[] threads = new Thread[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            final int idx = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < nIter; i++) {
+                            INDArray out = ci.output(inputs.get(idx))[0];
+                            assertEquals(expected.get(idx), out);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertTrue(ci.getNumContexts() >= 1 && ci.getNumContexts() <= nThreads);
+    }
+
+    @Test
+    public void testSharedParameters() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.FLOAT)
+                .list()
+                .layer(new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.TANH).build())
+                .layer(new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX).build())
+                .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        ConcurrentInference ci = new ConcurrentInference(net);
+        INDArray in = Nd4j.rand(DataType.FLOAT, 5, 4);
+        assertEquals(net.output(in), ci.output(in)[0]);
+
+        //Parameters are views of the source network parameters, not copies
+        net.params().muli(0.5);
+        assertEquals(net.output(in), ci.output(in)[0]);
+        assertEquals(1, ci.getNumContexts());
+    }
+
+    @Test
+    public void testReplicateSharesQuantizedWeights() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.FLOAT)
+                .list()
+                .layer(new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.TANH).build())
+                .layer(new OutputLayer.Builder().nIn(8).nOut(3).activation(Activation.SOFTMAX).build())
+                .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        Int8Quantizer.quantizeLayer(net.getLayer(0), 1.0);
+
+        MultiLayerNetwork copy = (MultiLayerNetwork) ConcurrentInference.replicate(net, net.params());
+        assertNotSame(net.getLayer(0), copy.getLayer(0));
+        assertSame(net.params(), copy.params());
+        assertSame(((org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) net.getLayer(0)).getQuantizedWeights(),
+                ((org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) copy.getLayer(0)).getQuantizedWeights());
+
+        INDArray in = Nd4j.rand(DataType.FLOAT, 5, 4);
+        assertEquals(net.output(in), copy.output(in));
+    }
+
+    @Test
+    public void testRnnTimeStepPerContext() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.FLOAT)
+                .list()
+                .layer(new LSTM.Builder().nIn(3).nOut(6).activation(Activation.TANH).build())
+                .layer(new RnnOutputLayer.Builder().nIn(6).nOut(2).activation(Activation.SOFTMAX).build())
+                .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        ConcurrentInference ci = new ConcurrentInference(net);
+        InferenceContext c1 = ci.createContext();
+        InferenceContext c2 = ci.createContext();
+
+        INDArray in1 = Nd4j.rand(DataType.FLOAT, 2, 3, 4);
+        INDArray in2 = Nd4j.rand(DataType.FLOAT, 2, 3, 4);
+        INDArray exp1 = net.output(in1);
+        INDArray exp2 = net.output(in2);
+
+        //Interleaved streams: state of each context is independent
+        for (int t = 0; t < 4; t++) {
+            INDArray out1 = c1.rnnTimeStep(in1.get(all(), all(), point(t)))[0];
+            INDArray out2 = c2.rnnTimeStep(in2.get(all(), all(), point(t)))[0];
+            assertTrue(exp1.get(all(), all(), point(t)).equalsWithEps(out1, 1e-5));
+            assertTrue(exp2.get(all(), all(), point(t)).equalsWithEps(out2, 1e-5));
+        }
+
+        //Source network state is untouched
+        assertTrue(net.rnnGetPreviousState(0).isEmpty());
+
+        c1.rnnClearPreviousState();
+        INDArray out = c1.rnnTimeStep(in1.get(all(), all(), point(0)))[0];
+        assertTrue(exp1.get(all(), all(), point(0)).equalsWithEps(out, 1e-5));
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.ScaleVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.conf.weightnoise.DropConnect;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.*;
+
+public class InferenceOptimizerTest extends BaseDL4JTest {
+
+    @Test
+    public void testBatchNormFoldingAndFusion() {
+        for (boolean hasBias : new boolean[]{true, false}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .seed(12345)
+                    .dataType(DataType.DOUBLE)
+                    .updater(new Adam(0.01))
+                    .list()
+                    .layer(new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(4).hasBias(hasBias).activation(Activation.IDENTITY).build())
+                    .layer(new BatchNormalization.Builder().build())
+                    .layer(new ActivationLayer.Builder().activation(Activation.RELU).build())
+                    .layer(new DropoutLayer.Builder(0.5).build())
+                    .layer(new DenseLayer.Builder().nOut(10).activation(Activation.IDENTITY).dropOut(0.5).build())
+                    .layer(new BatchNormalization.Builder().useLogStd(false).build())
+                    .layer(new ActivationLayer.Builder().activation(Activation.TANH).build())
+                    .layer(new OutputLayer.Builder().nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                    .setInputType(InputType.convolutional(8, 8, 2))
+                    .build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            //Train for a few iterations so that BN mean/variance are not default values
+            INDArray f = Nd4j.rand(DataType.DOUBLE, 10, 2, 8, 8);
+            INDArray l = Nd4j.zeros(DataType.DOUBLE, 10, 3);
+            for (int i = 0; i < 10; i++) {
+                l.putScalar(i, i % 3, 1.0);
+            }
+            for (int i = 0; i < 5; i++) {
+                net.fit(f, l);
+            }
+
+            ComputationGraph opt = InferenceOptimizer.optimize(net, f);
+
+            //Conv, dense and output layers only
+            assertEquals(3, opt.getLayers().length);
+            assertTrue(((BaseLayer) opt.getLayer(0).conf().getLayer()).getActivationFn() instanceof ActivationReLU);
+            assertTrue(((BaseLayer) opt.getLayer(1).conf().getLayer()).getActivationFn() instanceof ActivationTanH);
+            assertNull(opt.getLayer(1).conf().getLayer().getIDropout());
+
+            INDArray exp = net.output(f);
+            INDArray act = opt.outputSingle(f);
+            assertTrue(exp.equalsWithEps(act, 1e-6));
+        }
+    }
+
+    @Test
+    public void testBatchNormNotFoldedIntoLayerNormOrWeightNoise() {
+        for (boolean layerNorm : new boolean[]{true, false}) {
+            DenseLayer.Builder dense = new DenseLayer.Builder().nOut(6).activation(Activation.IDENTITY);
+            if (layerNorm) {
+                dense.hasLayerNorm(true);
+            } else {
+                dense.weightNoise(new DropConnect(0.5));
+            }
+
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .seed(12345)
+                    .dataType(DataType.DOUBLE)
+                    .updater(new Adam(0.01))
+                    .list()
+                    .layer(dense.build())
+                    .layer(new BatchNormalization.Builder().build())
+                    .layer(new ActivationLayer.Builder().activation(Activation.TANH).build())
+                    .layer(new OutputLayer.Builder().nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                    .setInputType(InputType.feedForward(4))
+                    .build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            INDArray f = Nd4j.rand(DataType.DOUBLE, 10, 4);
+            INDArray l = Nd4j.zeros(DataType.DOUBLE, 10, 3);
+            for (int i = 0; i < 10; i++) {
+                l.putScalar(i, i % 3, 1.0);
+            }
+            for (int i = 0; i < 5; i++) {
+                net.fit(f, l);
+            }
+
+            ComputationGraph opt = InferenceOptimizer.optimize(net, f);
+
+            //BatchNormalization (and the ActivationLayer after it) are kept
+            assertEquals(4, opt.getLayers().length);
+            assertTrue(opt.getLayer(1).conf().getLayer() instanceof BatchNormalization);
+
+            INDArray exp = net.output(f);
+            INDArray act = opt.outputSingle(f);
+            assertTrue(exp.equalsWithEps(act, 1e-6));
+        }
+    }
+
+    @Test
+    public void testVertexMerging() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.DOUBLE)
+                .graphBuilder()
+                .addInputs("in")
+                .addLayer("d1", new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build(), "in")
+                .addLayer("d2", new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build(), "in")
+                .addLayer("d3", new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build(), "in")
+                .addVertex("add1", new ElementWiseVertex(ElementWiseVertex.Op.Add), "d1", "d2")
+                .addVertex("add2", new ElementWiseVertex(ElementWiseVertex.Op.Add), "add1", "d3")
+                .addVertex("s1", new ScaleVertex(2.0), "add2")
+                .addVertex("s2", new ScaleVertex(0.25), "s1")
+                .addVertex("s3", new ScaleVertex(2.0), "s2")
+                .addLayer("out", new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX).build(), "s3")
+                .setOutputs("out")
+                .build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        INDArray in = Nd4j.rand(DataType.DOUBLE, 3, 4);
+        ComputationGraph opt = InferenceOptimizer.optimize(net, in);
+
+        ComputationGraphConfiguration c = opt.getConfiguration();
+        //Scale vertices: 2.0 * 0.25 * 2.0 = 1.0 -> removed entirely. Add vertices merged
+        assertFalse(c.getVertices().containsKey("s1") || c.getVertices().containsKey("s2") || c.getVertices().containsKey("s3"));
+        assertFalse(c.getVertices().containsKey("add1"));
+        assertEquals(3, c.getVertexInputs().get("add2").size());
+        assertEquals("add2", c.getVertexInputs().get("out").get(0));
+
+        assertEquals(0.0, InferenceOptimizer.maxDifference(net, opt, in), 1e-10);
+        //Original network is unchanged
+        assertTrue(net.getConfiguration().getVertices().containsKey("s1"));
+    }
+}
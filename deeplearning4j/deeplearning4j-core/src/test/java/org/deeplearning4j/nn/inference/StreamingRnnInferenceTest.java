@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StreamingRnnInferenceTest extends BaseDL4JTest {
+
+    private static MultiLayerNetwork getNet() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.DOUBLE)
+                .list()
+                .layer(new LSTM.Builder().nIn(3).nOut(5).activation(Activation.TANH).build())
+                .layer(new LSTM.Builder().nIn(5).nOut(4).activation(Activation.TANH).build())
+                .layer(new RnnOutputLayer.Builder().nIn(4).nOut(2).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testBatchedSessionsMatchSeparate() {
+        MultiLayerNetwork net = getNet();
+        String[] ids = {"a", "b", "c"};
+
+        //Reference: one network per session
+        Map<String, MultiLayerNetwork> ref = new HashMap<>();
+        for (String id : ids) {
+            ref.put(id, net.clone());
+        }
+
+        try (StreamingRnnInference sri = new StreamingRnnInference.Builder(net).build()) {
+            for (int step = 0; step < 5; step++) {
+                //Sessions join at different steps; multi-step inputs on some steps
+                Map<String, INDArray> in = new LinkedHashMap<>();
+                for (int i = 0; i < ids.length; i++) {
+                    if (step >= i) {
+                        in.put(ids[i], step % 2 == 0 ? Nd4j.rand(DataType.DOUBLE, 1, 3) : Nd4j.rand(DataType.DOUBLE, 1, 3, 2));
+                    }
+                }
+
+                Map<String, INDArray> out = sri.timeStep(in);
+                assertEquals(in.keySet(), out.keySet());
+                for (String id : in.keySet()) {
+                    INDArray exp = ref.get(id).rnnTimeStep(in.get(id));
+                    assertArrayEquals(exp.shape(), out.get(id).shape());
+                    assertTrue("step=" + step + ", session=" + id, exp.equalsWithEps(out.get(id), 1e-8));
+                }
+            }
+            assertEquals(3, sri.numSessions());
+
+            //Single session API: batched by the worker thread
+            List<CompletableFuture<INDArray>> futures = new ArrayList<>();
+            List<INDArray> expected = new ArrayList<>();
+            for (int step = 0; step < 3; step++) {
+                for (String id : ids) {
+                    INDArray in = Nd4j.rand(DataType.DOUBLE, 1, 3);
+                    expected.add(ref.get(id).rnnTimeStep(in));
+                    futures.add(sri.submit(id, in));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertTrue(expected.get(i).equalsWithEps(futures.get(i).join(), 1e-8));
+            }
+
+            //Ending a session resets its state
+            assertTrue(sri.endSession("a"));
+            assertFalse(sri.hasSession("a"));
+            INDArray in = Nd4j.rand(DataType.DOUBLE, 1, 3);
+            ref.get("a").rnnClearPreviousState();
+            assertTrue(ref.get("a").rnnTimeStep(in).equalsWithEps(sri.timeStep("a", in), 1e-8));
+        }
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        MultiLayerNetwork net = getNet();
+        try (StreamingRnnInference sri = new StreamingRnnInference.Builder(net)
+                .maxSessions(2)
+                .sessionTimeout(50, TimeUnit.MILLISECONDS)
+                .build()) {
+
+            INDArray in = Nd4j.rand(DataType.DOUBLE, 1, 3);
+            sri.timeStep(Collections.singletonMap("a", in));
+            sri.timeStep(Collections.singletonMap("b", in));
+            sri.timeStep(Collections.singletonMap("a", in));
+            assertEquals(2, sri.numSessions());
+
+            //Least recently used session is evicted
+            sri.timeStep(Collections.singletonMap("c", in));
+            assertEquals(2, sri.numSessions());
+            assertTrue(sri.hasSession("a"));
+            assertFalse(sri.hasSession("b"));
+            assertTrue(sri.hasSession("c"));
+
+            //Evicted session restarts from the zero state
+            MultiLayerNetwork ref = net.clone();
+            INDArray exp = ref.rnnTimeStep(in);
+            assertTrue(exp.equalsWithEps(sri.timeStep(Collections.singletonMap("b", in)).get("b"), 1e-8));
+
+            //Idle sessions
+            Thread.sleep(100);
+            assertEquals(2, sri.evictIdleSessions());
+            assertEquals(0, sri.numSessions());
+        }
+    }
+}
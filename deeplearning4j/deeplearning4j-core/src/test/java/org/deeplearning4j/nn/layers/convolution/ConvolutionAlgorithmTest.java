@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer.CpuFwdAlgo;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.deeplearning4j.util.ConvolutionUtils;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.*;
+
+public class ConvolutionAlgorithmTest extends BaseDL4JTest {
+
+    private static MultiLayerNetwork getNet(int k, int s, int pad, ConvolutionMode cm, boolean hasBias, CpuFwdAlgo algo) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.DOUBLE)
+                .convolutionMode(cm)
+                .list()
+                .layer(new org.deeplearning4j.nn.conf.layers.ConvolutionLayer.Builder()
+                        .kernelSize(k, k).stride(s, s).padding(pad, pad).nOut(5).hasBias(hasBias)
+                        .activation(Activation.IDENTITY).cpuFwdAlgo(algo).build())
+                .setInputType(InputType.convolutional(7, 9, 3))
+                .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        if (hasBias) {
+            net.getLayer(0).getParam(ConvolutionParamInitializer.BIAS_KEY).assign(Nd4j.rand(DataType.DOUBLE, 1, 5));
+        }
+        return net;
+    }
+
+    @Test
+    public void testAlgorithmsMatchIm2Col() {
+        int[][] configs = {
+                //kernel, stride, padding
+                {1, 1, 0},
+                {1, 2, 0},
+                {3, 1, 0},
+                {3, 1, 1},
+                {3, 2, 1}};
+
+        INDArray in = Nd4j.rand(DataType.DOUBLE, 2, 3, 7, 9);
+        for (int[] c : configs) {
+            for (ConvolutionMode cm : new ConvolutionMode[]{ConvolutionMode.Truncate, ConvolutionMode.Same}) {
+                for (boolean hasBias : new boolean[]{true, false}) {
+                    MultiLayerNetwork netIm2Col = getNet(c[0], c[1], c[2], cm, hasBias, CpuFwdAlgo.IM2COL);
+                    INDArray exp = netIm2Col.output(in);
+
+                    for (CpuFwdAlgo algo : new CpuFwdAlgo[]{CpuFwdAlgo.DIRECT, CpuFwdAlgo.WINOGRAD, CpuFwdAlgo.AUTO}) {
+                        String msg = "kernel=" + c[0] + ", stride=" + c[1] + ", padding=" + c[2] + ", " + cm + ", hasBias=" + hasBias + ", " + algo;
+                        MultiLayerNetwork net = getNet(c[0], c[1], c[2], cm, hasBias, algo);
+                        net.params().assign(netIm2Col.params());
+
+                        //Twice for AUTO: first call benchmarks, second uses the cached selection
+                        assertTrue(msg, exp.equalsWithEps(net.output(in), 1e-8));
+                        assertTrue(msg, exp.equalsWithEps(net.output(in), 1e-8));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAlgorithmsDirect() {
+        //Test the algorithms directly, in case a helper (MKL-DNN) is used by the layer instead
+        ConvolutionAlgorithm[] algorithms = {new Direct1x1ConvolutionAlgorithm(), new WinogradConvolutionAlgorithm()};
+        int[] kernels = {1, 3};
+        //Minibatch size 1: input is used without a copy by the 1x1 algorithm
+        for (int miniBatch : new int[]{1, 2}) {
+            INDArray in = Nd4j.rand(DataType.DOUBLE, miniBatch, 3, 7, 9);
+            for (int i = 0; i < algorithms.length; i++) {
+                int k = kernels[i];
+                int pad = (k == 3 ? 1 : 0);
+                MultiLayerNetwork net = getNet(k, 1, pad, ConvolutionMode.Truncate, true, CpuFwdAlgo.IM2COL);
+                INDArray exp = net.output(in);
+
+                int[] kernel = {k, k};
+                int[] strides = {1, 1};
+                int[] padding = {pad, pad};
+                int[] dilation = {1, 1};
+                assertTrue(algorithms[i].isSupported(kernel, strides, padding, dilation));
+                assertFalse(algorithms[i].isSupported(kernel, strides, padding, new int[]{2, 2}));
+
+                int[] outSize = ConvolutionUtils.getOutputSize(in, kernel, strides, padding, ConvolutionMode.Truncate, dilation);
+                INDArray act = algorithms[i].preOutput(in, net.getParam("0_" + ConvolutionParamInitializer.WEIGHT_KEY),
+                        net.getParam("0_" + ConvolutionParamInitializer.BIAS_KEY), strides, padding, outSize[0], outSize[1],
+                        LayerWorkspaceMgr.noWorkspaces());
+                assertArrayEquals(exp.shape(), act.shape());
+                assertTrue(exp.equalsWithEps(act, 1e-8));
+            }
+        }
+    }
+}
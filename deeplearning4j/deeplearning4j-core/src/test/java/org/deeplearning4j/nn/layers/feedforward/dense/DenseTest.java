@@ -24,18 +24,24 @@ import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.primitives.Pair;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Created by nyghtowl on 8/31/15.
@@ -60,6 +66,75 @@ public class DenseTest extends BaseDL4JTest {
         assertEquals(1, layer.getParam("b").size(0));
     }
 
+    @Test
+    public void testSparseInput() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).dataType(DataType.DOUBLE)
+                .list()
+                .layer(new DenseLayer.Builder().nIn(10).nOut(4).activation(Activation.TANH).build())
+                .layer(new OutputLayer.Builder().nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        INDArray in = Nd4j.create(DataType.DOUBLE, 5, 10);
+        in.putScalar(0, 3, 1.0);
+        in.putScalar(1, 0, 2.0);
+        in.putScalar(1, 9, 1.0);
+        in.putScalar(4, 5, 3.0);
+        INDArray eps = Nd4j.rand(DataType.DOUBLE, 5, 4);
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces();
+
+        org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer l =
+                (org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) net.getLayer(0);
+        l.setInput(in, mgr);
+        INDArray outDense = l.activate(true, mgr);
+        Gradient gDense = l.backpropGradient(eps, mgr).getFirst();
+        INDArray wGradDense = gDense.getGradientFor("W").dup();
+        INDArray bGradDense = gDense.getGradientFor("b").dup();
+
+        l.setSparseInput(CSRMatrix.fromDense(in));
+        assertEquals(outDense, l.activate(true, mgr));
+        Pair<Gradient, INDArray> pSparse = l.backpropGradient(eps, mgr);
+        assertEquals(wGradDense, pSparse.getFirst().getGradientFor("W"));
+        assertEquals(bGradDense, pSparse.getFirst().getGradientFor("b"));
+        assertNull(pSparse.getSecond());
+    }
+
+    @Test
+    public void testSparseInputNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).dataType(DataType.DOUBLE)
+                .updater(new Sgd(0.1))
+                .list()
+                .layer(new DenseLayer.Builder().nIn(10).nOut(4).activation(Activation.TANH).build())
+                .layer(new OutputLayer.Builder().nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .build();
+        MultiLayerNetwork netDense = new MultiLayerNetwork(conf);
+        netDense.init();
+        MultiLayerNetwork netSparse = new MultiLayerNetwork(conf.clone());
+        netSparse.init(netDense.params().dup(), false);
+
+        INDArray in = Nd4j.create(DataType.DOUBLE, 5, 10);
+        in.putScalar(0, 3, 1.0);
+        in.putScalar(1, 0, 2.0);
+        in.putScalar(1, 9, 1.0);
+        in.putScalar(4, 5, 3.0);
+        INDArray labels = Nd4j.create(DataType.DOUBLE, 5, 3);
+        for (int i = 0; i < 5; i++) {
+            labels.putScalar(i, i % 3, 1.0);
+        }
+        CSRMatrix sparse = CSRMatrix.fromDense(in);
+
+        assertEquals(netDense.output(in, false), netSparse.output(sparse, false));
+        for (int i = 0; i < 3; i++) {
+            netDense.fit(in, labels);
+            netSparse.fit(sparse, labels);
+            assertEquals(netDense.params(), netSparse.params());
+        }
+        assertEquals(netDense.output(in, false), netSparse.output(sparse, false));
+    }
+
     @Test
     public void testMLPMultiLayerPretrain() {
         // Note CNN does not do pretrain
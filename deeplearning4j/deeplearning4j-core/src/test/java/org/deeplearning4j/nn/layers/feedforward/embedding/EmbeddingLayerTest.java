@@ -39,6 +39,7 @@ import org.nd4j.linalg.activations.impl.ActivationIdentity;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
@@ -49,6 +50,7 @@ import java.util.Random;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class EmbeddingLayerTest extends BaseDL4JTest {
 
@@ -725,4 +727,69 @@ public class EmbeddingLayerTest extends BaseDL4JTest {
         assertEquals(new ActivationIdentity(), l2.getActivationFn());
 
     }
+    @Test
+    public void testEmbeddingSparseGradients() {
+        int nClassesIn = 10;
+        int embeddingDim = 5;
+        int nOut = 4;
+
+        //Minibatches only use a subset of the rows: rows 8 and 9 are never used
+        INDArray in1 = Nd4j.createFromArray(new float[]{0, 3, 3, 5}).reshape(4, 1);
+        INDArray in2 = Nd4j.createFromArray(new float[]{1, 2, 5, 7}).reshape(4, 1);
+        INDArray labels = Nd4j.create(4, nOut);
+        for (int i = 0; i < 4; i++) {
+            labels.putScalar(i, i % nOut, 1.0);
+        }
+
+        for (boolean adam : new boolean[]{false, true}) {
+            MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+            for (int i = 0; i < 2; i++) {
+                MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                        .updater(adam ? new Adam(0.1) : new Sgd(0.1)).seed(12345).list()
+                        .layer(0, new EmbeddingLayer.Builder().sparseGradients(i == 1).hasBias(true)
+                                .nIn(nClassesIn).nOut(embeddingDim).build())
+                        .layer(1, new DenseLayer.Builder().nIn(embeddingDim).nOut(embeddingDim).build())
+                        .layer(2, new OutputLayer.Builder().nIn(embeddingDim).nOut(nOut)
+                                .activation(Activation.SOFTMAX).build())
+                        .build();
+
+                nets[i] = new MultiLayerNetwork(conf);
+                nets[i].init();
+            }
+            MultiLayerNetwork dense = nets[0];
+            MultiLayerNetwork sparse = nets[1];
+            assertEquals(dense.params(), sparse.params());
+
+            INDArray initialWeights = sparse.getParam("0_W").dup();
+
+            //First iteration: no updater history, hence sparse and dense updates are identical
+            dense.fit(in1, labels);
+            sparse.fit(in1, labels);
+            assertEquals(dense.params(), sparse.params());
+            INDArray weightsIter1 = sparse.getParam("0_W").dup();
+
+            dense.fit(in2, labels);
+            sparse.fit(in2, labels);
+            INDArray weightsAfter = sparse.getParam("0_W");
+            if (adam) {
+                //Lazy updates: rows 0 and 3 aren't in the second minibatch, hence aren't updated by it
+                for (int row : new int[]{0, 3}) {
+                    assertEquals(weightsIter1.getRow(row), weightsAfter.getRow(row));
+                    assertNotEquals(weightsIter1.getRow(row), dense.getParam("0_W").getRow(row));
+                }
+                for (int row : new int[]{1, 2, 5, 7}) {
+                    assertEquals(dense.getParam("0_W").getRow(row), weightsAfter.getRow(row));
+                }
+                assertEquals(dense.getParam("1_W"), sparse.getParam("1_W"));
+                assertEquals(dense.getParam("2_W"), sparse.getParam("2_W"));
+            } else {
+                assertEquals(dense.params(), sparse.params());
+            }
+
+            //Rows never present in the input are never modified
+            for (int row : new int[]{8, 9}) {
+                assertEquals(initialWeights.getRow(row), weightsAfter.getRow(row));
+            }
+        }
+    }
 }
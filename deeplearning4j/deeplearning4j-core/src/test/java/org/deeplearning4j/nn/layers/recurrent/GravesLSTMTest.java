@@ -273,4 +273,40 @@ public class GravesLSTMTest extends BaseDL4JTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testFullSequenceMatchesTimeStep() {
+        //Input projection is computed for all time steps at once for full sequences, but per step in rnnTimeStep
+        //Both should provide identical activations
+        Nd4j.getRandom().setSeed(12345);
+
+        int nIn = 5;
+        int layerSize = 7;
+        int miniBatchSize = 3;
+        int timeSeriesLength = 6;
+
+        for (boolean graves : new boolean[] {true, false}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                            .seed(12345).list()
+                            .layer(0, graves
+                                            ? new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder().nIn(nIn)
+                                                            .nOut(layerSize).activation(Activation.TANH).build()
+                                            : new org.deeplearning4j.nn.conf.layers.LSTM.Builder().nIn(nIn)
+                                                            .nOut(layerSize).activation(Activation.TANH).build())
+                            .build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            INDArray input = Nd4j.rand(new int[] {miniBatchSize, nIn, timeSeriesLength});
+            INDArray fullOut = net.output(input);
+
+            for (int i = 0; i < timeSeriesLength; i++) {
+                INDArray step = input.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.point(i));
+                INDArray stepOut = net.rnnTimeStep(step);
+                INDArray expected = fullOut.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.point(i));
+                assertEquals(expected, stepOut);
+            }
+        }
+    }
 }
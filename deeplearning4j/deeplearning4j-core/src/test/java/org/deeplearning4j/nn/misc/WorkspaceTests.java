@@ -33,7 +33,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.WorkspaceStatistics;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
 import org.nd4j.linalg.api.memory.enums.LearningPolicy;
@@ -49,6 +51,8 @@ import org.nd4j.linalg.primitives.Pair;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 @Slf4j
@@ -688,4 +692,46 @@ public class WorkspaceTests extends BaseDL4JTest {
             }
         }
     }
+
+    @Test
+    public void testWorkspaceStatisticsAdaptive() {
+        WorkspaceConfiguration conf = WorkspaceConfiguration.builder()
+                .initialSize(0)
+                .policyAllocation(AllocationPolicy.STRICT)
+                .policySpill(SpillPolicy.EXTERNAL)
+                .policyLearning(LearningPolicy.FIRST_LOOP)
+                .policyReset(ResetPolicy.BLOCK_LEFT)
+                .build();
+
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.builder()
+                .with(ArrayType.ACTIVATIONS, "WS_ACT_STATS", conf)
+                .with(ArrayType.FF_WORKING_MEM, "WS_WORKING_STATS", conf)
+                .defaultNoWorkspace()
+                .adaptiveSizing()
+                .build();
+
+        assertEquals(LearningPolicy.ADAPTIVE, mgr.getConfiguration(ArrayType.ACTIVATIONS).getPolicyLearning());
+        assertEquals(LearningPolicy.FIRST_LOOP, conf.getPolicyLearning());
+        assertTrue(mgr.getWorkspaceStatistics().isEmpty());
+
+        try {
+            for (long length : new long[]{100, 200, 200}) {
+                try (MemoryWorkspace ws = mgr.notifyScopeEntered(ArrayType.ACTIVATIONS)) {
+                    mgr.create(ArrayType.ACTIVATIONS, DataType.FLOAT, length);
+                }
+            }
+
+            Map<ArrayType, WorkspaceStatistics> stats = mgr.getWorkspaceStatistics();
+            assertEquals(1, stats.size());
+
+            WorkspaceStatistics s = stats.get(ArrayType.ACTIVATIONS);
+            assertEquals(3, s.getCycles());
+            assertEquals(800, s.getCurrentSize());
+            assertEquals(1, s.getReallocations());
+            assertEquals(2, s.getSpilledCycles());
+            assertNull(mgr.getWorkspaceStatistics(ArrayType.INPUT));
+        } finally {
+            Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.quantization;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.layers.recurrent.LSTM;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.nd4j.linalg.indexing.NDArrayIndex.*;
+
+public class Int8QuantizerTest extends BaseDL4JTest {
+
+    @Test
+    public void testQuantizedWeightsMmul() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray w = Nd4j.rand(DataType.FLOAT, 20, 8).subi(0.5);
+        INDArray in = Nd4j.rand(DataType.FLOAT, 5, 20);
+
+        QuantizedWeights qw = QuantizedWeights.quantize(w, 1.0);
+        assertEquals(DataType.BYTE, qw.getWeights().dataType());
+        assertEquals(20, qw.nIn());
+        assertEquals(8, qw.nOut());
+
+        INDArray exp = in.mmul(w);
+        INDArray act = qw.mmul(in);
+        assertArrayEquals(exp.shape(), act.shape());
+        assertEquals(DataType.FLOAT, act.dataType());
+        assertTrue(maxAbsDiff(exp, act) < 0.05);
+
+        //Dynamic input scale
+        QuantizedWeights qwDynamic = QuantizedWeights.quantize(w, 0.0);
+        assertTrue(maxAbsDiff(exp, qwDynamic.mmul(in)) < 0.05);
+
+        //Buffers are reused for smaller minibatches, and reallocated for larger ones
+        INDArray in2 = in.get(interval(0, 3), all()).dup('f');
+        assertTrue(maxAbsDiff(in2.mmul(w), qw.mmul(in2)) < 0.05);
+        INDArray in3 = Nd4j.rand(DataType.FLOAT, 9, 20);
+        assertTrue(maxAbsDiff(in3.mmul(w), qw.mmul(in3)) < 0.05);
+        assertTrue(maxAbsDiff(exp, qw.mmul(in)) < 0.05);
+    }
+
+    @Test
+    public void testQuantizeCnnNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.FLOAT)
+                .list()
+                .layer(new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(6).activation(Activation.RELU).build())
+                .layer(new DenseLayer.Builder().nOut(16).activation(Activation.TANH).build())
+                .layer(new OutputLayer.Builder().nOut(4).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .setInputType(InputType.convolutional(8, 8, 2))
+                .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        DataSetIterator iter = iterator(new long[]{10, 2, 8, 8}, 4);
+
+        Map<String, Double> ranges = Int8Quantizer.calibrate(net, iter);
+        assertEquals(2, ranges.size());
+        assertTrue(ranges.containsKey("0"));
+        assertTrue(ranges.containsKey("1"));
+
+        MultiLayerNetwork q = Int8Quantizer.quantize(net, ranges);
+        assertNotSame(net, q);
+        assertNotNull(((org.deeplearning4j.nn.layers.convolution.ConvolutionLayer) q.getLayer(0)).getQuantizedWeights());
+        assertNotNull(((org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) q.getLayer(1)).getQuantizedWeights());
+        assertNull(((org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) net.getLayer(1)).getQuantizedWeights());
+
+        iter.reset();
+        INDArray f = iter.next().getFeatures();
+        INDArray exp = net.output(f);
+        INDArray act = q.output(f);
+        assertTrue(maxAbsDiff(exp, act) < 0.05);
+
+        iter.reset();
+        Int8Quantizer.Comparison c = Int8Quantizer.compare(net, q, iter);
+        assertTrue(c.getQuantizedWeightBytes() < c.getFloatWeightBytes());
+        assertEquals(net.params().length() * 4, c.getOriginalBytes());
+        assertEquals(0, c.getSharedBytes());
+        assertEquals(c.getOriginalBytes() + c.getQuantizedWeightBytes(), c.getQuantizedBytes());
+        assertTrue(Math.abs(c.getAccuracyDelta()) <= 0.5);
+
+        //The quantized copy is independent of the original network: changing (or training) the original network
+        // doesn't affect it
+        assertNotSame(net.params().data(), q.params().data());
+        INDArray qParams = q.params().dup();
+        net.params().assign(0.0);
+        assertEquals(qParams, q.params());
+        assertEquals(act, q.output(f));
+    }
+
+    @Test
+    public void testQuantizeLstm() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.FLOAT)
+                .list()
+                .layer(new org.deeplearning4j.nn.conf.layers.LSTM.Builder().nIn(3).nOut(8).activation(Activation.TANH).build())
+                .layer(new RnnOutputLayer.Builder().nIn(8).nOut(4).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        DataSetIterator iter = iterator(new long[]{10, 3, 6}, 4);
+        MultiLayerNetwork q = Int8Quantizer.quantize(net, iter);
+
+        LSTM l = (LSTM) q.getLayer(0);
+        assertNotNull(l.getQuantizedInputWeights());
+        assertNotNull(l.getQuantizedRecurrentWeights());
+        assertEquals(8, l.getQuantizedRecurrentWeights().nIn());
+        assertEquals(32, l.getQuantizedRecurrentWeights().nOut());
+
+        iter.reset();
+        INDArray f = iter.next().getFeatures();
+        INDArray exp = net.output(f);
+        INDArray act = q.output(f);
+        assertTrue(maxAbsDiff(exp, act) < 0.05);
+
+        //rnnTimeStep also uses quantized weights
+        INDArray step = q.rnnTimeStep(f.get(all(), all(), point(0)));
+        assertTrue(maxAbsDiff(exp.get(all(), all(), point(0)), step) < 0.05);
+    }
+
+    private static DataSetIterator iterator(long[] featuresShape, int nClasses) {
+        Nd4j.getRandom().setSeed(12345);
+        List<DataSet> list = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            INDArray f = Nd4j.rand(DataType.FLOAT, featuresShape);
+            long[] lShape = featuresShape.length == 3 ? new long[]{featuresShape[0], nClasses, featuresShape[2]} : new long[]{featuresShape[0], nClasses};
+            INDArray l = Nd4j.zeros(DataType.FLOAT, lShape);
+            for (int j = 0; j < featuresShape[0]; j++) {
+                if (lShape.length == 3) {
+                    l.get(point(j), point(j % nClasses), all()).assign(1.0);
+                } else {
+                    l.putScalar(j, j % nClasses, 1.0);
+                }
+            }
+            list.add(new DataSet(f, l));
+        }
+        return new ListDataSetIterator<>(list, (int) featuresShape[0]);
+    }
+
+    private static double maxAbsDiff(INDArray a, INDArray b) {
+        return a.sub(b).amaxNumber().doubleValue();
+    }
+}
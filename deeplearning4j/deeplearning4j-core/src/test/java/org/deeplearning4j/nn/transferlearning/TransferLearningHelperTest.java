@@ -18,6 +18,7 @@ package org.deeplearning4j.nn.transferlearning;
 
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -27,18 +28,23 @@ import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Created by susaneraly on 2/24/17.
@@ -46,6 +52,9 @@ import static org.junit.Assert.assertEquals;
 @Slf4j
 public class TransferLearningHelperTest extends BaseDL4JTest {
 
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
     @Test
     public void tesUnfrozenSubset() {
 
@@ -248,4 +257,65 @@ public class TransferLearningHelperTest extends BaseDL4JTest {
         INDArray act = modelNow.params();
         assertEquals(expected, act);
     }
+
+    @Test
+    public void testFeaturizeToCache() throws Exception {
+        DataSet allData = new DataSet(Nd4j.rand(30, 4), Nd4j.rand(30, 3));
+        List<DataSet> batches = allData.batchBy(10);
+
+        MultiLayerNetwork net = new MultiLayerNetwork(new NeuralNetConfiguration.Builder().updater(new Sgd(0.1))
+                        .activation(Activation.TANH).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).build())
+                        .layer(1, new DenseLayer.Builder().nIn(5).nOut(4).build())
+                        .layer(2, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).activation(Activation.SOFTMAX).nIn(4).nOut(3)
+                                                        .build())
+                        .build());
+        net.init();
+        TransferLearningHelper helper = new TransferLearningHelper(net, 1);
+
+        File dir = testDir.newFolder();
+        for (boolean compress : new boolean[]{true, false}) {
+            DataSetIterator iter = helper.featurize(new ListDataSetIterator<>(batches, 1), dir, "v1", compress);
+            assertEquals(3, dir.listFiles((d, name) -> name.endsWith(".bin")).length);
+            assertFeaturized(helper, batches, iter);
+
+            //Can be used for multiple epochs
+            helper.fitFeaturized(iter);
+            helper.fitFeaturized(iter);
+        }
+
+        //Same frozen layers and data version, but a later minibatch changed: changed minibatch is featurized again
+        List<DataSet> changed = new ArrayList<>(batches);
+        changed.set(2, new DataSet(Nd4j.rand(10, 4), Nd4j.rand(10, 3)));
+        assertFeaturized(helper, changed, helper.featurize(new ListDataSetIterator<>(changed, 1), dir, "v1", false));
+
+        //Fewer minibatches: extra cached minibatches are removed
+        assertFeaturized(helper, changed.subList(0, 2), helper.featurize(new ListDataSetIterator<>(changed.subList(0, 2), 1), dir, "v1", false));
+        assertEquals(2, dir.listFiles((d, name) -> name.endsWith(".bin")).length);
+        assertFeaturized(helper, changed, helper.featurize(new ListDataSetIterator<>(changed, 1), dir, "v1", false));
+
+        //Different data version: cache is invalidated
+        assertFeaturized(helper, changed, helper.featurize(new ListDataSetIterator<>(changed, 1), dir, "v2", false));
+
+        //Different first minibatch: cache is invalidated
+        changed.set(0, new DataSet(Nd4j.rand(10, 4), Nd4j.rand(10, 3)));
+        assertFeaturized(helper, changed, helper.featurize(new ListDataSetIterator<>(changed, 1), dir, "v2", false));
+
+        //Different frozen parameters: cache is invalidated
+        net.getLayer(0).params().addi(0.5);
+        assertFeaturized(helper, changed, helper.featurize(new ListDataSetIterator<>(changed, 1), dir, "v2", false));
+    }
+
+    private static void assertFeaturized(TransferLearningHelper helper, List<DataSet> batches, DataSetIterator iter) {
+        iter.reset();
+        for (DataSet ds : batches) {
+            assertTrue(iter.hasNext());
+            DataSet exp = helper.featurize(ds);
+            DataSet act = iter.next();
+            assertEquals(exp.getFeatures(), act.getFeatures());
+            assertEquals(exp.getLabels(), act.getLabels());
+        }
+        assertFalse(iter.hasNext());
+    }
 }
@@ -39,10 +39,14 @@ import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.OpBatch;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.*;
 import org.nd4j.linalg.learning.config.*;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.schedule.ExponentialSchedule;
+import org.nd4j.linalg.schedule.ISchedule;
+import org.nd4j.linalg.schedule.ScheduleType;
 import org.nd4j.linalg.ops.transforms.Transforms;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 
@@ -1105,4 +1109,90 @@ public class TestUpdaters extends BaseDL4JTest {
         INDArray expView3 = view.get(interval(0,0,true), interval(start3, start3 + length3));
         assertEquals(expView3, l.get(2));
     }
+
+    @Test
+    public void testFusedUpdatesMatchStandard() {
+        IUpdater[] updaters = {new Adam(0.01), new AdaMax(0.01), new Nesterovs(0.01, 0.9), new RmsProp(0.01)};
+        for (IUpdater u : updaters) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .seed(12345)
+                    .dataType(DataType.DOUBLE)
+                    .updater(u)
+                    .l2(0.01)
+                    .list()
+                    .layer(new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build())
+                    .layer(new DenseLayer.Builder().nIn(5).nOut(5).activation(Activation.TANH).l1(0.02).l2Bias(0.0).build())
+                    .layer(new DenseLayer.Builder().nIn(5).nOut(5).activation(Activation.TANH).weightDecay(0.03).build())
+                    .layer(new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                            .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                    .build();
+
+            MultiLayerNetwork fused = new MultiLayerNetwork(conf);
+            fused.init();
+            MultiLayerNetwork standard = new MultiLayerNetwork(conf.clone());
+            standard.init();
+            ((BaseMultiLayerUpdater) fused.getUpdater()).setFusedUpdates(true);
+            ((BaseMultiLayerUpdater) standard.getUpdater()).setFusedUpdates(false);
+
+            Nd4j.getRandom().setSeed(12345);
+            INDArray f = Nd4j.rand(DataType.DOUBLE, 10, 4);
+            INDArray l = Nd4j.zeros(DataType.DOUBLE, 10, 3);
+            for (int i = 0; i < 10; i++) {
+                l.putScalar(i, i % 3, 1.0);
+            }
+
+            for (int i = 0; i < 5; i++) {
+                fused.fit(f, l);
+                standard.fit(f, l);
+                String msg = u.getClass().getSimpleName() + ", iteration " + i;
+                assertEquals(msg, standard.params(), fused.params());
+                assertEquals(msg, standard.getUpdater().getStateViewArray(), fused.getUpdater().getStateViewArray());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchedUpdatesMatchStandard() {
+        //LR schedule: scalar of the batched op must be updated every iteration
+        ISchedule schedule = new ExponentialSchedule(ScheduleType.ITERATION, 0.1, 0.9);
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(12345)
+                .dataType(DataType.DOUBLE)
+                .updater(new Sgd(schedule))
+                .list()
+                .layer(new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build())
+                .layer(new DenseLayer.Builder().nIn(5).nOut(5).activation(Activation.TANH).updater(new Sgd(0.05)).build())
+                .layer(new DenseLayer.Builder().nIn(5).nOut(5).activation(Activation.TANH).updater(new Adam(0.01)).build())
+                .layer(new DenseLayer.Builder().nIn(5).nOut(5).activation(Activation.TANH).l2(0.01).build())
+                .layer(new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                .build();
+
+        MultiLayerNetwork batched = new MultiLayerNetwork(conf);
+        batched.init();
+        MultiLayerNetwork standard = new MultiLayerNetwork(conf.clone());
+        standard.init();
+        ((BaseMultiLayerUpdater) batched.getUpdater()).setBatchedUpdates(true);
+        ((BaseMultiLayerUpdater) standard.getUpdater()).setBatchedUpdates(false);
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray f = Nd4j.rand(DataType.DOUBLE, 10, 4);
+        INDArray l = Nd4j.zeros(DataType.DOUBLE, 10, 3);
+        for (int i = 0; i < 10; i++) {
+            l.putScalar(i, i % 3, 1.0);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            batched.fit(f, l);
+            standard.fit(f, l);
+            assertEquals("iteration " + i, standard.params(), batched.params());
+            assertEquals("iteration " + i, standard.getUpdater().getStateViewArray(), batched.getUpdater().getStateViewArray());
+        }
+
+        //SGD blocks without regularization (layers 0 and 1) are submitted as one batch, reused between iterations.
+        // Layers 3 and 4 share one block, with L2 on layer 3: updated via standard path
+        OpBatch batch = ((BaseMultiLayerUpdater) batched.getUpdater()).getUpdateBatch();
+        assertNotNull(batch);
+        assertEquals(2, batch.size());
+    }
 }
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.optimize.solver.accumulation;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.optimize.solvers.accumulation.RingBufferQueue;
+import org.deeplearning4j.optimize.solvers.accumulation.WaitStrategy;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+public class RingBufferQueueTest extends BaseDL4JTest {
+
+    @Test
+    public void testBoundaries_1() throws Exception {
+        val queue = new RingBufferQueue<Integer>(3);
+
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+        assertFalse(queue.offer(4));
+
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+
+        assertEquals(1, queue.poll().intValue());
+        assertTrue(queue.offer(4));
+
+        assertEquals(2, queue.poll().intValue());
+        assertEquals(3, queue.poll().intValue());
+        assertEquals(4, queue.poll().intValue());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testClear_1() throws Exception {
+        val queue = new RingBufferQueue<Integer>(4);
+        for (int e = 0; e < 4; e++)
+            queue.put(e);
+
+        queue.clear();
+        assertTrue(queue.isEmpty());
+
+        // slots are released by consumer
+        assertNull(queue.poll());
+        assertEquals(4, queue.remainingCapacity());
+    }
+
+    @Test(timeout = 30000L)
+    public void testClear_2() throws Exception {
+        val queue = new RingBufferQueue<Integer>(4);
+        for (int e = 0; e < 3; e++)
+            queue.put(e);
+
+        // clear() from non-consumer thread only discards messages published before it
+        val cleaner = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                queue.clear();
+            }
+        });
+        cleaner.start();
+        cleaner.join();
+
+        assertTrue(queue.isEmpty());
+        queue.put(10);
+        queue.put(11);
+        assertEquals(2, queue.size());
+
+        assertEquals(10, queue.poll().intValue());
+        assertEquals(11, queue.poll().intValue());
+        assertNull(queue.poll());
+        assertEquals(4, queue.remainingCapacity());
+    }
+
+    @Test(timeout = 30000L)
+    public void testProducerConsumer_1() throws Exception {
+        val queue = new RingBufferQueue<Long>(8, WaitStrategy.YIELD);
+        final int limit = 100000;
+        final long[] received = new long[limit];
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // consumer only collects values, all checks are done on test thread
+        val consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int e = 0; e < limit; e++)
+                        received[e] = queue.take();
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        });
+        consumer.start();
+
+        for (long e = 0; e < limit; e++)
+            queue.put(e);
+
+        consumer.join();
+
+        assertNull(error.get());
+        for (int e = 0; e < limit; e++)
+            assertEquals(e, received[e]);
+
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -30,6 +30,7 @@ import org.deeplearning4j.text.sentenceiterator.interoperability.SentenceIterato
 import org.deeplearning4j.text.tokenization.tokenizer.Tokenizer;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.FeatureUtil;
@@ -41,6 +42,8 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * @author raver119@gmail.com
@@ -99,6 +102,17 @@ public class BagOfWordsVectorizer extends BaseTextVectorizer {
         return input;
     }
 
+    @Override
+    public CSRMatrix transformSparse(List<String> tokens) {
+        SortedMap<Integer, Double> entries = new TreeMap<>();
+        for (String token : tokens) {
+            int idx = vocabCache.indexOf(token);
+            if (idx >= 0)
+                entries.put(idx, vocabCache.wordFrequency(token));
+        }
+        return toSparseVector(entries);
+    }
+
     /**
      * @param input the text to vectorize
      * @param label the label of the text
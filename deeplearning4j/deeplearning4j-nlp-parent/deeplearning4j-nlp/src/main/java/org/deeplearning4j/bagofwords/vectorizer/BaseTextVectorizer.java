@@ -28,9 +28,14 @@ import org.deeplearning4j.text.documentiterator.LabelAwareIterator;
 import org.deeplearning4j.text.documentiterator.LabelsSource;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
+import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 
 /**
  * @author raver119@gmail.com
@@ -83,4 +88,42 @@ public abstract class BaseTextVectorizer implements TextVectorizer {
     public long numWordsEncountered() {
         return vocabCache.totalWordOccurrences();
     }
+
+    /**
+     * Sparse equivalent of {@link #transform(String)}: returns a 1 x vocabSize CSR matrix, storing only the entries
+     * for words present in the text
+     *
+     * @param text text to transform
+     * @return sparse vector
+     */
+    public CSRMatrix transformSparse(String text) {
+        return transformSparse(tokenizerFactory.create(text).getTokens());
+    }
+
+    /**
+     * Sparse equivalent of {@link #transform(List)}: returns a 1 x vocabSize CSR matrix, storing only the entries
+     * for words present in the document. Multiple documents can be combined into a minibatch using
+     * {@link CSRMatrix#vstack(List)}
+     *
+     * @param tokens document tokens
+     * @return sparse vector
+     */
+    public CSRMatrix transformSparse(List<String> tokens) {
+        return CSRMatrix.fromDense(transform(tokens));
+    }
+
+    /**
+     * Create a 1 x vocabSize sparse vector from the specified (vocab index, value) entries
+     */
+    protected CSRMatrix toSparseVector(SortedMap<Integer, Double> entries) {
+        double[] values = new double[entries.size()];
+        long[] columns = new long[entries.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Double> e : entries.entrySet()) {
+            columns[i] = e.getKey();
+            values[i++] = e.getValue();
+        }
+        return CSRMatrix.create(values, columns, new long[]{0, values.length}, vocabCache.numWords(),
+                Nd4j.defaultFloatingPointType());
+    }
 }
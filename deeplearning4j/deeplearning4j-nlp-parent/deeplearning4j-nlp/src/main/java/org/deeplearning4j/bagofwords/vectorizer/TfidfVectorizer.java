@@ -32,6 +32,7 @@ import org.deeplearning4j.text.tokenization.tokenizer.Tokenizer;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.nd4j.linalg.util.MathUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.FeatureUtil;
@@ -140,6 +141,24 @@ public class TfidfVectorizer extends BaseTextVectorizer {
         return ret;
     }
 
+    @Override
+    public CSRMatrix transformSparse(List<String> tokens) {
+        Map<String, AtomicLong> counts = new HashMap<>();
+        for (String token : tokens) {
+            if (!counts.containsKey(token))
+                counts.put(token, new AtomicLong(0));
+            counts.get(token).incrementAndGet();
+        }
+
+        SortedMap<Integer, Double> entries = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> e : counts.entrySet()) {
+            int idx = vocabCache.indexOf(e.getKey());
+            if (idx >= 0)
+                entries.put(idx, tfidfWord(e.getKey(), e.getValue().longValue(), tokens.size()));
+        }
+        return toSparseVector(entries);
+    }
+
     public double tfidfWord(String word, long wordCount, long documentLength) {
         //log.info("word: {}; TF: {}; IDF: {}", word, tfForWord(wordCount, documentLength), idfForWord(word));
         return MathUtils.tfidf(tfForWord(wordCount, documentLength), idfForWord(word));
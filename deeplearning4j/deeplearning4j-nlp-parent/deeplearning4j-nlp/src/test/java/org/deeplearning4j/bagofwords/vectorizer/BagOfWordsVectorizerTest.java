@@ -31,6 +31,7 @@ import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFac
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
 import org.nd4j.linalg.api.ops.IndexAccumulation;
 import org.nd4j.linalg.api.ops.impl.indexaccum.IMax;
 import org.nd4j.linalg.dataset.DataSet;
@@ -60,6 +61,39 @@ public class BagOfWordsVectorizerTest extends BaseDL4JTest {
 
 
 
+    @Test(timeout = 60000L)
+    public void testTransformSparse() throws Exception {
+        val rootDir = testDir.newFolder();
+        ClassPathResource resource = new ClassPathResource("rootdir/");
+        resource.copyDirectory(rootDir);
+
+        LabelAwareSentenceIterator iter = new LabelAwareFileSentenceIterator(rootDir);
+        BagOfWordsVectorizer vectorizer = new BagOfWordsVectorizer.Builder().setMinWordFrequency(1)
+                        .setStopWords(new ArrayList<String>()).setTokenizerFactory(new DefaultTokenizerFactory())
+                        .setIterator(iter).allowParallelTokenization(false).build();
+        vectorizer.fit();
+
+        //Sparse and dense transforms should give the same vectors, including repeated and out of vocabulary words
+        List<String> texts = Arrays.asList("This is 2 file.", "This is 1 file.", "file. file. 1", "unknown words only");
+        List<CSRMatrix> sparse = new ArrayList<>();
+        for (String text : texts) {
+            INDArray dense = vectorizer.transform(text);
+            CSRMatrix s = vectorizer.transformSparse(text);
+            assertEquals(1, s.rows());
+            assertEquals(dense.columns(), s.columns());
+            assertEquals(dense.neq(0.0).sumNumber().longValue(), s.nnz());
+            assertEquals(text, dense, s.toDense().castTo(dense.dataType()));
+            sparse.add(s);
+        }
+
+        //Minibatch of sparse vectors
+        INDArray stacked = CSRMatrix.vstack(sparse).toDense();
+        for (int i = 0; i < texts.size(); i++) {
+            INDArray dense = vectorizer.transform(texts.get(i));
+            assertEquals(dense, stacked.getRow(i, true).castTo(dense.dataType()));
+        }
+    }
+
     @Test(timeout = 60000L)
     public void testBagOfWordsVectorizer() throws Exception {
         val rootDir = testDir.newFolder();
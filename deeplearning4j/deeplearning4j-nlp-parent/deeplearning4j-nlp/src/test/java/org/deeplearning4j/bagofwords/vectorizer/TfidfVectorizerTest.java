@@ -33,6 +33,7 @@ import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFac
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.linalg.util.SerializationUtils;
@@ -131,6 +132,29 @@ public class TfidfVectorizerTest extends BaseDL4JTest {
         assertEquals(vector, dataSet.getFeatures());
     }
 
+    @Test(timeout = 60000L)
+    public void testTransformSparse() throws Exception {
+        val rootDir = testDir.newFolder();
+        ClassPathResource resource = new ClassPathResource("tripledir/");
+        resource.copyDirectory(rootDir);
+
+        LabelAwareSentenceIterator iter = new LabelAwareFileSentenceIterator(rootDir);
+        TfidfVectorizer vectorizer = new TfidfVectorizer.Builder().setMinWordFrequency(1)
+                        .setStopWords(new ArrayList<String>()).setTokenizerFactory(new DefaultTokenizerFactory())
+                        .setIterator(iter).allowParallelTokenization(false).build();
+        vectorizer.fit();
+
+        //Sparse and dense transforms should give the same TF-IDF values, including repeated and out of vocabulary words
+        for (String text : Arrays.asList("This is 3 file.", "This is is 1 file.", "3 3 unknown", "unknown words only")) {
+            INDArray dense = vectorizer.transform(text);
+            CSRMatrix sparse = vectorizer.transformSparse(text);
+            assertEquals(1, sparse.rows());
+            assertEquals(dense.columns(), sparse.columns());
+            assertTrue(sparse.nnz() <= dense.columns());
+            assertTrue(text, dense.equalsWithEps(sparse.toDense().castTo(dense.dataType()), 1e-6));
+        }
+    }
+
     @Test(timeout = 10000L)
     public void testParallelFlag1() throws Exception {
         val vectorizer = new TfidfVectorizer.Builder()
@@ -88,6 +88,16 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
     @Setter
     protected DataType dataType = DataType.FLOAT;   //Default to float for 1.0.0-beta3 and earlier nets
 
+    @Getter
+    @Setter
+    protected MixedPrecision mixedPrecision;    //Null: mixed precision training disabled
+
+    /**
+     * Names of the vertices used as activation checkpoints, for activation recomputation during backprop.
+     * Null or empty: all activations are retained after the forward pass
+     */
+    protected List<String> activationCheckpoints;
+
     protected boolean validateOutputLayerConfig = true;     //Default for 1.0.0-beta3 and earlier nets
 
     /**
@@ -343,6 +353,8 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         conf.defaultConfiguration.cacheMode = this.cacheMode;
         conf.validateOutputLayerConfig = this.validateOutputLayerConfig;
         conf.dataType = this.dataType;
+        conf.mixedPrecision = this.mixedPrecision == null ? null : this.mixedPrecision.clone();
+        conf.activationCheckpoints = this.activationCheckpoints == null ? null : new ArrayList<>(this.activationCheckpoints);
 
         return conf;
     }
@@ -432,9 +444,79 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             }
         }
 
+        //Check activation checkpoints:
+        if (activationCheckpoints != null) {
+            for (String s : activationCheckpoints) {
+                if (!vertices.containsKey(s)) {
+                    throw new IllegalStateException("Invalid configuration: activation checkpoint \"" + s
+                                    + "\" is not a valid vertex");
+                }
+            }
+            getActivationRecomputeSegments(topologicalOrdering());
+        }
+
         //Check for no graph cycles: done in ComputationGraph.init()
     }
 
+    /**
+     * Split the vertices of the network into activation recomputation segments, as defined by the activation
+     * checkpoints (see {@link GraphBuilder#activationCheckpoints(String...)}).<br>
+     * Each segment contains the vertices after one checkpoint (or after the network inputs) up to and including the
+     * next checkpoint, in topological order. Vertices after the last checkpoint are not part of any segment.
+     * Segments with only a single vertex (i.e., consecutive checkpoints) are omitted, as nothing would be recomputed.
+     *
+     * @param topologicalOrder Names of all vertices of the network (including the inputs), in topological order
+     * @return The recompute segments, in topological order. The last vertex of each segment is the checkpoint
+     * @throws IllegalStateException If the activations of a vertex inside a segment are used outside of that segment
+     */
+    public List<List<String>> getActivationRecomputeSegments(List<String> topologicalOrder) {
+        List<List<String>> segments = new ArrayList<>();
+        if (activationCheckpoints == null || activationCheckpoints.isEmpty())
+            return segments;
+
+        List<String> current = new ArrayList<>();
+        for (String s : topologicalOrder) {
+            if (networkInputs.contains(s))
+                continue;
+            current.add(s);
+            if (activationCheckpoints.contains(s)) {
+                if (current.size() > 1)
+                    segments.add(current);
+                current = new ArrayList<>();
+            }
+        }
+
+        Map<String, Integer> segmentOf = new HashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            for (String s : segments.get(i)) {
+                segmentOf.put(s, i);
+            }
+        }
+
+        for (String s : (networkOutputs == null ? Collections.<String>emptyList() : networkOutputs)) {
+            if (segmentOf.containsKey(s)) {
+                throw new IllegalStateException("Invalid configuration: network output \"" + s + "\" is positioned before"
+                                + " the last activation checkpoint. Network outputs must come after all activation checkpoints");
+            }
+        }
+
+        for (Map.Entry<String, List<String>> e : vertexInputs.entrySet()) {
+            Integer thisSegment = segmentOf.get(e.getKey());
+            for (String in : e.getValue()) {
+                Integer inSegment = segmentOf.get(in);
+                if (inSegment != null && !inSegment.equals(thisSegment) && !activationCheckpoints.contains(in)) {
+                    throw new IllegalStateException("Invalid configuration: activations for vertex \"" + in + "\" are"
+                                    + " recomputed during backprop (vertex is before activation checkpoint \""
+                                    + segments.get(inSegment).get(segments.get(inSegment).size() - 1) + "\"), but are used as"
+                                    + " input by vertex \"" + e.getKey() + "\" after that checkpoint. Vertices may only be"
+                                    + " used after a checkpoint via the checkpoint vertex itself");
+                }
+            }
+        }
+
+        return segments;
+    }
+
     /**
      * Add preprocessors automatically, given the specified types of inputs for the network. Inputs are specified using the
      * {@link InputType} class, in the same order in which the inputs were defined in the original configuration.<br>
@@ -660,7 +742,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         }
 
         return new NetworkMemoryReport(memoryReportMap, ComputationGraphConfiguration.class, "ComputationGraph",
-                        inputTypes);
+                        getActivationRecomputeSegments(topologicalOrdering), inputTypes);
     }
 
     @Data
@@ -689,6 +771,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         protected boolean allowNoOutput = false;
         protected boolean validateOutputConfig = true;
         protected boolean validateTbpttConfig = true;
+        protected List<String> activationCheckpoints;
 
         protected String lastAdded = null;
 
@@ -708,6 +791,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             this.backpropType = clonedConf.getBackpropType();
             this.tbpttFwdLength = clonedConf.getTbpttFwdLength();
             this.tbpttBackLength = clonedConf.getTbpttBackLength();
+            this.activationCheckpoints = clonedConf.getActivationCheckpoints();
             this.globalConfiguration = globalConfiguration;
             //this.getGlobalConfiguration().setSeed(clonedConf.getDefaultConfiguration().getSeed());
         }
@@ -1099,6 +1183,28 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Enable activation recomputation (sometimes known as gradient checkpointing), to reduce the memory required
+         * for training.<br>
+         * The specified vertices are used as checkpoints: their activations are retained after the forward pass as usual.
+         * The activations of all other vertices before a checkpoint (back to the previous checkpoint or the network inputs)
+         * are discarded after the forward pass, and are recomputed from the previous checkpoint during backprop - one
+         * segment at a time. This trades extra computation (up to one additional forward pass) for lower memory use.<br>
+         * Vertices after the last checkpoint (including all output layers) are never recomputed. Vertices before a
+         * checkpoint may only be used as inputs to later vertices through the checkpoint itself.<br>
+         * Note 1: Activation recomputation is used only when training workspaces are enabled, and is not used for
+         * truncated BPTT.<br>
+         * Note 2: When a segment is recomputed, the RNG state from the original forward pass is restored, so dropout,
+         * weight noise etc. reproduce the same random values; BatchNormalization running statistics are not updated
+         * a second time. Helpers that keep their own random state (CuDNN dropout) are not reproduced.
+         *
+         * @param vertexNames Names of the vertices to use as activation checkpoints
+         */
+        public GraphBuilder activationCheckpoints(String... vertexNames) {
+            this.activationCheckpoints = new ArrayList<>(Arrays.asList(vertexNames));
+            return this;
+        }
+
         /**
          * For the (perhaps partially constructed) network configuration, return a map of activation sizes for each
          * layer and vertex in the graph.<br>
@@ -1157,6 +1263,8 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             conf.cacheMode = globalConfiguration.cacheMode;
             conf.validateOutputLayerConfig = validateOutputConfig;
             conf.dataType = globalConfiguration.dataType;
+            conf.mixedPrecision = globalConfiguration.mixedPrecision;
+            conf.activationCheckpoints = activationCheckpoints;
 
             conf.defaultConfiguration = globalConfiguration.build();
 
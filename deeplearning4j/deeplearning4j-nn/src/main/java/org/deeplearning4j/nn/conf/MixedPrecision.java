@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.conf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.nd4j.linalg.api.buffer.DataType;
+
+import java.io.Serializable;
+
+/**
+ * Configuration for mixed precision training.<br>
+ * When set, the network parameters, activations and gradients use the (low precision) network data type - usually
+ * {@link DataType#HALF} or {@link DataType#BFLOAT16} - while a copy of the parameters ("master weights") is kept in
+ * {@link #getMasterDataType()} (FLOAT by default), and parameter updates are applied to that copy.<br>
+ * To avoid underflow of small gradients in the low precision data type, the loss gradient is multiplied by a loss
+ * scale before backprop, and the gradients are divided by the same value before the updater is applied.
+ * With dynamic loss scaling, if the gradients overflow (i.e., contain Infinity or NaN values) the parameter update
+ * is skipped for that iteration and the loss scale is reduced. After {@link #getGrowthInterval()} consecutive iterations
+ * without overflow, the loss scale is increased.<br>
+ * Mixed precision has no effect unless the network data type is HALF or BFLOAT16, and is applied only with the
+ * stochastic gradient descent optimization algorithm: networks configured with any other optimization algorithm, or
+ * trained with a GradientsAccumulator (ParallelWrapper, SharedTrainingMaster), are rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MixedPrecision implements Serializable, Cloneable {
+
+    /**
+     * Data type for the master copy of the parameters. Default: FLOAT
+     */
+    @Builder.Default
+    private DataType masterDataType = DataType.FLOAT;
+
+    /**
+     * Initial (or, if dynamic loss scaling is disabled - fixed) loss scale. Default: 2^15
+     */
+    @Builder.Default
+    private double initialLossScale = 32768.0;
+
+    /**
+     * If true: adjust loss scale based on gradient overflows. Default: true
+     */
+    @Builder.Default
+    private boolean dynamicLossScaling = true;
+
+    /**
+     * Factor to increase the loss scale by, after {@link #getGrowthInterval()} iterations without overflow. Default: 2.0
+     */
+    @Builder.Default
+    private double growthFactor = 2.0;
+
+    /**
+     * Factor to multiply the loss scale by, when overflow is detected. Default: 0.5
+     */
+    @Builder.Default
+    private double backoffFactor = 0.5;
+
+    /**
+     * Number of consecutive iterations without overflow, before the loss scale is increased. Default: 2000
+     */
+    @Builder.Default
+    private int growthInterval = 2000;
+
+    /**
+     * Minimum value for the loss scale. Default: 1.0
+     */
+    @Builder.Default
+    private double minLossScale = 1.0;
+
+    @Override
+    public MixedPrecision clone() {
+        try {
+            return (MixedPrecision) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -82,6 +82,10 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
     @Setter
     protected DataType dataType = DataType.FLOAT;   //Default to float for deserialization of beta3 and earlier nets
 
+    @Getter
+    @Setter
+    protected MixedPrecision mixedPrecision;    //Null: mixed precision training disabled
+
     //Counter for the number of parameter updates so far
     // This is important for learning rate schedules, for example, and is stored here to ensure it is persisted
     // for Spark and model serialization
@@ -393,6 +397,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             clone.cacheMode = this.cacheMode;
             clone.validateOutputLayerConfig = this.validateOutputLayerConfig;
             clone.dataType = this.dataType;
+            clone.mixedPrecision = this.mixedPrecision == null ? null : this.mixedPrecision.clone();
 
             return clone;
 
@@ -479,6 +484,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
         protected boolean validateOutputConfig = true;
         protected boolean validateTbpttConfig = true;
         protected DataType dataType;
+        protected MixedPrecision mixedPrecision;
 
         /**
          * Specify the processors.
@@ -629,6 +635,17 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Enable mixed precision training. See {@link MixedPrecision} for details.<br>
+         * Should be used together with a low precision network data type, such as {@link DataType#HALF} or
+         * {@link DataType#BFLOAT16}. Default: null (mixed precision training disabled)
+         * @param mixedPrecision Mixed precision configuration. May be null.
+         */
+        public Builder mixedPrecision(MixedPrecision mixedPrecision){
+            this.mixedPrecision = mixedPrecision;
+            return this;
+        }
+
 
         public MultiLayerConfiguration build() {
             //Validate BackpropType setting
@@ -715,6 +732,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             conf.inferenceWorkspaceMode = inferenceWorkspaceMode;
             conf.cacheMode = cacheMode;
             conf.dataType = dataType;
+            conf.mixedPrecision = mixedPrecision;
 
             Nd4j.getRandom().setSeed(conf.getConf(0).getSeed());
 
@@ -255,6 +255,7 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
                             .trainingWorkspaceMode(wsmTrain).cacheMode(globalConfig.cacheMode)
                             .inferenceWorkspaceMode(wsmTest).confs(list).validateOutputLayerConfig(validateOutputConfig)
                             .dataType(globalConfig.dataType)
+                            .mixedPrecision(globalConfig.mixedPrecision)
                             .build();
         }
 
@@ -409,6 +410,7 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
         protected boolean setIWM = false;
         protected CacheMode cacheMode = CacheMode.NONE;
         protected DataType dataType = DataType.FLOAT;
+        protected MixedPrecision mixedPrecision;
 
         protected ConvolutionMode convolutionMode = ConvolutionMode.Truncate;
         protected ConvolutionLayer.AlgoMode cudnnAlgoMode = ConvolutionLayer.AlgoMode.PREFER_FASTEST;
@@ -1071,12 +1073,36 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
          * {@link DataType#FLOAT} or {@link DataType#HALF}.<br>
          */
         public Builder dataType(@NonNull DataType dataType){
-            Preconditions.checkState(dataType == DataType.DOUBLE || dataType == DataType.FLOAT || dataType == DataType.HALF,
-                    "Data type must be a floating point type: one of DOUBLE, FLOAT, or HALF. Got datatype: %s", dataType);
+            Preconditions.checkState(dataType == DataType.DOUBLE || dataType == DataType.FLOAT || dataType == DataType.HALF
+                            || dataType == DataType.BFLOAT16,
+                    "Data type must be a floating point type: one of DOUBLE, FLOAT, HALF or BFLOAT16. Got datatype: %s", dataType);
             this.dataType = dataType;
             return this;
         }
 
+        /**
+         * Enable mixed precision training, with default {@link MixedPrecision} configuration: parameters, activations
+         * and gradients use the specified (low precision) data type, and a FLOAT copy of the parameters is used for
+         * applying updates. Dynamic loss scaling is used to avoid gradient underflow.<br>
+         * Equivalent to {@code dataType(computeDataType).mixedPrecision(MixedPrecision.builder().build())}
+         *
+         * @param computeDataType Data type for parameters, activations and gradients. Usually HALF or BFLOAT16
+         */
+        public Builder mixedPrecision(@NonNull DataType computeDataType){
+            return dataType(computeDataType).mixedPrecision(MixedPrecision.builder().build());
+        }
+
+        /**
+         * Set the mixed precision configuration. See {@link MixedPrecision} for details.<br>
+         * Default: null (mixed precision training disabled)
+         *
+         * @param mixedPrecision Mixed precision configuration. May be null.
+         */
+        public Builder mixedPrecision(MixedPrecision mixedPrecision){
+            this.mixedPrecision = mixedPrecision;
+            return this;
+        }
+
         /**
          * Return a configuration based on this builder
          *
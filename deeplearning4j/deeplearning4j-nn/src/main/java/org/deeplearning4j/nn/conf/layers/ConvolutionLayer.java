@@ -98,6 +98,19 @@ public class ConvolutionLayer extends FeedForwardLayer {
         ALGO_0, ALGO_1, FFT, FFT_TILING, WINOGRAD, WINOGRAD_NONFUSED, COUNT
     }
 
+    /**
+     * The forward pass algorithm to use for inference when no helper (CuDNN/MKL-DNN) is available.<br>
+     * IM2COL: the built-in im2col + gemm implementation. Supports all configurations<br>
+     * DIRECT: direct convolution as a matrix multiplication, without im2col. 1x1 kernels (no padding) only<br>
+     * WINOGRAD: Winograd F(2x2,3x3) convolution. 3x3 kernels with stride 1 only<br>
+     * AUTO: benchmark the supported algorithms on the first forward pass for each input size, and use the fastest<br>
+     * If the specified algorithm does not support the layer configuration, IM2COL is used. The training forward and
+     * backward pass always use IM2COL.
+     */
+    public enum CpuFwdAlgo {
+        IM2COL, DIRECT, WINOGRAD, AUTO
+    }
+
     /**
      * Defaults to "PREFER_FASTEST", but "NO_WORKSPACE" uses less memory.
      */
@@ -105,6 +118,7 @@ public class ConvolutionLayer extends FeedForwardLayer {
     protected FwdAlgo cudnnFwdAlgo;
     protected BwdFilterAlgo cudnnBwdFilterAlgo;
     protected BwdDataAlgo cudnnBwdDataAlgo;
+    protected CpuFwdAlgo cpuFwdAlgo = CpuFwdAlgo.IM2COL;
 
     /**
      * ConvolutionLayer nIn in the input layer is the number of channels nOut is the number of filters to be used in the
@@ -139,6 +153,7 @@ public class ConvolutionLayer extends FeedForwardLayer {
         this.cudnnBwdFilterAlgo = builder.cudnnBwdFilterAlgo;
         this.cudnnBwdDataAlgo = builder.cudnnBwdDataAlgo;
         this.cudnnAllowFallback = builder.cudnnAllowFallback;
+        this.cpuFwdAlgo = builder.cpuFwdAlgo;
 
         initializeConstraints(builder);
     }
@@ -403,6 +418,11 @@ public class ConvolutionLayer extends FeedForwardLayer {
         protected BwdFilterAlgo cudnnBwdFilterAlgo;
         protected BwdDataAlgo cudnnBwdDataAlgo;
 
+        /**
+         * Forward pass algorithm for inference when no helper is available. See {@link CpuFwdAlgo}
+         */
+        protected CpuFwdAlgo cpuFwdAlgo = CpuFwdAlgo.IM2COL;
+
         /**
          * When using CuDNN and an error is encountered, should fallback to the non-CuDNN implementatation be allowed?
          * If set to false, an exception in CuDNN will be propagated back to the user. If false, the built-in
@@ -547,6 +567,17 @@ public class ConvolutionLayer extends FeedForwardLayer {
             return (T) this;
         }
 
+        /**
+         * Forward pass algorithm to use for inference when no helper (CuDNN/MKL-DNN) is available. Defaults to
+         * IM2COL. See {@link CpuFwdAlgo} for details.
+         *
+         * @param cpuFwdAlgo Forward pass algorithm
+         */
+        public T cpuFwdAlgo(CpuFwdAlgo cpuFwdAlgo) {
+            this.setCpuFwdAlgo(cpuFwdAlgo);
+            return (T) this;
+        }
+
         /**
          * When using CuDNN and an error is encountered, should fallback to the non-CuDNN implementatation be allowed?
          * If set to false, an exception in CuDNN will be propagated back to the user. If true, the built-in
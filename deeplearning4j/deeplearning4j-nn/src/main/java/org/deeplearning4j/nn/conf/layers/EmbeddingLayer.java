@@ -56,10 +56,12 @@ import java.util.Map;
 public class EmbeddingLayer extends FeedForwardLayer {
 
     private boolean hasBias = true; //Default for pre-0.9.2 implementations
+    private boolean sparseGradients = false;
 
     private EmbeddingLayer(Builder builder) {
         super(builder);
         this.hasBias = builder.hasBias;
+        this.sparseGradients = builder.sparseGradients;
         initializeConstraints(builder);
     }
 
@@ -115,6 +117,12 @@ public class EmbeddingLayer extends FeedForwardLayer {
          */
         private boolean hasBias = false;
 
+        /**
+         * If true: weight gradients are row-sparse, and only the rows for the indices in the minibatch are updated.
+         * False (default): weight gradients are dense.
+         */
+        private boolean sparseGradients = false;
+
         public Builder(){
             //Default to Identity activation - i.e., don't inherit.
             //For example, if user sets ReLU as global default, they very likely don't intend to use it for Embedding layer also
@@ -132,6 +140,22 @@ public class EmbeddingLayer extends FeedForwardLayer {
             return this;
         }
 
+        /**
+         * If true: weight gradients are row-sparse - only the rows of the weight matrix for the indices present in the
+         * minibatch are zeroed, accumulated and passed through the updater, instead of the entire weight matrix.
+         * Updater state (Adam, RMSProp etc) is updated lazily: state for rows not present in the minibatch is not
+         * modified, and neither are those rows of the weights. This can be much faster for large vocabularies.<br>
+         * Note that this is not exactly equivalent to dense updates for updaters with state (i.e., momentum is not
+         * applied to rows not present in the minibatch), and that the updater state layout differs from that of a
+         * layer with dense gradients. False (default): dense gradients.
+         *
+         * @param sparseGradients If true: use row-sparse weight gradients and lazy updates
+         */
+        public Builder sparseGradients(boolean sparseGradients) {
+            this.sparseGradients = sparseGradients;
+            return this;
+        }
+
         @Override
         public Builder weightInit(IWeightInit weightInit) {
             if(weightInit instanceof WeightInitEmbedding){
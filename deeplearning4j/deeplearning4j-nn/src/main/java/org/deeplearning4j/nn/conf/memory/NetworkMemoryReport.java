@@ -28,6 +28,7 @@ import org.nd4j.shade.jackson.annotation.JsonProperty;
 import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,15 +49,27 @@ public class NetworkMemoryReport extends MemoryReport {
     private final Class<?> modelClass;
     private final String modelName;
     private final InputType[] networkInputTypes;
+    /**
+     * Names of the layers/vertices in each activation recompute segment (last one in each segment being the
+     * checkpoint) - see ComputationGraphConfiguration.GraphBuilder#activationCheckpoints(String...). May be null.
+     */
+    private final List<List<String>> activationRecomputeSegments;
+
+    public NetworkMemoryReport(@NonNull Map<String, MemoryReport> layerAndVertexReports, @NonNull Class<?> modelClass,
+                    String modelName, @NonNull InputType... networkInputTypes) {
+        this(layerAndVertexReports, modelClass, modelName, null, networkInputTypes);
+    }
 
     public NetworkMemoryReport(
                     @NonNull @JsonProperty("layerAndVertexReports") Map<String, MemoryReport> layerAndVertexReports,
                     @NonNull @JsonProperty("modelClass") Class<?> modelClass,
                     @JsonProperty("modelName") String modelName,
+                    @JsonProperty("activationRecomputeSegments") List<List<String>> activationRecomputeSegments,
                     @NonNull @JsonProperty("networkInputTypes") InputType... networkInputTypes) {
         this.layerAndVertexReports = layerAndVertexReports;
         this.modelClass = modelClass;
         this.modelName = modelName;
+        this.activationRecomputeSegments = activationRecomputeSegments;
         this.networkInputTypes = networkInputTypes;
     }
 
@@ -105,6 +118,8 @@ public class NetworkMemoryReport extends MemoryReport {
             }
         }
 
+        totalBytes -= recomputedActivationBytes(minibatchSize, memoryUseMode, cacheMode, dataType);
+
         return totalBytes + maxWorkingFixed + maxWorkingVariable;
     }
 
@@ -123,9 +138,43 @@ public class NetworkMemoryReport extends MemoryReport {
             }
         }
 
+        if (memoryType == MemoryType.ACTIVATIONS) {
+            totalBytes -= recomputedActivationBytes(minibatchSize, memoryUseMode, cacheMode, dataType);
+        }
+
         return totalBytes;
     }
 
+    /**
+     * Activations for the non-checkpoint vertices in the activation recompute segments are not retained after the
+     * forward pass during training. Instead, they are recomputed during backprop, one segment at a time.
+     * Consequently, only the largest segment needs to be accounted for, instead of all segments.
+     *
+     * @return Activations memory (bytes) that is saved by activation recomputation
+     */
+    private long recomputedActivationBytes(int minibatchSize, MemoryUseMode memoryUseMode, CacheMode cacheMode,
+                    DataType dataType) {
+        if (memoryUseMode != MemoryUseMode.TRAINING || activationRecomputeSegments == null) {
+            return 0;
+        }
+
+        long sumSegments = 0;
+        long maxSegment = 0;
+        for (List<String> segment : activationRecomputeSegments) {
+            long segmentBytes = 0;
+            for (int i = 0; i < segment.size() - 1; i++) {
+                MemoryReport mr = layerAndVertexReports.get(segment.get(i));
+                if (mr != null) {
+                    segmentBytes += mr.getMemoryBytes(MemoryType.ACTIVATIONS, minibatchSize, memoryUseMode, cacheMode,
+                                    dataType);
+                }
+            }
+            sumSegments += segmentBytes;
+            maxSegment = Math.max(maxSegment, segmentBytes);
+        }
+        return sumSegments - maxSegment;
+    }
+
     @Override
     public String toString() {
 
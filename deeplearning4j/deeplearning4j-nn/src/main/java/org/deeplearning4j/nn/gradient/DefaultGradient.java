@@ -36,6 +36,7 @@ public class DefaultGradient implements Gradient {
     public static final char DEFAULT_FLATTENING_ORDER = 'f';
     private Map<String, INDArray> gradients = new LinkedHashMap<>();
     private Map<String, Character> flatteningOrders;
+    private Map<String, INDArray> sparseRows;
     @Setter
     private INDArray flattenedGradient;
 
@@ -113,6 +114,8 @@ public class DefaultGradient implements Gradient {
     @Override
     public void clear() {
         gradients.clear();
+        if (sparseRows != null)
+            sparseRows.clear();
     }
 
     @Override
@@ -148,6 +151,25 @@ public class DefaultGradient implements Gradient {
         return flatteningOrders.get(variable);
     }
 
+    @Override
+    public void setSparseRowsFor(String variable, INDArray rowIndices) {
+        if (rowIndices == null) {
+            if (sparseRows != null)
+                sparseRows.remove(variable);
+            return;
+        }
+
+        if (sparseRows == null)
+            sparseRows = new LinkedHashMap<>();
+        sparseRows.put(variable, rowIndices);
+    }
+
+    @Override
+    public INDArray getSparseRowsFor(String variable) {
+        if (sparseRows == null)
+            return null;
+        return sparseRows.get(variable);
+    }
 
     @Override
     public String toString() {
@@ -90,4 +90,20 @@ public interface Gradient extends Serializable {
      */
     Character flatteningOrderForVariable(String variable);
 
+    /**
+     * Mark the gradient for the given variable as row-sparse: only the specified rows of the (2d) gradient array may
+     * be non-zero, and all other rows are zero. Updaters may use this to update only the specified rows.
+     *
+     * @param variable   Variable the gradient is for
+     * @param rowIndices Unique indices of the non-zero rows (INT or LONG vector), or null to mark the gradient as dense
+     */
+    void setSparseRowsFor(String variable, INDArray rowIndices);
+
+    /**
+     * Return the non-zero row indices for the specified variable, as set by {@link #setSparseRowsFor(String, INDArray)}
+     * @param variable    Variable to return the row indices for
+     * @return            Row indices, or null if the gradient for the variable is dense
+     */
+    INDArray getSparseRowsFor(String variable);
+
 }
@@ -49,6 +49,8 @@ import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.layers.FrozenLayerWithBackprop;
 import org.deeplearning4j.nn.layers.recurrent.BidirectionalLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
+import org.deeplearning4j.nn.updater.MixedPrecisionHelper;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
@@ -74,6 +76,7 @@ import org.nd4j.linalg.api.memory.enums.LearningPolicy;
 import org.nd4j.linalg.api.memory.enums.ResetPolicy;
 import org.nd4j.linalg.api.memory.enums.SpillPolicy;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.dataset.api.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetUtil;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -112,6 +115,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
     protected ComputationGraphConfiguration configuration;
     protected boolean initCalled = false;
     protected transient Solver solver; //Used to call optimizers during backprop
+    protected transient MixedPrecisionHelper mixedPrecisionHelper;    //Loss scale and master params, if mixed precision is enabled
     protected INDArray flattenedParams; //Params for all layers are a view/subset of this array
     @Getter
     protected transient INDArray flattenedGradients; //Gradients for all layers are a view/subset of this array
@@ -146,6 +150,12 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
      */
     protected static final String WS_OUTPUT_MEM = "WS_OUTPUT_MEM";
 
+    /**
+     * Workspace for the activations of a single activation recomputation segment - opened once per segment in each
+     * of the forward pass and backward pass. See {@link ComputationGraphConfiguration.GraphBuilder#activationCheckpoints(String...)}
+     */
+    protected static final String WS_RECOMPUTE_SEGMENT_ACT = "WS_RECOMPUTE_SEGMENT_ACT";
+
     protected final WorkspaceConfiguration WS_LAYER_WORKING_MEM_CONFIG;
 
     protected static final WorkspaceConfiguration WS_ALL_LAYERS_ACT_CONFIG = WorkspaceConfiguration.builder()
@@ -159,6 +169,8 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
 
     protected final WorkspaceConfiguration WS_LAYER_ACT_X_CONFIG;
 
+    protected final WorkspaceConfiguration WS_RECOMPUTE_SEGMENT_ACT_CONFIG;
+
     protected static final WorkspaceConfiguration WS_RNN_LOOP_WORKING_MEM_CONFIG = WorkspaceConfiguration.builder()
             .initialSize(0).overallocationLimit(0.05).policyReset(ResetPolicy.BLOCK_LEFT)
             .policyAllocation(AllocationPolicy.OVERALLOCATE).policySpill(SpillPolicy.REALLOCATE)
@@ -184,6 +196,25 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
      * Topological sort and vertex index/name + name/index mapping
      */
     protected GraphIndices graphIndices;
+    /**
+     * Activation recomputation segments. Value at position i: the segment that the vertex with index i belongs to, or
+     * -1 if the vertex is not part of any segment. Null if no activation checkpoints are configured
+     */
+    protected int[] recomputeSegmentForVertex;
+    /**
+     * First and last (i.e., checkpoint) position in the topological order, for each activation recomputation segment
+     */
+    protected int[][] recomputeSegmentBounds;
+    /**
+     * Output activations of all vertices that were retained by the last forward pass with activation recomputation,
+     * indexed by vertex index. Null if the activations were not discarded in the last forward pass
+     */
+    protected transient INDArray[] recomputeRetainedActivations;
+    /**
+     * RNG state (root and node state) at the start of each activation recomputation segment in the last forward pass.
+     * Restored when the segment is recomputed, so that dropout, weight noise etc. draw the same random values again
+     */
+    protected transient long[][] recomputeSegmentRngStates;
 
     /**
      * A list of layers. Each of these layers is present in a GraphVertex, but are here for easy reference.
@@ -247,6 +278,18 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 .policySpill(SpillPolicy.REALLOCATE)
                 .policyAllocation(AllocationPolicy.OVERALLOCATE)
                 .build();
+
+        //Recompute segment memory: opened once per segment, for each of forward pass and backward pass
+        int numCheckpoints = configuration.getActivationCheckpoints() == null ? 0 : configuration.getActivationCheckpoints().size();
+        WS_RECOMPUTE_SEGMENT_ACT_CONFIG = WorkspaceConfiguration.builder()
+                .initialSize(0)
+                .overallocationLimit(0.02)
+                .policyLearning(LearningPolicy.OVER_TIME)
+                .cyclesBeforeInitialization(2 * Math.max(1, numCheckpoints))
+                .policyReset(ResetPolicy.BLOCK_LEFT)
+                .policySpill(SpillPolicy.REALLOCATE)
+                .policyAllocation(AllocationPolicy.OVERALLOCATE)
+                .build();
     }
 
     /**
@@ -454,6 +497,8 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
             return;
 
         DataType netDtype = getConfiguration().getDataType();
+        MixedPrecisionHelper.validate(configuration.getMixedPrecision(), netDtype,
+                defaultConfiguration == null ? null : defaultConfiguration.getOptimizationAlgo());
         if(parameters != null && parameters.dataType() != netDtype){
             Preconditions.checkState(parameters.rank() == 2 && parameters.size(0) == 1, "Invalid parameters array: should be rank 2 with shape [1,numParams]. Got %ndShape", parameters);
             if(cloneParametersArray){
@@ -686,6 +731,29 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
             gv.setOutputVertex(true);
         }
 
+        //Activation recomputation segments, if any activation checkpoints have been configured
+        List<String> topologicalOrderNames = new ArrayList<>();
+        for (int idx : topologicalOrder) {
+            topologicalOrderNames.add(vertices[idx].getVertexName());
+        }
+        List<List<String>> recomputeSegments = configuration.getActivationRecomputeSegments(topologicalOrderNames);
+        if (recomputeSegments.isEmpty()) {
+            recomputeSegmentForVertex = null;
+            recomputeSegmentBounds = null;
+        } else {
+            recomputeSegmentForVertex = new int[vertices.length];
+            Arrays.fill(recomputeSegmentForVertex, -1);
+            recomputeSegmentBounds = new int[recomputeSegments.size()][2];
+            for (int i = 0; i < recomputeSegments.size(); i++) {
+                List<String> segment = recomputeSegments.get(i);
+                for (String s : segment) {
+                    recomputeSegmentForVertex[verticesMap.get(s).getVertexIndex()] = i;
+                }
+                recomputeSegmentBounds[i][0] = ArrayUtils.indexOf(topologicalOrder, verticesMap.get(segment.get(0)).getVertexIndex());
+                recomputeSegmentBounds[i][1] = ArrayUtils.indexOf(topologicalOrder, verticesMap.get(segment.get(segment.size() - 1)).getVertexIndex());
+            }
+        }
+
         // now we init solver & optimizer
         if (solver == null) {
             try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
@@ -720,6 +788,11 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 continue;
             }
 
+            if(recomputeSegmentForVertex != null && configuration.getActivationCheckpoints().contains(in)){
+                //Checkpoint activations are used again when the following segment is recomputed during backprop
+                continue;
+            }
+
             List<String> seen = seenAsInputTo.get(in);
             if(seen.size() == 1){
                 l.allowInputModification(true);
@@ -1371,7 +1444,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         //Calculate activations (which are stored in each layer, and used in backprop)
         try(MemoryWorkspace wsAllActivations = workspaceMgr.notifyScopeEntered(ArrayType.ACTIVATIONS)) {
             Map<String, INDArray> activations = ffToLayerActivationsInWS(true, -1, getOutputLayerIndices(),
-                    fwdType, tbptt, inputs, inputMaskArrays, labelMaskArrays, false);
+                    fwdType, tbptt, inputs, inputMaskArrays, labelMaskArrays, false, true);
             if (!trainingListeners.isEmpty()) {
                 try (MemoryWorkspace workspace = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
                     for (TrainingListener tl : trainingListeners) {
@@ -2065,6 +2138,25 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
     protected synchronized Map<String,INDArray> ffToLayerActivationsInWS(boolean train, int layerIndex, int[] excludeIdxs,
                                                             FwdPassType fwdPassType, boolean storeLastForTBPTT,
                                                             INDArray[] input, INDArray[] fMask, INDArray[] lMask, boolean clearInputs) {
+        return ffToLayerActivationsInWS(train, layerIndex, excludeIdxs, fwdPassType, storeLastForTBPTT, input, fMask,
+                lMask, clearInputs, false);
+    }
+
+    /**
+     * As per {@link #ffToLayerActivationsInWS(boolean, int, int[], FwdPassType, boolean, INDArray[], INDArray[], INDArray[], boolean)}
+     * but optionally discarding the activations of the vertices in activation recomputation segments (other than the
+     * checkpoint vertices) - see {@link ComputationGraphConfiguration.GraphBuilder#activationCheckpoints(String...)}.
+     * Discarded activations are not present in the returned map, and are recomputed as required in
+     * {@link #calcBackpropGradients(boolean, boolean, INDArray...)}.<br>
+     * Activations are discarded only if activation checkpoints are configured, workspaces are used, and the forward
+     * pass type is STANDARD.
+     *
+     * @param recomputeSegments If true: discard activations for the activation recomputation segments, if possible
+     */
+    protected synchronized Map<String,INDArray> ffToLayerActivationsInWS(boolean train, int layerIndex, int[] excludeIdxs,
+                                                            FwdPassType fwdPassType, boolean storeLastForTBPTT,
+                                                            INDArray[] input, INDArray[] fMask, INDArray[] lMask,
+                                                            boolean clearInputs, boolean recomputeSegments) {
         if(layerIndex != -1 && (layerIndex < 0 || layerIndex >= topologicalOrder.length)){
             throw new IllegalArgumentException("Invalid input index - index must be >= 0 and < " + topologicalOrder.length
                     + ", got index " + layerIndex);
@@ -2101,6 +2193,25 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         }
         workspaceMgr.setHelperWorkspacePointers(helperWorkspaces);
 
+        //Activation recomputation: vertices in a recompute segment have their activations and inputs in a separate
+        // workspace, which is closed (discarding those activations) at the end of the segment. Only the checkpoint
+        // vertex output is placed in WS_ALL_LAYERS_ACT
+        boolean recompute = recomputeSegments && recomputeSegmentForVertex != null && wsm != WorkspaceMode.NONE
+                && fwdPassType == FwdPassType.STANDARD;
+        recomputeRetainedActivations = null;
+        recomputeSegmentRngStates = null;
+        long[][] segmentRngStates = null;
+        LayerWorkspaceMgr segmentMgr = null;
+        LayerWorkspaceMgr checkpointMgr = null;
+        MemoryWorkspace wsSegment = null;
+        INDArray[] vertexOutputs = null;
+        if(recompute){
+            segmentMgr = recomputeSegmentWorkspaceMgr(input, false);
+            checkpointMgr = recomputeSegmentWorkspaceMgr(input, true);
+            vertexOutputs = new INDArray[vertices.length];
+            segmentRngStates = new long[recomputeSegmentBounds.length][];
+        }
+
         boolean traceLog = log.isTraceEnabled();
 
         Map<String, INDArray> activations = new HashMap<>();
@@ -2124,7 +2235,20 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 continue;
             }
 
-            try(MemoryWorkspace wsFFWorking = workspaceMgr.notifyScopeEntered(ArrayType.FF_WORKING_MEM)){
+            int segment = (recompute ? recomputeSegmentForVertex[vIdx] : -1);
+            LayerWorkspaceMgr mgr = workspaceMgr;
+            if(segment >= 0){
+                if(i == recomputeSegmentBounds[segment][0]){
+                    wsSegment = segmentMgr.notifyScopeEntered(ArrayType.ACTIVATIONS);
+                    Random rng = Nd4j.getRandom();
+                    segmentRngStates[segment] = new long[]{rng.rootState(), rng.nodeState()};
+                }
+                mgr = (i == recomputeSegmentBounds[segment][1] ? checkpointMgr : segmentMgr);
+                //Inputs for vertices in a recompute segment are set only once the segment workspace is open
+                setRecomputeSegmentInputs(current, vertexOutputs, mgr);
+            }
+
+            try(MemoryWorkspace wsFFWorking = mgr.notifyScopeEntered(ArrayType.FF_WORKING_MEM)){
                 VertexIndices[] inputsTo = current.getOutputVertices();
 
                 INDArray out;
@@ -2133,7 +2257,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 } else {
 
                     if(fwdPassType == FwdPassType.STANDARD){
-                        out = current.doForward(train, workspaceMgr);
+                        out = current.doForward(train, mgr);
                     } else if(fwdPassType == FwdPassType.RNN_ACTIVATE_WITH_STORED_STATE) {
                         if (current.hasLayer()) {
                             Layer l = current.getLayer();
@@ -2158,9 +2282,12 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                         throw new IllegalStateException("FwdPassType not supported for this method: " + fwdPassType);
                     }
 
-                    validateArrayWorkspaces(workspaceMgr, out, ArrayType.ACTIVATIONS, vName, false, "Feed forward (inference)");
+                    validateArrayWorkspaces(mgr, out, ArrayType.ACTIVATIONS, vName, false, "Feed forward (inference)");
                 }
                 activations.put(current.getVertexName(), out);
+                if(recompute){
+                    vertexOutputs[vIdx] = out;
+                }
 
                 if(inputsTo != null) {
                     //Can be null for output layers
@@ -2168,6 +2295,10 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                         //Note that we don't have to do anything special here: the activations are always detached in
                         // this method
                         int inputToIndex = v.getVertexIndex();
+                        if(recompute && recomputeSegmentForVertex[inputToIndex] >= 0){
+                            //Set when the segment is reached (see above)
+                            continue;
+                        }
                         int vIdxEdge = v.getVertexEdgeNumber();
                         vertices[inputToIndex].setInput(vIdxEdge, out, workspaceMgr);
                     }
@@ -2178,13 +2309,127 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 }
             }
 
+            if(segment >= 0 && i == recomputeSegmentBounds[segment][1]){
+                //End of the segment: discard the activations of all vertices in the segment other than the checkpoint
+                wsSegment.close();
+                wsSegment = null;
+                for(int j = recomputeSegmentBounds[segment][0]; j < i; j++){
+                    int idx = topologicalOrder[j];
+                    vertexOutputs[idx] = null;
+                    activations.remove(vertices[idx].getVertexName());
+                }
+            }
+
             if(traceLog){
                 log.trace("Completed forward pass: {} (\"{}\") - {}", i, vName, current.getClass().getSimpleName());
             }
         }
+
+        if(recompute){
+            recomputeRetainedActivations = vertexOutputs;
+            recomputeSegmentRngStates = segmentRngStates;
+        }
         return activations;
     }
 
+    /**
+     * Workspace manager for the activations of a vertex in an activation recomputation segment
+     *
+     * @param input      Network inputs
+     * @param checkpoint If true: the vertex is the checkpoint for the segment, hence the output activations are placed in
+     *                   WS_ALL_LAYERS_ACT instead of the segment workspace
+     */
+    private LayerWorkspaceMgr recomputeSegmentWorkspaceMgr(INDArray[] input, boolean checkpoint){
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.builder()
+                .with(ArrayType.ACTIVATIONS, checkpoint ? WS_ALL_LAYERS_ACT : WS_RECOMPUTE_SEGMENT_ACT,
+                        checkpoint ? WS_ALL_LAYERS_ACT_CONFIG : WS_RECOMPUTE_SEGMENT_ACT_CONFIG)
+                .with(ArrayType.INPUT, WS_RECOMPUTE_SEGMENT_ACT, WS_RECOMPUTE_SEGMENT_ACT_CONFIG)
+                .with(ArrayType.FF_WORKING_MEM, WS_LAYER_WORKING_MEM, WS_LAYER_WORKING_MEM_CONFIG)
+                .with(ArrayType.RNN_FF_LOOP_WORKING_MEM, WS_RNN_LOOP_WORKING_MEM, WS_RNN_LOOP_WORKING_MEM_CONFIG)
+                .build();
+
+        if(input[0].isAttached()){
+            //Don't leverage out of async DataMultiSetIterator workspaces
+            mgr.setNoLeverageOverride(input[0].data().getParentWorkspace().getId());
+        }
+
+        if(configuration.getCacheMode() != CacheMode.NONE){
+            mgr.setWorkspace(ArrayType.FF_CACHE, WS_RECOMPUTE_SEGMENT_ACT, WS_RECOMPUTE_SEGMENT_ACT_CONFIG);
+        }
+        mgr.setHelperWorkspacePointers(helperWorkspaces);
+        return mgr;
+    }
+
+    /**
+     * Set the inputs of a vertex in an activation recomputation segment, from the specified vertex outputs
+     */
+    private void setRecomputeSegmentInputs(GraphVertex vertex, INDArray[] vertexOutputs, LayerWorkspaceMgr workspaceMgr){
+        for(VertexIndices vi : vertex.getInputVertices()){
+            vertex.setInput(vi.getVertexEdgeNumber(), vertexOutputs[vi.getVertexIndex()], workspaceMgr);
+        }
+    }
+
+    /**
+     * Redo the forward pass for all vertices in the specified activation recomputation segment, starting from the
+     * retained activations of the previous checkpoint(s) and/or network inputs. Used in backprop, when the activations
+     * for the segment were discarded after the forward pass.<br>
+     * The RNG state from the start of the segment in the original forward pass is restored for the recomputation (so
+     * dropout masks, weight noise etc. are identical), and BatchNormalization running statistics are not updated again.
+     *
+     * @param segment          Index of the segment to recompute
+     * @param initialWorkspace Workspace that was active when backprop started
+     * @return The (open) workspace with the recomputed activations. Should be closed once backprop for the segment is complete
+     */
+    protected MemoryWorkspace recomputeSegmentActivations(int segment, MemoryWorkspace initialWorkspace){
+        LayerWorkspaceMgr mgr = recomputeSegmentWorkspaceMgr(inputs, false);
+        MemoryWorkspace wsSegment = mgr.notifyScopeEntered(ArrayType.ACTIVATIONS);
+        //As with activation gradient workspaces, workspaces aren't opened and closed in nested order here
+        wsSegment.setPreviousWorkspace(initialWorkspace);
+
+        Random rng = Nd4j.getRandom();
+        long rootState = rng.rootState();
+        long nodeState = rng.nodeState();
+        long[] segmentRngState = recomputeSegmentRngStates[segment];
+        rng.setStates(segmentRngState[0], segmentRngState[1]);
+
+        int start = recomputeSegmentBounds[segment][0];
+        int end = recomputeSegmentBounds[segment][1];
+        try {
+            for (int i = start; i <= end; i++) {
+                GraphVertex current = vertices[topologicalOrder[i]];
+                setRecomputeSegmentInputs(current, recomputeRetainedActivations, mgr);
+                try (MemoryWorkspace wsFFWorking = mgr.notifyScopeEntered(ArrayType.FF_WORKING_MEM)) {
+                    //Some BatchNormalization implementations (CuDNN helper) update the running mean/variance during
+                    // the forward pass: these were already updated by the original forward pass
+                    Map<String, INDArray> runningStats = null;
+                    if (current.hasLayer() && current.getLayer() instanceof org.deeplearning4j.nn.layers.normalization.BatchNormalization) {
+                        runningStats = new HashMap<>();
+                        for (Map.Entry<String, INDArray> e : current.getLayer().paramTable().entrySet()) {
+                            if (!BatchNormalizationParamInitializer.GAMMA.equals(e.getKey()) && !BatchNormalizationParamInitializer.BETA.equals(e.getKey())) {
+                                runningStats.put(e.getKey(), e.getValue().dup());
+                            }
+                        }
+                    }
+
+                    INDArray out = current.doForward(true, mgr);
+                    if (runningStats != null) {
+                        Map<String, INDArray> paramTable = current.getLayer().paramTable();
+                        for (Map.Entry<String, INDArray> e : runningStats.entrySet()) {
+                            paramTable.get(e.getKey()).assign(e.getValue());
+                        }
+                    }
+                    if (i < end) {
+                        //The original checkpoint output is still used by the (already completed) later segments, don't replace it
+                        recomputeRetainedActivations[current.getVertexIndex()] = out;
+                    }
+                }
+            }
+        } finally {
+            rng.setStates(rootState, nodeState);
+        }
+        return wsSegment;
+    }
+
 
     /**
      * Provide the output of the specified layers, detached from any workspace. This is most commonly used at inference/test
@@ -2595,11 +2840,18 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
 
         //Do backprop, in reverse topological order
         LinkedList<Triple<String, INDArray, Character>> gradients = new LinkedList<>();
+        Map<String, INDArray> sparseRows = new HashMap<>();
         boolean[] setVertexEpsilon = new boolean[topologicalOrder.length]; //If true: already set epsilon for this vertex; later epsilons should be *added* to the existing one, not set
         MemoryWorkspace initialWorkspace = Nd4j.getMemoryManager().getCurrentWorkspace();
 
         boolean traceLog = log.isTraceEnabled();
 
+        //Activation recomputation: if activations were discarded in the forward pass, recompute each segment (in its own
+        // workspace) when backprop reaches its checkpoint vertex. Close that workspace once backprop for the segment is done
+        boolean recompute = recomputeRetainedActivations != null;
+        MemoryWorkspace wsRecompute = null;
+        int recomputeSegment = -1;
+
         Throwable t = null;
         try {
             for (int i = topologicalOrder.length - 1; i >= 0; i--) {
@@ -2608,6 +2860,15 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 int vIdx = current.getVertexIndex();
                 String vertexName = current.getVertexName();
 
+                if (wsRecompute != null && i < recomputeSegmentBounds[recomputeSegment][0]) {
+                    wsRecompute.close();
+                    wsRecompute = null;
+                }
+                if (recompute && recomputeSegmentForVertex[vIdx] >= 0 && i == recomputeSegmentBounds[recomputeSegmentForVertex[vIdx]][1]) {
+                    recomputeSegment = recomputeSegmentForVertex[vIdx];
+                    wsRecompute = recomputeSegmentActivations(recomputeSegment, initialWorkspace);
+                }
+
                 if (traceLog) {
                     log.trace("About backprop: {} (\"{}\") - {}", i, vertexName, current.getClass().getSimpleName());
                 }
@@ -2713,6 +2974,22 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                     pair = current.doBackward(truncatedBPTT, workspaceMgr);
                     epsilons = pair.getSecond();
 
+                    if (current.isOutputVertex() && current.getLayer() instanceof IOutputLayer) {
+                        MixedPrecisionHelper mp = getMixedPrecisionHelper();
+                        if (mp != null) {
+                            //Mixed precision: scale the loss gradient, to avoid underflow of low precision gradients
+                            // in the earlier layers. All gradients are unscaled again before the updater is applied
+                            if (pair.getFirst() != null) {
+                                for (INDArray g : pair.getFirst().gradientForVariable().values()) {
+                                    mp.scale(g);
+                                }
+                            }
+                            for (INDArray e : epsilons) {
+                                mp.scale(e);
+                            }
+                        }
+                    }
+
                     //Validate workspace location for the activation gradients:
                     //validateArrayWorkspaces(LayerWorkspaceMgr mgr, INDArray array, ArrayType arrayType, String vertexName, boolean isInputVertex, String op){
                     for (INDArray epsilon : epsilons) {
@@ -2756,6 +3033,9 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                         String newName = current.getVertexName() + "_" + origName;
                         tempList.addFirst(new Triple<>(newName, entry.getValue(),
                                 g.flatteningOrderForVariable(origName)));
+                        INDArray rows = g.getSparseRowsFor(origName);
+                        if (rows != null)
+                            sparseRows.put(newName, rows);
                     }
                     for (Triple<String, INDArray, Character> triple : tempList)
                         gradients.addFirst(triple);
@@ -2781,6 +3061,11 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
             t = t2;
         } finally {
             //Close all open workspaces... usually this list will be empty, but not if an exception is thrown
+            if(wsRecompute != null){
+                wsRecompute.close();
+            }
+            recomputeRetainedActivations = null;
+            recomputeSegmentRngStates = null;
             for(MemoryWorkspace ws : openActivationsWorkspaces.keySet()){
                 try{
                     ws.close();
@@ -2806,6 +3091,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         Gradient gradient = new DefaultGradient(flattenedGradients);
         for (Triple<String, INDArray, Character> tr : gradients) {
             gradient.setGradientFor(tr.getFirst(), tr.getSecond(), tr.getThird());
+            gradient.setSparseRowsFor(tr.getFirst(), sparseRows.get(tr.getFirst()));
         }
 
         this.gradient = gradient;
@@ -2920,6 +3206,21 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         return trainingListeners;
     }
 
+    /**
+     * Get the mixed precision training state (loss scale, master parameters) for this network.<br>
+     * Returns null if mixed precision training is not enabled (see {@link ComputationGraphConfiguration#getMixedPrecision()})
+     * or if the network data type is not a low precision type (HALF or BFLOAT16)
+     */
+    public MixedPrecisionHelper getMixedPrecisionHelper() {
+        MixedPrecision mp = configuration.getMixedPrecision();
+        if (mp == null || !MixedPrecisionHelper.isLowPrecision(configuration.getDataType()))
+            return null;
+
+        if (mixedPrecisionHelper == null)
+            mixedPrecisionHelper = new MixedPrecisionHelper(mp);
+        return mixedPrecisionHelper;
+    }
+
     /**
      * Get the ComputationGraphUpdater for the network. Creates one on demand, if required
      */
@@ -3268,6 +3569,10 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         if (params == flattenedParams)
             return; //No op
 
+        if (mixedPrecisionHelper != null) {
+            mixedPrecisionHelper.invalidateMasterParams();
+        }
+
         if (this.flattenedParams != null && this.flattenedParams.length() == params.length()) {
             this.flattenedParams.assign(params);
             return;
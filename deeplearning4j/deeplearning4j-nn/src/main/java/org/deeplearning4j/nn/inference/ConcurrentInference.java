@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.layers.convolution.ConvolutionLayer;
+import org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer;
+import org.deeplearning4j.nn.layers.recurrent.LSTM;
+import org.deeplearning4j.nn.layers.wrapper.BaseWrapperLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread safe inference for a single ComputationGraph or MultiLayerNetwork, without copies of the parameters.<br>
+ * {@link ComputationGraph#output(INDArray...)} and {@link MultiLayerNetwork#output(INDArray)} are synchronized, as the
+ * network and its layers hold per-call state (inputs, masks, RNN state, dropout masks, helper workspaces). That state
+ * is part of every layer implementation, so one layer object per concurrent call is required. ConcurrentInference
+ * uses the same approach as the INPLACE mode of ParallelInference (InplaceParallelInference, which creates its
+ * replicas with {@link #replicate(Model, INDArray)}): {@link InferenceContext} instances are lightweight copies of the
+ * network structure whose parameters are views of the source network's parameters. Only the layer objects and
+ * activations are per context - the parameters, which dominate memory use, are held once.<br>
+ * Unlike InplaceParallelInference it needs no worker count: contexts are pooled (using a lock-free queue) and each
+ * caller has exclusive use of a context, so any number of threads may call {@link #output(INDArray[], INDArray[])}
+ * concurrently without blocking, and the number of contexts grows only to the peak number of concurrent callers.<br>
+ * <br>
+ * For stateful RNN inference, use {@link #createContext()} and keep one context per stream.<br>
+ * <br>
+ * Note that the parameters are shared, not copied: the source network must not be trained while inference is in
+ * progress. Int8 quantized weights (see {@link org.deeplearning4j.nn.quantization.Int8Quantizer}) set on the source
+ * network are shared with the contexts too.
+ */
+@Slf4j
+public class ConcurrentInference {
+    private final Model model;
+    private final Queue<InferenceContext> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numContexts = new AtomicInteger();
+
+    /**
+     * @param model Network to perform inference with. Must be a ComputationGraph or MultiLayerNetwork, and must be
+     *              initialized
+     */
+    public ConcurrentInference(@NonNull Model model) {
+        Preconditions.checkArgument(model instanceof ComputationGraph || model instanceof MultiLayerNetwork,
+                "Model must be a ComputationGraph or MultiLayerNetwork, got %s", model.getClass());
+        Preconditions.checkState(model.params() != null, "Model must be initialized before use in ConcurrentInference");
+        this.model = model;
+    }
+
+    /**
+     * Perform inference (test mode forward pass) for the given inputs. Safe to call from multiple threads concurrently.
+     *
+     * @param inputs Network inputs
+     * @return Network outputs
+     */
+    public INDArray[] output(@NonNull INDArray... inputs) {
+        return output(inputs, null);
+    }
+
+    /**
+     * Perform inference (test mode forward pass) for the given inputs. Safe to call from multiple threads concurrently.
+     *
+     * @param inputs     Network inputs
+     * @param inputMasks Input mask arrays. May be null
+     * @return Network outputs
+     */
+    public INDArray[] output(@NonNull INDArray[] inputs, INDArray[] inputMasks) {
+        InferenceContext ctx = pool.poll();
+        if (ctx == null)
+            ctx = createContext();
+
+        try {
+            return ctx.output(inputs, inputMasks);
+        } finally {
+            //Release references to the inputs before returning the context to the pool
+            ctx.clear();
+            pool.offer(ctx);
+        }
+    }
+
+    /**
+     * Create a new inference context, sharing parameters with the source network. The context isn't pooled; it can
+     * be used for stateful inference, such as {@link InferenceContext#rnnTimeStep(INDArray...)}
+     *
+     * @return New inference context
+     */
+    public InferenceContext createContext() {
+        Model m = replicate(model, model.params());
+        int n = numContexts.incrementAndGet();
+        log.debug("Created inference context {}", n);
+        return new InferenceContext(m);
+    }
+
+    /**
+     * Create a copy of the network structure (layer objects), using the given parameters array directly - i.e., the
+     * parameters are not copied. Int8 quantized weights set on the source network's layers are shared with the copy.
+     *
+     * @param source Source network. Must be a ComputationGraph or MultiLayerNetwork
+     * @param params Parameters for the copy, usually {@code source.params()} (or a copy of them on another device)
+     * @return Copy of the network, for inference
+     */
+    public static Model replicate(@NonNull Model source, @NonNull INDArray params) {
+        Model m;
+        if (source instanceof ComputationGraph) {
+            ComputationGraph cgSource = (ComputationGraph) source;
+            ComputationGraph cg = new ComputationGraph(cgSource.getConfiguration().clone());
+            cg.init(params, false);
+            shareQuantizedWeights(cgSource.getLayers(), cg.getLayers());
+            m = cg;
+        } else if (source instanceof MultiLayerNetwork) {
+            MultiLayerNetwork mlnSource = (MultiLayerNetwork) source;
+            MultiLayerNetwork net = new MultiLayerNetwork(mlnSource.getLayerWiseConfigurations().clone());
+            net.init(params, false);
+            shareQuantizedWeights(mlnSource.getLayers(), net.getLayers());
+            m = net;
+        } else {
+            throw new IllegalArgumentException("Model must be a ComputationGraph or MultiLayerNetwork, got " + source.getClass());
+        }
+        Nd4j.getExecutioner().commit();
+        return m;
+    }
+
+    /**
+     * @return Number of inference contexts created so far (pooled and non-pooled)
+     */
+    public int getNumContexts() {
+        return numContexts.get();
+    }
+
+    /**
+     * @return The source network
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    private static void shareQuantizedWeights(Layer[] from, Layer[] to) {
+        for (int i = 0; i < from.length; i++) {
+            Layer f = unwrap(from[i]);
+            Layer t = unwrap(to[i]);
+            if (f instanceof DenseLayer) {
+                ((DenseLayer) t).setQuantizedWeights(((DenseLayer) f).getQuantizedWeights());
+            } else if (f instanceof ConvolutionLayer) {
+                ((ConvolutionLayer) t).setQuantizedWeights(((ConvolutionLayer) f).getQuantizedWeights());
+            } else if (f instanceof LSTM) {
+                ((LSTM) t).setQuantizedWeights(((LSTM) f).getQuantizedInputWeights(), ((LSTM) f).getQuantizedRecurrentWeights());
+            }
+        }
+    }
+
+    private static Layer unwrap(Layer layer) {
+        while (layer instanceof BaseWrapperLayer) {
+            layer = ((BaseWrapperLayer) layer).getUnderlying();
+        }
+        return layer;
+    }
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import lombok.NonNull;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.api.layers.RecurrentLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.layers.wrapper.BaseWrapperLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-caller state for {@link ConcurrentInference}: inputs, masks, layer activations and RNN state (for
+ * {@link #rnnTimeStep(INDArray...)}) are all held here, while the parameters are shared with the source network.<br>
+ * An InferenceContext is cheap to create - it holds no copy of the parameters - but is NOT thread safe: it must be
+ * used by at most one thread at a time. Create one context per thread (or per RNN stream) instead.
+ */
+public class InferenceContext {
+    private final Model model;
+
+    protected InferenceContext(@NonNull Model model) {
+        Preconditions.checkArgument(model instanceof ComputationGraph || model instanceof MultiLayerNetwork,
+                "Model must be a ComputationGraph or MultiLayerNetwork, got %s", model.getClass());
+        this.model = model;
+    }
+
+    /**
+     * Perform inference (test mode forward pass) for the given inputs
+     *
+     * @param inputs     Network inputs
+     * @param inputMasks Input mask arrays. May be null
+     * @return Network outputs, detached from any workspaces
+     */
+    public INDArray[] output(@NonNull INDArray[] inputs, INDArray[] inputMasks) {
+        if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).output(false, inputs, inputMasks);
+        }
+
+        Preconditions.checkArgument(inputs.length == 1 && (inputMasks == null || inputMasks.length == 1),
+                "MultiLayerNetwork can only have a single input and input mask: got %s inputs", inputs.length);
+        INDArray out = ((MultiLayerNetwork) model).output(inputs[0], false, (inputMasks == null ? null : inputMasks[0]), null);
+        return new INDArray[]{out};
+    }
+
+    /**
+     * Perform one or more RNN time steps. RNN state is held in (and only visible to) this context; see
+     * {@link ComputationGraph#rnnTimeStep(INDArray...)} for details
+     *
+     * @param inputs Network inputs
+     * @return Network outputs
+     */
+    public INDArray[] rnnTimeStep(@NonNull INDArray... inputs) {
+        if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).rnnTimeStep(inputs);
+        }
+
+        Preconditions.checkArgument(inputs.length == 1, "MultiLayerNetwork can only have a single input: got %s inputs", inputs.length);
+        return new INDArray[]{((MultiLayerNetwork) model).rnnTimeStep(inputs[0])};
+    }
+
+    /**
+     * Clear the RNN state held by this context
+     */
+    public void rnnClearPreviousState() {
+        if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).rnnClearPreviousState();
+        } else {
+            ((MultiLayerNetwork) model).rnnClearPreviousState();
+        }
+    }
+
+    /**
+     * Get the RNN state of all recurrent layers in this context, as used in {@link #rnnTimeStep(INDArray...)}
+     *
+     * @return Map of states, keyed by layer name (ComputationGraph) or layer index (MultiLayerNetwork). Layers that
+     * are not recurrent layers do not have an entry
+     */
+    public Map<String, Map<String, INDArray>> rnnGetPreviousStates() {
+        if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).rnnGetPreviousStates();
+        }
+
+        MultiLayerNetwork net = (MultiLayerNetwork) model;
+        Map<String, Map<String, INDArray>> states = new LinkedHashMap<>();
+        for (int i = 0; i < net.getnLayers(); i++) {
+            if (isRecurrent(net.getLayer(i))) {
+                states.put(String.valueOf(i), net.rnnGetPreviousState(i));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Set the RNN state of recurrent layers in this context, for use in {@link #rnnTimeStep(INDArray...)}
+     *
+     * @param states States, keyed as per {@link #rnnGetPreviousStates()}
+     */
+    public void rnnSetPreviousStates(@NonNull Map<String, Map<String, INDArray>> states) {
+        if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).rnnSetPreviousStates(states);
+            return;
+        }
+
+        MultiLayerNetwork net = (MultiLayerNetwork) model;
+        for (Map.Entry<String, Map<String, INDArray>> e : states.entrySet()) {
+            net.rnnSetPreviousState(Integer.parseInt(e.getKey()), e.getValue());
+        }
+    }
+
+    private static boolean isRecurrent(Layer l) {
+        if (l instanceof BaseWrapperLayer) {
+            l = ((BaseWrapperLayer) l).getUnderlying();
+        }
+        return l instanceof RecurrentLayer;
+    }
+
+    /**
+     * Release the per-call state (inputs, masks etc) held by this context, without clearing RNN state
+     */
+    public void clear() {
+        if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).clearLayersStates();
+        } else {
+            ((MultiLayerNetwork) model).clearLayersStates();
+        }
+    }
+
+    protected Model getModel() {
+        return model;
+    }
+}
@@ -0,0 +1,434 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.GraphVertex;
+import org.deeplearning4j.nn.conf.graph.LayerVertex;
+import org.deeplearning4j.nn.conf.graph.ScaleVertex;
+import org.deeplearning4j.nn.conf.graph.ShiftVertex;
+import org.deeplearning4j.nn.conf.layers.ActivationLayer;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.BatchNormalization;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.DropoutLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
+import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.*;
+
+/**
+ * Inference-only optimization of a trained network. Produces a new, semantically equivalent (for inference - i.e.,
+ * test mode forward pass) ComputationGraph, with the following graph rewrites applied:<br>
+ * - BatchNormalization folding: a BatchNormalization layer directly after a ConvolutionLayer or DenseLayer (with
+ * identity activation, no weight noise and - for DenseLayer - no layer normalization) is folded into the weights and
+ * bias of that layer<br>
+ * - Activation fusion: an ActivationLayer directly after a ConvolutionLayer or DenseLayer (with identity activation)
+ * is merged into that layer<br>
+ * - Dropout removal: DropoutLayers are removed, and dropout is removed from all other layers<br>
+ * - No-op removal: identity ActivationLayers, ScaleVertex with scale 1, ShiftVertex with shift 0 and single input
+ * ElementWiseVertex are removed<br>
+ * - Vertex merging: consecutive ScaleVertex instances are merged, as are nested Add/Product/Max ElementWiseVertex
+ * instances<br>
+ * <br>
+ * Rewrites are only applied when the intermediate activations aren't used elsewhere (i.e., have a single consumer and
+ * aren't network outputs). The original network is not modified. The optimized network is intended for inference
+ * only: it should not be trained further.<br>
+ * MultiLayerNetworks are converted to a ComputationGraph first (see {@link MultiLayerNetwork#toComputationGraph()}).<br>
+ * Use {@link #optimize(ComputationGraph, INDArray...)} to also check the optimized network against the original.
+ */
+@Slf4j
+public class InferenceOptimizer {
+    public static final double DEFAULT_EQUIVALENCE_EPS = 1e-4;
+
+    private InferenceOptimizer() {
+    }
+
+    /**
+     * Optimize the given network for inference
+     *
+     * @param net Network to optimize. Not modified.
+     * @return Optimized network
+     */
+    public static ComputationGraph optimize(@NonNull MultiLayerNetwork net) {
+        return optimize(net.toComputationGraph());
+    }
+
+    /**
+     * Optimize the given network for inference, and check that the optimized network produces the same outputs as the
+     * original network for the given inputs
+     *
+     * @param net    Network to optimize. Not modified.
+     * @param inputs Inputs to check equivalence with
+     * @return Optimized network
+     * @throws IllegalStateException If the outputs differ by more than {@link #DEFAULT_EQUIVALENCE_EPS}
+     */
+    public static ComputationGraph optimize(@NonNull MultiLayerNetwork net, @NonNull INDArray... inputs) {
+        ComputationGraph cg = net.toComputationGraph();
+        ComputationGraph out = optimize(cg);
+        checkEquivalent(cg, out, DEFAULT_EQUIVALENCE_EPS, inputs);
+        return out;
+    }
+
+    /**
+     * Optimize the given network for inference, and check that the optimized network produces the same outputs as the
+     * original network for the given inputs
+     *
+     * @param net    Network to optimize. Not modified.
+     * @param inputs Inputs to check equivalence with (one per network input)
+     * @return Optimized network
+     * @throws IllegalStateException If the outputs differ by more than {@link #DEFAULT_EQUIVALENCE_EPS}
+     */
+    public static ComputationGraph optimize(@NonNull ComputationGraph net, @NonNull INDArray... inputs) {
+        ComputationGraph out = optimize(net);
+        checkEquivalent(net, out, DEFAULT_EQUIVALENCE_EPS, inputs);
+        return out;
+    }
+
+    /**
+     * Optimize the given network for inference
+     *
+     * @param net Network to optimize. Not modified.
+     * @return Optimized network
+     */
+    public static ComputationGraph optimize(@NonNull ComputationGraph net) {
+        ComputationGraphConfiguration conf = net.getConfiguration().clone();
+
+        //Parameters of each layer vertex, by vertex name. Copies, so these can be modified
+        Map<String, Map<String, INDArray>> params = new HashMap<>();
+        for (Layer l : net.getLayers()) {
+            Map<String, INDArray> m = new LinkedHashMap<>();
+            for (Map.Entry<String, INDArray> e : l.paramTable().entrySet()) {
+                m.put(e.getKey(), e.getValue().dup());
+            }
+            params.put(l.conf().getLayer().getLayerName(), m);
+        }
+
+        int nBefore = conf.getVertices().size();
+        removeDropout(conf);
+        boolean changed = true;
+        while (changed) {
+            changed = removeNoOpVertices(conf, params)
+                    | foldBatchNorm(conf, params)
+                    | fuseActivations(conf, params)
+                    | mergeScaleVertices(conf, params)
+                    | mergeElementWiseVertices(conf, params);
+        }
+        log.info("Inference optimization: {} vertices reduced to {}", nBefore, conf.getVertices().size());
+
+        ComputationGraph out = new ComputationGraph(conf);
+        out.init();
+        for (Layer l : out.getLayers()) {
+            Map<String, INDArray> p = params.get(l.conf().getLayer().getLayerName());
+            for (Map.Entry<String, INDArray> e : l.paramTable().entrySet()) {
+                e.getValue().assign(p.get(e.getKey()));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Check that the two networks produce the same outputs for the given inputs
+     *
+     * @param original  Original network
+     * @param optimized Optimized network
+     * @param eps       Maximum allowed absolute difference
+     * @param inputs    Network inputs
+     * @throws IllegalStateException If the outputs differ by more than eps
+     */
+    public static void checkEquivalent(@NonNull ComputationGraph original, @NonNull ComputationGraph optimized,
+                                       double eps, @NonNull INDArray... inputs) {
+        double diff = maxDifference(original, optimized, inputs);
+        if (diff > eps) {
+            throw new IllegalStateException("Optimized network is not equivalent to the original network: maximum" +
+                    " absolute difference of outputs is " + diff + " (allowed: " + eps + ")");
+        }
+    }
+
+    /**
+     * @return Maximum absolute difference between the outputs of the two networks, for the given inputs
+     */
+    public static double maxDifference(@NonNull ComputationGraph original, @NonNull ComputationGraph optimized,
+                                       @NonNull INDArray... inputs) {
+        INDArray[] exp = original.output(false, inputs);
+        INDArray[] act = optimized.output(false, inputs);
+        if (exp.length != act.length)
+            throw new IllegalStateException("Different number of outputs: " + exp.length + " vs. " + act.length);
+
+        double max = 0.0;
+        for (int i = 0; i < exp.length; i++) {
+            if (!Arrays.equals(exp[i].shape(), act[i].shape()))
+                throw new IllegalStateException("Different shapes for output " + i + ": " + Arrays.toString(exp[i].shape())
+                        + " vs. " + Arrays.toString(act[i].shape()));
+            max = Math.max(max, exp[i].sub(act[i]).amaxNumber().doubleValue());
+        }
+        return max;
+    }
+
+    private static void removeDropout(ComputationGraphConfiguration conf) {
+        for (GraphVertex gv : conf.getVertices().values()) {
+            if (gv instanceof LayerVertex) {
+                ((LayerVertex) gv).getLayerConf().getLayer().setIDropout(null);
+            }
+        }
+    }
+
+    private static boolean removeNoOpVertices(ComputationGraphConfiguration conf, Map<String, Map<String, INDArray>> params) {
+        boolean changed = false;
+        for (String name : new ArrayList<>(conf.getVertices().keySet())) {
+            GraphVertex gv = conf.getVertices().get(name);
+            boolean noOp;
+            if (gv instanceof LayerVertex) {
+                LayerVertex lv = (LayerVertex) gv;
+                org.deeplearning4j.nn.conf.layers.Layer l = lv.getLayerConf().getLayer();
+                noOp = lv.getPreProcessor() == null && (l instanceof DropoutLayer
+                        || (l instanceof ActivationLayer && isIdentity((ActivationLayer) l)));
+            } else if (gv instanceof ScaleVertex) {
+                noOp = ((ScaleVertex) gv).getScaleFactor() == 1.0;
+            } else if (gv instanceof ShiftVertex) {
+                noOp = ((ShiftVertex) gv).getShiftFactor() == 0.0;
+            } else if (gv instanceof ElementWiseVertex) {
+                noOp = conf.getVertexInputs().get(name).size() == 1 && ((ElementWiseVertex) gv).getOp() != ElementWiseVertex.Op.Subtract;
+            } else {
+                noOp = false;
+            }
+
+            if (noOp && canRemove(conf, name)) {
+                removeVertex(conf, params, name);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean foldBatchNorm(ComputationGraphConfiguration conf, Map<String, Map<String, INDArray>> params) {
+        boolean changed = false;
+        for (String name : new ArrayList<>(conf.getVertices().keySet())) {
+            GraphVertex gv = conf.getVertices().get(name);
+            if (!(gv instanceof LayerVertex) || !(((LayerVertex) gv).getLayerConf().getLayer() instanceof BatchNormalization))
+                continue;
+            LayerVertex bnVertex = (LayerVertex) gv;
+            String prev = fusableInput(conf, name, true);
+            if (prev == null || bnVertex.getPreProcessor() != null || !canRemove(conf, name))
+                continue;
+
+            BatchNormalization bn = (BatchNormalization) bnVertex.getLayerConf().getLayer();
+            BaseLayer prevLayer = (BaseLayer) ((LayerVertex) conf.getVertices().get(prev)).getLayerConf().getLayer();
+            Map<String, INDArray> bnParams = params.get(name);
+            Map<String, INDArray> prevParams = params.get(prev);
+
+            INDArray mean = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_MEAN);
+            INDArray var;
+            if (bn.isUseLogStd()) {
+                INDArray log10s = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_LOG_STD);
+                var = Transforms.pow(Nd4j.valueArrayOf(log10s.shape(), 10.0, log10s.dataType()), log10s);
+                var.muli(var);
+            } else {
+                var = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_VAR);
+            }
+
+            INDArray gamma;
+            INDArray beta;
+            if (bn.isLockGammaBeta()) {
+                //Matches BatchNormalization layer implementation: gamma/beta only applied if both are non-default
+                boolean apply = bn.getGamma() != 1.0 && bn.getBeta() != 0.0;
+                gamma = Nd4j.valueArrayOf(mean.shape(), apply ? bn.getGamma() : 1.0, mean.dataType());
+                beta = Nd4j.valueArrayOf(mean.shape(), apply ? bn.getBeta() : 0.0, mean.dataType());
+            } else {
+                gamma = bnParams.get(BatchNormalizationParamInitializer.GAMMA);
+                beta = bnParams.get(BatchNormalizationParamInitializer.BETA);
+            }
+
+            //BN(x) = gamma * (x - mean) / sqrt(var + eps) + beta = s * x + (beta - s * mean)
+            INDArray s = gamma.div(Transforms.sqrt(var.add(bn.getEps()), false)).reshape(1, mean.length());
+            INDArray shift = beta.reshape(1, mean.length()).sub(s.mul(mean.reshape(1, mean.length())));
+
+            INDArray w;
+            INDArray b;
+            if (prevLayer instanceof ConvolutionLayer) {
+                w = prevParams.get(ConvolutionParamInitializer.WEIGHT_KEY);
+                b = prevParams.get(ConvolutionParamInitializer.BIAS_KEY);
+                //Weights: [outDepth, inDepth, kH, kW] -> scale each output channel
+                long[] shape = w.shape();
+                w = w.reshape('c', shape[0], w.length() / shape[0]).mulColumnVector(s.reshape(shape[0], 1)).reshape('c', shape);
+                ((ConvolutionLayer) prevLayer).setHasBias(true);
+            } else {
+                w = prevParams.get(DefaultParamInitializer.WEIGHT_KEY);
+                b = prevParams.get(DefaultParamInitializer.BIAS_KEY);
+                //Weights: [nIn, nOut] -> scale each output column
+                w = w.mulRowVector(s);
+                ((DenseLayer) prevLayer).setHasBias(true);
+            }
+
+            INDArray newBias = shift.dup();
+            if (b != null) {
+                newBias.addi(b.reshape(1, mean.length()).mul(s));
+            }
+
+            prevParams.put(prevLayer instanceof ConvolutionLayer ? ConvolutionParamInitializer.WEIGHT_KEY : DefaultParamInitializer.WEIGHT_KEY, w);
+            prevParams.put(prevLayer instanceof ConvolutionLayer ? ConvolutionParamInitializer.BIAS_KEY : DefaultParamInitializer.BIAS_KEY, newBias);
+
+            removeVertex(conf, params, name);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean fuseActivations(ComputationGraphConfiguration conf, Map<String, Map<String, INDArray>> params) {
+        boolean changed = false;
+        for (String name : new ArrayList<>(conf.getVertices().keySet())) {
+            GraphVertex gv = conf.getVertices().get(name);
+            if (!(gv instanceof LayerVertex) || !(((LayerVertex) gv).getLayerConf().getLayer() instanceof ActivationLayer))
+                continue;
+            LayerVertex actVertex = (LayerVertex) gv;
+            String prev = fusableInput(conf, name, false);
+            if (prev == null || actVertex.getPreProcessor() != null || !canRemove(conf, name))
+                continue;
+
+            BaseLayer prevLayer = (BaseLayer) ((LayerVertex) conf.getVertices().get(prev)).getLayerConf().getLayer();
+            prevLayer.setActivationFn(((ActivationLayer) actVertex.getLayerConf().getLayer()).getActivationFn());
+
+            removeVertex(conf, params, name);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean mergeScaleVertices(ComputationGraphConfiguration conf, Map<String, Map<String, INDArray>> params) {
+        boolean changed = false;
+        for (String name : new ArrayList<>(conf.getVertices().keySet())) {
+            GraphVertex gv = conf.getVertices().get(name);
+            if (!(gv instanceof ScaleVertex))
+                continue;
+            String in = conf.getVertexInputs().get(name).get(0);
+            GraphVertex inVertex = conf.getVertices().get(in);
+            if (!(inVertex instanceof ScaleVertex) || consumers(conf, in).size() != 1 || !canRemove(conf, in))
+                continue;
+
+            //Scale(a, Scale(b, x)) -> Scale(a*b, x)
+            ScaleVertex sv = (ScaleVertex) gv;
+            sv.setScaleFactor(sv.getScaleFactor() * ((ScaleVertex) inVertex).getScaleFactor());
+            removeVertex(conf, params, in);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean mergeElementWiseVertices(ComputationGraphConfiguration conf, Map<String, Map<String, INDArray>> params) {
+        boolean changed = false;
+        for (String name : new ArrayList<>(conf.getVertices().keySet())) {
+            GraphVertex gv = conf.getVertices().get(name);
+            if (!(gv instanceof ElementWiseVertex))
+                continue;
+            ElementWiseVertex.Op op = ((ElementWiseVertex) gv).getOp();
+            if (op != ElementWiseVertex.Op.Add && op != ElementWiseVertex.Op.Product && op != ElementWiseVertex.Op.Max)
+                continue;
+
+            //Associative ops: op(op(a,b),c) -> op(a,b,c)
+            List<String> inputs = conf.getVertexInputs().get(name);
+            for (String in : new ArrayList<>(inputs)) {
+                GraphVertex inVertex = conf.getVertices().get(in);
+                if (!(inVertex instanceof ElementWiseVertex) || ((ElementWiseVertex) inVertex).getOp() != op
+                        || consumers(conf, in).size() != 1 || conf.getNetworkOutputs().contains(in))
+                    continue;
+
+                int idx = inputs.indexOf(in);
+                inputs.remove(idx);
+                inputs.addAll(idx, conf.getVertexInputs().get(in));
+                conf.getVertices().remove(in);
+                conf.getVertexInputs().remove(in);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param foldWeights If true: the given vertex is to be folded into the weights and bias of its input layer (BN
+     *                    folding). Layers that transform their weights or pre-output before the bias is added (weight
+     *                    noise/DropConnect, layer normalization) aren't fusable in that case
+     * @return Name of the input vertex of the given vertex, if that input is a ConvolutionLayer or DenseLayer with
+     * identity activation, and its output is used only by the given vertex. Null otherwise
+     */
+    private static String fusableInput(ComputationGraphConfiguration conf, String name, boolean foldWeights) {
+        List<String> inputs = conf.getVertexInputs().get(name);
+        if (inputs == null || inputs.size() != 1)
+            return null;
+        String in = inputs.get(0);
+        GraphVertex gv = conf.getVertices().get(in);
+        if (!(gv instanceof LayerVertex) || consumers(conf, in).size() != 1 || conf.getNetworkOutputs().contains(in))
+            return null;
+
+        org.deeplearning4j.nn.conf.layers.Layer l = ((LayerVertex) gv).getLayerConf().getLayer();
+        //Exact classes only: subclasses (Deconvolution2D, etc) have different weight layouts
+        if (l.getClass() != ConvolutionLayer.class && l.getClass() != DenseLayer.class)
+            return null;
+        if (foldWeights && (((BaseLayer) l).getWeightNoise() != null || l instanceof DenseLayer && ((DenseLayer) l).hasLayerNorm()))
+            return null;
+        return ((BaseLayer) l).getActivationFn() instanceof ActivationIdentity ? in : null;
+    }
+
+    /**
+     * @return True if the given single-input vertex can be removed (replaced by its input)
+     */
+    private static boolean canRemove(ComputationGraphConfiguration conf, String name) {
+        List<String> inputs = conf.getVertexInputs().get(name);
+        if (inputs == null || inputs.size() != 1)
+            return false;
+        //Removing a network output would make its input the output; not possible if that is already an output
+        return !conf.getNetworkOutputs().contains(name) || !conf.getNetworkOutputs().contains(inputs.get(0))
+                && !conf.getNetworkInputs().contains(inputs.get(0));
+    }
+
+    private static void removeVertex(ComputationGraphConfiguration conf, Map<String, Map<String, INDArray>> params, String name) {
+        String in = conf.getVertexInputs().get(name).get(0);
+        for (List<String> l : conf.getVertexInputs().values()) {
+            Collections.replaceAll(l, name, in);
+        }
+        Collections.replaceAll(conf.getNetworkOutputs(), name, in);
+        conf.getVertices().remove(name);
+        conf.getVertexInputs().remove(name);
+        params.remove(name);
+    }
+
+    private static List<String> consumers(ComputationGraphConfiguration conf, String name) {
+        List<String> out = new ArrayList<>();
+        for (Map.Entry<String, List<String>> e : conf.getVertexInputs().entrySet()) {
+            for (String s : e.getValue()) {
+                if (s.equals(name))
+                    out.add(e.getKey());
+            }
+        }
+        return out;
+    }
+
+    private static boolean isIdentity(ActivationLayer l) {
+        return l.getActivationFn() instanceof ActivationIdentity;
+    }
+}
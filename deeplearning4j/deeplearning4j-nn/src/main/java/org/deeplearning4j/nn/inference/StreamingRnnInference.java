@@ -0,0 +1,540 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.inference;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+
+/**
+ * Stateful (streaming) RNN inference for many independent sessions - for example, one session per user or per
+ * audio/text stream - using a single network.<br>
+ * Each session's RNN state (for all recurrent layers) is stored as a single row vector, keyed by session ID, in a
+ * bounded least-recently-used store. Time steps for multiple sessions are executed as a single minibatch: the stored
+ * states of the sessions in the batch are gathered into one minibatch state, a single
+ * {@link InferenceContext#rnnTimeStep(INDArray...)} call is made, and the updated states are scattered back to the
+ * sessions. Sessions without stored state (new sessions, or sessions that have been evicted) start from the zero state,
+ * as per {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork#rnnClearPreviousState()}.<br>
+ * <br>
+ * Sessions are evicted when:<br>
+ * - The maximum number of sessions is exceeded: the least recently used session is removed<br>
+ * - A session has not been used for longer than the session timeout (if set)<br>
+ * - {@link #endSession(String)} is called<br>
+ * <br>
+ * Time steps can be executed synchronously for a set of sessions using {@link #timeStep(Map)}, or asynchronously one
+ * session at a time using {@link #submit(String, INDArray)}; in the latter case, requests from different threads are
+ * collected (for up to the configured batch wait time) into batches of at most maxBatchSize sessions.<br>
+ * <br>
+ * Inputs for each session must have minibatch size 1: shape [1, nIn] for a single time step or [1, nIn, timeSeriesLength]
+ * for multiple time steps. Note that the network parameters are shared, not copied - see {@link ConcurrentInference}.
+ */
+@Slf4j
+public class StreamingRnnInference implements AutoCloseable {
+
+    private final InferenceContext context;
+    private final int maxSessions;
+    private final long sessionTimeoutMs;
+    private final int maxBatchSize;
+    private final long maxBatchWaitMs;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, Session> sessions;
+    private List<StateEntry> stateLayout;
+    private long stateSize;
+    private DataType stateDataType;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private Thread worker;
+    private volatile boolean closed;
+
+    protected StreamingRnnInference(@NonNull Builder builder) {
+        this.context = new ConcurrentInference(builder.model).createContext();
+        this.maxSessions = builder.maxSessions;
+        this.sessionTimeoutMs = builder.sessionTimeoutMs;
+        this.maxBatchSize = Math.min(builder.maxBatchSize, builder.maxSessions);
+        this.maxBatchWaitMs = builder.maxBatchWaitMs;
+        this.sessions = new LinkedHashMap<String, Session>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > StreamingRnnInference.this.maxSessions;
+            }
+        };
+    }
+
+    /**
+     * Perform one or more RNN time steps for each of the specified sessions. Sessions are executed together as a single
+     * minibatch, where their input shapes allow it.
+     *
+     * @param inputs Inputs, keyed by session ID. Each input must have minibatch size 1
+     * @return Network outputs (minibatch size 1), keyed by session ID
+     */
+    public Map<String, INDArray> timeStep(@NonNull Map<String, INDArray> inputs) {
+        Preconditions.checkState(!closed, "StreamingRnnInference has been closed");
+        //Inputs can only be concatenated if they have the same shape - usually all of them do
+        Map<List<Long>, Map<String, INDArray>> byShape = new LinkedHashMap<>();
+        for (Map.Entry<String, INDArray> e : inputs.entrySet()) {
+            validateInput(e.getKey(), e.getValue());
+            byShape.computeIfAbsent(shapeKey(e.getValue()), k -> new LinkedHashMap<>()).put(e.getKey(), e.getValue());
+        }
+
+        Map<String, INDArray> out = new LinkedHashMap<>();
+        for (Map<String, INDArray> group : byShape.values()) {
+            List<String> ids = new ArrayList<>(group.keySet());
+            for (int i = 0; i < ids.size(); i += maxBatchSize) {
+                List<String> batchIds = ids.subList(i, Math.min(ids.size(), i + maxBatchSize));
+                INDArray[] batchIn = new INDArray[batchIds.size()];
+                for (int j = 0; j < batchIn.length; j++) {
+                    batchIn[j] = group.get(batchIds.get(j));
+                }
+                INDArray[] batchOut = execBatch(batchIds, batchIn);
+                for (int j = 0; j < batchOut.length; j++) {
+                    out.put(batchIds.get(j), batchOut[j]);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Perform one or more RNN time steps for a single session. Blocks until the (batched) time step has been executed.
+     *
+     * @param sessionId Session ID
+     * @param input     Input, with minibatch size 1
+     * @return Network output, with minibatch size 1
+     */
+    public INDArray timeStep(@NonNull String sessionId, @NonNull INDArray input) {
+        try {
+            return submit(sessionId, input).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof RuntimeException)
+                throw (RuntimeException) t;
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Submit one or more RNN time steps for a single session, to be executed asynchronously in a batch with the requests
+     * for other sessions. Requests for the same session are executed in the order they are submitted.
+     *
+     * @param sessionId Session ID
+     * @param input     Input, with minibatch size 1
+     * @return Future for the network output, with minibatch size 1
+     */
+    public CompletableFuture<INDArray> submit(@NonNull String sessionId, @NonNull INDArray input) {
+        Preconditions.checkState(!closed, "StreamingRnnInference has been closed");
+        validateInput(sessionId, input);
+        CompletableFuture<INDArray> f = new CompletableFuture<>();
+        startWorker();
+        queue.add(new Request(sessionId, input, f));
+        return f;
+    }
+
+    /**
+     * End the specified session, releasing its RNN state. A later time step for the same session ID will start a new
+     * session, from the zero state.
+     *
+     * @param sessionId Session ID
+     * @return True if the session existed
+     */
+    public boolean endSession(@NonNull String sessionId) {
+        synchronized (lock) {
+            return sessions.remove(sessionId) != null;
+        }
+    }
+
+    /**
+     * @param sessionId Session ID
+     * @return True if RNN state is currently stored for the specified session
+     */
+    public boolean hasSession(@NonNull String sessionId) {
+        synchronized (lock) {
+            //containsKey does not change the access order
+            return sessions.containsKey(sessionId);
+        }
+    }
+
+    /**
+     * @return Number of sessions with RNN state currently stored
+     */
+    public int numSessions() {
+        synchronized (lock) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * Remove all sessions that have not been used for longer than the session timeout. This is also done automatically
+     * before each batch is executed. No-op if no session timeout is set.
+     *
+     * @return Number of sessions removed
+     */
+    public int evictIdleSessions() {
+        if (sessionTimeoutMs <= 0)
+            return 0;
+        long cutoff = System.currentTimeMillis() - sessionTimeoutMs;
+        int count = 0;
+        synchronized (lock) {
+            //Sessions are in access order: least recently used first
+            Iterator<Session> iter = sessions.values().iterator();
+            while (iter.hasNext()) {
+                if (iter.next().lastAccess >= cutoff)
+                    break;
+                iter.remove();
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.debug("Evicted {} idle sessions", count);
+        }
+        return count;
+    }
+
+    /**
+     * Stop the worker thread used for {@link #submit(String, INDArray)} and release all sessions. Pending requests are
+     * completed exceptionally.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread t;
+        synchronized (this) {
+            t = worker;
+            worker = null;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (Request r : pending) {
+            r.future.completeExceptionally(new IllegalStateException("StreamingRnnInference has been closed"));
+        }
+        synchronized (lock) {
+            sessions.clear();
+        }
+    }
+
+    private static void validateInput(String sessionId, INDArray input) {
+        Preconditions.checkArgument((input.rank() == 2 || input.rank() == 3) && input.size(0) == 1,
+                "Input for session \"%s\" must be rank 2 or 3 with minibatch size 1, got shape %ndShape", sessionId, input);
+    }
+
+    private static List<Long> shapeKey(INDArray input) {
+        List<Long> l = new ArrayList<>();
+        for (long s : input.shape()) {
+            l.add(s);
+        }
+        return l;
+    }
+
+    /**
+     * Execute time steps for the given sessions, as a single minibatch. Inputs must all have the same shape.
+     */
+    private INDArray[] execBatch(List<String> ids, INDArray[] inputs) {
+        evictIdleSessions();
+        synchronized (lock) {
+            int n = ids.size();
+            Session[] batchSessions = new Session[n];
+            boolean anyState = false;
+            for (int i = 0; i < n; i++) {
+                batchSessions[i] = sessions.get(ids.get(i));
+                anyState |= batchSessions[i] != null;
+            }
+
+            try {
+                //Gather: one row per session, zeros for sessions without state
+                context.rnnClearPreviousState();
+                if (anyState) {
+                    INDArray packed = Nd4j.create(stateDataType, n, stateSize);
+                    for (int i = 0; i < n; i++) {
+                        if (batchSessions[i] != null) {
+                            packed.get(interval(i, i + 1), all()).assign(batchSessions[i].state);
+                        }
+                    }
+                    context.rnnSetPreviousStates(unpack(packed, n));
+                }
+
+                INDArray in = (n == 1 ? inputs[0] : Nd4j.concat(0, inputs));
+                INDArray out = context.rnnTimeStep(in)[0];
+
+                //Scatter: updated state rows back to the sessions
+                Map<String, Map<String, INDArray>> states = context.rnnGetPreviousStates();
+                if (stateLayout == null) {
+                    initLayout(states, n);
+                }
+                INDArray packed = pack(states, n);
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < n; i++) {
+                    INDArray row = packed.get(interval(i, i + 1), all());
+                    if (batchSessions[i] != null) {
+                        batchSessions[i].state.assign(row);
+                        batchSessions[i].lastAccess = now;
+                    } else {
+                        sessions.put(ids.get(i), new Session(row.dup(), now));
+                    }
+                }
+
+                INDArray[] split = new INDArray[n];
+                for (int i = 0; i < n; i++) {
+                    split[i] = (n == 1 ? out : out.get(interval(i, i + 1)).dup());
+                }
+                return split;
+            } finally {
+                context.rnnClearPreviousState();
+                context.clear();
+            }
+        }
+    }
+
+    private void initLayout(Map<String, Map<String, INDArray>> states, int n) {
+        List<StateEntry> layout = new ArrayList<>();
+        long offset = 0;
+        DataType dataType = null;
+        for (Map.Entry<String, Map<String, INDArray>> layer : states.entrySet()) {
+            if (layer.getValue() == null)
+                continue;
+            for (Map.Entry<String, INDArray> s : layer.getValue().entrySet()) {
+                INDArray arr = s.getValue();
+                Preconditions.checkState(arr.size(0) == n, "Unable to use RNN state \"%s\" for layer \"%s\" in streaming " +
+                        "inference: expected state with minibatch size %s, got shape %ndShape", s.getKey(), layer.getKey(), n, arr);
+                long[] shape = arr.shape().clone();
+                shape[0] = 1;
+                long length = arr.length() / n;
+                dataType = arr.dataType();
+                layout.add(new StateEntry(layer.getKey(), s.getKey(), shape, offset, length));
+                offset += length;
+            }
+        }
+        Preconditions.checkState(!layout.isEmpty(), "Network does not have any RNN state: no recurrent layers to stream");
+        stateLayout = layout;
+        stateSize = offset;
+        stateDataType = dataType;
+    }
+
+    private Map<String, Map<String, INDArray>> unpack(INDArray packed, int n) {
+        Map<String, Map<String, INDArray>> states = new LinkedHashMap<>();
+        for (StateEntry e : stateLayout) {
+            long[] shape = e.shape.clone();
+            shape[0] = n;
+            INDArray arr = packed.get(all(), interval(e.offset, e.offset + e.length)).dup('c').reshape('c', shape);
+            states.computeIfAbsent(e.layer, k -> new HashMap<>()).put(e.key, arr);
+        }
+        return states;
+    }
+
+    private INDArray pack(Map<String, Map<String, INDArray>> states, int n) {
+        INDArray packed = Nd4j.create(stateDataType, n, stateSize);
+        for (StateEntry e : stateLayout) {
+            INDArray arr = states.get(e.layer).get(e.key);
+            packed.get(all(), interval(e.offset, e.offset + e.length)).assign(arr.dup('c').reshape('c', n, e.length));
+        }
+        return packed;
+    }
+
+    private synchronized void startWorker() {
+        if (worker == null && !closed) {
+            worker = new Thread(this::runWorker, "StreamingRnnInference-worker");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void runWorker() {
+        Deque<Request> deferred = new ArrayDeque<>();
+        while (!closed) {
+            try {
+                //Requests deferred from the last batch (same session, or different shape) go first, to preserve order
+                List<Request> batch = new ArrayList<>();
+                Set<String> batchIds = new HashSet<>();
+                List<Long> shape = null;
+                Deque<Request> nextDeferred = new ArrayDeque<>();
+                while (!deferred.isEmpty()) {
+                    Request r = deferred.poll();
+                    shape = add(batch, batchIds, shape, r, nextDeferred);
+                }
+
+                if (batch.isEmpty()) {
+                    Request r = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (r == null)
+                        continue;
+                    shape = add(batch, batchIds, shape, r, nextDeferred);
+                }
+
+                long end = System.currentTimeMillis() + maxBatchWaitMs;
+                while (batch.size() < maxBatchSize) {
+                    long wait = end - System.currentTimeMillis();
+                    Request r = (wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll());
+                    if (r == null)
+                        break;
+                    shape = add(batch, batchIds, shape, r, nextDeferred);
+                }
+                deferred = nextDeferred;
+
+                List<String> ids = new ArrayList<>(batch.size());
+                INDArray[] inputs = new INDArray[batch.size()];
+                for (int i = 0; i < inputs.length; i++) {
+                    ids.add(batch.get(i).sessionId);
+                    inputs[i] = batch.get(i).input;
+                }
+                try {
+                    INDArray[] out = execBatch(ids, inputs);
+                    for (int i = 0; i < out.length; i++) {
+                        batch.get(i).future.complete(out[i]);
+                    }
+                } catch (Throwable t) {
+                    log.warn("Error executing streaming RNN inference batch of size {}", batch.size(), t);
+                    for (Request r : batch) {
+                        r.future.completeExceptionally(t);
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+
+        for (Request r : deferred) {
+            r.future.completeExceptionally(new IllegalStateException("StreamingRnnInference has been closed"));
+        }
+    }
+
+    /**
+     * Add the request to the batch if possible, or to the deferred requests otherwise
+     */
+    private List<Long> add(List<Request> batch, Set<String> batchIds, List<Long> shape, Request r, Deque<Request> deferred) {
+        List<Long> s = shapeKey(r.input);
+        //Requests for a session must stay in order: once one is deferred, all later requests for it are too
+        boolean sessionDeferred = false;
+        for (Request d : deferred) {
+            if (d.sessionId.equals(r.sessionId)) {
+                sessionDeferred = true;
+                break;
+            }
+        }
+        if (sessionDeferred || batchIds.contains(r.sessionId) || batch.size() >= maxBatchSize || (shape != null && !shape.equals(s))) {
+            deferred.add(r);
+            return shape;
+        }
+        batch.add(r);
+        batchIds.add(r.sessionId);
+        return s;
+    }
+
+    private static class Session {
+        private final INDArray state;
+        private long lastAccess;
+
+        private Session(INDArray state, long lastAccess) {
+            this.state = state;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class StateEntry {
+        private final String layer;
+        private final String key;
+        private final long[] shape;
+        private final long offset;
+        private final long length;
+    }
+
+    @AllArgsConstructor
+    private static class Request {
+        private final String sessionId;
+        private final INDArray input;
+        private final CompletableFuture<INDArray> future;
+    }
+
+    public static class Builder {
+        private final Model model;
+        private int maxSessions = 10000;
+        private long sessionTimeoutMs = 0;
+        private int maxBatchSize = 32;
+        private long maxBatchWaitMs = 2;
+
+        /**
+         * @param model Network to use. Must be a MultiLayerNetwork or ComputationGraph with a single input, and at
+         *              least one recurrent layer
+         */
+        public Builder(@NonNull Model model) {
+            this.model = model;
+        }
+
+        /**
+         * Maximum number of sessions to store RNN state for. When exceeded, the least recently used session is evicted.
+         * Default: 10000
+         */
+        public Builder maxSessions(int maxSessions) {
+            Preconditions.checkArgument(maxSessions > 0, "Max sessions must be positive, got %s", maxSessions);
+            this.maxSessions = maxSessions;
+            return this;
+        }
+
+        /**
+         * Sessions that have not been used for longer than this are evicted. Default: 0 (no timeout)
+         */
+        public Builder sessionTimeout(long timeout, @NonNull TimeUnit unit) {
+            Preconditions.checkArgument(timeout >= 0, "Session timeout must be non-negative, got %s", timeout);
+            this.sessionTimeoutMs = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Maximum number of sessions to execute in a single minibatch. Limited to the maximum number of sessions.
+         * Default: 32
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            Preconditions.checkArgument(maxBatchSize > 0, "Max batch size must be positive, got %s", maxBatchSize);
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time to wait for more requests to add to a batch, for {@link StreamingRnnInference#submit(String, INDArray)}.
+         * Higher values give larger batches (higher throughput) at the cost of latency. Default: 2 milliseconds
+         */
+        public Builder maxBatchWait(long wait, @NonNull TimeUnit unit) {
+            Preconditions.checkArgument(wait >= 0, "Max batch wait must be non-negative, got %s", wait);
+            this.maxBatchWaitMs = unit.toMillis(wait);
+            return this;
+        }
+
+        public StreamingRnnInference build() {
+            return new StreamingRnnInference(this);
+        }
+    }
+}
@@ -313,7 +313,7 @@ public abstract class BaseLayer<LayerConfT extends org.deeplearning4j.nn.conf.la
 
 
         INDArray ret = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, W.dataType(), input.size(0), W.size(1));
-        input.castTo(ret.dataType()).mmuli(W, ret);     //TODO Can we avoid this cast? (It sohuld be a no op if not required, however)
+        inputMmulWeights(input, W, ret, forBackprop);
 
         INDArray preNorm = ret;
         if(hasLayerNorm()){
@@ -332,6 +332,19 @@ public abstract class BaseLayer<LayerConfT extends org.deeplearning4j.nn.conf.la
         return new Pair<>(ret, preNorm);
     }
 
+    /**
+     * Calculate input x W for the forward pass, placing the result in the given array. Subclasses may override this
+     * to use a different matrix multiplication implementation (for example, a quantized one)
+     *
+     * @param input       Layer input, shape [minibatch, nIn]
+     * @param W           Weights, shape [nIn, nOut]
+     * @param result      Array to place the result in, shape [minibatch, nOut]
+     * @param forBackprop True if the result will be used for backprop
+     */
+    protected void inputMmulWeights(INDArray input, INDArray W, INDArray result, boolean forBackprop) {
+        input.castTo(result.dataType()).mmuli(W, result);     //TODO Can we avoid this cast? (It sohuld be a no op if not required, however)
+    }
+
     @Override
     public INDArray activate(boolean training, LayerWorkspaceMgr workspaceMgr) {
         INDArray z = preOutput(training, workspaceMgr);
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * An alternative to the built-in im2col + gemm implementation of the 2d convolution forward pass, used by
+ * {@link ConvolutionLayer} for inference. See {@link org.deeplearning4j.nn.conf.layers.ConvolutionLayer.CpuFwdAlgo}
+ */
+public interface ConvolutionAlgorithm {
+
+    /**
+     * @param kernel   Kernel size [kH, kW]
+     * @param strides  Strides [sH, sW]
+     * @param pad      Padding [pH, pW] (top/left)
+     * @param dilation Dilation [dH, dW]
+     * @return True if the algorithm supports a convolution with the given configuration
+     */
+    boolean isSupported(int[] kernel, int[] strides, int[] pad, int[] dilation);
+
+    /**
+     * Calculate the convolution forward pass (before the activation function)
+     *
+     * @param input        Input, shape [minibatch, inDepth, inH, inW]
+     * @param weights      Weights, shape [outDepth, inDepth, kH, kW]
+     * @param bias         Bias, shape [1, outDepth]. May be null
+     * @param strides      Strides
+     * @param pad          Padding (top/left)
+     * @param outH         Output height
+     * @param outW         Output width
+     * @param workspaceMgr Workspace manager: the result should be in the ACTIVATIONS workspace
+     * @return Pre-output activations, shape [minibatch, outDepth, outH, outW]. May be a view (permuted, for example) of
+     * an ACTIVATIONS workspace array, as with the built-in im2col implementation
+     */
+    INDArray preOutput(INDArray input, INDArray weights, INDArray bias, int[] strides, int[] pad, int outH, int outW,
+                       LayerWorkspaceMgr workspaceMgr);
+}
@@ -23,12 +23,14 @@ import org.deeplearning4j.nn.api.MaskState;
 import org.deeplearning4j.nn.conf.CacheMode;
 import org.deeplearning4j.nn.conf.ConvolutionMode;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer.CpuFwdAlgo;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.deeplearning4j.nn.layers.LayerHelper;
 import org.deeplearning4j.nn.layers.mkldnn.MKLDNNConvHelper;
 import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.deeplearning4j.nn.quantization.QuantizedWeights;
 import org.deeplearning4j.util.ConvolutionUtils;
 import org.nd4j.linalg.activations.IActivation;
 import org.nd4j.linalg.api.buffer.DataType;
@@ -47,6 +49,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 
 
 /**
@@ -61,6 +66,15 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
     protected ConvolutionHelper helper = null;
     protected int helperCountFail = 0;
     protected ConvolutionMode convolutionMode;
+    protected QuantizedWeights quantizedWeights;
+    protected transient Map<String, CpuFwdAlgo> autoTunedAlgos;  //Input size to selected algorithm, for CpuFwdAlgo.AUTO
+    protected transient boolean loggedUnsupportedAlgo;
+
+    protected static final Map<CpuFwdAlgo, ConvolutionAlgorithm> CPU_FWD_ALGORITHMS = new EnumMap<>(CpuFwdAlgo.class);
+    static {
+        CPU_FWD_ALGORITHMS.put(CpuFwdAlgo.DIRECT, new Direct1x1ConvolutionAlgorithm());
+        CPU_FWD_ALGORITHMS.put(CpuFwdAlgo.WINOGRAD, new WinogradConvolutionAlgorithm());
+    }
 
     protected transient INDArray dummyBias;     //Used only when: hasBias == false AND helpers are used
     protected transient INDArray dummyBiasGrad; //As above
@@ -314,14 +328,9 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
 
         INDArray input = this.input.castTo(dataType);
 
-        long miniBatch = input.size(0);
-        long outDepth = weights.size(0);
         long inDepth = weights.size(1);
         validateInputDepth(inDepth);
 
-        long kH = weights.size(2);
-        long kW = weights.size(3);
-
         int[] dilation = layerConf().getDilation();
         int[] kernel = layerConf().getKernelSize();
         int[] strides = layerConf().getStride();
@@ -344,7 +353,8 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         int outW = outSize[1];
 
 
-        if (helper != null && (helperCountFail == 0 || !layerConf().isCudnnAllowFallback())) {
+        boolean quantized = quantizedWeights != null && !forBackprop;
+        if (helper != null && !quantized && (helperCountFail == 0 || !layerConf().isCudnnAllowFallback())) {
             if (preOutput != null && forBackprop) {
                 return new Pair<>(preOutput, null);
             }
@@ -391,6 +401,29 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
             return new Pair<>(preOutput, i2d);
         }
 
+        if (!training && !forBackprop && !quantized) {
+            ConvolutionAlgorithm algorithm = getCpuFwdAlgorithm(input, weights, bias, kernel, strides, pad, dilation, outH, outW);
+            if (algorithm != null) {
+                INDArray z = algorithm.preOutput(input, weights, layerConf().hasBias() ? bias : null, strides, pad, outH, outW, workspaceMgr);
+                return new Pair<>(z, null);
+            }
+        }
+
+        return preOutputIm2Col(input, weights, bias, strides, pad, dilation, outH, outW, training, forBackprop, quantized, workspaceMgr);
+    }
+
+    /**
+     * Built-in im2col + gemm implementation of the forward pass
+     */
+    protected Pair<INDArray, INDArray> preOutputIm2Col(INDArray input, INDArray weights, INDArray bias, int[] strides,
+                                                       int[] pad, int[] dilation, int outH, int outW, boolean training,
+                                                       boolean forBackprop, boolean quantized, LayerWorkspaceMgr workspaceMgr) {
+        long miniBatch = input.size(0);
+        long outDepth = weights.size(0);
+        long inDepth = weights.size(1);
+        long kH = weights.size(2);
+        long kW = weights.size(3);
+
         //im2col in the required order: want [outW,outH,miniBatch,depthIn,kH,kW], but need to input [miniBatch,channels,kH,kW,outH,outW] given the current im2col implementation
         //To get this: create an array of the order we want, permute it to the order required by im2col implementation, and then do im2col on that
         //to get old order from required order: permute(0,3,4,5,1,2)
@@ -413,7 +446,11 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
 
         //Do the MMUL; c and f orders in, f order out. output shape: [miniBatch*outH*outW,depthOut]
         INDArray z = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, weights.dataType(), new long[]{im2col2d.size(0), reshapedW.size(1)}, 'f');
-        im2col2d.mmuli(reshapedW, z);
+        if (quantized) {
+            quantizedWeights.mmul(im2col2d, z);
+        } else {
+            im2col2d.mmuli(reshapedW, z);
+        }
 
         //Add biases, before reshaping. Note that biases are [1,depthOut] and currently z is [miniBatch*outH*outW,depthOut] -> addiRowVector
         if(layerConf().hasBias()){
@@ -433,6 +470,77 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         return new Pair<>(z, forBackprop ? im2col2d : null);
     }
 
+    /**
+     * Get the convolution algorithm to use for the inference forward pass, as per
+     * {@link org.deeplearning4j.nn.conf.layers.ConvolutionLayer#getCpuFwdAlgo()}. For AUTO mode, the supported
+     * algorithms are benchmarked the first time each input size is seen, and the fastest one is cached.
+     *
+     * @return The algorithm to use, or null to use the built-in im2col implementation
+     */
+    protected ConvolutionAlgorithm getCpuFwdAlgorithm(INDArray input, INDArray weights, INDArray bias, int[] kernel,
+                                                      int[] strides, int[] pad, int[] dilation, int outH, int outW) {
+        CpuFwdAlgo mode = layerConf().getCpuFwdAlgo();
+        if (mode == null || mode == CpuFwdAlgo.IM2COL) {
+            return null;
+        }
+
+        if (mode != CpuFwdAlgo.AUTO) {
+            ConvolutionAlgorithm algorithm = CPU_FWD_ALGORITHMS.get(mode);
+            if (algorithm.isSupported(kernel, strides, pad, dilation)) {
+                return algorithm;
+            }
+            if (!loggedUnsupportedAlgo) {
+                log.warn("Layer {}: convolution algorithm {} is not supported for kernel={}, strides={}, padding={}, dilation={} - using {}",
+                        layerId(), mode, Arrays.toString(kernel), Arrays.toString(strides), Arrays.toString(pad),
+                        Arrays.toString(dilation), CpuFwdAlgo.IM2COL);
+                loggedUnsupportedAlgo = true;
+            }
+            return null;
+        }
+
+        if (autoTunedAlgos == null) {
+            autoTunedAlgos = new HashMap<>();
+        }
+        String key = input.size(2) + "x" + input.size(3);
+        CpuFwdAlgo selected = autoTunedAlgos.get(key);
+        if (selected == null) {
+            selected = CpuFwdAlgo.IM2COL;
+            INDArray b = layerConf().hasBias() ? bias : null;
+            LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces();
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < 2; i++) {
+                    //Time the second run only, so one-off costs (allocation, JIT, etc) are not counted
+                    long start = System.nanoTime();
+                    preOutputIm2Col(input, weights, bias, strides, pad, dilation, outH, outW, false, false, false, mgr);
+                    Nd4j.getExecutioner().commit();
+                    best = System.nanoTime() - start;
+                }
+
+                for (Map.Entry<CpuFwdAlgo, ConvolutionAlgorithm> e : CPU_FWD_ALGORITHMS.entrySet()) {
+                    ConvolutionAlgorithm algorithm = e.getValue();
+                    if (!algorithm.isSupported(kernel, strides, pad, dilation)) {
+                        continue;
+                    }
+                    long time = 0;
+                    for (int i = 0; i < 2; i++) {
+                        long start = System.nanoTime();
+                        algorithm.preOutput(input, weights, b, strides, pad, outH, outW, mgr);
+                        Nd4j.getExecutioner().commit();
+                        time = System.nanoTime() - start;
+                    }
+                    if (time < best) {
+                        best = time;
+                        selected = e.getKey();
+                    }
+                }
+            }
+            log.debug("Layer {}: selected convolution algorithm {} for input size {}", layerId(), selected, key);
+            autoTunedAlgos.put(key, selected);
+        }
+        return CPU_FWD_ALGORITHMS.get(selected);
+    }
+
     @Override
     public INDArray activate(boolean training, LayerWorkspaceMgr workspaceMgr) {
         if (input == null) {
@@ -504,6 +612,25 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         return helper;
     }
 
+    /**
+     * Set int8 quantized weights for this layer. If set, the forward pass for inference uses the built-in im2col
+     * implementation with an int8 matrix multiplication instead of the floating point weights (and any helper).
+     * Training (backprop) is unaffected. The quantized weights should be created from the weights reshaped to
+     * [inDepth*kH*kW, outDepth] - see {@link org.deeplearning4j.nn.quantization.Int8Quantizer}
+     *
+     * @param quantizedWeights Quantized weights, or null to use floating point weights for inference
+     */
+    public void setQuantizedWeights(QuantizedWeights quantizedWeights) {
+        this.quantizedWeights = quantizedWeights;
+    }
+
+    /**
+     * @return Quantized weights used for inference, or null if not set
+     */
+    public QuantizedWeights getQuantizedWeights() {
+        return quantizedWeights;
+    }
+
     @Override
     public void fit(INDArray input, LayerWorkspaceMgr workspaceMgr) {
         throw new UnsupportedOperationException("Not supported");
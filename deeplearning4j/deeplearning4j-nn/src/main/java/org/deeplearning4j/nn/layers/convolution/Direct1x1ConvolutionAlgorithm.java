@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.nn.workspace.ArrayType;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+
+/**
+ * Direct convolution for 1x1 kernels (no padding or dilation, any stride).<br>
+ * A 1x1 convolution is a single matrix multiplication of the weights [outDepth, inDepth] with the input viewed as
+ * [inDepth, minibatch*outH*outW] - so no im2col buffer is required. The input is copied to that (channels first)
+ * layout only if it isn't already in it, i.e., for minibatch sizes other than 1 or strides other than 1. The result
+ * is a [minibatch, outDepth, outH, outW] view of the [outDepth, minibatch*outH*outW] gemm output.
+ */
+public class Direct1x1ConvolutionAlgorithm implements ConvolutionAlgorithm {
+
+    @Override
+    public boolean isSupported(int[] kernel, int[] strides, int[] pad, int[] dilation) {
+        return kernel[0] == 1 && kernel[1] == 1 && pad[0] == 0 && pad[1] == 0 && dilation[0] == 1 && dilation[1] == 1;
+    }
+
+    @Override
+    public INDArray preOutput(INDArray input, INDArray weights, INDArray bias, int[] strides, int[] pad, int outH, int outW,
+                              LayerWorkspaceMgr workspaceMgr) {
+        long miniBatch = input.size(0);
+        long inDepth = weights.size(1);
+        long outDepth = weights.size(0);
+        long outSize = (long) outH * outW;
+
+        if (strides[0] != 1 || strides[1] != 1) {
+            //Strided 1x1 convolution: only every sH'th row and sW'th column contribute
+            input = input.get(all(), all(), interval(0, strides[0], (long) (outH - 1) * strides[0] + 1),
+                    interval(0, strides[1], (long) (outW - 1) * strides[1] + 1));
+        }
+
+        INDArray in2d;
+        if (miniBatch == 1 && input.ordering() == 'c' && Shape.hasDefaultStridesForShape(input)) {
+            in2d = input.reshape('c', inDepth, outSize);
+        } else {
+            //[minibatch, inDepth, outH, outW] -> [inDepth, minibatch, outH, outW], c order
+            INDArray channelsFirst = workspaceMgr.createUninitialized(ArrayType.FF_WORKING_MEM, weights.dataType(),
+                    new long[]{inDepth, miniBatch, outH, outW}, 'c');
+            channelsFirst.assign(input.permute(1, 0, 2, 3));
+            in2d = channelsFirst.reshape('c', inDepth, miniBatch * outSize);
+        }
+
+        INDArray w2d = weights.reshape('c', outDepth, inDepth);
+        INDArray out = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, weights.dataType(), new long[]{outDepth, miniBatch * outSize}, 'c');
+        w2d.mmuli(in2d, out);
+
+        if (bias != null) {
+            out.addiColumnVector(bias.reshape(outDepth, 1));
+        }
+        return out.reshape('c', outDepth, miniBatch, outH, outW).permute(1, 0, 2, 3);
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.nn.workspace.ArrayType;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastAddOp;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.*;
+
+/**
+ * Winograd F(2x2, 3x3) convolution for 3x3 kernels with stride 1 and no dilation.<br>
+ * The output is calculated in 2x2 tiles, each from a 4x4 input tile: Y = A^T [ (G g G^T) .* (B^T d B) ] A.
+ * The element-wise product over the 16 tile positions is summed over input channels, giving 16 matrix
+ * multiplications of [outDepth, inDepth] x [inDepth, minibatch*numTiles]. This requires 16 multiplications per 2x2
+ * output tile and channel pair, compared to 36 for direct convolution.<br>
+ * The transformed input is held in a single [16, inDepth, minibatch*numTiles] buffer: 16 values per tile and input
+ * channel, compared to 36 (4 output positions x 9 kernel positions) in the equivalent im2col buffer. A zero padded copy
+ * of the input is also required, plus [16, outDepth, inDepth] and [16, outDepth, minibatch*numTiles] buffers for the
+ * transformed weights and products. All transforms are computed in place, on views of these buffers.<br>
+ * See Lavin and Gray (2015), "Fast Algorithms for Convolutional Neural Networks", <a href="https://arxiv.org/abs/1509.09308">https://arxiv.org/abs/1509.09308</a>
+ */
+public class WinogradConvolutionAlgorithm implements ConvolutionAlgorithm {
+    private static final double[][] BT = {{1, 0, -1, 0}, {0, 1, 1, 0}, {0, -1, 1, 0}, {0, 1, 0, -1}};
+    private static final double[][] G = {{1, 0, 0}, {0.5, 0.5, 0.5}, {0.5, -0.5, 0.5}, {0, 0, 1}};
+    private static final double[][] AT = {{1, 1, 1, 0}, {0, 1, -1, -1}};
+
+    @Override
+    public boolean isSupported(int[] kernel, int[] strides, int[] pad, int[] dilation) {
+        return kernel[0] == 3 && kernel[1] == 3 && strides[0] == 1 && strides[1] == 1 && dilation[0] == 1 && dilation[1] == 1;
+    }
+
+    @Override
+    public INDArray preOutput(INDArray input, INDArray weights, INDArray bias, int[] strides, int[] pad, int outH, int outW,
+                              LayerWorkspaceMgr workspaceMgr) {
+        DataType dataType = weights.dataType();
+        long miniBatch = input.size(0);
+        long inDepth = weights.size(1);
+        long outDepth = weights.size(0);
+        long inH = input.size(2);
+        long inW = input.size(3);
+
+        //Number of 2x2 output tiles, and padded input size required for them: 4x4 input tiles with stride 2
+        long tilesH = (outH + 1) / 2;
+        long tilesW = (outW + 1) / 2;
+        long nTiles = miniBatch * tilesH * tilesW;
+        long padH = 2 * tilesH + 2;
+        long padW = 2 * tilesW + 2;
+        long copyH = Math.min(inH, padH - pad[0]);
+        long copyW = Math.min(inW, padW - pad[1]);
+
+        //Padded input, channels first: [inDepth, minibatch, padH, padW]
+        INDArray padded = workspaceMgr.create(ArrayType.FF_WORKING_MEM, dataType, new long[]{inDepth, miniBatch, padH, padW}, 'c');
+        padded.get(all(), all(), interval(pad[0], pad[0] + copyH), interval(pad[1], pad[1] + copyW))
+                .assign(input.get(all(), all(), interval(0, copyH), interval(0, copyW)).permute(1, 0, 2, 3));
+
+        //Input transform: V = B^T d B, where d[i][j] is element (i,j) of each input tile, shape [inDepth, mb, tilesH, tilesW]
+        INDArray[][] d = new INDArray[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                d[i][j] = padded.get(all(), all(), interval(i, 2, i + 2 * tilesH), interval(j, 2, j + 2 * tilesW));
+            }
+        }
+        INDArray v = workspaceMgr.createUninitialized(ArrayType.FF_WORKING_MEM, dataType, new long[]{16, inDepth, nTiles}, 'c');
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                transform(v.get(point(4 * i + j), all(), all()).reshape('c', inDepth, miniBatch, tilesH, tilesW), BT[i], BT[j], d);
+            }
+        }
+
+        //Weight transform: U = G g G^T, shape [16, outDepth, inDepth]
+        INDArray[][] g = new INDArray[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                g[i][j] = weights.get(all(), all(), point(i), point(j));
+            }
+        }
+        INDArray u = workspaceMgr.createUninitialized(ArrayType.FF_WORKING_MEM, dataType, new long[]{16, outDepth, inDepth}, 'c');
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                transform(u.get(point(4 * i + j), all(), all()), G[i], G[j], g);
+            }
+        }
+
+        //Element-wise product in the transformed domain, summed over input channels: M = U x V
+        INDArray mAll = workspaceMgr.createUninitialized(ArrayType.FF_WORKING_MEM, dataType, new long[]{16, outDepth, nTiles}, 'c');
+        INDArray[][] m = new INDArray[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                int k = 4 * i + j;
+                INDArray mk = mAll.get(point(k), all(), all());
+                u.get(point(k), all(), all()).mmuli(v.get(point(k), all(), all()), mk);
+                m[i][j] = mk.reshape('c', outDepth, miniBatch, tilesH, tilesW);
+            }
+        }
+
+        //Output transform: Y = A^T M A, giving the 4 elements of each 2x2 output tile. Written directly to the output,
+        //in [outDepth, minibatch, 2*tilesH, 2*tilesW] layout
+        INDArray tiled = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, dataType, new long[]{outDepth, miniBatch, 2 * tilesH, 2 * tilesW}, 'c');
+        for (int p = 0; p < 2; p++) {
+            for (int q = 0; q < 2; q++) {
+                transform(tiled.get(all(), all(), interval(p, 2, 2 * tilesH), interval(q, 2, 2 * tilesW)), AT[p], AT[q], m);
+            }
+        }
+
+        if (bias != null) {
+            Nd4j.getExecutioner().exec(new BroadcastAddOp(tiled, bias.reshape(outDepth), tiled, 0));
+        }
+
+        //Output shape [minibatch, outDepth, outH, outW]: a view, as with the im2col implementation
+        if (2 * tilesH != outH || 2 * tilesW != outW) {
+            tiled = tiled.get(all(), all(), interval(0, outH), interval(0, outW));
+        }
+        return tiled.permute(1, 0, 2, 3);
+    }
+
+    /**
+     * target = sum_{a,b} left[a] * right[b] * terms[a][b], using in-place operations only. The non-zero values of each
+     * row of the B^T, G and A^T matrices have the same magnitude, hence this is a signed sum of the terms, scaled once.
+     */
+    private static void transform(INDArray target, double[] left, double[] right, INDArray[][] terms) {
+        boolean first = true;
+        double scale = 1.0;
+        for (int a = 0; a < left.length; a++) {
+            if (left[a] == 0.0)
+                continue;
+            for (int b = 0; b < right.length; b++) {
+                if (right[b] == 0.0)
+                    continue;
+                double c = left[a] * right[b];
+                if (first) {
+                    target.assign(terms[a][b]);
+                    if (c < 0)
+                        target.negi();
+                    scale = Math.abs(c);
+                    first = false;
+                } else if (c > 0) {
+                    target.addi(terms[a][b]);
+                } else {
+                    target.subi(terms[a][b]);
+                }
+            }
+        }
+        if (scale != 1.0)
+            target.muli(scale);
+    }
+}
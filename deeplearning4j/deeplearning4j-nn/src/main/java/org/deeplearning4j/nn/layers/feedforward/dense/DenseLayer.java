@@ -16,20 +16,176 @@
 
 package org.deeplearning4j.nn.layers.feedforward.dense;
 
+import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.deeplearning4j.nn.quantization.QuantizedWeights;
+import org.deeplearning4j.nn.workspace.ArrayType;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.api.ndarray.sparse.SparseMatrix;
+import org.nd4j.linalg.api.ops.impl.transforms.custom.LayerNorm;
+import org.nd4j.linalg.api.ops.impl.transforms.custom.LayerNormBp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.primitives.Pair;
 
 /**
  * @author Adam Gibson
  */
 public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.DenseLayer> {
+
+    protected SparseMatrix sparseInput;
+    protected QuantizedWeights quantizedWeights;
+
     public DenseLayer(NeuralNetConfiguration conf, DataType dataType) {
         super(conf, dataType);
     }
 
+    /**
+     * Set a sparse input for this layer. Until the next call to {@link #setInput(INDArray, LayerWorkspaceMgr)} or
+     * {@link #clear()}, the forward pass uses sparse x dense matrix multiplication, and the weight gradients are
+     * computed as (sparse input)^T x delta - i.e., the cost is proportional to the number of non-zero input values,
+     * not the layer input size.<br>
+     * Note that dropout is not applied to sparse input, and no epsilon (gradient with respect to the input) is
+     * returned from {@link #backpropGradient(INDArray, LayerWorkspaceMgr)}; hence a layer with sparse input should be
+     * the first layer of a network.<br>
+     * For networks, use {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork#fit(SparseMatrix, INDArray)} and
+     * {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork#output(SparseMatrix, boolean)}, which set the sparse
+     * features on the first layer. ComputationGraph does not support sparse input: its fit/output methods always set
+     * dense input on their layers, which discards any sparse input set here.
+     *
+     * @param input Sparse input, shape [minibatch, nIn]
+     */
+    public void setSparseInput(SparseMatrix input) {
+        this.sparseInput = input;
+        this.input = null;
+        this.dropoutApplied = false;
+    }
+
+    /**
+     * Set int8 quantized weights for this layer. If set, the forward pass for inference uses an int8 matrix
+     * multiplication with these weights instead of the floating point weights of the layer. Training (backprop) is
+     * unaffected and uses the floating point weights - hence quantized weights should be recalculated if the layer
+     * parameters are modified. See {@link org.deeplearning4j.nn.quantization.Int8Quantizer}
+     *
+     * @param quantizedWeights Quantized weights, or null to use floating point weights for inference
+     */
+    public void setQuantizedWeights(QuantizedWeights quantizedWeights) {
+        this.quantizedWeights = quantizedWeights;
+    }
+
+    /**
+     * @return Quantized weights used for inference, or null if not set
+     */
+    public QuantizedWeights getQuantizedWeights() {
+        return quantizedWeights;
+    }
+
+    @Override
+    protected void inputMmulWeights(INDArray input, INDArray W, INDArray result, boolean forBackprop) {
+        if (quantizedWeights != null && !forBackprop) {
+            quantizedWeights.mmul(input, result);
+        } else {
+            super.inputMmulWeights(input, W, result, forBackprop);
+        }
+    }
+
+    @Override
+    public void setInput(INDArray input, LayerWorkspaceMgr workspaceMgr) {
+        super.setInput(input, workspaceMgr);
+        this.sparseInput = null;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        sparseInput = null;
+    }
+
+    @Override
+    public void assertInputSet(boolean backprop) {
+        if (sparseInput == null)
+            super.assertInputSet(backprop);
+    }
+
+    @Override
+    public int getInputMiniBatchSize() {
+        if (sparseInput != null)
+            return (int) sparseInput.rows();
+        return super.getInputMiniBatchSize();
+    }
+
+    @Override
+    protected Pair<INDArray, INDArray> preOutputWithPreNorm(boolean training, boolean forBackprop, LayerWorkspaceMgr workspaceMgr) {
+        if (sparseInput == null)
+            return super.preOutputWithPreNorm(training, forBackprop, workspaceMgr);
+
+        INDArray W = getParamWithNoise(DefaultParamInitializer.WEIGHT_KEY, training, workspaceMgr);
+        INDArray b = getParamWithNoise(DefaultParamInitializer.BIAS_KEY, training, workspaceMgr);
+
+        if (sparseInput.columns() != W.rows()) {
+            throw new DL4JInvalidInputException("Sparse input size (" + sparseInput.columns() + " columns) is invalid: " +
+                    "does not match layer input size (layer # inputs = " + W.size(0) + ") " + layerId());
+        }
+
+        INDArray ret = workspaceMgr.createUninitialized(ArrayType.ACTIVATIONS, W.dataType(), sparseInput.rows(), W.size(1));
+        sparseInput.mmul(W, ret);
+
+        INDArray preNorm = ret;
+        if (hasLayerNorm()) {
+            preNorm = (forBackprop ? ret.dup(ret.ordering()) : ret);
+            Nd4j.getExecutioner().exec(new LayerNorm(preNorm, getParam(DefaultParamInitializer.GAIN_KEY), ret, true, 1));
+        }
+
+        if (hasBias()) {
+            ret.addiRowVector(b);
+        }
+
+        if (maskArray != null) {
+            applyMask(ret);
+        }
+
+        return new Pair<>(ret, preNorm);
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(INDArray epsilon, LayerWorkspaceMgr workspaceMgr) {
+        if (sparseInput == null)
+            return super.backpropGradient(epsilon, workspaceMgr);
+
+        Pair<INDArray, INDArray> zAndPreNorm = preOutputWithPreNorm(true, true, workspaceMgr);
+        INDArray delta = layerConf().getActivationFn().backprop(zAndPreNorm.getFirst(), epsilon).getFirst();
+
+        if (maskArray != null) {
+            applyMask(delta);
+        }
+
+        Gradient ret = new DefaultGradient();
+        if (hasBias()) {
+            INDArray biasGrad = gradientViews.get(DefaultParamInitializer.BIAS_KEY);
+            delta.sum(biasGrad, 0);
+            ret.gradientForVariable().put(DefaultParamInitializer.BIAS_KEY, biasGrad);
+        }
+
+        if (hasLayerNorm()) {
+            INDArray dldg = gradientViews.get(DefaultParamInitializer.GAIN_KEY);
+            Nd4j.getExecutioner().exec(new LayerNormBp(zAndPreNorm.getSecond(), getParam(DefaultParamInitializer.GAIN_KEY),
+                    delta, delta, dldg, true, 1));
+            ret.gradientForVariable().put(DefaultParamInitializer.GAIN_KEY, dldg);
+        }
+
+        INDArray weightGrad = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
+        sparseInput.transposeMmul(delta, weightGrad);
+        ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, weightGrad);
+
+        weightNoiseParams.clear();
+        return new Pair<>(ret, null);
+    }
+
     @Override
     public void fit(INDArray input, LayerWorkspaceMgr workspaceMgr) {
         throw new UnsupportedOperationException("Not supported");
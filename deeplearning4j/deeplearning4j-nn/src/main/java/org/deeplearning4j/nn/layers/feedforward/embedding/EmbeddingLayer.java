@@ -19,6 +19,7 @@ package org.deeplearning4j.nn.layers.feedforward.embedding;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ops.custom.ScatterUpdate;
 import org.nd4j.linalg.exception.ND4JArraySizeException;
 import org.nd4j.linalg.primitives.Pair;
@@ -33,6 +34,8 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.deeplearning4j.nn.workspace.ArrayType;
 
+import java.util.Arrays;
+
 /**Embedding layer: feed-forward layer that expects single integers per example as input (class numbers, in range 0 to numClass-1)
  * as input. This input has shape [numExamples,1] instead of [numExamples,numClasses] for the equivalent one-hot representation.
  * Mathematically, EmbeddingLayer is equivalent to using a DenseLayer with a one-hot representation for the input; however,
@@ -47,6 +50,9 @@ import org.deeplearning4j.nn.workspace.ArrayType;
 public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer> {
     private static final int[] DIM_1 = new int[]{1};
 
+    //Rows of the weight gradient view that may be non-zero - only used with sparse gradients
+    private INDArray lastSparseRows;
+
     public EmbeddingLayer(NeuralNetConfiguration conf, DataType dataType) {
         super(conf, dataType);
     }
@@ -63,7 +69,14 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         }
 
         INDArray weightGradients = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
-        weightGradients.assign(0);
+        boolean sparse = layerConf().isSparseGradients();
+        if (sparse && lastSparseRows != null) {
+            //Only rows touched in the previous iteration can be non-zero
+            INDArray zeros = Nd4j.zeros(weightGradients.dataType(), lastSparseRows.length(), weightGradients.size(1));
+            Nd4j.scatterUpdate(org.nd4j.linalg.api.ops.impl.scatter.ScatterUpdate.UpdateOp.ASSIGN, weightGradients, lastSparseRows, zeros, DIM_1);
+        } else {
+            weightGradients.assign(0);
+        }
 
         long[] indexes = new long[(int) input.length()];
         for (int i = 0; i < indexes.length; i++) {
@@ -76,6 +89,13 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
 
         Gradient ret = new DefaultGradient();
         ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, weightGradients);
+        if (sparse) {
+            long[] unique = uniqueSorted(indexes);
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                lastSparseRows = Nd4j.createFromArray(unique);
+            }
+            ret.setSparseRowsFor(DefaultParamInitializer.WEIGHT_KEY, lastSparseRows);
+        }
 
         if(hasBias()) {
             INDArray biasGradientsView = gradientViews.get(DefaultParamInitializer.BIAS_KEY);
@@ -86,6 +106,24 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return new Pair<>(ret, null); //Don't bother returning epsilons: no layer below this one...
     }
 
+    private static long[] uniqueSorted(long[] indexes) {
+        long[] sorted = Arrays.copyOf(indexes, indexes.length);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[count++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    @Override
+    public void setBackpropGradientsViewArray(INDArray gradients) {
+        super.setBackpropGradientsViewArray(gradients);
+        //New gradient view: contents are unknown, so it has to be zeroed entirely on the next backprop
+        lastSparseRows = null;
+    }
+
     @Override
     protected INDArray preOutput(boolean training, LayerWorkspaceMgr workspaceMgr) {
         assertInputSet(false);
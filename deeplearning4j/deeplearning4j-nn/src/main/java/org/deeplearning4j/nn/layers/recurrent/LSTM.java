@@ -25,6 +25,7 @@ import org.deeplearning4j.nn.layers.LayerHelper;
 import org.deeplearning4j.nn.layers.mkldnn.BaseMKLDNNHelper;
 import org.deeplearning4j.nn.layers.mkldnn.MKLDNNLSTMHelper;
 import org.deeplearning4j.nn.params.LSTMParamInitializer;
+import org.deeplearning4j.nn.quantization.QuantizedWeights;
 import org.nd4j.base.Preconditions;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -49,6 +50,8 @@ public class LSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.L
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
     protected LSTMHelper helper = null;
     protected FwdPassReturn cachedFwdPass;
+    protected QuantizedWeights quantizedInputWeights;
+    protected QuantizedWeights quantizedRecurrentWeights;
 
     public LSTM(NeuralNetConfiguration conf, DataType dataType) {
         super(conf, dataType);
@@ -172,7 +175,8 @@ public class LSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.L
                         this.input, recurrentWeights, inputWeights, biases, training, prevOutputActivations,
                         prevMemCellState, (training && cacheMode != CacheMode.NONE) || forBackprop, true,
                         LSTMParamInitializer.INPUT_WEIGHT_KEY, maskArray, false, helper,
-                        forBackprop ? cacheMode : CacheMode.NONE, workspaceMgr, layerConf().isHelperAllowFallback());
+                        forBackprop ? cacheMode : CacheMode.NONE, workspaceMgr, layerConf().isHelperAllowFallback(),
+                        quantizedInputWeights, quantizedRecurrentWeights);
 
         if (training && cacheMode != CacheMode.NONE) {
             cachedFwdPass = fwd;
@@ -238,4 +242,31 @@ public class LSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.L
     public LayerHelper getHelper() {
         return helper;
     }
+
+    /**
+     * Set int8 quantized weights for this layer. If set, the forward pass for inference (including rnnTimeStep) uses
+     * int8 matrix multiplications instead of the floating point weights (and any helper). Training (backprop) is
+     * unaffected. See {@link org.deeplearning4j.nn.quantization.Int8Quantizer}
+     *
+     * @param quantizedInputWeights     Quantized input weights, shape [nIn, 4*nOut], or null
+     * @param quantizedRecurrentWeights Quantized recurrent weights, shape [nOut, 4*nOut], or null
+     */
+    public void setQuantizedWeights(QuantizedWeights quantizedInputWeights, QuantizedWeights quantizedRecurrentWeights) {
+        this.quantizedInputWeights = quantizedInputWeights;
+        this.quantizedRecurrentWeights = quantizedRecurrentWeights;
+    }
+
+    /**
+     * @return Quantized input weights used for inference, or null if not set
+     */
+    public QuantizedWeights getQuantizedInputWeights() {
+        return quantizedInputWeights;
+    }
+
+    /**
+     * @return Quantized recurrent weights used for inference, or null if not set
+     */
+    public QuantizedWeights getQuantizedRecurrentWeights() {
+        return quantizedRecurrentWeights;
+    }
 }
@@ -30,6 +30,7 @@ import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.deeplearning4j.nn.layers.mkldnn.MKLDNNConvHelper;
+import org.deeplearning4j.nn.quantization.QuantizedWeights;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.nd4j.base.Preconditions;
@@ -97,6 +98,29 @@ public class LSTMHelpers {
                                                final LSTMHelper helper, final CacheMode cacheMode, // cacheMode for layer calling this helper
                                                final LayerWorkspaceMgr workspaceMgr, boolean isHelperAllowFallback
                                                ) {
+        return activateHelper(layer, conf, gateActivationFn, input, recurrentWeights, originalInputWeights, biases,
+                training, originalPrevOutputActivations, originalPrevMemCellState, forBackprop, forwards,
+                inputWeightKey, maskArray, hasPeepholeConnections, helper, cacheMode, workspaceMgr,
+                isHelperAllowFallback, null, null);
+    }
+
+    /**
+     * As per {@link #activateHelper(BaseRecurrentLayer, NeuralNetConfiguration, IActivation, INDArray, INDArray, INDArray, INDArray, boolean, INDArray, INDArray, boolean, boolean, String, INDArray, boolean, LSTMHelper, CacheMode, LayerWorkspaceMgr, boolean)},
+     * but with optional int8 quantized input and recurrent (IFOG) weights. If both are provided and the forward pass
+     * isn't for backprop, the quantized weights are used for the input projection and recurrent matrix multiplications
+     */
+    static public FwdPassReturn activateHelper(final BaseRecurrentLayer layer, final NeuralNetConfiguration conf,
+                                               final IActivation gateActivationFn, INDArray input, final INDArray recurrentWeights,
+                                               final INDArray originalInputWeights, final INDArray biases,
+                                               final boolean training, final INDArray originalPrevOutputActivations,
+                                               final INDArray originalPrevMemCellState, boolean forBackprop, boolean forwards,
+                                               final String inputWeightKey, INDArray maskArray,
+                                               final boolean hasPeepholeConnections,
+                                               final LSTMHelper helper, final CacheMode cacheMode,
+                                               final LayerWorkspaceMgr workspaceMgr, boolean isHelperAllowFallback,
+                                               final QuantizedWeights quantizedInputWeights,    //Quantized equivalent of [wi,wf,wo,wg] input weights; may be null
+                                               final QuantizedWeights quantizedRecurrentWeights //Quantized equivalent of [wI,wF,wO,wG] recurrent weights; may be null
+                                               ) {
 
         //Mini-batch data format: for mini-batch size m, nIn inputs, and T time series length
         //Data has shape [m,nIn,T]. Layer activations/output has shape [m,nHiddenUnits,T]
@@ -201,7 +225,8 @@ public class LSTMHelpers {
             prevOutputActivations = Nd4j.zeros(input.dataType(), new long[] {miniBatchSize, hiddenLayerSize});
         }
 
-        if (helper != null && (layer.helperCountFail == 0 || !isHelperAllowFallback)) {
+        boolean quantized = quantizedInputWeights != null && quantizedRecurrentWeights != null && !forBackprop;
+        if (helper != null && !quantized && (layer.helperCountFail == 0 || !isHelperAllowFallback)) {
             FwdPassReturn ret = null;
             try {
                 ret = helper.activate(layer, conf, gateActivationFn, input, recurrentWeights, inputWeights,
@@ -228,6 +253,14 @@ public class LSTMHelpers {
             }
         }
 
+        //Input projection doesn't depend on recurrence, so for all time steps it's calculated with single gemm here,
+        // and only recurrent part is calculated within the loop. Shape: [timeSeriesLength*miniBatch,4*layerSize]
+        INDArray ifogProjection = null;
+        if (timeSeriesLength > 1) {
+            INDArray inputSteps = timeStepsAsMatrix(input, is2dInput, 0, timeSeriesLength);
+            ifogProjection = quantized ? quantizedInputWeights.mmul(inputSteps) : inputSteps.mmul(inputWeights);
+        }
+
         for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
             try(MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.RNN_FF_LOOP_WORKING_MEM)) {
                 int time = iTimeIndex;
@@ -237,17 +270,25 @@ public class LSTMHelpers {
                 }
 
 
-                INDArray miniBatchData = (is2dInput ? input : input.tensorAlongDimension(time, 1, 0)); //[Expected shape: [m,nIn]. Also deals with edge case of T=1, with 'time series' data of shape [m,nIn], equiv. to [m,nIn,1]
-                miniBatchData = Shape.toMmulCompatible(miniBatchData);
-
                 // if we're using cache here - let's create ifogActivations within cache workspace, so all views from this array will be valid in cache
                 cacheEnter(training, cacheMode, workspaceMgr);
 
                 //Calculate activations for: network input + forget, output, input modulation gates. Next 3 lines are first part of those
-                INDArray ifogActivations = miniBatchData.mmul(inputWeights); //Shape: [miniBatch,4*layerSize]
+                INDArray ifogActivations; //Shape: [miniBatch,4*layerSize]
+                if (ifogProjection != null) {
+                    ifogActivations = ifogProjection.get(interval((long) time * miniBatchSize, (long) (time + 1) * miniBatchSize), all()).dup('f');
+                } else {
+                    //Single time step: [m,nIn], or edge case of T=1, with 'time series' data of shape [m,nIn], equiv. to [m,nIn,1]
+                    INDArray miniBatchData = timeStepsAsMatrix(input, is2dInput, time, time + 1);
+                    ifogActivations = quantized ? quantizedInputWeights.mmul(miniBatchData) : miniBatchData.mmul(inputWeights);
+                }
                 cacheExit(training, cacheMode, workspaceMgr);
 
-                Nd4j.gemm(prevOutputActivations, recurrentWeightsIFOG, ifogActivations, false, false, 1.0, 1.0);
+                if (quantized) {
+                    ifogActivations.addi(quantizedRecurrentWeights.mmul(prevOutputActivations));
+                } else {
+                    Nd4j.gemm(prevOutputActivations, recurrentWeightsIFOG, ifogActivations, false, false, 1.0, 1.0);
+                }
                 ifogActivations.addiRowVector(biases);
 
                 INDArray inputActivations =
@@ -428,6 +469,21 @@ public class LSTMHelpers {
         return toReturn;
     }
 
+    /**
+     * Returns input time steps [tStart, tEnd) as matrix of shape [(tEnd-tStart)*miniBatch, nIn]. Rows of each time step
+     * are kept together, so rows [(t-tStart)*miniBatch, (t-tStart+1)*miniBatch) correspond to time step t
+     */
+    private static INDArray timeStepsAsMatrix(INDArray input, boolean is2dInput, long tStart, long tEnd) {
+        if (is2dInput)
+            return Shape.toMmulCompatible(input);
+
+        if (tEnd - tStart == 1)
+            return Shape.toMmulCompatible(input.tensorAlongDimension((int) tStart, 1, 0));
+
+        INDArray steps = input.get(all(), all(), interval(tStart, tEnd)).permute(2, 0, 1).dup('c');  //Shape: [T,m,nIn]
+        return steps.reshape('c', (tEnd - tStart) * input.size(0), input.size(1));
+    }
+
     private static boolean shouldCache(boolean training, CacheMode cacheMode, LayerWorkspaceMgr workspaceMgr){
         return training && cacheMode != CacheMode.NONE && workspaceMgr.hasConfiguration(ArrayType.FF_CACHE) && workspaceMgr.isWorkspaceOpen(ArrayType.FF_CACHE);
     }
@@ -549,6 +605,12 @@ public class LSTMHelpers {
         boolean sigmoidGates = gateActivationFn instanceof ActivationSigmoid;
         IActivation afn = ((org.deeplearning4j.nn.conf.layers.BaseLayer) conf.getLayer()).getActivationFn();
 
+        //Input weight gradients, bias gradients and epsilons don't depend on recurrence: deltas of all time steps are
+        // collected here, and those are calculated with single gemm after the loop. Processed time steps: [tStart, tStart + numSteps)
+        long numSteps = timeSeriesLength - endIdx;
+        long tStart = forwards ? endIdx : 0;
+        INDArray deltaifogAll = workspaceMgr.create(ArrayType.BP_WORKING_MEM, inputWeights.dataType(), new long[] {numSteps * miniBatchSize, 4 * hiddenLayerSize}, 'f');
+
         INDArray timeStepMaskColumn = null;
         for (long iTimeIndex = timeSeriesLength - 1; iTimeIndex >= endIdx; iTimeIndex--) {
             try(MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.RNN_BP_LOOP_WORKING_MEM)) {
@@ -670,21 +732,13 @@ public class LSTMHelpers {
                     //Later, the deltaifogNext is used to calculate: input weight gradients, recurrent weight gradients, bias gradients
                 }
 
-                INDArray prevLayerActivationSlice =
-                        Shape.toMmulCompatible(is2dInput ? input : input.tensorAlongDimension(time, 1, 0));
-                if (iTimeIndex > 0 || prevHiddenUnitActivation != null) { //For time == 0 && no prevMemCellState, equivalent to muli by 0
+                //Store deltas of this time step: these are used for input weight gradients, bias gradients and epsilons after the loop
+                INDArray deltaifogStep = deltaifogAll.get(interval((time - tStart) * miniBatchSize, (time - tStart + 1) * miniBatchSize), all());
+                deltaifogStep.assign(deltaifogNext);
+                if (iTimeIndex == 0 && prevHiddenUnitActivation == null) {
+                    //For time == 0 && no prevMemCellState, there's no contribution from forget gate (equivalent to muli by 0)
                     //Note that prevHiddenUnitActivations may be non-null at t=0 for TBPTT
-                    //Again, deltaifog_current == deltaifogNext at this point... same array
-                    Nd4j.gemm(prevLayerActivationSlice, deltaifogNext, iwGradientsOut, true, false, 1.0, 1.0);
-                } else {
-                    INDArray iwGradients_i =
-                            iwGradientsOut.get(all(), interval(0, hiddenLayerSize));
-                    Nd4j.gemm(prevLayerActivationSlice, deltai, iwGradients_i, true, false, 1.0, 1.0);
-                    INDArray iwGradients_og = iwGradientsOut.get(all(),
-                            interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                    INDArray deltaog = deltaifogNext.get(all(),
-                            interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                    Nd4j.gemm(prevLayerActivationSlice, deltaog, iwGradients_og, true, false, 1.0, 1.0);
+                    deltaifogStep.get(all(), interval(hiddenLayerSize, 2 * hiddenLayerSize)).assign(0);
                 }
 
                 if (iTimeIndex > 0 || prevHiddenUnitActivation != null) {
@@ -708,37 +762,26 @@ public class LSTMHelpers {
                     INDArray dLdwOO = deltao.dup('f').muli(currMemCellState).sum(true, 0); //Expected shape: [n^L,1]. sum(0) is sum over examples in mini-batch.
                     rwGradientsOO.addi(dLdwOO);
                 }
+            }
+        }
 
-                if (iTimeIndex > 0 || prevHiddenUnitActivation != null) { //For time == 0 && no prevMemCellState, equivalent to muli by 0
-                    //Note that prevHiddenUnitActivation may be non-null at t=0 for TBPTT
-                    bGradientsOut.addi(deltaifogNext.sum(true, 0));
-                } else {
-                    bGradientsOut.get(interval(0,0,true), interval(0, hiddenLayerSize)).addi(deltai.sum(true, 0));
-                    INDArray ogBiasToAdd = deltaifogNext.get(all(), interval(2 * hiddenLayerSize, 4 * hiddenLayerSize)).sum(true, 0);
-                    INDArray ogBiasGrad = bGradientsOut.get(interval(0,0,true), interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                    ogBiasGrad.addi(ogBiasToAdd);
-                }
-
-                //Calculate epsilonNext - i.e., equiv. to what would be (w^L*(d^(Lt))^T)^T in a normal network
-                //But here, need to add 4 weights * deltas for the IFOG gates
-                INDArray epsilonNextSlice = epsilonNext.tensorAlongDimension(time, 1, 0); //This slice: f order and contiguous, due to epsilonNext being defined as f order.
-                if (iTimeIndex > 0 || prevHiddenUnitActivation != null) {
-                    //Note that prevHiddenUnitActivation may be non-null at t=0 for TBPTT
-                    Nd4j.gemm(deltaifogNext, inputWeights, epsilonNextSlice, false, true, 1.0, 1.0);
-                } else {
-                    //No contribution from forget gate at t=0
-                    INDArray wi = inputWeights.get(all(), interval(0, hiddenLayerSize));
-                    Nd4j.gemm(deltai, wi, epsilonNextSlice, false, true, 1.0, 1.0);
-                    INDArray deltaog = deltaifogNext.get(all(), interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                    INDArray wog = inputWeights.get(all(), interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                    Nd4j.gemm(deltaog, wog, epsilonNextSlice, false, true, 1.0, 1.0); //epsilonNextSlice.addi(deltao.mmul(woTranspose)).addi(deltag.mmul(wgTranspose));
-                }
-
-                if (maskArray != null) {
-                    //Mask array is present: bidirectional RNN -> need to zero out these errors to avoid sending anything
-                    // but 0s to the layer below at this time step (for the given example)
-                    epsilonNextSlice.muliColumnVector(timeStepMaskColumn);
-                }
+        //Input weight gradients and bias gradients, summed over all processed time steps
+        INDArray inputSteps = timeStepsAsMatrix(input, is2dInput, tStart, tStart + numSteps);
+        Nd4j.gemm(inputSteps, deltaifogAll, iwGradientsOut, true, false, 1.0, 1.0);
+        bGradientsOut.addi(deltaifogAll.sum(true, 0));
+
+        //Calculate epsilonNext - i.e., equiv. to what would be (w^L*(d^(Lt))^T)^T in a normal network
+        //But here, need to add 4 weights * deltas for the IFOG gates
+        //Result has shape [n^(L-1),numSteps*m] in f order, which is the same as [numSteps*m,n^(L-1)] in c order
+        INDArray epsilonSteps = Nd4j.gemm(inputWeights, deltaifogAll, false, true);
+        epsilonSteps = epsilonSteps.transpose().reshape('c', numSteps, miniBatchSize, prevLayerSize).permute(1, 2, 0);
+        epsilonNext.get(all(), all(), interval(tStart, tStart + numSteps)).assign(epsilonSteps);
+
+        if (maskArray != null) {
+            //Mask array is present: bidirectional RNN -> need to zero out these errors to avoid sending anything
+            // but 0s to the layer below at masked time steps (for the given example)
+            for (long time = tStart; time < tStart + numSteps; time++) {
+                epsilonNext.tensorAlongDimension((int) time, 1, 0).muliColumnVector(maskArray.getColumn(time, true));
             }
         }
 
@@ -792,7 +835,8 @@ public class LSTMHelpers {
 
         //Memory use during forward pass:
         //ifogActivations: nTimeSteps * [minibatch,4*layerSize] (not cached during inference fwd pass)
-        val workingMemInferencePerEx = tsLength * 4 * lstmLayer.getNOut(); //Reduced by factor of tsLength if using workspace
+        //Input projection for all time steps: nTimeSteps * [minibatch,4*layerSize], plus copy of input nTimeSteps * [minibatch,nIn]
+        val workingMemInferencePerEx = tsLength * (8 * lstmLayer.getNOut() + lstmLayer.getNIn());
 
         //For training, we also have
         //nTimeSteps * 5 * [minibatch, nOut] - 4 x gate pre-outs, memory cell state - may be cached
@@ -809,8 +853,9 @@ public class LSTMHelpers {
         //3 dups [minibatch, nOut] for peephole (Graves only)
         // 5xnOut (independent of minibatch size) - deltaiFog, peephole etc. Only 2 if no peephole TODO
         //6 for non-graves, 9 for graves
+        //Plus deltas for all time steps: 4xnOut, copy of input and epsilons for all time steps: 2xnIn
 
-        val backpropWorkingSpace = (isGraves ? 9 : 6) * tsLength * lstmLayer.getNOut();
+        val backpropWorkingSpace = ((isGraves ? 13 : 10) * lstmLayer.getNOut() + 2 * lstmLayer.getNIn()) * tsLength;
 
         //TODO NO WAY TO TAKE LSTM WORKSPACE INTO ACCOUNT HERE :(
 
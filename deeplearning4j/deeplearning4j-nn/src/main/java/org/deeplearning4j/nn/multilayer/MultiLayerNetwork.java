@@ -46,7 +46,9 @@ import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.layers.FrozenLayerWithBackprop;
 import org.deeplearning4j.nn.layers.recurrent.BidirectionalLayer;
 import org.deeplearning4j.nn.layers.LayerHelper;
+import org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer;
 import org.deeplearning4j.nn.layers.wrapper.BaseWrapperLayer;
+import org.deeplearning4j.nn.updater.MixedPrecisionHelper;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
@@ -71,6 +73,7 @@ import org.nd4j.linalg.api.memory.enums.LearningPolicy;
 import org.nd4j.linalg.api.memory.enums.ResetPolicy;
 import org.nd4j.linalg.api.memory.enums.SpillPolicy;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ndarray.sparse.SparseMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -135,6 +138,8 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
     protected int layerIndex; //For Layer.get/setIndex()
 
     protected transient Solver solver; //Used to call optimizers during backprop
+    protected transient MixedPrecisionHelper mixedPrecisionHelper;    //Loss scale and master params, if mixed precision is enabled
+    protected transient SparseMatrix sparseInput;   //Sparse features for the first layer, set during fit/output with SparseMatrix input only
     //Workspaces for CUDNN. Pass to LayerWorkspaceMgr for re-use in cudnn helpers
     @Getter
     protected transient Map<String,Pointer> helperWorkspaces = new HashMap<>();
@@ -622,6 +627,8 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
             return;
 
         DataType netDtype = getLayerWiseConfigurations().getDataType();
+        MixedPrecisionHelper.validate(layerWiseConfigurations.getMixedPrecision(), netDtype,
+                defaultConfiguration == null ? null : defaultConfiguration.getOptimizationAlgo());
         if(parameters != null && parameters.dataType() != netDtype){
             Preconditions.checkState(parameters.rank() == 2 && parameters.size(0) == 1, "Invalid parameters array: should be rank 2 with shape [1,numParams]. Got %ndShape", parameters);
             if(cloneParametersArray){
@@ -1032,7 +1039,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                 }
 
                 if(fwdPassType == FwdPassType.STANDARD){
-                    input = layers[i].activate(input, train, workspaceMgr);
+                    input = activateLayer(i, input, train, workspaceMgr);
                 } else if (fwdPassType == FwdPassType.RNN_ACTIVATE_WITH_STORED_STATE) {
                     if (layers[i] instanceof RecurrentLayer) {
                         input = ((RecurrentLayer) layers[i]).rnnActivateUsingStoredState(input, train,
@@ -1129,7 +1136,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                 }
 
                 if(fwdPassType == FwdPassType.STANDARD){
-                    input = layers[i].activate(input, true, workspaceMgr);
+                    input = activateLayer(i, input, true, workspaceMgr);
                 } else if(fwdPassType == FwdPassType.RNN_ACTIVATE_WITH_STORED_STATE){
                     if (layers[i] instanceof RecurrentLayer) {
                         input = ((RecurrentLayer) layers[i]).rnnActivateUsingStoredState(input, true, storeLastForTBPTT, workspaceMgr);
@@ -1298,7 +1305,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
 
                     if (fwdPassType == FwdPassType.STANDARD) {
                         //Standard feed-forward case
-                        input = layers[i].activate(input, train, mgr);
+                        input = activateLayer(i, input, train, mgr);
                     } else if (fwdPassType == FwdPassType.RNN_TIMESTEP) {
                         //rnnTimeStep case
                         if (layers[i] instanceof RecurrentLayer) {
@@ -1519,6 +1526,10 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
             return; //No op
         }
 
+        if (mixedPrecisionHelper != null) {
+            mixedPrecisionHelper.invalidateMasterParams();
+        }
+
         if (flattenedParams != null && params.length() == flattenedParams.length()) {
             if (params != flattenedParams) {
                 flattenedParams.assign(params);
@@ -1952,6 +1963,18 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                         }
                     }
 
+                    if (withOutputLayer && i == layers.length - 1 && epsilon == null) {
+                        MixedPrecisionHelper mp = getMixedPrecisionHelper();
+                        if (mp != null) {
+                            //Mixed precision: scale the loss gradient, to avoid underflow of low precision gradients
+                            // in the earlier layers. All gradients are unscaled again before the updater is applied
+                            for (INDArray g : currPair.getFirst().gradientForVariable().values()) {
+                                mp.scale(g);
+                            }
+                            mp.scale(currPair.getSecond());
+                        }
+                    }
+
                     if (currPair.getSecond() != null) {
                         //Edge case: may be null for Embedding layer, for example
                         validateArrayWorkspaces(workspaceMgr, currPair.getSecond(), ArrayType.ACTIVATION_GRAD, i,
@@ -1963,6 +1986,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                         multiGradientKey = String.valueOf(i) + "_" + origName;
                         gradientList.addLast(new Triple<>(multiGradientKey, entry.getValue(),
                                 currPair.getFirst().flatteningOrderForVariable(origName)));
+                        gradient.setSparseRowsFor(multiGradientKey, currPair.getFirst().getSparseRowsFor(origName));
                     }
                     if (getLayerWiseConfigurations().getInputPreProcess(i) != null) {
                         currPair = new Pair<>(currPair.getFirst(),
@@ -2254,6 +2278,25 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         fit(data, labels, null, null);
     }
 
+    /**
+     * Fit the model for one iteration on the provided sparse features. The first layer of the network must be a
+     * {@link org.deeplearning4j.nn.conf.layers.DenseLayer} (without an input preprocessor): it uses sparse x dense
+     * matrix multiplication for its forward pass and weight gradients, hence the cost of the first layer is
+     * proportional to the number of non-zero feature values. See {@link DenseLayer#setSparseInput(SparseMatrix)}
+     *
+     * @param features Sparse features, shape [minibatch, nIn]
+     * @param labels   Labels
+     */
+    public synchronized void fit(@NonNull SparseMatrix features, @NonNull INDArray labels) {
+        INDArray placeholder = sparseInputPlaceholder(features);
+        sparseInput = features;
+        try {
+            fit(placeholder, labels, null, null);
+        } finally {
+            sparseInput = null;
+        }
+    }
+
     /**
      * Fit the model for one iteration on the provided data
      *
@@ -2373,6 +2416,55 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         return output(input, train, null, null);
     }
 
+    /**
+     * Perform inference on the provided sparse features. The first layer of the network must be a
+     * {@link org.deeplearning4j.nn.conf.layers.DenseLayer} (without an input preprocessor) - see
+     * {@link #fit(SparseMatrix, INDArray)}
+     *
+     * @param features Sparse features, shape [minibatch, nIn]
+     * @param train    Training mode (true) or test mode (false)
+     * @return The network predictions - i.e., the activations of the final layer
+     */
+    public synchronized INDArray output(@NonNull SparseMatrix features, boolean train) {
+        INDArray placeholder = sparseInputPlaceholder(features);
+        sparseInput = features;
+        try {
+            return output(placeholder, train);
+        } finally {
+            sparseInput = null;
+        }
+    }
+
+    /**
+     * Validate that sparse features can be used with this network, and return the (dense) input used in their place:
+     * a zero-width array with the minibatch size. The first layer reads the sparse features instead - see
+     * {@link #activateLayer(int, INDArray, boolean, LayerWorkspaceMgr)}
+     */
+    private INDArray sparseInputPlaceholder(SparseMatrix features) {
+        if (!initCalled)
+            init();
+        Preconditions.checkState(layers[0] instanceof DenseLayer, "Sparse features can only be used when the first " +
+                "layer is a DenseLayer, got %s", layers[0].getClass().getSimpleName());
+        Preconditions.checkState(layerWiseConfigurations.getInputPreProcess(0) == null, "Sparse features cannot be used " +
+                "with an input preprocessor on the first layer");
+        Preconditions.checkState(layerWiseConfigurations.getBackpropType() == BackpropType.Standard, "Sparse features " +
+                "cannot be used with truncated BPTT");
+        return Nd4j.create(layerWiseConfigurations.getDataType(), features.rows(), 0);
+    }
+
+    /**
+     * Standard (feed forward) activation of the specified layer. If sparse features are set for this network
+     * ({@link #fit(SparseMatrix, INDArray)}, {@link #output(SparseMatrix, boolean)}), they are used as the input for
+     * layer 0 instead of the specified (placeholder) input
+     */
+    protected INDArray activateLayer(int i, INDArray input, boolean training, LayerWorkspaceMgr workspaceMgr) {
+        if (i == 0 && sparseInput != null) {
+            ((DenseLayer) layers[0]).setSparseInput(sparseInput);
+            return layers[0].activate(training, workspaceMgr);
+        }
+        return layers[i].activate(input, training, workspaceMgr);
+    }
+
     /**
      * Calculate the output of the network, with masking arrays. The masking arrays are used in situations such
      * as one-to-many and many-to-one recurrent neural network (RNN) designs, as well as for supporting time series
@@ -2845,6 +2937,21 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
     }
 
 
+    /**
+     * Get the mixed precision training state (loss scale, master parameters) for this network.<br>
+     * Returns null if mixed precision training is not enabled (see {@link MultiLayerConfiguration#getMixedPrecision()})
+     * or if the network data type is not a low precision type (HALF or BFLOAT16)
+     */
+    public MixedPrecisionHelper getMixedPrecisionHelper() {
+        MixedPrecision mp = layerWiseConfigurations.getMixedPrecision();
+        if (mp == null || !MixedPrecisionHelper.isLowPrecision(layerWiseConfigurations.getDataType()))
+            return null;
+
+        if (mixedPrecisionHelper == null)
+            mixedPrecisionHelper = new MixedPrecisionHelper(mp);
+        return mixedPrecisionHelper;
+    }
+
     /**
      * See {@link #setParams(INDArray)}
      */
@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.quantization;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.layers.convolution.ConvolutionLayer;
+import org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer;
+import org.deeplearning4j.nn.layers.recurrent.LSTM;
+import org.deeplearning4j.nn.layers.wrapper.BaseWrapperLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.deeplearning4j.nn.params.LSTMParamInitializer;
+import org.nd4j.base.Preconditions;
+import org.nd4j.evaluation.classification.Evaluation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+
+import java.util.*;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+
+/**
+ * Post-training int8 quantization of a trained network, for inference.<br>
+ * Quantization proceeds in two steps:<br>
+ * 1. Calibration: a representative data set is passed through the network, and the maximum absolute value of the
+ * input activations of each supported layer is recorded ({@link #calibrate(MultiLayerNetwork, DataSetIterator)})<br>
+ * 2. Quantization: a copy of the network is created, with int8 quantized weights set on each supported layer
+ * ({@link #quantize(MultiLayerNetwork, Map)}). Inference with this copy uses int8 x int8 matrix multiplications
+ * (accumulated in int32) for these layers - see {@link QuantizedWeights}<br>
+ * <br>
+ * Supported layers: DenseLayer, ConvolutionLayer (2d) and LSTM. Other layers (including output layers) are not
+ * quantized.<br>
+ * The quantized copy is independent of the original network: it has its own copy of the parameters, so the original
+ * can be discarded (or trained further) without affecting it. The copy is intended for inference only: the floating
+ * point weights of the quantized layers remain part of its (fixed layout) parameter array, and are still used for
+ * training, but the int8 weights are not updated by training. To serve an updated model, train the original network
+ * and quantize it again. Serving the quantized copy alone holds its parameter array plus the int8 weights.<br>
+ * Note that quantized weights are not saved with the network: the calibrated input ranges can be stored instead,
+ * and {@link #quantize(MultiLayerNetwork, Map)} applied again after the network is restored.<br>
+ * The accuracy impact and memory use of quantization can be checked with
+ * {@link #compare(MultiLayerNetwork, MultiLayerNetwork, DataSetIterator)}
+ */
+@Slf4j
+public class Int8Quantizer {
+
+    private Int8Quantizer() {
+    }
+
+    /**
+     * Calibrate the network: record the maximum absolute value of the input activations of each supported layer
+     *
+     * @param net      Network to calibrate
+     * @param iterator Representative (calibration) data
+     * @return Map of input ranges, keyed by layer name (or layer index, if no name is set)
+     */
+    public static Map<String, Double> calibrate(@NonNull MultiLayerNetwork net, @NonNull DataSetIterator iterator) {
+        if (iterator.resetSupported())
+            iterator.reset();
+
+        Map<String, Double> ranges = new LinkedHashMap<>();
+        while (iterator.hasNext()) {
+            List<INDArray> activations = net.feedForward(iterator.next().getFeatures(), false);
+            //activations.get(i) is the input to layer i
+            for (int i = 0; i < net.getnLayers(); i++) {
+                if (isSupported(net.getLayer(i))) {
+                    updateRange(ranges, layerName(net, i), activations.get(i));
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Calibrate the network: record the maximum absolute value of the input activations of each supported layer
+     *
+     * @param net      Network to calibrate
+     * @param iterator Representative (calibration) data
+     * @return Map of input ranges, keyed by layer name
+     */
+    public static Map<String, Double> calibrate(@NonNull ComputationGraph net, @NonNull MultiDataSetIterator iterator) {
+        if (iterator.resetSupported())
+            iterator.reset();
+
+        Map<String, Double> ranges = new LinkedHashMap<>();
+        Map<String, List<String>> vertexInputs = net.getConfiguration().getVertexInputs();
+        while (iterator.hasNext()) {
+            MultiDataSet mds = iterator.next();
+            Map<String, INDArray> activations = net.feedForward(mds.getFeatures(), false);
+            for (GraphVertex gv : net.getVertices()) {
+                if (!gv.hasLayer() || !isSupported(gv.getLayer()))
+                    continue;
+                List<String> inputs = vertexInputs.get(gv.getVertexName());
+                if (inputs == null || inputs.size() != 1 || !activations.containsKey(inputs.get(0)))
+                    continue;
+                updateRange(ranges, gv.getVertexName(), activations.get(inputs.get(0)));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Calibrate the network using the given data, and return a quantized copy of it
+     *
+     * @param net      Network to quantize. Not modified.
+     * @param iterator Representative (calibration) data
+     * @return Quantized copy of the network
+     */
+    public static MultiLayerNetwork quantize(@NonNull MultiLayerNetwork net, @NonNull DataSetIterator iterator) {
+        return quantize(net, calibrate(net, iterator));
+    }
+
+    /**
+     * Return a quantized copy of the network, for inference only. The copy has its own parameters: it is not affected
+     * by later changes to the original network
+     *
+     * @param net         Network to quantize. Not modified.
+     * @param inputRanges Calibrated input ranges, as returned by {@link #calibrate(MultiLayerNetwork, DataSetIterator)}.
+     *                    May be null: layers without a calibrated range compute the input scale for each input instead
+     * @return Quantized copy of the network
+     */
+    public static MultiLayerNetwork quantize(@NonNull MultiLayerNetwork net, Map<String, Double> inputRanges) {
+        Preconditions.checkState(net.params() != null, "Network must be initialized before quantization");
+        MultiLayerNetwork out = new MultiLayerNetwork(net.getLayerWiseConfigurations().clone());
+        out.init(net.params(), true);
+        int count = 0;
+        for (int i = 0; i < out.getnLayers(); i++) {
+            if (quantizeLayer(out.getLayer(i), range(inputRanges, layerName(out, i))))
+                count++;
+        }
+        log.info("Quantized {} of {} layers", count, out.getnLayers());
+        return out;
+    }
+
+    /**
+     * Calibrate the network using the given data, and return a quantized copy of it
+     *
+     * @param net      Network to quantize. Not modified.
+     * @param iterator Representative (calibration) data
+     * @return Quantized copy of the network
+     */
+    public static ComputationGraph quantize(@NonNull ComputationGraph net, @NonNull MultiDataSetIterator iterator) {
+        return quantize(net, calibrate(net, iterator));
+    }
+
+    /**
+     * Return a quantized copy of the network, for inference only. The copy has its own parameters: it is not affected
+     * by later changes to the original network
+     *
+     * @param net         Network to quantize. Not modified.
+     * @param inputRanges Calibrated input ranges, as returned by {@link #calibrate(ComputationGraph, MultiDataSetIterator)}.
+     *                    May be null: layers without a calibrated range compute the input scale for each input instead
+     * @return Quantized copy of the network
+     */
+    public static ComputationGraph quantize(@NonNull ComputationGraph net, Map<String, Double> inputRanges) {
+        Preconditions.checkState(net.params() != null, "Network must be initialized before quantization");
+        ComputationGraph out = new ComputationGraph(net.getConfiguration().clone());
+        out.init(net.params(), true);
+        int count = 0;
+        for (GraphVertex gv : out.getVertices()) {
+            if (gv.hasLayer() && quantizeLayer(gv.getLayer(), range(inputRanges, gv.getVertexName())))
+                count++;
+        }
+        log.info("Quantized {} of {} layers", count, out.getLayers().length);
+        return out;
+    }
+
+    /**
+     * Set quantized weights on the given layer, if it is supported
+     *
+     * @param layer       Layer to quantize
+     * @param inputAbsMax Maximum absolute value of the layer input, or a value <= 0 if unknown
+     * @return True if the layer was quantized, false if it isn't supported
+     */
+    public static boolean quantizeLayer(@NonNull Layer layer, double inputAbsMax) {
+        layer = unwrap(layer);
+        if (!isSupported(layer))
+            return false;
+
+        if (layer instanceof DenseLayer) {
+            INDArray w = layer.getParam(DefaultParamInitializer.WEIGHT_KEY);
+            ((DenseLayer) layer).setQuantizedWeights(QuantizedWeights.quantize(w, inputAbsMax));
+        } else if (layer instanceof ConvolutionLayer) {
+            //Same [inDepth*kH*kW, outDepth] weights matrix as used for the im2col mmul in ConvolutionLayer
+            INDArray w = layer.getParam(ConvolutionParamInitializer.WEIGHT_KEY);
+            long outDepth = w.size(0);
+            long kSize = w.size(1) * w.size(2) * w.size(3);
+            INDArray w2d = w.permute(3, 2, 1, 0).reshape('f', kSize, outDepth);
+            ((ConvolutionLayer) layer).setQuantizedWeights(QuantizedWeights.quantize(w2d, inputAbsMax));
+        } else {
+            INDArray iw = layer.getParam(LSTMParamInitializer.INPUT_WEIGHT_KEY);
+            INDArray rw = layer.getParam(LSTMParamInitializer.RECURRENT_WEIGHT_KEY);
+            INDArray rwIFOG = rw.get(all(), interval(0, 4 * rw.size(0)));
+            //Recurrent input is previous step output: range isn't calibrated, so is calculated for each step
+            ((LSTM) layer).setQuantizedWeights(QuantizedWeights.quantize(iw, inputAbsMax),
+                    QuantizedWeights.quantize(rwIFOG, 0.0));
+        }
+        return true;
+    }
+
+    /**
+     * Compare the accuracy of the original and quantized network on the given data
+     *
+     * @param original  Original network
+     * @param quantized Quantized network
+     * @param iterator  Test data
+     * @return Comparison of the evaluations and memory use of both networks
+     */
+    public static Comparison compare(@NonNull MultiLayerNetwork original, @NonNull MultiLayerNetwork quantized,
+                                     @NonNull DataSetIterator iterator) {
+        Evaluation eOriginal = original.evaluate(iterator);
+        iterator.reset();
+        Evaluation eQuantized = quantized.evaluate(iterator);
+        return comparison(eOriginal, eQuantized, original.params(), quantized.params(), quantized.getLayers());
+    }
+
+    /**
+     * Compare the accuracy of the original and quantized network on the given data
+     *
+     * @param original  Original network
+     * @param quantized Quantized network
+     * @param iterator  Test data
+     * @return Comparison of the evaluations and memory use of both networks
+     */
+    public static Comparison compare(@NonNull ComputationGraph original, @NonNull ComputationGraph quantized,
+                                     @NonNull DataSetIterator iterator) {
+        Evaluation eOriginal = original.evaluate(iterator);
+        iterator.reset();
+        Evaluation eQuantized = quantized.evaluate(iterator);
+        return comparison(eOriginal, eQuantized, original.params(), quantized.params(), quantized.getLayers());
+    }
+
+    private static Comparison comparison(Evaluation eOriginal, Evaluation eQuantized, INDArray originalParams,
+                                         INDArray quantizedParams, Layer[] layers) {
+        long floatBytes = 0;
+        long quantizedBytes = 0;
+        for (Layer l : layers) {
+            l = unwrap(l);
+            List<QuantizedWeights> qw = new ArrayList<>();
+            List<INDArray> fw = new ArrayList<>();
+            if (l instanceof DenseLayer && ((DenseLayer) l).getQuantizedWeights() != null) {
+                qw.add(((DenseLayer) l).getQuantizedWeights());
+                fw.add(l.getParam(DefaultParamInitializer.WEIGHT_KEY));
+            } else if (l instanceof ConvolutionLayer && ((ConvolutionLayer) l).getQuantizedWeights() != null) {
+                qw.add(((ConvolutionLayer) l).getQuantizedWeights());
+                fw.add(l.getParam(ConvolutionParamInitializer.WEIGHT_KEY));
+            } else if (l instanceof LSTM && ((LSTM) l).getQuantizedInputWeights() != null) {
+                qw.add(((LSTM) l).getQuantizedInputWeights());
+                qw.add(((LSTM) l).getQuantizedRecurrentWeights());
+                fw.add(l.getParam(LSTMParamInitializer.INPUT_WEIGHT_KEY));
+                fw.add(l.getParam(LSTMParamInitializer.RECURRENT_WEIGHT_KEY));
+            }
+
+            for (QuantizedWeights q : qw)
+                quantizedBytes += q.getMemoryBytes();
+            for (INDArray w : fw)
+                floatBytes += bytes(w);
+        }
+        long originalParamBytes = bytes(originalParams);
+        long quantizedParamBytes = bytes(quantizedParams);
+        boolean shared = originalParams != null && quantizedParams != null && originalParams.data() == quantizedParams.data();
+        return new Comparison(eOriginal, eQuantized, originalParamBytes, quantizedParamBytes + quantizedBytes,
+                shared ? quantizedParamBytes : 0, floatBytes, quantizedBytes);
+    }
+
+    private static long bytes(INDArray arr) {
+        return arr == null ? 0 : arr.length() * arr.dataType().width();
+    }
+
+    private static boolean isSupported(Layer layer) {
+        layer = unwrap(layer);
+        //Exact classes only: subclasses (Convolution1DLayer, etc) have their own forward pass implementations
+        Class<?> c = layer.getClass();
+        return c == DenseLayer.class || c == ConvolutionLayer.class || c == LSTM.class;
+    }
+
+    private static Layer unwrap(Layer layer) {
+        while (layer instanceof BaseWrapperLayer) {
+            layer = ((BaseWrapperLayer) layer).getUnderlying();
+        }
+        return layer;
+    }
+
+    private static String layerName(MultiLayerNetwork net, int idx) {
+        String name = net.getLayer(idx).conf().getLayer().getLayerName();
+        return name == null ? String.valueOf(idx) : name;
+    }
+
+    private static void updateRange(Map<String, Double> ranges, String name, INDArray input) {
+        double amax = input.amaxNumber().doubleValue();
+        Double current = ranges.get(name);
+        ranges.put(name, current == null ? amax : Math.max(current, amax));
+    }
+
+    private static double range(Map<String, Double> inputRanges, String name) {
+        if (inputRanges == null || !inputRanges.containsKey(name))
+            return 0.0;
+        return inputRanges.get(name);
+    }
+
+    /**
+     * Result of comparing an original network and its quantized copy.<br>
+     * Memory figures cover the parameters: {@code quantizedBytes} is everything the quantized network holds - its
+     * parameter array (which still contains the floating point weights of the quantized layers) plus the int8
+     * weights. {@code sharedBytes} is non-zero only if both networks use the same parameter array, which is never the
+     * case for copies created by {@link #quantize(MultiLayerNetwork, Map)}.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Comparison {
+        private Evaluation originalEvaluation;
+        private Evaluation quantizedEvaluation;
+        private long originalBytes;             //Parameters of the original network
+        private long quantizedBytes;            //Parameters of the quantized network, plus int8 weights and scales
+        private long sharedBytes;               //Parameters shared by both networks
+        private long floatWeightBytes;          //Floating point weights of the quantized layers
+        private long quantizedWeightBytes;      //Int8 weights and scales of the quantized layers
+
+        /**
+         * @return Accuracy of the quantized network, minus accuracy of the original network
+         */
+        public double getAccuracyDelta() {
+            return quantizedEvaluation.accuracy() - originalEvaluation.accuracy();
+        }
+    }
+}
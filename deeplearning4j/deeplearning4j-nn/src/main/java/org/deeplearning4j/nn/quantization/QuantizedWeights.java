@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.quantization;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.reduce.MmulInt8;
+import org.nd4j.linalg.api.ops.impl.scalar.ScalarDivision;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.BooleanIndexing;
+import org.nd4j.linalg.indexing.conditions.Conditions;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.Serializable;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+
+/**
+ * Int8 quantized weights of a layer, used for quantized inference - see {@link Int8Quantizer}.<br>
+ * Weights are quantized symmetrically, with one scale per output column: {@code wq[j,k] = round(W[k,j] / scale[j])},
+ * where {@code scale[j] = max(abs(W[:,j])) / 127}. Layer inputs are quantized symmetrically with a single scale:
+ * either {@code inputAbsMax / 127} with the input range obtained by calibration, or - if no calibrated range is
+ * available - computed from each input array. The int8 x int8 matrix multiplication is accumulated in int32, and the
+ * result is dequantized back to floating point.<br>
+ * The intermediate arrays of {@link #mmul(INDArray, INDArray)} (scaled and quantized input, int32 accumulator) are
+ * allocated once per thread, outside of any workspace, and reused for subsequent calls with the same or a smaller
+ * minibatch size.
+ */
+@Getter
+public class QuantizedWeights implements Serializable {
+    public static final int MAX_QUANTIZED_VALUE = 127;
+
+    private final INDArray weights;         //Type BYTE, shape [nOut, nIn], c order
+    private final INDArray weightScales;    //Shape [1, nOut]
+    private final double inputScale;        //Values <= 0: input scale is computed from each input
+    private transient volatile ThreadLocal<Buffers> buffers;
+
+    private QuantizedWeights(INDArray weights, INDArray weightScales, double inputScale) {
+        this.weights = weights;
+        this.weightScales = weightScales;
+        this.inputScale = inputScale;
+    }
+
+    /**
+     * Quantize the given weights
+     *
+     * @param weights     Weights to quantize, shape [nIn, nOut]
+     * @param inputAbsMax Maximum absolute value of the inputs (from calibration), or a value <= 0 if the input range is
+     *                    unknown - in which case the input scale is computed from each input array
+     */
+    public static QuantizedWeights quantize(@NonNull INDArray weights, double inputAbsMax) {
+        Preconditions.checkArgument(weights.rank() == 2, "Expected rank 2 weights, got weights with shape %ndShape", weights);
+
+        INDArray scales = weights.amax(0).reshape(1, weights.size(1)).divi(MAX_QUANTIZED_VALUE);
+        BooleanIndexing.replaceWhere(scales, 1.0, Conditions.equals(0.0));   //All zero columns
+
+        INDArray wq = weights.transpose().divColumnVector(scales.reshape(weights.size(1), 1));
+        wq = roundAndClip(wq).castTo(DataType.BYTE).dup('c');
+
+        return new QuantizedWeights(wq, scales, inputAbsMax > 0 ? inputAbsMax / MAX_QUANTIZED_VALUE : 0.0);
+    }
+
+    /**
+     * Quantize the given array to int8 values, using the given scale: {@code round(x / scale)}, clipped to [-127, 127]
+     *
+     * @param x     Array to quantize
+     * @param scale Quantization scale
+     * @return Array of type BYTE
+     */
+    public static INDArray quantizeInput(@NonNull INDArray x, double scale) {
+        return roundAndClip(x.div(scale)).castTo(DataType.BYTE);
+    }
+
+    private static INDArray roundAndClip(INDArray x) {
+        Transforms.round(x, false);
+        Transforms.max(x, -MAX_QUANTIZED_VALUE, false);
+        Transforms.min(x, MAX_QUANTIZED_VALUE, false);
+        return x;
+    }
+
+    public long nIn() {
+        return weights.size(1);
+    }
+
+    public long nOut() {
+        return weights.size(0);
+    }
+
+    /**
+     * @return Memory used by the quantized weights and scales, in bytes
+     */
+    public long getMemoryBytes() {
+        return weights.length() * weights.dataType().width() + weightScales.length() * weightScales.dataType().width();
+    }
+
+    /**
+     * Quantized equivalent of {@code input.mmul(W)}
+     *
+     * @param input Input, shape [minibatch, nIn]
+     * @return Result, shape [minibatch, nOut], same data type as the input
+     */
+    public INDArray mmul(@NonNull INDArray input) {
+        INDArray result = Nd4j.createUninitialized(input.dataType(), new long[]{input.size(0), nOut()}, 'f');
+        return mmul(input, result);
+    }
+
+    /**
+     * Quantized equivalent of {@code input.mmul(W)}
+     *
+     * @param input  Input, shape [minibatch, nIn]
+     * @param result Array to place the result in, shape [minibatch, nOut]
+     * @return Result array
+     */
+    public INDArray mmul(@NonNull INDArray input, @NonNull INDArray result) {
+        Preconditions.checkArgument(input.rank() == 2 && input.size(1) == nIn(), "Expected input with shape [minibatch, %s], got %ndShape", nIn(), input);
+
+        double scale = inputScale;
+        if (scale <= 0) {
+            scale = input.amaxNumber().doubleValue() / MAX_QUANTIZED_VALUE;
+            if (scale == 0.0)
+                scale = 1.0;
+        }
+
+        long minibatch = input.size(0);
+        Buffers b = buffers(input.dataType(), minibatch);
+        INDArray scaled = b.rows(b.scaled, minibatch);
+        INDArray quantized = b.rows(b.quantized, minibatch);
+        INDArray accumulated = b.rows(b.accumulated, minibatch);
+
+        //round(x / scale), clipped to [-127, 127] and cast to int8 - without modifying the input
+        Nd4j.getExecutioner().exec(new ScalarDivision(input, null, scaled, scale));
+        roundAndClip(scaled);
+        quantized.assign(scaled);
+        Nd4j.exec(new MmulInt8(quantized, weights, accumulated));
+
+        result.assign(accumulated);
+        result.muliRowVector(b.scales).muli(scale);
+        return result;
+    }
+
+    private Buffers buffers(DataType dataType, long minibatch) {
+        if (buffers == null) {
+            synchronized (this) {
+                if (buffers == null)
+                    buffers = new ThreadLocal<>();
+            }
+        }
+
+        Buffers b = buffers.get();
+        if (b == null || b.scaled.dataType() != dataType || b.scaled.size(0) < minibatch) {
+            try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().scopeOutOfWorkspaces()) {
+                b = new Buffers(
+                        Nd4j.createUninitialized(dataType, new long[]{minibatch, nIn()}, 'c'),
+                        Nd4j.createUninitialized(DataType.BYTE, new long[]{minibatch, nIn()}, 'c'),
+                        Nd4j.createUninitialized(DataType.INT, new long[]{minibatch, nOut()}, 'c'),
+                        weightScales.castTo(dataType));
+            }
+            buffers.set(b);
+        }
+        return b;
+    }
+
+    /**
+     * Per-thread intermediate arrays for {@link #mmul(INDArray, INDArray)}, sized for the largest minibatch seen so far
+     */
+    private static class Buffers {
+        private final INDArray scaled;          //Input divided by input scale; input data type
+        private final INDArray quantized;       //Type BYTE
+        private final INDArray accumulated;     //Type INT
+        private final INDArray scales;          //Weight scales, cast to the input data type
+
+        private Buffers(INDArray scaled, INDArray quantized, INDArray accumulated, INDArray scales) {
+            this.scaled = scaled;
+            this.quantized = quantized;
+            this.accumulated = accumulated;
+            this.scales = scales;
+        }
+
+        private INDArray rows(INDArray buffer, long minibatch) {
+            //First rows of a c order array: still contiguous, as required by MmulInt8
+            return buffer.size(0) == minibatch ? buffer : buffer.get(interval(0, minibatch), all());
+        }
+    }
+}
@@ -16,6 +16,9 @@
 
 package org.deeplearning4j.nn.transferlearning;
 
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -27,10 +30,21 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This class is intended for use with the transfer learning API.
@@ -45,8 +59,15 @@ import java.util.*;
  *
  * @author susaneraly
  */
+@Slf4j
 public class TransferLearningHelper {
 
+    private static final String CACHE_FILE_EXTENSION = "bin";
+    private static final String CACHE_KEY_FILE = "featurized.properties";
+    private static final String CACHE_KEY = "key";
+    private static final String CACHE_COUNT = "count";
+    private static final String CACHE_DIGEST = "digest.";
+
     private boolean isGraph = true;
     private boolean applyFrozen = false;
     private ComputationGraph origGraph;
@@ -382,6 +403,74 @@ public class TransferLearningHelper {
         }
     }
 
+    /**
+     * As per {@link #featurize(DataSetIterator, File, String, boolean)} with no data version, and compression enabled
+     */
+    public DataSetIterator featurize(DataSetIterator iter, File cacheDir) {
+        return featurize(iter, cacheDir, null, true);
+    }
+
+    /**
+     * Featurize all data from the iterator, and store the featurized DataSets in the specified cache directory. The
+     * returned iterator reads from the cache directory, so the unfrozen part of the network can be trained for many
+     * epochs (using {@link #fitFeaturized(DataSetIterator)}) without repeating the forward pass through the frozen layers.<br>
+     * Each input minibatch is digested (SHA-256 of its features, labels and masks). If the cache directory already
+     * contains featurized data for the same frozen layers (configuration and parameters) and data version, the cached
+     * featurized minibatches are reused for as long as the input minibatches match the digests recorded when they
+     * were written: from the first changed minibatch onwards, the data is featurized again, and cached minibatches
+     * beyond the end of the input data are deleted. Note that reusing the cache still requires one pass over the
+     * input data (but not the forward pass through the frozen layers).
+     *
+     * @param iter        Iterator to featurize. Is reset before use, if reset is supported
+     * @param cacheDir    Directory to store the featurized data in. Should be used only for this purpose
+     * @param dataVersion May be null. An identifier for the input data (for example, a file name, timestamp or
+     *                    version number): if it differs from that of the cached data, the cache is invalidated
+     * @param compress    If true: compress the featurized data on disk
+     * @return Iterator over the featurized data in the cache directory
+     */
+    public DataSetIterator featurize(@NonNull DataSetIterator iter, @NonNull File cacheDir, String dataVersion, boolean compress) {
+        if (iter.resetSupported())
+            iter.reset();
+        if (!iter.hasNext())
+            throw new IllegalArgumentException("Cannot featurize data: iterator has no data");
+
+        int count = featurizeToCache(iter, cacheDir, dataVersion, compress,
+                        ds -> new INDArray[] {ds.getFeatures(), ds.getLabels(), ds.getFeaturesMaskArray(), ds.getLabelsMaskArray()},
+                        (ds, os) -> featurize(ds).save(os));
+        return new CachedDataSetIterator(cacheDir, count, compress);
+    }
+
+    /**
+     * As per {@link #featurize(MultiDataSetIterator, File, String, boolean)} with no data version, and compression enabled
+     */
+    public MultiDataSetIterator featurize(MultiDataSetIterator iter, File cacheDir) {
+        return featurize(iter, cacheDir, null, true);
+    }
+
+    /**
+     * Featurize all data from the iterator, and store the featurized MultiDataSets in the specified cache directory.
+     * See {@link #featurize(DataSetIterator, File, String, boolean)} for details.
+     *
+     * @param iter        Iterator to featurize. Is reset before use, if reset is supported
+     * @param cacheDir    Directory to store the featurized data in. Should be used only for this purpose
+     * @param dataVersion May be null. An identifier for the input data: if it differs from that of the cached data,
+     *                    the cache is invalidated
+     * @param compress    If true: compress the featurized data on disk
+     * @return Iterator over the featurized data in the cache directory
+     */
+    public MultiDataSetIterator featurize(@NonNull MultiDataSetIterator iter, @NonNull File cacheDir, String dataVersion, boolean compress) {
+        if (iter.resetSupported())
+            iter.reset();
+        if (!iter.hasNext())
+            throw new IllegalArgumentException("Cannot featurize data: iterator has no data");
+
+        int count = featurizeToCache(iter, cacheDir, dataVersion, compress,
+                        mds -> ArrayUtils.addAll(ArrayUtils.addAll(mds.getFeatures(), mds.getLabels()),
+                                        ArrayUtils.addAll(mds.getFeaturesMaskArrays(), mds.getLabelsMaskArrays())),
+                        (mds, os) -> featurize(mds).save(os));
+        return new CachedMultiDataSetIterator(cacheDir, count, compress);
+    }
+
     /**
      * Fit from a featurized dataset.
      * The fit is conducted on an internally instantiated subset model that is representative of the unfrozen part of the original model.
@@ -441,4 +530,368 @@ public class TransferLearningHelper {
         }
     }
 
+    /**
+     * Featurize all data from the iterator into the cache directory, reusing the cached featurized minibatches whose
+     * input digests match - see {@link #featurize(DataSetIterator, File, String, boolean)}
+     *
+     * @return Number of featurized minibatches in the cache directory
+     */
+    private <T> int featurizeToCache(Iterator<T> iter, File cacheDir, String dataVersion, boolean compress,
+                    Function<T, INDArray[]> arrays, CacheWriter<T> writer) {
+        String key = cacheKey(dataVersion, compress);
+        List<String> cached = cachedDigests(cacheDir, key);
+        if (cached == null)
+            clearCache(cacheDir);
+
+        List<String> digests = new ArrayList<>();
+        boolean reusing = cached != null;
+        int reused = 0;
+        while (iter.hasNext()) {
+            T data = iter.next();
+            int idx = digests.size();
+            String digest = digest(arrays.apply(data));
+            digests.add(digest);
+            if (reusing && idx < cached.size() && digest.equals(cached.get(idx))) {
+                reused++;
+                continue;
+            }
+
+            if (reusing) {
+                //Input data changed from this minibatch onwards: cache is invalid until rewritten
+                deleteCacheFile(new File(cacheDir, CACHE_KEY_FILE));
+                reusing = false;
+            }
+            try (OutputStream os = cacheOutputStream(new File(cacheDir, cacheFileName(idx)), compress)) {
+                writer.write(data, os);
+            } catch (IOException e) {
+                throw new RuntimeException("Error writing featurized data to directory " + cacheDir, e);
+            }
+        }
+
+        int count = digests.size();
+        if (cached != null) {
+            //Input data is shorter than the cached data: remove the extra minibatches
+            for (int i = count; i < cached.size(); i++)
+                deleteCacheFile(new File(cacheDir, cacheFileName(i)));
+        }
+        if (reused < count || cached == null || cached.size() != count)
+            writeCacheKey(cacheDir, key, digests);
+
+        if (reused > 0)
+            log.info("Reused {} of {} featurized minibatches in directory {}", reused, count, cacheDir);
+        return count;
+    }
+
+    /**
+     * Key for the featurized data cache: digest of the frozen layer configurations and parameters, and the data version
+     */
+    private String cacheKey(String dataVersion, boolean compress) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            DataOutputStream dos = new DataOutputStream(new DigestOutputStream(new NullOutputStream(), md));
+            dos.writeUTF(String.valueOf(dataVersion));
+            dos.writeBoolean(compress);
+            if (isGraph) {
+                dos.writeUTF(graphInputs.toString());
+                for (GraphVertex gv : origGraph.getVertices()) {
+                    if (unFrozenSubsetGraph.getVertex(gv.getVertexName()) != null)
+                        continue;
+                    dos.writeUTF(gv.getVertexName());
+                    if (gv.hasLayer())
+                        writeLayer(gv.getLayer(), dos);
+                }
+            } else {
+                dos.writeInt(frozenInputLayer);
+                for (int i = 0; i <= frozenInputLayer; i++) {
+                    writeLayer(origMLN.getLayer(i), dos);
+                }
+            }
+            dos.flush();
+            return toHex(md.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error calculating featurized data cache key", e);
+        }
+    }
+
+    /**
+     * Digest of one minibatch of input data: all of its arrays, in order (null arrays included)
+     */
+    private static String digest(INDArray[] arrays) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            DataOutputStream dos = new DataOutputStream(new DigestOutputStream(new NullOutputStream(), md));
+            dos.writeInt(arrays == null ? 0 : arrays.length);
+            if (arrays != null) {
+                for (INDArray arr : arrays) {
+                    dos.writeBoolean(arr != null);
+                    if (arr != null)
+                        Nd4j.write(arr, dos);
+                }
+            }
+            dos.flush();
+            return toHex(md.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error calculating featurized data digest", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void writeLayer(org.deeplearning4j.nn.api.Layer l, DataOutputStream dos) throws IOException {
+        dos.write(l.conf().toJson().getBytes(StandardCharsets.UTF_8));
+        INDArray params = l.params();
+        if (params != null && !params.isEmpty())
+            Nd4j.write(params, dos);
+    }
+
+    private static String cacheFileName(int idx) {
+        return String.format("featurized_%06d.%s", idx, CACHE_FILE_EXTENSION);
+    }
+
+    /**
+     * @return Input digests of the featurized files in the cache directory (one per file, in order) if the cache is
+     * valid for the specified key, or null otherwise
+     */
+    private static List<String> cachedDigests(File cacheDir, String key) {
+        File f = new File(cacheDir, CACHE_KEY_FILE);
+        if (!f.exists())
+            return null;
+        Properties p = new Properties();
+        try (InputStream is = new BufferedInputStream(new FileInputStream(f))) {
+            p.load(is);
+        } catch (IOException e) {
+            log.warn("Error reading featurized data cache key file {} - cache will be recreated", f, e);
+            return null;
+        }
+        if (!key.equals(p.getProperty(CACHE_KEY)))
+            return null;
+        int count;
+        try {
+            count = Integer.parseInt(p.getProperty(CACHE_COUNT, "-1"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (count < 0)
+            return null;
+        List<String> digests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String digest = p.getProperty(CACHE_DIGEST + i);
+            if (digest == null || !new File(cacheDir, cacheFileName(i)).exists())
+                return null;
+            digests.add(digest);
+        }
+        return digests;
+    }
+
+    private static void writeCacheKey(File cacheDir, String key, List<String> digests) {
+        //Written last: cache is only considered valid if featurization completed
+        Properties p = new Properties();
+        p.setProperty(CACHE_KEY, key);
+        p.setProperty(CACHE_COUNT, String.valueOf(digests.size()));
+        for (int i = 0; i < digests.size(); i++)
+            p.setProperty(CACHE_DIGEST + i, digests.get(i));
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(new File(cacheDir, CACHE_KEY_FILE)))) {
+            p.store(os, "Featurized data cache - TransferLearningHelper");
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing featurized data cache key file to directory " + cacheDir, e);
+        }
+    }
+
+    private static void clearCache(File cacheDir) {
+        if (!cacheDir.exists() && !cacheDir.mkdirs())
+            throw new IllegalStateException("Could not create featurized data cache directory: " + cacheDir);
+        if (!cacheDir.isDirectory())
+            throw new IllegalArgumentException("Featurized data cache directory is not a directory: " + cacheDir);
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.getName().equals(CACHE_KEY_FILE) || f.getName().endsWith("." + CACHE_FILE_EXTENSION))
+                    deleteCacheFile(f);
+            }
+        }
+    }
+
+    private static void deleteCacheFile(File f) {
+        if (f.exists() && !f.delete())
+            throw new IllegalStateException("Could not delete featurized data cache file: " + f);
+    }
+
+    private static OutputStream cacheOutputStream(File f, boolean compress) throws IOException {
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(f));
+        return compress ? new GZIPOutputStream(os) : os;
+    }
+
+    private static InputStream cacheInputStream(File f, boolean compress) throws IOException {
+        InputStream is = new BufferedInputStream(new FileInputStream(f));
+        return compress ? new BufferedInputStream(new GZIPInputStream(is)) : is;
+    }
+
+    /**
+     * Writes the featurized form of one minibatch of input data
+     */
+    private interface CacheWriter<T> {
+        void write(T data, OutputStream os) throws IOException;
+    }
+
+    /**
+     * Iterates over the featurized files in a cache directory, in the order they were written
+     */
+    private static class CachedDataSetIterator implements DataSetIterator {
+        private final File cacheDir;
+        private final int count;
+        private final boolean compressed;
+        private DataSetPreProcessor preProcessor;
+        private int position;
+
+        private CachedDataSetIterator(File cacheDir, int count, boolean compressed) {
+            this.cacheDir = cacheDir;
+            this.count = count;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < count;
+        }
+
+        @Override
+        public DataSet next() {
+            if (!hasNext())
+                throw new NoSuchElementException("No next element");
+            File f = new File(cacheDir, cacheFileName(position++));
+            DataSet ds = new DataSet();
+            try (InputStream is = cacheInputStream(f, compressed)) {
+                ds.load(is);
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading featurized DataSet from file: " + f, e);
+            }
+            if (preProcessor != null)
+                preProcessor.preProcess(ds);
+            return ds;
+        }
+
+        @Override
+        public DataSet next(int num) {
+            throw new UnsupportedOperationException("Not supported for this iterator");
+        }
+
+        @Override
+        public int inputColumns() {
+            throw new UnsupportedOperationException("Not supported for this iterator");
+        }
+
+        @Override
+        public int totalOutcomes() {
+            throw new UnsupportedOperationException("Not supported for this iterator");
+        }
+
+        @Override
+        public boolean resetSupported() {
+            return true;
+        }
+
+        @Override
+        public boolean asyncSupported() {
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            position = 0;
+        }
+
+        @Override
+        public int batch() {
+            return -1;
+        }
+
+        @Override
+        public void setPreProcessor(DataSetPreProcessor preProcessor) {
+            this.preProcessor = preProcessor;
+        }
+
+        @Override
+        public DataSetPreProcessor getPreProcessor() {
+            return preProcessor;
+        }
+
+        @Override
+        public List<String> getLabels() {
+            return null;
+        }
+    }
+
+    /**
+     * Iterates over the featurized files in a cache directory, in the order they were written
+     */
+    private static class CachedMultiDataSetIterator implements MultiDataSetIterator {
+        private final File cacheDir;
+        private final int count;
+        private final boolean compressed;
+        private MultiDataSetPreProcessor preProcessor;
+        private int position;
+
+        private CachedMultiDataSetIterator(File cacheDir, int count, boolean compressed) {
+            this.cacheDir = cacheDir;
+            this.count = count;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < count;
+        }
+
+        @Override
+        public MultiDataSet next() {
+            if (!hasNext())
+                throw new NoSuchElementException("No next element");
+            File f = new File(cacheDir, cacheFileName(position++));
+            MultiDataSet mds = new MultiDataSet();
+            try (InputStream is = cacheInputStream(f, compressed)) {
+                mds.load(is);
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading featurized MultiDataSet from file: " + f, e);
+            }
+            if (preProcessor != null)
+                preProcessor.preProcess(mds);
+            return mds;
+        }
+
+        @Override
+        public MultiDataSet next(int num) {
+            throw new UnsupportedOperationException("Not supported for this iterator");
+        }
+
+        @Override
+        public boolean resetSupported() {
+            return true;
+        }
+
+        @Override
+        public boolean asyncSupported() {
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            position = 0;
+        }
+
+        @Override
+        public void setPreProcessor(MultiDataSetPreProcessor preProcessor) {
+            this.preProcessor = preProcessor;
+        }
+
+        @Override
+        public MultiDataSetPreProcessor getPreProcessor() {
+            return preProcessor;
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package org.deeplearning4j.nn.updater;
 
 import lombok.Getter;
+import org.deeplearning4j.config.DL4JSystemProperties;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.api.Updater;
@@ -28,6 +29,8 @@ import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.CustomOp;
 import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.api.ops.Op;
+import org.nd4j.linalg.api.ops.executioner.OpBatch;
 
 import org.nd4j.linalg.api.ops.impl.reduce.floating.Norm2;
 import org.nd4j.linalg.exception.ND4JArraySizeException;
@@ -60,6 +63,10 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
     protected INDArray updaterStateViewArray;
     protected boolean initializedMinibatchDivision;
     protected List<INDArray> gradientsForMinibatchDivision;
+    protected Map<String, INDArray> masterLayerGradientViews;
+    protected boolean fusedUpdates = !"false".equalsIgnoreCase(System.getProperty(DL4JSystemProperties.FUSED_UPDATER_ENABLED_PROPERTY));
+    protected boolean batchedUpdates = true;
+    protected transient OpBatch updateBatch;
 
     public BaseMultiLayerUpdater(T network) {
         this(network, null);
@@ -84,7 +91,8 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         updaterBlocks = new ArrayList<>();
 
 
-        INDArray paramsView = network.params();
+        //With mixed precision training, these are the master (high precision) copies
+        INDArray paramsView = getParams();
         INDArray gradientView = getFlattenedGradientsView();
         int paramsViewSoFar = 0;
         int currentUpdaterOffset = 0;
@@ -109,8 +117,10 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                     }
 
                     //First: decide whether to add to the existing updater block, or create a new one
+                    //Params with row-sparse gradients are always updated in a block of their own
                     if (currentBlock == null || !UpdaterUtils.updaterConfigurationsEquals(lastLayer, lastVariable,
-                                    layers[i], var)) {
+                                    layers[i], var) || UpdaterUtils.isSparseRowParam(lastLayer, lastVariable)
+                                    || UpdaterUtils.isSparseRowParam(layers[i], var)) {
 
                         if (paramsViewSoFar + paramSizeThisVariable > Integer.MAX_VALUE || paramsViewSoFar + paramSizeThisVariable > Integer.MAX_VALUE)
                             throw new ND4JArraySizeException();
@@ -153,7 +163,7 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
             updaterRequiresInit = false;
         } else if (updaterStateSize > 0) {
             //May be 0 if all SGD or NONE updaters, for example
-            updaterStateViewArray = Nd4j.createUninitialized(network.params().dataType(), new long[] {1, updaterStateSize}, Nd4j.order());
+            updaterStateViewArray = Nd4j.createUninitialized(paramsView.dataType(), new long[] {1, updaterStateSize}, Nd4j.order());
             updaterRequiresInit = true;
         }
 
@@ -208,6 +218,14 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
      */
     protected abstract boolean isMiniBatch();
 
+    /**
+     * @return Mixed precision training state for the model, or null if mixed precision training is not used. If
+     * non-null, {@link #getParams()} and {@link #getFlattenedGradientsView()} return the master (high precision) arrays
+     */
+    protected MixedPrecisionHelper getMixedPrecisionHelper() {
+        return null;
+    }
+
     /**
      * Set the view array. Note that this does an assign operation - the provided array is not stored internally.
      *
@@ -248,6 +266,29 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         return updaterStateViewArray.dup();
     }
 
+    /**
+     * Enable or disable fused updates: if enabled (default), regularization and the updater are applied using a
+     * single {@link org.nd4j.linalg.api.ops.impl.updaters.FusedUpdater} op per updater block where possible
+     * (Adam, AdaMax, Nesterovs and RmsProp updaters, with L1/L2/weight decay regularization), instead of one op per step.
+     * The default can also be set using the {@link DL4JSystemProperties#FUSED_UPDATER_ENABLED_PROPERTY} system property.
+     *
+     * @param fusedUpdates Whether fused updates should be used
+     */
+    public void setFusedUpdates(boolean fusedUpdates) {
+        this.fusedUpdates = fusedUpdates;
+    }
+
+    /**
+     * Enable or disable batched updates: if enabled (default), updater blocks that need only a single small op per
+     * iteration (plain SGD without regularization) are submitted together as one
+     * {@link OpBatch}, reused between iterations
+     *
+     * @param batchedUpdates Whether batched updates should be used
+     */
+    public void setBatchedUpdates(boolean batchedUpdates) {
+        this.batchedUpdates = batchedUpdates;
+    }
+
     @Override
     public void update(Trainable layer, Gradient gradient, int iteration, int epoch, int batchSize, LayerWorkspaceMgr workspaceMgr) {
         update(gradient, iteration, epoch, batchSize, workspaceMgr);
@@ -269,13 +310,18 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         //First: check if gradient is standard or external...
         //In a MultiLayerNetwork, the INDArray returned by .gradient() is always the standard full view array
         // hence should be the same object under normal circumstances
-        boolean isExternal = gradient.gradient() != getFlattenedGradientsView();
+        //With mixed precision training, the (low precision) network gradients have already been copied to the master
+        // gradients by MixedPrecisionHelper.unscaleGradients: the updater only operates on the master gradients
+        MixedPrecisionHelper mp = getMixedPrecisionHelper();
+        boolean isExternal = mp == null && gradient.gradient() != getFlattenedGradientsView();
 
         //Split up the gradients on a per-layer basis, for pre-apply
         Map<String, Gradient> layerGradients = new HashMap<>();
 
         Trainable[] layers = getOrderedLayers();
-        if (layers.length == 1 && isSingleLayerUpdater()) {
+        if (mp != null) {
+            layerGradients = masterLayerGradients(gradient);
+        } else if (layers.length == 1 && isSingleLayerUpdater()) {
             layerGradients.put(layers[0].getConfig().getLayerName(), gradient);
         } else {
             for (Map.Entry<String, INDArray> gradientPair : gradient.gradientForVariable().entrySet()) {
@@ -294,11 +340,20 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
 
                 String newKey = key.substring(idx + 1);
                 g.setGradientFor(newKey, gradientPair.getValue());
+                g.setSparseRowsFor(newKey, gradient.getSparseRowsFor(key));
             }
         }
 
         if(isMiniBatch()){
             divideByMinibatch(isExternal, gradient, batchSize);
+
+            //Params with row-sparse gradients are excluded from the above: only the relevant rows are divided
+            for (UpdaterBlock ub : updaterBlocks) {
+                if (ub.isSparseRowBlock()) {
+                    ub.divideSparseRows(isExternal ? gradient.gradient() : null,
+                                    sparseRowsFor(ub, layerGradients), batchSize);
+                }
+            }
         }
 
         //PRE apply (gradient clipping, etc): done on a per-layer basis
@@ -306,7 +361,8 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
             String layerName = entry.getKey();
             Trainable layer = layersByName.get(layerName);
 
-            preApply(layer, layerGradients.get(layerName), iteration);
+            INDArray layerGradientView = mp == null ? layer.getGradientsViewArray() : masterLayerGradientViews.get(layerName);
+            preApply(layer, layerGradients.get(layerName), iteration, layerGradientView);
         }
 
         //Apply the updaters in blocks. This also applies LR and momentum schedules, L1 and L2
@@ -314,14 +370,33 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
             //OK for LayerUpdater as this is part of layerwise pretraining
             workspaceMgr.assertNotOpen(ArrayType.UPDATER_WORKING_MEM, "Updater working memory");
         }
+        List<Op> batched = null;
         for (UpdaterBlock ub : updaterBlocks) {
             if (ub.skipDueToPretrainConfig(this instanceof LayerUpdater)) {
                 //Should skip some updater blocks sometimes
                 //For example, VAE decoder params while doing supervised backprop
                 continue;
             }
+            if (batchedUpdates && !isExternal && !ub.isSparseRowBlock() && ub.isBatchedUpdateSupported()) {
+                //Single small op per block (plain SGD): collected and submitted together, after all other blocks
+                if (batched == null)
+                    batched = new ArrayList<>();
+                batched.add(ub.batchedUpdateOp(iteration, epoch));
+                continue;
+            }
             try(MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.UPDATER_WORKING_MEM)){
-                if (isExternal) {
+                INDArray sparseRows = ub.isSparseRowBlock() ? sparseRowsFor(ub, layerGradients) : null;
+                if (sparseRows != null) {
+                    //Row-sparse gradient: only update the rows present in the gradient (lazy update)
+                    if (isExternal) {
+                        ub.updateExternalGradientSparseRows(iteration, epoch, gradient.gradient(), getParams(), sparseRows);
+                    } else {
+                        ub.updateSparseRows(iteration, epoch, sparseRows);
+                    }
+                } else if (fusedUpdates && ub.isFusedUpdateSupported()) {
+                    //Regularization and updater in one pass over the arrays
+                    ub.updateFused(iteration, epoch, isExternal ? gradient.gradient() : null, getParams());
+                } else if (isExternal) {
                     //RL4J etc type case: calculate gradients in 1 net, update them in another
                     ub.updateExternalGradient(iteration, epoch, gradient.gradient(), getParams());
                 } else {
@@ -330,6 +405,84 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
                 }
             }
         }
+
+        if (batched != null)
+            submitBatchedUpdates(batched);
+    }
+
+    /**
+     * Submits the batched update ops as a single {@link OpBatch}. Blocks reuse their ops between iterations, so the
+     * batch (and any execution plan the backend built for it) is only rebuilt when the set of ops changes
+     */
+    protected void submitBatchedUpdates(List<Op> ops) {
+        if (updateBatch == null || !sameOps(updateBatch.getOps(), ops)) {
+            updateBatch = new OpBatch(ops.size());
+            for (Op op : ops)
+                updateBatch.add(op);
+        }
+        updateBatch.submit();
+    }
+
+    private static boolean sameOps(List<Op> a, List<Op> b) {
+        if (a.size() != b.size())
+            return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Non-zero row indices of the gradient for the (single) parameter in the given block, or null if the
+     * gradient is dense or not present
+     */
+    protected INDArray sparseRowsFor(UpdaterBlock ub, Map<String, Gradient> layerGradients) {
+        UpdaterBlock.ParamState ps = ub.getLayersAndVariablesInBlock().get(0);
+        Gradient g = layerGradients.get(ps.getLayer().getConfig().getLayerName());
+        return g == null ? null : g.getSparseRowsFor(ps.getParamName());
+    }
+
+    /**
+     * Split up the master gradients (mixed precision training) on a per-layer basis, using the same keys as the
+     * network gradients
+     */
+    protected Map<String, Gradient> masterLayerGradients(Gradient gradient) {
+        Map<String, Gradient> out = new HashMap<>();
+        Map<String, long[]> layerRanges = new HashMap<>();
+        for (UpdaterBlock ub : updaterBlocks) {
+            for (UpdaterBlock.ParamState ps : ub.getLayersAndVariablesInBlock()) {
+                String layerName = ps.getLayer().getConfig().getLayerName();
+                Gradient g = out.get(layerName);
+                if (g == null) {
+                    g = new DefaultGradient();
+                    out.put(layerName, g);
+                }
+                if (ps.getGradView() != null)
+                    g.setGradientFor(ps.getParamName(), ps.getGradView());
+                g.setSparseRowsFor(ps.getParamName(), gradient.getSparseRowsFor(layerName + "_" + ps.getParamName()));
+
+                long[] range = layerRanges.get(layerName);
+                if (range == null) {
+                    layerRanges.put(layerName, new long[]{ps.getParamOffsetStart(), ps.getParamOffsetEnd()});
+                } else {
+                    range[0] = Math.min(range[0], ps.getParamOffsetStart());
+                    range[1] = Math.max(range[1], ps.getParamOffsetEnd());
+                }
+            }
+        }
+
+        if (masterLayerGradientViews == null) {
+            //Parameters of each layer are contiguous in the flattened gradients
+            INDArray master = getFlattenedGradientsView();
+            masterLayerGradientViews = new HashMap<>();
+            for (Map.Entry<String, long[]> e : layerRanges.entrySet()) {
+                long[] r = e.getValue();
+                if (r[1] > r[0])
+                    masterLayerGradientViews.put(e.getKey(), master.get(NDArrayIndex.interval(0, 0, true), NDArrayIndex.interval(r[0], r[1])));
+            }
+        }
+        return out;
     }
 
     protected void divideByMinibatch(boolean isExternal, Gradient gradient, int batchSize){
@@ -362,7 +515,7 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
             Set<String> layerParams = t.paramTable(false).keySet();
             Map<String,INDArray> paramTable = t.paramTable(false);
             for(String s : layerParams) {
-                if(t.updaterDivideByMinibatch(s)){
+                if(t.updaterDivideByMinibatch(s) && !UpdaterUtils.isSparseRowParam(t, s)){
                     long l = paramTable.get(s).length();
                     currentEnd += l;
                 } else {
@@ -398,6 +551,18 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
      * @param iteration The current iteration (i.e., number of parameter updates so far)
      */
     public void preApply(Trainable layer, Gradient gradient, int iteration) {
+        preApply(layer, gradient, iteration, layer.getGradientsViewArray());
+    }
+
+    /**
+     * Pre-apply: Apply gradient normalization/clipping
+     *
+     * @param layer              Layer to apply gradient normalization/clipping for
+     * @param gradient           Gradient to update
+     * @param iteration          The current iteration (i.e., number of parameter updates so far)
+     * @param layerGradientView  Flattened gradients for the layer (the same arrays as in the gradient argument)
+     */
+    protected void preApply(Trainable layer, Gradient gradient, int iteration, INDArray layerGradientView) {
 
         if (layer.getConfig() == null || layer.numParams() == 0) {
             //Layer does not have parameters -> no gradient
@@ -409,7 +574,6 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
             return; //no op
 
         final double threshold = layer.getConfig().getGradientNormalizationThreshold();
-        INDArray layerGradientView = layer.getGradientsViewArray();
 
         switch (normalization) {
             case RenormalizeL2PerLayer:
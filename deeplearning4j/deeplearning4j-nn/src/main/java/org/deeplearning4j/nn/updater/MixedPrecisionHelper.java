@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.updater;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MixedPrecision;
+import org.deeplearning4j.optimize.api.StepFunction;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.BooleanIndexing;
+import org.nd4j.linalg.indexing.conditions.Conditions;
+
+/**
+ * Runtime state for mixed precision training: current loss scale, and the master (high precision) copies of the
+ * network parameters and gradients. See {@link MixedPrecision} for details.<br>
+ * The loss scale is applied to the output layer gradients in MultiLayerNetwork/ComputationGraph backprop. Before the
+ * updater is applied, the (low precision) gradients are cast to the master gradients, and unscaled and checked for
+ * overflow there. The updater (including its state) then operates on the master gradients and parameters only.
+ */
+@Slf4j
+public class MixedPrecisionHelper {
+
+    @Getter
+    protected final MixedPrecision config;
+    @Getter
+    protected double lossScale;
+    @Getter
+    protected boolean lastStepSkipped;
+    @Getter
+    protected long overflowCount;
+
+    protected int stepsSinceOverflow;
+    protected INDArray masterParams;
+    protected INDArray masterGradients;
+    protected boolean masterParamsStale = true;
+
+    public MixedPrecisionHelper(@NonNull MixedPrecision config) {
+        this.config = config;
+        this.lossScale = config.getInitialLossScale();
+    }
+
+    /**
+     * @return True if the specified network data type is one that mixed precision training applies to
+     */
+    public static boolean isLowPrecision(DataType dataType) {
+        return dataType == DataType.HALF || dataType == DataType.BFLOAT16;
+    }
+
+    /**
+     * Check that mixed precision training can be used with the specified network configuration. Only
+     * {@link OptimizationAlgorithm#STOCHASTIC_GRADIENT_DESCENT} is supported: the line search optimizers (LBFGS,
+     * conjugate gradient, line gradient descent) operate on the scaled, low precision network gradients and parameters
+     * directly, bypassing the master copies.
+     *
+     * @param config    Mixed precision configuration. May be null (mixed precision disabled)
+     * @param dataType  Network data type
+     * @param algorithm Optimization algorithm of the network
+     */
+    public static void validate(MixedPrecision config, DataType dataType, OptimizationAlgorithm algorithm) {
+        if (config == null || !isLowPrecision(dataType))
+            return;
+        if (algorithm != null && algorithm != OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT) {
+            throw new IllegalStateException("Mixed precision training is only supported with optimization algorithm "
+                    + OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT + ", got " + algorithm + ". Use "
+                    + "STOCHASTIC_GRADIENT_DESCENT or disable mixed precision (MultiLayerConfiguration/ComputationGraphConfiguration.mixedPrecision(null))");
+        }
+    }
+
+    /**
+     * Multiply the specified array (output layer gradient or epsilon) in-place by the current loss scale
+     */
+    public void scale(INDArray array) {
+        if (array != null && lossScale != 1.0)
+            array.muli(lossScale);
+    }
+
+    /**
+     * Get the master (high precision) copy of the specified network parameters. The array is allocated once and then
+     * reused, so views of it remain valid; it is synchronized with the network parameters if they were changed other
+     * than via {@link #step(StepFunction, INDArray)}.
+     *
+     * @param params Network parameters (low precision)
+     */
+    public INDArray getMasterParams(@NonNull INDArray params) {
+        if (masterParams == null) {
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                masterParams = Nd4j.createUninitialized(config.getMasterDataType(), params.shape(), params.ordering());
+            }
+            masterParamsStale = true;
+        }
+        Preconditions.checkState(masterParams.length() == params.length(), "Number of parameters changed: master "
+                + "parameters have length %s, network parameters have length %s", masterParams.length(), params.length());
+
+        if (masterParamsStale) {
+            masterParams.assign(params);
+            masterParamsStale = false;
+        }
+        return masterParams;
+    }
+
+    /**
+     * Get the master (high precision) gradients array, with the same shape as the specified network gradients.
+     * The array is allocated once and then reused, so views of it remain valid. It is filled by
+     * {@link #unscaleGradients(INDArray)}.
+     *
+     * @param gradients Flattened network gradients view array (low precision)
+     */
+    public INDArray getMasterGradients(@NonNull INDArray gradients) {
+        if (masterGradients == null) {
+            try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                masterGradients = Nd4j.create(config.getMasterDataType(), gradients.shape(), gradients.ordering());
+            }
+        }
+        Preconditions.checkState(masterGradients.length() == gradients.length(), "Number of parameters changed: master "
+                + "gradients have length %s, network gradients have length %s", masterGradients.length(), gradients.length());
+        return masterGradients;
+    }
+
+    /**
+     * Cast the (loss scaled, low precision) gradients to the master gradients, then divide the master gradients by the
+     * current loss scale and check them for overflow.<br>
+     * If overflow is detected, the master gradients are zeroed, the step is marked as skipped and (if dynamic loss
+     * scaling is enabled) the loss scale is reduced.
+     *
+     * @param gradients Flattened gradients view array (low precision). Not modified.
+     * @return True if the gradients are finite, false otherwise (parameter update should be skipped)
+     */
+    public boolean unscaleGradients(@NonNull INDArray gradients) {
+        INDArray master = getMasterGradients(gradients);
+        master.assign(gradients);
+        if (lossScale != 1.0)
+            master.divi(lossScale);
+
+        boolean overflow = BooleanIndexing.or(master, Conditions.isInfinite())
+                        || BooleanIndexing.or(master, Conditions.isNan());
+
+        if (overflow) {
+            lastStepSkipped = true;
+            overflowCount++;
+            stepsSinceOverflow = 0;
+            Nd4j.getMemoryManager().memset(master);
+
+            if (config.isDynamicLossScaling()) {
+                double newScale = Math.max(config.getMinLossScale(), lossScale * config.getBackoffFactor());
+                log.debug("Gradient overflow detected: skipping update, reducing loss scale from {} to {}", lossScale, newScale);
+                lossScale = newScale;
+            }
+            return false;
+        }
+
+        lastStepSkipped = false;
+        if (config.isDynamicLossScaling() && ++stepsSinceOverflow >= config.getGrowthInterval()) {
+            lossScale *= config.getGrowthFactor();
+            stepsSinceOverflow = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Apply the update (as computed by the updater in the master gradients array) to the master copy of the
+     * parameters, and then copy the result back to the (low precision) network parameters
+     *
+     * @param stepFunction Step function to use
+     * @param params       Network parameters (low precision)
+     */
+    public void step(@NonNull StepFunction stepFunction, @NonNull INDArray params) {
+        Preconditions.checkState(masterGradients != null, "No master gradients: unscaleGradients must be called first");
+        INDArray master = getMasterParams(params);
+        stepFunction.step(master, masterGradients);
+        params.assign(master);
+    }
+
+    /**
+     * Mark the master copy of the parameters as out of date. Should be called whenever the network parameters are
+     * changed other than via {@link #step(StepFunction, INDArray)}. The copy will be synchronized on next use.
+     */
+    public void invalidateMasterParams() {
+        masterParamsStale = true;
+    }
+}
@@ -64,12 +64,19 @@ public class MultiLayerUpdater extends BaseMultiLayerUpdater<MultiLayerNetwork>
         if (network.getFlattenedGradients() == null) {
             network.initGradientsView();
         }
-        return network.getFlattenedGradients();
+        MixedPrecisionHelper mp = network.getMixedPrecisionHelper();
+        return mp == null ? network.getFlattenedGradients() : mp.getMasterGradients(network.getFlattenedGradients());
     }
 
     @Override
     protected INDArray getParams() {
-        return network.params();
+        MixedPrecisionHelper mp = network.getMixedPrecisionHelper();
+        return mp == null ? network.params() : mp.getMasterParams(network.params());
+    }
+
+    @Override
+    protected MixedPrecisionHelper getMixedPrecisionHelper() {
+        return network.getMixedPrecisionHelper();
     }
 
     @Override
@@ -25,13 +25,24 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.BaseLayer;
 import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.scalar.ScalarMultiplication;
+import org.nd4j.linalg.api.ops.impl.updaters.FusedUpdater;
+import org.nd4j.linalg.api.ops.impl.scatter.ScatterUpdate;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.shape.Shape;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.learning.GradientUpdater;
+import org.nd4j.linalg.learning.config.IUpdater;
+import org.nd4j.linalg.learning.config.Sgd;
+import org.nd4j.linalg.learning.regularization.L1Regularization;
+import org.nd4j.linalg.learning.regularization.L2Regularization;
 import org.nd4j.linalg.learning.regularization.Regularization;
+import org.nd4j.linalg.learning.regularization.WeightDecay;
 import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -42,6 +53,8 @@ import java.util.List;
  */
 @Data
 public class UpdaterBlock {
+    private static final int[] DIM_1 = new int[]{1};
+
     private int paramOffsetStart;
     private int paramOffsetEnd;
     private int updaterViewOffsetStart;
@@ -53,6 +66,7 @@ public class UpdaterBlock {
     private boolean updaterViewRequiresInitialization;
 
     private GradientUpdater gradientUpdater;
+    private transient ScalarMultiplication batchedUpdateOp;
 
 
     @AllArgsConstructor
@@ -166,6 +180,322 @@ public class UpdaterBlock {
         applyRegularizationAllVariables(Regularization.ApplyStep.POST_UPDATER, iteration, epoch, externalGradient, fullNetworkGradientView, fullNetworkParamsArray);
     }
 
+    /**
+     * @return True if the update for this block is a single scalar op (SGD without regularization), that can be
+     * submitted as part of an {@link org.nd4j.linalg.api.ops.executioner.OpBatch} - see {@link #batchedUpdateOp(int, int)}
+     */
+    public boolean isBatchedUpdateSupported() {
+        ParamState vs = layersAndVariablesInBlock.get(0);
+        if (gradientView == null || vs.getLayer().numParams() == 0)
+            return false;
+
+        IUpdater u = vs.getLayer().getConfig().getUpdaterByParam(vs.getParamName());
+        if (!(u instanceof Sgd))
+            return false;
+
+        for (ParamState p : layersAndVariablesInBlock) {
+            List<Regularization> l = p.getLayer().getConfig().getRegularizationByParam(p.getParamName());
+            if (l != null && !l.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the op applying the updater to this block's gradient view, with the learning rate for the given
+     * iteration and epoch. The op is created once, and only its scalar is updated on subsequent calls, so the same
+     * op can be kept in an {@link org.nd4j.linalg.api.ops.executioner.OpBatch} between iterations.<br>
+     * The result is the same as {@link #update(int, int)}. Should only be used if {@link #isBatchedUpdateSupported()}
+     * returns true
+     *
+     * @param iteration The current iteration (i.e., total number of parameter updates so far)
+     * @param epoch     The current epoch
+     */
+    public ScalarMultiplication batchedUpdateOp(int iteration, int epoch) {
+        if (gradientUpdater == null) {
+            init();
+        }
+
+        double lr = gradientUpdater.getConfig().getLearningRate(iteration, epoch);
+        if (batchedUpdateOp == null || batchedUpdateOp.x() != gradientView) {
+            //Scalar is kept between iterations, so it can't be allocated in updater working memory
+            try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().scopeOutOfWorkspaces()) {
+                batchedUpdateOp = new ScalarMultiplication(gradientView, null, gradientView, lr);
+            }
+        } else {
+            batchedUpdateOp.scalar().putScalar(0, lr);
+        }
+        return batchedUpdateOp;
+    }
+
+    /**
+     * @return True if regularization and the updater for this block can be applied using a single
+     * {@link FusedUpdater} op: Adam, AdaMax, Nesterovs or RmsProp, and L1, L2 and/or weight decay regularization only
+     */
+    public boolean isFusedUpdateSupported() {
+        ParamState vs = layersAndVariablesInBlock.get(0);
+        IUpdater u = vs.getLayer().getConfig().getUpdaterByParam(vs.getParamName());
+        if (FusedUpdater.typeFor(u) == null)
+            return false;
+
+        for (ParamState p : layersAndVariablesInBlock) {
+            List<Regularization> l = p.getLayer().getConfig().getRegularizationByParam(p.getParamName());
+            if (l != null) {
+                for (Regularization r : l) {
+                    Class<?> c = r.getClass();
+                    if (c != L1Regularization.class && c != L2Regularization.class && c != WeightDecay.class)
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply regularization and the updater for this block using {@link FusedUpdater} ops, as a single pass over the
+     * gradient, parameter and updater state arrays - instead of one op per regularization/updater step.
+     * One op is executed for each run of contiguous parameters with the same L1/L2/weight decay coefficients - i.e.,
+     * usually one per block. The result is the same as {@link #update(int, int)} or
+     * {@link #updateExternalGradient(int, int, INDArray, INDArray)}.<br>
+     * Should only be used if {@link #isFusedUpdateSupported()} returns true
+     *
+     * @param iteration               The current iteration (i.e., total number of parameter updates so far)
+     * @param epoch                   The current epoch
+     * @param fullNetworkGradientView External gradient view array, or null to use this block's gradient view
+     * @param fullNetworkParamsArray  Parameters for the full network
+     */
+    public void updateFused(int iteration, int epoch, INDArray fullNetworkGradientView, INDArray fullNetworkParamsArray) {
+        if (gradientUpdater == null) {
+            init();
+        }
+
+        boolean externalGradient = fullNetworkGradientView != null;
+        INDArray blockGradViewArray = blockGradientView(fullNetworkGradientView);
+        Trainable l0 = layersAndVariablesInBlock.get(0).getLayer();
+        if (blockGradViewArray == null || l0.numParams() == 0) {
+            //No params for this layer
+            return;
+        }
+
+        IUpdater config = gradientUpdater.getConfig();
+        long blockLength = paramOffsetEnd - paramOffsetStart;
+        int numStates = (int) (updaterView.length() / blockLength);
+        if (!fusedCompatible(blockGradViewArray) || !fusedCompatible(updaterView)) {
+            //Can't be processed as flat arrays - fall back on standard update
+            update(iteration, epoch, externalGradient, fullNetworkGradientView, fullNetworkParamsArray);
+            return;
+        }
+
+        double lr = config.getLearningRate(iteration, epoch);
+        List<FusedUpdater> ops = new ArrayList<>();
+        int segmentStart = 0;
+        while (segmentStart < layersAndVariablesInBlock.size()) {
+            //Find the run of params with the same regularization coefficients
+            double[] coeffs = regularizationCoefficients(layersAndVariablesInBlock.get(segmentStart), iteration, epoch, lr);
+            int segmentEnd = segmentStart + 1;
+            while (segmentEnd < layersAndVariablesInBlock.size() && Arrays.equals(coeffs,
+                    regularizationCoefficients(layersAndVariablesInBlock.get(segmentEnd), iteration, epoch, lr))) {
+                segmentEnd++;
+            }
+
+            long start = layersAndVariablesInBlock.get(segmentStart).getParamOffsetStart() - paramOffsetStart;
+            long end = layersAndVariablesInBlock.get(segmentEnd - 1).getParamOffsetEnd() - paramOffsetStart;
+            if (end > start) {
+                INDArray grad = blockGradViewArray.get(NDArrayIndex.interval(0, 0, true), NDArrayIndex.interval(start, end));
+                //Params are only read for regularization
+                INDArray params = grad;
+                if (coeffs[0] != 0.0 || coeffs[1] != 0.0 || coeffs[2] != 0.0) {
+                    params = fullNetworkParamsArray.get(NDArrayIndex.interval(0, 0, true),
+                            NDArrayIndex.interval(paramOffsetStart + start, paramOffsetStart + end));
+                }
+                INDArray[] state = new INDArray[numStates];
+                for (int i = 0; i < numStates; i++) {
+                    state[i] = updaterView.get(NDArrayIndex.interval(0, 0, true),
+                            NDArrayIndex.interval(i * blockLength + start, i * blockLength + end));
+                }
+
+                if (!fusedCompatible(params) || params.dataType() != grad.dataType() || state[0].dataType() != grad.dataType()) {
+                    //Mixed data types, etc: fall back on standard update
+                    update(iteration, epoch, externalGradient, fullNetworkGradientView, fullNetworkParamsArray);
+                    return;
+                }
+                ops.add(new FusedUpdater(grad, params, state, config, iteration, epoch, coeffs[0], coeffs[1], coeffs[2]));
+            }
+            segmentStart = segmentEnd;
+        }
+
+        for (FusedUpdater op : ops) {
+            Nd4j.exec(op);
+        }
+    }
+
+    /**
+     * @return L1, L2 and weight decay coefficients (the latter including learning rate, if applicable) for the given
+     * parameter
+     */
+    private double[] regularizationCoefficients(ParamState p, int iteration, int epoch, double lr) {
+        double[] out = new double[3];
+        List<Regularization> l = p.getLayer().getConfig().getRegularizationByParam(p.getParamName());
+        if (l != null) {
+            for (Regularization r : l) {
+                if (r instanceof L1Regularization) {
+                    out[0] += ((L1Regularization) r).getL1().valueAt(iteration, epoch);
+                } else if (r instanceof L2Regularization) {
+                    out[1] += ((L2Regularization) r).getL2().valueAt(iteration, epoch);
+                } else if (r instanceof WeightDecay) {
+                    WeightDecay wd = (WeightDecay) r;
+                    out[2] += wd.getCoeff().valueAt(iteration, epoch) * (wd.isApplyLR() ? lr : 1.0);
+                }
+            }
+        }
+        return out;
+    }
+
+    private static boolean fusedCompatible(INDArray arr) {
+        return arr.isRowVectorOrScalar() && arr.elementWiseStride() == 1;
+    }
+
+    /**
+     * @return True if this block contains a single parameter with row-sparse gradients
+     * @see UpdaterUtils#isSparseRowParam(Trainable, String)
+     */
+    public boolean isSparseRowBlock() {
+        ParamState vs = layersAndVariablesInBlock.get(0);
+        return layersAndVariablesInBlock.size() == 1 && UpdaterUtils.isSparseRowParam(vs.getLayer(), vs.getParamName());
+    }
+
+    /**
+     * Divide the gradient of this (row-sparse) block by the minibatch size. If the row indices are provided,
+     * only those rows are divided - all other rows are zero by definition
+     *
+     * @param fullNetworkGradientView External gradient view array, or null to use this block's gradient view
+     * @param rowIndices              Non-zero rows of the gradient, or null to divide the whole gradient
+     * @param batchSize               Minibatch size
+     */
+    public void divideSparseRows(INDArray fullNetworkGradientView, INDArray rowIndices, int batchSize) {
+        INDArray blockGradViewArray = blockGradientView(fullNetworkGradientView);
+        if (blockGradViewArray == null)
+            return;
+
+        INDArray grad2d = rowIndices == null ? null : as2d(blockGradViewArray);
+        if (grad2d == null) {
+            blockGradViewArray.divi(batchSize);
+            return;
+        }
+
+        int[] rows = rowIndices.toIntVector();
+        if (rows.length == 0)
+            return;
+
+        INDArray gradRows = Nd4j.pullRows(grad2d, 1, rows).divi(batchSize);
+        Nd4j.scatterUpdate(ScatterUpdate.UpdateOp.ASSIGN, grad2d, rowIndices, gradRows, DIM_1);
+    }
+
+    /**
+     * Update only the specified rows of the (row-sparse) parameter in this block. Regularization and the updater are
+     * applied to those rows only: the updater state for the other rows is not modified (lazy update), and the other
+     * rows of the gradient view array are left as-is (i.e., zero) - hence the corresponding parameters don't change.
+     *
+     * @param iteration  The current iteration (i.e., total number of parameter updates so far)
+     * @param rowIndices Unique indices of the non-zero rows of the gradient
+     */
+    public void updateSparseRows(int iteration, int epoch, INDArray rowIndices) {
+        updateSparseRows(iteration, epoch, gradientView, layersAndVariablesInBlock.get(0).getParamView(), rowIndices);
+    }
+
+    public void updateExternalGradientSparseRows(int iteration, int epoch, INDArray fullNetworkGradientView,
+                    INDArray fullNetworkParamsArray, INDArray rowIndices) {
+        INDArray paramView = fullNetworkParamsArray.get(NDArrayIndex.interval(0, 0, true),
+                        NDArrayIndex.interval(paramOffsetStart, paramOffsetEnd));
+        updateSparseRows(iteration, epoch, blockGradientView(fullNetworkGradientView), paramView, rowIndices);
+    }
+
+    private void updateSparseRows(int iteration, int epoch, INDArray blockGradViewArray, INDArray paramView,
+                    INDArray rowIndices) {
+        if (gradientUpdater == null) {
+            init();
+        }
+
+        ParamState p = layersAndVariablesInBlock.get(0);
+        if (blockGradViewArray == null || p.getLayer().numParams() == 0)
+            return;
+
+        boolean hasLR = gradientUpdater.getConfig().hasLearningRate();
+        double lr = (hasLR ? gradientUpdater.getConfig().getLearningRate(iteration, epoch) : 1.0);
+
+        INDArray grad2d = as2d(blockGradViewArray);
+        INDArray param2d = as2d(paramView);
+        if (grad2d == null || param2d == null) {
+            //Can't get 2d views without copying: fall back on dense update
+            applyRegularization(Regularization.ApplyStep.BEFORE_UPDATER, p.getLayer(), p.getParamName(), blockGradViewArray, paramView, iteration, epoch, lr);
+            gradientUpdater.applyUpdater(blockGradViewArray, iteration, epoch);
+            applyRegularization(Regularization.ApplyStep.POST_UPDATER, p.getLayer(), p.getParamName(), blockGradViewArray, paramView, iteration, epoch, lr);
+            return;
+        }
+
+        int[] rows = rowIndices.toIntVector();
+        if (rows.length == 0)
+            return;
+
+        long cols = grad2d.size(1);
+        long rowsLength = rows.length * cols;
+        INDArray gradRows = Nd4j.pullRows(grad2d, 1, rows, 'c');
+        INDArray paramRows = Nd4j.pullRows(param2d, 1, rows, 'c');
+
+        applyRegularization(Regularization.ApplyStep.BEFORE_UPDATER, p.getLayer(), p.getParamName(), gradRows, paramRows, iteration, epoch, lr);
+
+        //Gather the updater state for the rows being updated: state is stored as a number of consecutive arrays,
+        // each with the same length and layout as the parameter
+        GradientUpdater rowsUpdater = gradientUpdater;
+        INDArray[] state2d = null;
+        INDArray[] stateRows = null;
+        if (updaterView != null) {
+            long length = blockGradViewArray.length();
+            int numStates = (int) (updaterView.length() / length);
+            state2d = new INDArray[numStates];
+            stateRows = new INDArray[numStates];
+            INDArray rowsState = Nd4j.createUninitialized(updaterView.dataType(), new long[]{1, numStates * rowsLength}, 'c');
+            for (int i = 0; i < numStates; i++) {
+                state2d[i] = as2d(updaterView.get(NDArrayIndex.interval(0, 0, true), NDArrayIndex.interval(i * length, (i + 1) * length)));
+                stateRows[i] = rowsState.get(NDArrayIndex.interval(0, 0, true), NDArrayIndex.interval(i * rowsLength, (i + 1) * rowsLength))
+                                .reshape('c', rows.length, cols);
+                Nd4j.pullRows(state2d[i], stateRows[i], 1, rows);
+            }
+            rowsUpdater = gradientUpdater.getConfig().instantiate(rowsState, false);
+        }
+
+        rowsUpdater.applyUpdater(gradRows.reshape('c', 1, rowsLength), iteration, epoch);
+
+        applyRegularization(Regularization.ApplyStep.POST_UPDATER, p.getLayer(), p.getParamName(), gradRows, paramRows, iteration, epoch, lr);
+
+        //Scatter the updated gradient and state back
+        Nd4j.scatterUpdate(ScatterUpdate.UpdateOp.ASSIGN, grad2d, rowIndices, gradRows, DIM_1);
+        if (state2d != null) {
+            for (int i = 0; i < state2d.length; i++) {
+                Nd4j.scatterUpdate(ScatterUpdate.UpdateOp.ASSIGN, state2d[i], rowIndices, stateRows[i], DIM_1);
+            }
+        }
+    }
+
+    private INDArray blockGradientView(INDArray fullNetworkGradientView) {
+        if (fullNetworkGradientView == null)
+            return gradientView;
+        return fullNetworkGradientView.get(NDArrayIndex.interval(0, 0, true),
+                        NDArrayIndex.interval(paramOffsetStart, paramOffsetEnd));
+    }
+
+    /**
+     * @return View of the given row vector with the shape and order of the parameter in this block, or null if
+     * that isn't possible without a copy
+     */
+    private INDArray as2d(INDArray rowVector) {
+        ParamState p = layersAndVariablesInBlock.get(0);
+        INDArray param = p.getLayer().paramTable(false).get(p.getParamName());
+        if (param == null || param.rank() != 2)
+            return null;
+        return Shape.newShapeNoCopy(rowVector, param.shape(), param.ordering() == 'f');
+    }
+
     protected void applyRegularizationAllVariables(Regularization.ApplyStep applyStep, int iteration, int epoch, boolean externalGradient, INDArray fullNetworkGradientView,
                                                    INDArray fullNetworkParamsArray) {
         for (ParamState p : layersAndVariablesInBlock) {
@@ -18,6 +18,9 @@ package org.deeplearning4j.nn.updater;
 
 import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.api.TrainingConfig;
+import org.deeplearning4j.nn.conf.layers.EmbeddingLayer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.learning.config.IUpdater;
 
 /**
@@ -53,4 +56,19 @@ public class UpdaterUtils {
 
         return true;
     }
+
+    /**
+     * Determine whether the gradient for the specified parameter may be row-sparse - i.e., whether it should be
+     * updated via {@link UpdaterBlock#updateSparseRows(int, int, INDArray)} when the sparse row indices are available.
+     * Such parameters are always placed in an updater block of their own.
+     *
+     * @param layer Layer the parameter belongs to
+     * @param param Name of the parameter
+     * @return True if the parameter has row-sparse gradients
+     */
+    public static boolean isSparseRowParam(Trainable layer, String param) {
+        TrainingConfig c = layer.getConfig();
+        return c instanceof EmbeddingLayer && ((EmbeddingLayer) c).isSparseGradients()
+                && DefaultParamInitializer.WEIGHT_KEY.equals(param);
+    }
 }
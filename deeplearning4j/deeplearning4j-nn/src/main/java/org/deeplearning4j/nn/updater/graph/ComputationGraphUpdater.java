@@ -21,6 +21,7 @@ import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.graph.vertex.GraphVertex;
 import org.deeplearning4j.nn.updater.BaseMultiLayerUpdater;
+import org.deeplearning4j.nn.updater.MixedPrecisionHelper;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.Arrays;
@@ -84,12 +85,19 @@ public class ComputationGraphUpdater extends BaseMultiLayerUpdater<ComputationGr
         if (network.getFlattenedGradients() == null) {
             network.initGradientsView();
         }
-        return network.getFlattenedGradients();
+        MixedPrecisionHelper mp = network.getMixedPrecisionHelper();
+        return mp == null ? network.getFlattenedGradients() : mp.getMasterGradients(network.getFlattenedGradients());
     }
 
     @Override
     protected INDArray getParams() {
-        return network.params();
+        MixedPrecisionHelper mp = network.getMixedPrecisionHelper();
+        return mp == null ? network.params() : mp.getMasterParams(network.params());
+    }
+
+    @Override
+    protected MixedPrecisionHelper getMixedPrecisionHelper() {
+        return network.getMixedPrecisionHelper();
     }
 
     @Override
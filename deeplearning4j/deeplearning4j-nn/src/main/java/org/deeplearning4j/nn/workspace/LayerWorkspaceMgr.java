@@ -21,7 +21,10 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.bytedeco.javacpp.Pointer;
+import org.nd4j.linalg.api.memory.WorkspaceStatistics;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.api.memory.enums.ResetPolicy;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.workspace.BaseWorkspaceMgr;
 import org.nd4j.linalg.workspace.WorkspaceMgr;
@@ -114,6 +117,51 @@ public class LayerWorkspaceMgr extends BaseWorkspaceMgr<ArrayType> {
         helperWorkspacePointers.put(key, value);
     }
 
+    /**
+     * Get the runtime statistics (size, peak use, spilled bytes, reallocations etc) of all workspaces used by this
+     * workspace manager in the current thread. Array types that are scoped out, or whose workspaces weren't created
+     * yet, are not included.
+     *
+     * @return Map of workspace statistics, keyed by array type
+     */
+    public Map<ArrayType, WorkspaceStatistics> getWorkspaceStatistics(){
+        return getWorkspaceStatistics(ArrayType.class);
+    }
+
+    /**
+     * Switch all configured workspaces with learnable size to {@link LearningPolicy#ADAPTIVE} sizing: workspaces will
+     * grow right after a cycle that spilled, and shrink when oversized relative to recent use.
+     * Only scoped workspaces with {@link LearningPolicy#FIRST_LOOP} or {@link LearningPolicy#OVER_TIME} learning
+     * are affected. NOTE: workspaces that were already created in the current thread keep their original configuration.
+     */
+    public void enableAdaptiveSizing(){
+        for(Map.Entry<ArrayType, WorkspaceConfiguration> e : configMap.entrySet()){
+            WorkspaceConfiguration c = e.getValue();
+            if(c == null || c.getPolicyReset() != ResetPolicy.BLOCK_LEFT || (c.getPolicyLearning() != LearningPolicy.FIRST_LOOP
+                    && c.getPolicyLearning() != LearningPolicy.OVER_TIME)){
+                continue;
+            }
+
+            e.setValue(WorkspaceConfiguration.builder()
+                    .policyAllocation(c.getPolicyAllocation())
+                    .policySpill(c.getPolicySpill())
+                    .policyMirroring(c.getPolicyMirroring())
+                    .policyLearning(LearningPolicy.ADAPTIVE)
+                    .policyReset(c.getPolicyReset())
+                    .policyLocation(c.getPolicyLocation())
+                    .tempFilePath(c.getTempFilePath())
+                    .initialSize(c.getInitialSize())
+                    .minSize(c.getMinSize())
+                    .maxSize(c.getMaxSize())
+                    .cyclesBeforeInitialization(c.getCyclesBeforeInitialization())
+                    .overallocationLimit(c.getOverallocationLimit())
+                    .stepsNumber(c.getStepsNumber())
+                    .adaptiveWindow(c.getAdaptiveWindow())
+                    .shrinkThreshold(c.getShrinkThreshold())
+                    .build());
+        }
+    }
+
     public static Builder builder(){
         return new Builder();
     }
@@ -201,6 +249,16 @@ public class LayerWorkspaceMgr extends BaseWorkspaceMgr<ArrayType> {
             return this;
         }
 
+        /**
+         * Use adaptive sizing for all workspaces configured so far. See {@link LayerWorkspaceMgr#enableAdaptiveSizing()}
+         *
+         * @return Builder
+         */
+        public Builder adaptiveSizing(){
+            mgr.enableAdaptiveSizing();
+            return this;
+        }
+
         public LayerWorkspaceMgr build(){
             return mgr;
         }
@@ -27,6 +27,7 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.updater.MixedPrecisionHelper;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
@@ -179,6 +180,13 @@ public abstract class BaseOptimizer implements ConvexOptimizer {
 
         Pair<Gradient, Double> pair = model.gradientAndScore();
         score = pair.getSecond();
+
+        MixedPrecisionHelper mp = getMixedPrecisionHelper(model);
+        if (mp != null && !mp.unscaleGradients(pair.getFirst().gradient())) {
+            //Gradient overflow with mixed precision training: master gradients were zeroed, skip the updater for this iteration
+            return pair;
+        }
+
         updateGradientAccordingToParams(pair.getFirst(), model, model.batchSize(), workspaceMgr);
         return pair;
     }
@@ -338,6 +346,18 @@ public abstract class BaseOptimizer implements ConvexOptimizer {
         }
     }
 
+    /**
+     * @return Mixed precision state for the model, or null if the model isn't using mixed precision training
+     */
+    public static MixedPrecisionHelper getMixedPrecisionHelper(Model model) {
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).getMixedPrecisionHelper();
+        } else if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).getMixedPrecisionHelper();
+        }
+        return null;
+    }
+
     public static void incrementIterationCount(Model model, int incrementBy) {
         if (model instanceof MultiLayerNetwork) {
             MultiLayerConfiguration conf = ((MultiLayerNetwork) model).getLayerWiseConfigurations();
@@ -22,6 +22,7 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.updater.MixedPrecisionHelper;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.deeplearning4j.optimize.api.StepFunction;
 import org.deeplearning4j.optimize.api.TrainingListener;
@@ -50,6 +51,14 @@ public class StochasticGradientDescent extends BaseOptimizer {
 
     @Override
     public boolean optimize(LayerWorkspaceMgr workspaceMgr) {
+        MixedPrecisionHelper mp = BaseOptimizer.getMixedPrecisionHelper(model);
+        if (accumulator != null && mp != null) {
+            //The accumulator stores and applies updates in the network (low precision) data type, which would bypass
+            // (and leave stale) the master copy of the parameters
+            throw new IllegalStateException("Mixed precision training is not supported with a GradientsAccumulator " +
+                    "(for example, ParallelWrapper or SharedTrainingMaster). Disable mixed precision for distributed training");
+        }
+
         if (accumulator != null) {
             // before going FF, we're checking if there are any updates available
             if (accumulator.hasAnything()) {
@@ -90,7 +99,12 @@ public class StochasticGradientDescent extends BaseOptimizer {
             // if there's no update available - just go on then
         } else {
             // if accumulator isn't used - we just to for direct updates application
-            stepFunction.step(params, gradient.gradient());
+            if (mp == null) {
+                stepFunction.step(params, gradient.gradient());
+            } else if (!mp.isLastStepSkipped()) {
+                // mixed precision: updater output is in the master gradients, and is applied to the master copy of params first
+                mp.step(stepFunction, params);
+            }
         }
 
         //Note: model.params() is always in-place for MultiLayerNetwork and ComputationGraph, hence no setParams is necessary there
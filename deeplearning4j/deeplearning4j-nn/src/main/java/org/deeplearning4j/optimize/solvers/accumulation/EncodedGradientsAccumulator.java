@@ -27,7 +27,6 @@ import org.deeplearning4j.optimize.solvers.accumulation.encoding.ResidualPostPro
 import org.deeplearning4j.optimize.solvers.accumulation.encoding.ThresholdAlgorithm;
 import org.deeplearning4j.optimize.solvers.accumulation.encoding.residual.ResidualClippingPostProcessor;
 import org.deeplearning4j.optimize.solvers.accumulation.encoding.threshold.AdaptiveThresholdAlgorithm;
-import org.deeplearning4j.util.ThreadUtils;
 import org.nd4j.base.Preconditions;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
@@ -44,7 +43,6 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -74,6 +72,8 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
     protected int queueSize = 5;
     protected Double boundary = 1.0;
     protected boolean encodingDebugMode;
+    @Getter
+    protected WaitStrategy waitStrategy = WaitStrategy.PARK;
 
     protected IndexedTail externalSource;
 
@@ -109,12 +109,18 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
 
     public EncodedGradientsAccumulator(int parties, @NonNull MessageHandler handler, long initialMemory,
                     int queueSize, Double boundary, boolean encodingDebugMode) {
+        this(parties, handler, initialMemory, queueSize, boundary, encodingDebugMode, WaitStrategy.PARK);
+    }
+
+    public EncodedGradientsAccumulator(int parties, @NonNull MessageHandler handler, long initialMemory,
+                    int queueSize, Double boundary, boolean encodingDebugMode, @NonNull WaitStrategy waitStrategy) {
         this.parties = parties;
         this.handler = handler;
         this.initialMemory = initialMemory;
         this.queueSize = queueSize;
         this.boundary = boundary;
         this.encodingDebugMode = encodingDebugMode;
+        this.waitStrategy = waitStrategy;
 
         // maybe not the best idea in the world, but we'll use cyclic workspace of 25MB to receive updates
         WorkspaceConfiguration configuration = WorkspaceConfiguration.builder().initialSize(initialMemory)
@@ -137,7 +143,8 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         int curDev = Nd4j.getAffinityManager().getDeviceForCurrentThread();
 
         for (int i = 0; i < parties; i++) {
-            messages.add(new LinkedBlockingQueue<INDArray>(queueSize));
+            // preallocated ring buffer: compressed messages themselves live in the cyclic workspace below
+            messages.add(new RingBufferQueue<INDArray>(queueSize, waitStrategy));
 
             // we don't want device index to step out of boundaries here
             int cDevice = numDevices > 1 ? i % numDevices : 0;
@@ -195,7 +202,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
                 log.info("Master thread locks at RC");
 
             while (registered.get()) {
-                ThreadUtils.uncheckedSleep(1);
+                waitStrategy.idle();
                 if (throwable.isTriggered())
                     throw new RuntimeException(throwable.get());
             }
@@ -252,7 +259,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         } else {
             // just wait, till last thread will set isDone to true
             while (!isDone.get()) {
-                ThreadUtils.uncheckedSleep(1);
+                waitStrategy.idle();
                 if (throwable.isTriggered())
                     throw new RuntimeException(throwable.get());
             }
@@ -266,7 +273,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             isFirst.set(true);
         } else {
             while (!isFirst.get()) {
-                ThreadUtils.uncheckedSleep(1);
+                waitStrategy.idle();
                 if (throwable.isTriggered())
                     throw new RuntimeException(throwable.get());
             }
@@ -293,8 +300,9 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             //updates.assign(0.0);
 
             int cnt = 0;
-            while (!messages.get(index.get()).isEmpty()) {
-                INDArray compressed = messages.get(index.get()).poll();
+            BlockingQueue<INDArray> queue = messages.get(index.get());
+            INDArray compressed;
+            while ((compressed = queue.poll()) != null) {
 
                 int encoding = compressed.data().getInt(3);
                 if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
@@ -358,8 +366,9 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             //updates.assign(0.0);
 
             int cnt = 0;
-            while (!messages.get(index.get()).isEmpty()) {
-                INDArray compressed = messages.get(index.get()).poll();
+            BlockingQueue<INDArray> queue = messages.get(index.get());
+            INDArray compressed;
+            while ((compressed = queue.poll()) != null) {
 
                 int encoding = compressed.data().getInt(3);
                 if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
@@ -457,7 +466,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             // block until ParallelWrapper sends us message about number of threads in this cycle
             if (!bypassMode.get())
                 while (!registered.get()) {
-                    ThreadUtils.uncheckedSleep(1);
+                    waitStrategy.idle();
                     if (throwable.isTriggered())
                         throw new RuntimeException(throwable.get());
                 }
@@ -556,6 +565,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         protected MessageHandler handler;
         protected Double boundary = null;
         protected boolean encodingDebugMode;
+        protected WaitStrategy waitStrategy = WaitStrategy.PARK;
 
         /**
          * This
@@ -631,6 +641,18 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             return this;
         }
 
+        /**
+         * This method allows to specify the way worker threads wait for updates & for each other
+         *
+         * Default value: PARK. BUSY_SPIN gives the lowest per-iteration synchronization overhead, at cost of CPU use
+         * @param waitStrategy
+         * @return
+         */
+        public Builder waitStrategy(@NonNull WaitStrategy waitStrategy) {
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
         public Builder encodingDebugMode(boolean enable){
             this.encodingDebugMode = enable;
             return this;
@@ -642,7 +664,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
                 handler = new EncodingHandler(thresholdAlgorithm, residualPostProcessor, boundary, encodingDebugMode);
             }
 
-            EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator(parties, handler, initialMemory, queueSize, boundary, encodingDebugMode);
+            EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator(parties, handler, initialMemory, queueSize, boundary, encodingDebugMode, waitStrategy);
 
             return accumulator;
         }
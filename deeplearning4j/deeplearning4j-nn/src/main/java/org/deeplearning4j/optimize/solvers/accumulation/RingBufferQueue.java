@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This BlockingQueue implementation is preallocated bounded ring buffer, suited for single-producer/single-consumer message exchange between workers.
+ *
+ * Basic idea: slots are allocated once, producer and consumer only advance their own sequence, so there's no allocation and no locks on put/poll.
+ * Waiting (for free slot on put(), or for message on take()) is done via provided WaitStrategy.
+ *
+ * PLEASE NOTE: producers are expected to be serialized externally, i.e. via lock. Consumer is expected to be single thread.
+ * clear() may be called from any thread: it only marks currently published messages as discarded, and the consumer drops them on its next poll/peek.
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+    protected final AtomicReferenceArray<E> slots;
+    protected final int capacity;
+    protected final int mask;
+
+    @Getter
+    protected final WaitStrategy waitStrategy;
+
+    // next position to be written by producer
+    protected final AtomicLong tail = new AtomicLong(0);
+
+    // next position to be read by consumer
+    protected final AtomicLong head = new AtomicLong(0);
+
+    // everything published before this position was discarded via clear(), consumer skips it
+    protected final AtomicLong discarded = new AtomicLong(0);
+
+    public RingBufferQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    public RingBufferQueue(int capacity, @NonNull WaitStrategy waitStrategy) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity should be positive value");
+
+        // we round capacity up to the nearest power of 2, so slot index is just a mask
+        int actual = Integer.highestOneBit(capacity);
+        if (actual < capacity)
+            actual <<= 1;
+
+        this.slots = new AtomicReferenceArray<>(actual);
+        this.capacity = capacity;
+        this.mask = actual - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public boolean offer(@NonNull E e) {
+        long t = tail.get();
+        if (t - head.get() >= capacity)
+            return false;
+
+        int idx = (int) (t & mask);
+        slots.lazySet(idx, e);
+
+        // publishing element to consumer
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Returns the consumer position, skipping messages discarded by clear(). Should be called from the consumer thread only.
+     */
+    protected long consumerHead() {
+        long h = head.get();
+        long d = discarded.get();
+        if (h >= d)
+            return h;
+
+        for (long p = h; p < d; p++)
+            slots.lazySet((int) (p & mask), null);
+
+        // releasing discarded slots to producer
+        head.lazySet(d);
+        return d;
+    }
+
+    @Override
+    public E poll() {
+        long h = consumerHead();
+        if (h >= tail.get())
+            return null;
+
+        int idx = (int) (h & mask);
+        E e = slots.get(idx);
+        slots.lazySet(idx, null);
+
+        // releasing slot to producer
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        long h = consumerHead();
+        if (h >= tail.get())
+            return null;
+
+        return slots.get((int) (h & mask));
+    }
+
+    @Override
+    public void put(@NonNull E e) throws InterruptedException {
+        while (!offer(e)) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+
+            waitStrategy.idle();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(e)) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+
+            if (System.nanoTime() >= deadline)
+                return false;
+
+            waitStrategy.idle();
+        }
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = poll()) == null) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+
+            waitStrategy.idle();
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E e;
+        while ((e = poll()) == null) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+
+            if (System.nanoTime() >= deadline)
+                return null;
+
+            waitStrategy.idle();
+        }
+        return e;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        // discarded slots are returned to producer only once consumer skips them
+        long t = tail.get();
+        return (int) Math.max(0, capacity - (t - head.get()));
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        int cnt = 0;
+        E e;
+        while (cnt < maxElements && (e = poll()) != null) {
+            c.add(e);
+            cnt++;
+        }
+        return cnt;
+    }
+
+    @Override
+    public int size() {
+        // head is read first, so size can't go negative if consumer advances in between
+        long h = Math.max(head.get(), discarded.get());
+        long t = tail.get();
+        return (int) Math.max(0, Math.min(capacity, t - h));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return Math.max(head.get(), discarded.get()) >= tail.get();
+    }
+
+    /**
+     * Discards all messages published so far. Safe to call from any thread: head is never touched here,
+     * so single-consumer invariant holds, and slots are released once consumer calls poll() or peek().
+     */
+    @Override
+    public void clear() {
+        long t = tail.get();
+        long d;
+        while ((d = discarded.get()) < t && !discarded.compareAndSet(d, t));
+    }
+
+    /**
+     * PLEASE NOTE: this iterator is weakly consistent, and should be used only for debugging purposes
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final long start = Math.max(head.get(), discarded.get());
+        final long end = tail.get();
+        return new Iterator<E>() {
+            private long position = start;
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return slots.get((int) (position++ & mask));
+            }
+        };
+    }
+}
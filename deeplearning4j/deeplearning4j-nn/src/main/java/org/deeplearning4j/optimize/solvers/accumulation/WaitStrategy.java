@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import org.deeplearning4j.util.ThreadUtils;
+
+/**
+ * This enum defines how threads are waiting for each other within GradientsAccumulator: for free slots in message buffers, or for barriers.
+ *
+ * BUSY_SPIN: lowest latency, but occupies a core per waiting thread. Suitable for small & fast models, where iteration takes few milliseconds.
+ * YIELD: spins, but gives up time slice on each attempt.
+ * PARK: parks thread for 1 millisecond between attempts. Default, lowest CPU use.
+ */
+public enum WaitStrategy {
+    BUSY_SPIN,
+    YIELD,
+    PARK;
+
+    /**
+     * This method is called by waiting thread on each unsuccessful attempt
+     */
+    public void idle() {
+        switch (this) {
+            case BUSY_SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+            default:
+                ThreadUtils.uncheckedSleep(1);
+                return;
+        }
+
+        // we must check the interrupted status here as well, otherwise we may end up spinning forever
+        if (Thread.currentThread().isInterrupted())
+            throw new ThreadUtils.UncheckedInterruptedException();
+    }
+}
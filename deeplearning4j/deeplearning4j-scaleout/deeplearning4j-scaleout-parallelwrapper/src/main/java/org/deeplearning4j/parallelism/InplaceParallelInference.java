@@ -21,9 +21,8 @@ import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.ModelAdapter;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.inference.ConcurrentInference;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.parallelism.inference.InferenceMode;
 import org.deeplearning4j.parallelism.inference.LoadBalanceMode;
@@ -46,6 +45,11 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * PLEASE NOTE: This implementation does not create additional threads
  * PLEASE NOTE: This implementation uses shared parameters for models on per-device basis
  *
+ * Replicas are created with {@link ConcurrentInference#replicate(Model, INDArray)}: each holds its own layer objects
+ * (layers keep per-call state such as inputs and masks, so one replica per concurrent call is needed), but the
+ * parameters are views of the source model's parameters, and int8 quantized weights are shared. For an elastic pool
+ * (one replica per concurrent caller, no fixed number of workers) use {@link ConcurrentInference} directly.
+ *
  * @author raver119@gmail.com
  */
 @Slf4j
@@ -94,7 +98,12 @@ public class InplaceParallelInference extends ParallelInference {
 
     @Override
     public INDArray[] output(INDArray[] input, INDArray[] inputMasks) {
-        return selector.output(input, inputMasks);
+        int previousLimit = applyThreadLimit();
+        try {
+            return selector.output(input, inputMasks);
+        } finally {
+            restoreThreadLimit(previousLimit);
+        }
     }
 
     /**
@@ -110,6 +119,7 @@ public class InplaceParallelInference extends ParallelInference {
         val holder = selector.getModelForThisThread();
         Model model = null;
         boolean acquired = false;
+        int previousLimit = applyThreadLimit();
         try {
             model = holder.acquireModel();
             acquired = true;
@@ -119,6 +129,8 @@ public class InplaceParallelInference extends ParallelInference {
         } finally {
             if (model != null && acquired)
                 holder.releaseModel(model);
+
+            restoreThreadLimit(previousLimit);
         }
     }
 
@@ -191,35 +203,18 @@ public class InplaceParallelInference extends ParallelInference {
             isCG = sourceModel instanceof ComputationGraph;
             isMLN = sourceModel instanceof MultiLayerNetwork;
 
-            // we clone params only if we're not on the same device
-            val params = rootDevice ? sourceModel.params() : sourceModel.params().unsafeDuplication(true);
-
-            // and moving it to specified device (only if NOT root
-            if (!rootDevice)
-                Nd4j.getAffinityManager().replicateToDevice(targetDeviceId, params);
+            // we clone params only if we're not on the same device, and place the copy on the target device
+            val params = rootDevice ? sourceModel.params() : Nd4j.getAffinityManager().replicateToDevice(targetDeviceId, sourceModel.params());
 
             for (int e = 0; e < workers; e++) {
-                if (sourceModel instanceof ComputationGraph) {
-                    // building configuration with shared parameters
-                    val model = new ComputationGraph(ComputationGraphConfiguration.fromJson(((ComputationGraph) sourceModel).getConfiguration().toJson()));
-                    model.init(params, false);
-                    Nd4j.getExecutioner().commit();
+                // building model structure with shared parameters
+                val model = ConcurrentInference.replicate(sourceModel, params);
 
-                    // storing model for future reuse
-                    replicas.add(model);
+                // storing model for future reuse
+                replicas.add(model);
 
-                    if (loadBalanceMode == LoadBalanceMode.FIFO)
-                        queue.add(model);
-                } else if (sourceModel instanceof MultiLayerNetwork) {
-                    val model = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(((MultiLayerNetwork) sourceModel).getLayerWiseConfigurations().toJson()));
-                    model.init(params, false);
-                    Nd4j.getExecutioner().commit();
-
-                    replicas.add(model);
-
-                    if (loadBalanceMode == LoadBalanceMode.FIFO)
-                        queue.add(model);
-                }
+                if (loadBalanceMode == LoadBalanceMode.FIFO)
+                    queue.add(model);
             }
         }
 
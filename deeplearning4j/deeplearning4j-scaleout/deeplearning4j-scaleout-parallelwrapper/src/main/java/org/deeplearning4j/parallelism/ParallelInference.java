@@ -35,6 +35,7 @@ import org.deeplearning4j.parallelism.inference.observers.BatchedInferenceObserv
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Environment;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.primitives.Pair;
 
@@ -63,6 +64,7 @@ public class ParallelInference {
     protected InferenceMode inferenceMode;
     protected int queueLimit;
     protected LoadBalanceMode loadBalanceMode = LoadBalanceMode.FIFO;
+    protected int threadsPerWorker;
 
     // this queue holds data for inference
     private BlockingQueue<InferenceObservable> observables;
@@ -78,6 +80,7 @@ public class ParallelInference {
     public final static int DEFAULT_BATCH_LIMIT = 32;
     public final static InferenceMode DEFAULT_INFERENCE_MODE = InferenceMode.BATCHED;
     public final static int DEFAULT_QUEUE_LIMIT = 64;
+    public final static int DEFAULT_THREADS_PER_WORKER = 0;
 
 
 
@@ -145,6 +148,26 @@ public class ParallelInference {
         }
     }
 
+    /**
+     * This method applies per-worker thread limit (if set) to the current thread
+     *
+     * @return previous thread limit for the current thread, to be passed to {@link #restoreThreadLimit(int)}
+     */
+    protected int applyThreadLimit() {
+        if (threadsPerWorker <= 0)
+            return -1;
+
+        val env = Nd4j.getEnvironment();
+        int previous = env.threadLimit();
+        env.setThreadLimit(threadsPerWorker);
+        return previous;
+    }
+
+    protected void restoreThreadLimit(int previous) {
+        if (previous >= 0)
+            Nd4j.getEnvironment().setThreadLimit(previous);
+    }
+
     protected long getWorkerCounter(int workerIdx) {
         return zoo[workerIdx].getCounterValue();
     }
@@ -293,6 +316,7 @@ public class ParallelInference {
         private int batchLimit = DEFAULT_BATCH_LIMIT;
         private InferenceMode inferenceMode = DEFAULT_INFERENCE_MODE;
         private int queueLimit = DEFAULT_QUEUE_LIMIT;
+        private int threadsPerWorker = DEFAULT_THREADS_PER_WORKER;
         protected LoadBalanceMode loadBalanceMode = LoadBalanceMode.FIFO;
 
         public Builder(@NonNull Model model) {
@@ -379,18 +403,49 @@ public class ParallelInference {
             return this;
         }
 
+        /**
+         * This method defines, how many threads each worker can use for execution of a single op (intra-op parallelism).
+         * By default, each op uses all available cores, so with multiple workers running concurrently CPU cores are
+         * oversubscribed, which increases latency. As a rule of thumb, workers * threadsPerWorker should not exceed the
+         * number of physical cores: more workers give higher throughput (inter-op parallelism), more threads per worker
+         * give lower latency for each request.
+         *
+         * PLEASE NOTE: This limit applies to native (libnd4j) ops, and has no effect for CUDA
+         * PLEASE NOTE: BLAS calls (GEMM, used for dense and convolution layers) are limited too only with MKL, or with
+         * OpenBLAS built with OpenMP. With OpenBLAS built with pthreads (see {@link Environment#isBlasThreadLimitSupported()})
+         * BLAS threads are NOT limited per worker: use {@link org.nd4j.linalg.api.blas.Blas#setMaxThreads(int)} to set
+         * the global number of BLAS threads instead
+         * PLEASE NOTE: For INPLACE inference mode this limit applies to the calling thread, for the duration of the call
+         *
+         * Default value: 0 (no limit)
+         *
+         * @param threadsPerWorker
+         * @return
+         */
+        public Builder threadsPerWorker(int threadsPerWorker) {
+            if (threadsPerWorker < 0)
+                throw new IllegalStateException("Threads per worker should be non-negative value");
+
+            this.threadsPerWorker = threadsPerWorker;
+            return this;
+        }
+
         /**
          * This method builds new ParallelInference instance
          *
          * @return
          */
         public ParallelInference build() {
+            if (this.threadsPerWorker > 0 && Nd4j.getEnvironment().isCPU() && !Nd4j.getEnvironment().isBlasThreadLimitSupported())
+                log.warn("threadsPerWorker is set to {}, but the BLAS library in use doesn't support per-thread limits: BLAS calls will still use all BLAS threads", threadsPerWorker);
+
             if (this.inferenceMode == InferenceMode.INPLACE) {
                 val inf = new InplaceParallelInference();
                 inf.inferenceMode = this.inferenceMode;
                 inf.model = this.model;
                 inf.workers = this.workers;
                 inf.loadBalanceMode = this.loadBalanceMode;
+                inf.threadsPerWorker = this.threadsPerWorker;
 
                 inf.init();
 
@@ -403,6 +458,7 @@ public class ParallelInference {
                 inference.model = this.model;
                 inference.workers = this.workers;
                 inference.loadBalanceMode = this.loadBalanceMode;
+                inference.threadsPerWorker = this.threadsPerWorker;
 
                 inference.init();
 
@@ -493,6 +549,9 @@ public class ParallelInference {
         @Override
         public void run() {
             Nd4j.getAffinityManager().unsafeSetDevice(deviceId);
+
+            // worker threads are never shared, so there's no need to restore previous limit
+            applyThreadLimit();
             try {
                 // model should be replicated & initialized here
                 initializeReplicaModel();
@@ -66,11 +66,12 @@ import java.util.concurrent.atomic.AtomicLong;
  * This is simple data-parallel wrapper
  * suitable for multi-cpu/multi-gpu environments.
  *
- * PLEASE NOTE: This implementation is NOT NUMA-aware.
+ * PLEASE NOTE: On CPU this implementation is NUMA-aware only if NUMA-aware mode is enabled for the backend
+ * (see {@link org.nd4j.config.ND4JSystemProperties#NUMA_AWARE}). In this case workers are spread over NUMA nodes,
+ * and each worker keeps its model replica and workspaces on its own node.
  *
  * @author raver119@gmail.com
  */
-// TODO: We want this thing to be NUMA-aware in foreseeable future
 @Slf4j
 @Data
 public class ParallelWrapper implements AutoCloseable {
@@ -977,4 +977,41 @@ public class ParallelInferenceTest extends BaseDL4JTest {
             assertArrayEquals(e, a);
         }
     }
+
+    @Test(timeout = 60000L)
+    public void testThreadsPerWorker() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .activation(Activation.TANH)
+                .seed(12345)
+                .list()
+                .layer(new DenseLayer.Builder().nIn(10).nOut(64).build())
+                .layer(new OutputLayer.Builder().nIn(64).nOut(5).activation(Activation.SOFTMAX).build())
+                .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        INDArray in = Nd4j.rand(8, 10);
+        INDArray exp = net.output(in);
+
+        for (InferenceMode m : InferenceMode.values()) {
+            log.info("Starting: m={}", m);
+            ParallelInference inf = new ParallelInference.Builder(net)
+                    .inferenceMode(m)
+                    .workers(2)
+                    .threadsPerWorker(1)
+                    .build();
+
+            try {
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(exp, inf.output(in));
+                }
+
+                // limit must not leak into the calling thread
+                assertEquals(0, Nd4j.getEnvironment().threadLimit());
+            } finally {
+                inf.shutdown();
+            }
+        }
+    }
 }
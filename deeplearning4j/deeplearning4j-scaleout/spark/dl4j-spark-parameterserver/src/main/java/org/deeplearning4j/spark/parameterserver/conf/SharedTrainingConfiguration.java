@@ -49,6 +49,12 @@ public class SharedTrainingConfiguration implements Serializable {
     @Builder.Default
     protected boolean encodingDebugMode = false;
 
+    /**
+     * If true, encoded updates are sent over the wire from background thread, once backprop for the iteration is done
+     */
+    @Builder.Default
+    protected boolean asyncUpdateSend = false;
+
     /**
      * This value **overrides** bufferSize calculations for gradients accumulator
      */
@@ -16,36 +16,64 @@
 
 package org.deeplearning4j.spark.parameterserver.networking.v2;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.deeplearning4j.optimize.solvers.accumulation.EncodingHandler;
 import org.deeplearning4j.optimize.solvers.accumulation.encoding.ResidualPostProcessor;
 import org.deeplearning4j.optimize.solvers.accumulation.encoding.ThresholdAlgorithm;
+import org.deeplearning4j.util.ThreadUtils;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.util.AtomicThrowable;
 import org.nd4j.parameterserver.distributed.v2.ModelParameterServer;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This MessageHandler implementation does the same as EncodingHandler, plus additionally:
  * sends encoded messages over the wire + receives encoded messages from outer parties
  *
+ * If asynchronous transfer is enabled, encoded messages are handed over to background sender thread, so the training
+ * thread doesn't wait for network transfer of the current update. Please note: the whole update is sent only once
+ * backprop for the iteration is done, so transfer doesn't overlap with the backprop that produced it.
+ * In this case shutdown() should be called once training is done, to drain pending updates and stop sender thread.
+ *
  * @author raver119@gmail.com
  */
 @Slf4j
 public class WiredEncodingHandler extends EncodingHandler {
     protected AtomicLong updatesCounter = new AtomicLong(0);
 
+    protected final boolean asyncTransfer;
+    protected final BlockingQueue<OutgoingUpdate> outgoing = new LinkedBlockingQueue<>(16);
+    protected final AtomicLong pendingUpdates = new AtomicLong(0);
+    protected final AtomicThrowable throwable = new AtomicThrowable();
+    protected transient Thread senderThread;
+
     /**
      * This method builds new WiredEncodingHandler instance
      *
      * @param thresholdAlgorithm The threshold algorithm to use
      */
     public WiredEncodingHandler(ThresholdAlgorithm thresholdAlgorithm, ResidualPostProcessor residualPostProcessor, Double boundary, boolean encodingDebugMode) {
+        this(thresholdAlgorithm, residualPostProcessor, boundary, encodingDebugMode, false);
+    }
+
+    /**
+     * This method builds new WiredEncodingHandler instance
+     *
+     * @param thresholdAlgorithm The threshold algorithm to use
+     * @param asyncTransfer      If true, encoded updates are sent over the wire from background thread
+     */
+    public WiredEncodingHandler(ThresholdAlgorithm thresholdAlgorithm, ResidualPostProcessor residualPostProcessor, Double boundary, boolean encodingDebugMode, boolean asyncTransfer) {
         super(thresholdAlgorithm, residualPostProcessor, boundary, encodingDebugMode);
+        this.asyncTransfer = asyncTransfer;
     }
 
     /**
@@ -63,12 +91,128 @@ public class WiredEncodingHandler extends EncodingHandler {
         try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
             long updateId = updatesCounter.getAndIncrement();
 
-            val m = message.unsafeDuplication();
-            ModelParameterServer.getInstance().sendUpdate(m, iterationNumber, epochNumber);
+            sendUpdate(message.unsafeDuplication(), iterationNumber, epochNumber);
         }
 
 
         // heere we update local queue
         super.sendMessage(message, iterationNumber, epochNumber);
     }
+
+    /**
+     * This method sends given update over the wire, either inline or via background sender thread
+     */
+    protected void sendUpdate(@NonNull INDArray update, int iterationNumber, int epochNumber) {
+        if (asyncTransfer)
+            enqueueUpdate(new OutgoingUpdate(update, iterationNumber, epochNumber));
+        else
+            transmit(update, iterationNumber, epochNumber);
+    }
+
+    protected void transmit(@NonNull INDArray update, int iterationNumber, int epochNumber) {
+        ModelParameterServer.getInstance().sendUpdate(update, iterationNumber, epochNumber);
+    }
+
+    protected void enqueueUpdate(@NonNull OutgoingUpdate update) {
+        if (throwable.isTriggered())
+            throw new RuntimeException(throwable.get());
+
+        synchronized (this) {
+            if (senderThread == null) {
+                senderThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        senderLoop();
+                    }
+                });
+                senderThread.setName("WiredEncodingHandler-sender");
+                senderThread.setDaemon(true);
+                senderThread.start();
+            }
+        }
+
+        pendingUpdates.incrementAndGet();
+        try {
+            // bounded queue here: if network is slower than compute, workers will be throttled here
+            outgoing.put(update);
+        } catch (InterruptedException e) {
+            pendingUpdates.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    protected void senderLoop() {
+        while (true) {
+            OutgoingUpdate update;
+            try {
+                update = outgoing.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                transmit(update.getArray(), update.getIteration(), update.getEpoch());
+            } catch (Exception e) {
+                log.error("Failed to send update", e);
+                throwable.setIfFirst(e);
+            } finally {
+                pendingUpdates.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * This method blocks until all updates enqueued for asynchronous transfer are sent over the wire.
+     * Has no effect if asynchronous transfer is disabled.
+     */
+    public void flush() {
+        while (pendingUpdates.get() > 0) {
+            if (throwable.isTriggered())
+                throw new RuntimeException(throwable.get());
+
+            ThreadUtils.uncheckedSleep(1);
+        }
+
+        if (throwable.isTriggered())
+            throw new RuntimeException(throwable.get());
+    }
+
+    /**
+     * This method sends all pending updates over the wire, and stops background sender thread.
+     * Sender thread will be started again on next asynchronous update, so it's safe to call this method after each fit.
+     */
+    public void shutdown() {
+        try {
+            flush();
+        } finally {
+            Thread thread;
+            synchronized (this) {
+                thread = senderThread;
+                senderThread = null;
+            }
+
+            if (thread != null) {
+                thread.interrupt();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            // if flush failed, updates left here will never be sent
+            pendingUpdates.addAndGet(-outgoing.size());
+            outgoing.clear();
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    protected static class OutgoingUpdate {
+        private final INDArray array;
+        private final int iteration;
+        private final int epoch;
+    }
 }
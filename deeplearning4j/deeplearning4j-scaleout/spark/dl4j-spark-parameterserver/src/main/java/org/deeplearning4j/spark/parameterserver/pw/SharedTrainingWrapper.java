@@ -119,6 +119,8 @@ public class SharedTrainingWrapper {
                 INSTANCE.wrapper.shutdown();
                 INSTANCE.wrapper = null;
             }
+            if (INSTANCE.accumulator != null && INSTANCE.accumulator.getHandler() instanceof WiredEncodingHandler)
+                ((WiredEncodingHandler) INSTANCE.accumulator.getHandler()).shutdown();
             INSTANCE.iteratorsDS.clear();
             INSTANCE.iteratorsMDS.clear();
             INSTANCE.exceptionEncountered.set(false);
@@ -254,7 +256,7 @@ public class SharedTrainingWrapper {
                     }
                 }
 
-                val handler = new WiredEncodingHandler(trainingConfiguration.getThresholdAlgorithm(), trainingConfiguration.getResidualPostProcessor(), null, trainingConfiguration.isEncodingDebugMode());
+                val handler = new WiredEncodingHandler(trainingConfiguration.getThresholdAlgorithm(), trainingConfiguration.getResidualPostProcessor(), null, trainingConfiguration.isEncodingDebugMode(), trainingConfiguration.isAsyncUpdateSend());
 
                 // TODO: if there will be no code difference - use the same class instead of 2 different classes
                 val modelParamsSupplier = new ModelParamsConsumer();
@@ -493,6 +495,10 @@ public class SharedTrainingWrapper {
                 wrapper = null;
             }
 
+            // make sure all updates produced by this worker left the node before going further, and stop sender thread
+            if (accum.getHandler() instanceof WiredEncodingHandler)
+                ((WiredEncodingHandler) accum.getHandler()).shutdown();
+
             // reset iterators too
             init();
 
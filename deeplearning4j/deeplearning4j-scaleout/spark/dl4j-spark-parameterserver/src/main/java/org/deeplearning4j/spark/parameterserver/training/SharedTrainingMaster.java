@@ -117,6 +117,7 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
     protected long debugLongerIterations = 0L;
     protected boolean logMinibatchesPerWorker = false;
     protected boolean encodingDebugMode = false;
+    protected boolean asyncUpdateSend = false;
 
     protected ThresholdAlgorithm thresholdAlgorithm;
     protected ResidualPostProcessor residualPostProcessor;
@@ -153,7 +154,7 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
                     int rddDataSetNumExamples,
                     int batchSizePerWorker, long debugLongerIterations, int numWorkersPerNode, int workerPrefetchBatches,
                     Repartitioner repartitioner, Boolean workerTogglePeriodicGC, Integer workerPeriodicGCFrequency,
-                    boolean encodingDebugMode) {
+                    boolean encodingDebugMode, boolean asyncUpdateSend) {
         this.voidConfiguration = voidConfiguration;
         this.numWorkers = numWorkers;
         this.thresholdAlgorithm = thresholdAlgorithm;
@@ -173,6 +174,7 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
         this.workerTogglePeriodicGC = workerTogglePeriodicGC;
         this.workerPeriodicGCFrequency = workerPeriodicGCFrequency;
         this.encodingDebugMode = encodingDebugMode;
+        this.asyncUpdateSend = asyncUpdateSend;
 
 
         if (collectTrainingStats)
@@ -267,7 +269,8 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
                 .voidConfiguration(voidConfiguration)
                 .debugLongerIterations(debugLongerIterations)
                 .numberOfWorkersPerNode(numWorkersPerNode)
-                .encodingDebugMode(encodingDebugMode).build();
+                .encodingDebugMode(encodingDebugMode)
+                .asyncUpdateSend(asyncUpdateSend).build();
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
@@ -299,6 +302,7 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
                 .numberOfWorkersPerNode(numWorkersPerNode)
                 .prefetchSize(workerPrefetchBatches)
                 .encodingDebugMode(encodingDebugMode)
+                .asyncUpdateSend(asyncUpdateSend)
                 .build();
 
         if (collectTrainingStats)
@@ -918,6 +922,7 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
         protected Boolean workerTogglePeriodicGC = new Boolean(true);
         protected Integer workerPeriodicGCFrequency = new Integer(5000);
         protected boolean encodingDebugMode = false;
+        protected boolean asyncUpdateSend = false;
 
         /**
          * Create a SharedTrainingMaster with defaults other than the RDD number of examples
@@ -1251,12 +1256,28 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
             return this;
         }
 
+        /**
+         * Enable asynchronous sending of updates on the workers.<br>
+         * When enabled, threshold-encoded updates are sent to other workers from a background thread instead of the
+         * training thread, so the worker can proceed to the next iteration while the previous update is still being
+         * transferred (up to a bounded number of pending updates).<br>
+         * Note that communication does not overlap with the backprop that produces the update: the whole update is
+         * encoded and sent only after backprop for the iteration has completed (there are no per-layer sends).<br>
+         * asyncUpdateSend is disabled by default.
+         *
+         * @param enabled True to enable
+         */
+        public Builder asyncUpdateSend(boolean enabled){
+            this.asyncUpdateSend = enabled;
+            return this;
+        }
+
         public SharedTrainingMaster build() {
             SharedTrainingMaster master = new SharedTrainingMaster(voidConfiguration, numWorkers, rddTrainingApproach,
                             storageLevel, collectTrainingStats, repartitionStrategy, repartition,
                         thresholdAlgorithm, residualPostProcessor, rddDataSetNumExamples, batchSize,
                             debugLongerIterations, numWorkersPerNode, workerPrefetchNumBatches, repartitioner, workerTogglePeriodicGC,
-                    workerPeriodicGCFrequency, encodingDebugMode);
+                    workerPeriodicGCFrequency, encodingDebugMode, asyncUpdateSend);
             if (transport != null)
                 master.transport = this.transport;
 
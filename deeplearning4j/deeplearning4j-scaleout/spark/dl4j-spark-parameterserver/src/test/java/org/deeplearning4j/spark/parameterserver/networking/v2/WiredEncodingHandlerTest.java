@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.parameterserver.networking.v2;
+
+import lombok.NonNull;
+import org.deeplearning4j.optimize.solvers.accumulation.encoding.threshold.FixedThresholdAlgorithm;
+import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class WiredEncodingHandlerTest {
+
+    /**
+     * Instead of sending updates over the wire, decodes them into local array
+     */
+    private static class RecordingHandler extends WiredEncodingHandler {
+        private final INDArray applied;
+        private final List<Integer> iterations = new CopyOnWriteArrayList<>();
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        private RecordingHandler(boolean async, long length) {
+            super(new FixedThresholdAlgorithm(1e-3), null, null, false, async);
+            this.applied = Nd4j.create(DataType.FLOAT, length);
+        }
+
+        @Override
+        protected void transmit(@NonNull INDArray update, int iterationNumber, int epochNumber) {
+            threads.add(Thread.currentThread());
+            iterations.add(iterationNumber);
+            Nd4j.getExecutioner().thresholdDecode(update, applied);
+        }
+    }
+
+    @Test(timeout = 60000L)
+    public void testAsyncMatchesSync() throws Exception {
+        int length = 1000;
+        int numUpdates = 50;
+
+        Nd4j.getRandom().setSeed(12345);
+        List<INDArray> encoded = new ArrayList<>();
+        for (int i = 0; i < numUpdates; i++) {
+            INDArray update = Nd4j.rand(DataType.FLOAT, length).subi(0.5).muli(1e-2);
+            encoded.add(Nd4j.getExecutioner().thresholdEncode(update, 1e-3));
+        }
+
+        RecordingHandler sync = new RecordingHandler(false, length);
+        RecordingHandler async = new RecordingHandler(true, length);
+        for (int i = 0; i < numUpdates; i++) {
+            sync.sendUpdate(encoded.get(i), i, 0);
+            async.sendUpdate(encoded.get(i), i, 0);
+        }
+
+        // drains pending updates and stops sender thread
+        async.shutdown();
+
+        assertEquals(sync.iterations, async.iterations);
+        assertEquals(sync.applied, async.applied);
+        assertNotEquals(0.0, sync.applied.sumNumber().doubleValue(), 0.0);
+
+        for (Thread t : sync.threads)
+            assertEquals(Thread.currentThread(), t);
+
+        Thread sender = async.threads.get(0);
+        assertNotEquals(Thread.currentThread(), sender);
+        assertFalse(sender.isAlive());
+
+        // sender thread is started again on demand
+        async.sendUpdate(encoded.get(0), numUpdates, 0);
+        async.shutdown();
+        assertEquals(numUpdates + 1, async.iterations.size());
+        assertFalse(async.threads.get(numUpdates).isAlive());
+    }
+}
@@ -26,6 +26,8 @@ import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.input.PortableDataStream;
+import org.apache.spark.rdd.PartitionCoalescer;
+import org.apache.spark.rdd.RDD;
 import org.apache.spark.storage.StorageLevel;
 import org.datavec.spark.util.BroadcastHadoopConfigHolder;
 import org.datavec.spark.util.SerializableHadoopConfig;
@@ -49,9 +51,11 @@ import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.graph.dataset.DataSetToMultiDataSetFn;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouterProvider;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.ExecutorPartitionCoalescer;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingAggregationTuple;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementAddFunction;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementCombineFunction;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingHostAggregateFunction;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.deeplearning4j.util.UIDProvider;
@@ -62,6 +66,8 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.core.JsonProcessingException;
 import org.nd4j.shade.jackson.databind.ObjectMapper;
+import scala.Option;
+import scala.math.Ordering;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -96,6 +102,7 @@ public class ParameterAveragingTrainingMaster
 
     protected int averagingFrequency;
     protected int aggregationDepth;
+    protected boolean hierarchicalAggregation;
     protected int prefetchNumBatches;
     protected int iterationCount = 0;
 
@@ -117,6 +124,7 @@ public class ParameterAveragingTrainingMaster
         this.batchSizePerWorker = builder.batchSizePerWorker;
         this.averagingFrequency = builder.averagingFrequency;
         this.aggregationDepth = builder.aggregationDepth;
+        this.hierarchicalAggregation = builder.hierarchicalAggregation;
         this.prefetchNumBatches = builder.prefetchNumBatches;
         this.repartition = builder.repartition;
         this.repartitionStrategy = builder.repartitionStrategy;
@@ -663,9 +671,31 @@ public class ParameterAveragingTrainingMaster
 
         if (collectTrainingStats)
             stats.logAggregateStartTime();
-        ParameterAveragingAggregationTuple tuple =
-                        results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
-                                        new ParameterAveragingElementCombineFunction(), this.aggregationDepth);
+        ParameterAveragingAggregationTuple tuple;
+        if (hierarchicalAggregation) {
+            //Sum results within each partition, on the executor that produced them. Partial sums are persisted so
+            // that training itself still runs with full parallelism. They are stored serialized: the combine function
+            // modifies its first argument in place, which must not change the cached copy (retried or speculative
+            // tasks would otherwise count a partial sum twice)
+            JavaRDD<ParameterAveragingAggregationTuple> partials =
+                            results.mapPartitions(new ParameterAveragingHostAggregateFunction());
+            partials.persist(StorageLevel.MEMORY_ONLY_SER());
+            partials.count();
+
+            //Coalescing without shuffle, grouping cached partitions by the executor that holds them: the partial sums
+            // of each executor are combined locally (first stage of treeAggregate), and only one sum per executor is
+            // sent across the network
+            RDD<ParameterAveragingAggregationTuple> coalesced = partials.rdd().coalesce(partials.getNumPartitions(),
+                            false, Option.<PartitionCoalescer>apply(new ExecutorPartitionCoalescer()),
+                            (Ordering<ParameterAveragingAggregationTuple>) null);
+            tuple = new JavaRDD<>(coalesced, partials.classTag())
+                            .treeAggregate(null, new ParameterAveragingElementCombineFunction(),
+                                            new ParameterAveragingElementCombineFunction(), this.aggregationDepth);
+            partials.unpersist(false);
+        } else {
+            tuple = results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
+                            new ParameterAveragingElementCombineFunction(), this.aggregationDepth);
+        }
         INDArray params = tuple.getParametersSum();
         int aggCount = tuple.getAggregationsCount();
         SparkTrainingStats aggregatedStats = tuple.getSparkTrainingStats();
@@ -758,6 +788,7 @@ public class ParameterAveragingTrainingMaster
         protected int batchSizePerWorker = 16;
         protected int averagingFrequency = 5;
         protected int aggregationDepth = 2;
+        protected boolean hierarchicalAggregation = false;
         protected int prefetchNumBatches = 0;
         protected Repartition repartition = Repartition.Always;
         protected RepartitionStrategy repartitionStrategy = RepartitionStrategy.Balanced;
@@ -873,6 +904,20 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * Whether to use hierarchical parameter aggregation (default: false).<br>
+         * When enabled, worker results are first summed within each partition, then within each executor, and only one
+         * partial sum per executor takes part in the tree aggregation across the cluster.<br>
+         * <b>Note</b>: This is useful for large models, with many executors per physical machine, where time spent in
+         * aggregation exceeds time spent on computation.
+         *
+         * @param hierarchicalAggregation If true: use hierarchical (per-executor, then cross-executor) aggregation
+         */
+        public Builder hierarchicalAggregation(boolean hierarchicalAggregation) {
+            this.hierarchicalAggregation = hierarchicalAggregation;
+            return this;
+        }
+
         /**
          * Set the number of minibatches to asynchronously prefetch in the worker.
          * <p>
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+import org.apache.spark.Partition;
+import org.apache.spark.rdd.PartitionCoalescer;
+import org.apache.spark.rdd.PartitionGroup;
+import org.apache.spark.rdd.RDD;
+import org.apache.spark.scheduler.ExecutorCacheTaskLocation;
+import org.apache.spark.scheduler.TaskLocation;
+import scala.Option;
+import scala.collection.Iterator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition coalescer for the (cached) partial sums of hierarchical parameter averaging.<br>
+ * Spark's default coalescer groups partitions by host only, hence with multiple executors per machine a group may mix
+ * blocks cached by different executors. This coalescer instead creates one group per executor that holds cached
+ * blocks, with that executor as the preferred location - so each group is combined by the executor that already has
+ * all of its inputs in memory. Partitions without a known cached location each form a group of their own.
+ */
+public class ExecutorPartitionCoalescer implements PartitionCoalescer, Serializable {
+
+    @Override
+    public PartitionGroup[] coalesce(int maxPartitions, RDD<?> parent) {
+        Map<String, PartitionGroup> byExecutor = new LinkedHashMap<>();
+        List<PartitionGroup> groups = new ArrayList<>();
+        for (Partition p : parent.partitions()) {
+            String executor = null;
+            Iterator<TaskLocation> locations = parent.context().getPreferredLocs(parent, p.index()).iterator();
+            while (locations.hasNext()) {
+                TaskLocation l = locations.next();
+                if (l instanceof ExecutorCacheTaskLocation) {
+                    //String form is "executor_<host>_<executorId>", which is also accepted as a preferred location
+                    executor = l.toString();
+                    break;
+                }
+            }
+
+            PartitionGroup group = (executor == null ? null : byExecutor.get(executor));
+            if (group == null) {
+                group = new PartitionGroup(executor == null ? Option.<String>empty() : Option.apply(executor));
+                groups.add(group);
+                if (executor != null)
+                    byExecutor.put(executor, group);
+            }
+            group.partitions().$plus$eq(p);
+        }
+        return groups.toArray(new PartitionGroup[groups.size()]);
+    }
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingResult;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * First stage of hierarchical parameter averaging: all results within a partition are summed locally, on the executor
+ * that produced them (no serialization involved), so only one partial sum per partition is kept.
+ * Partial sums are then combined within each executor, before anything is sent across the network.
+ */
+public class ParameterAveragingHostAggregateFunction implements
+                FlatMapFunction<Iterator<ParameterAveragingTrainingResult>, ParameterAveragingAggregationTuple> {
+
+    @Override
+    public Iterator<ParameterAveragingAggregationTuple> call(Iterator<ParameterAveragingTrainingResult> iterator)
+                    throws Exception {
+        if (!iterator.hasNext())
+            return Collections.emptyIterator();
+
+        ParameterAveragingElementAddFunction add = new ParameterAveragingElementAddFunction();
+        ParameterAveragingAggregationTuple tuple = null;
+        while (iterator.hasNext()) {
+            tuple = add.call(tuple, iterator.next());
+        }
+
+        return Collections.singletonList(tuple).iterator();
+    }
+}
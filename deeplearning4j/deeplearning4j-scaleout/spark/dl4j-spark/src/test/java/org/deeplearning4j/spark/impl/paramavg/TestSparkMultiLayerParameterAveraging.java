@@ -27,6 +27,9 @@ import org.apache.spark.api.java.function.Function;
 import org.apache.spark.mllib.linalg.Vectors;
 import org.apache.spark.mllib.regression.LabeledPoint;
 import org.apache.spark.mllib.util.MLUtils;
+import org.apache.spark.rdd.PartitionCoalescer;
+import org.apache.spark.rdd.RDD;
+import org.apache.spark.storage.StorageLevel;
 import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.nn.api.Layer;
@@ -48,6 +51,7 @@ import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.ExecutorPartitionCoalescer;
 import org.deeplearning4j.spark.stats.EventStats;
 import org.deeplearning4j.spark.stats.ExampleCountEventStats;
 import org.junit.Ignore;
@@ -70,7 +74,9 @@ import org.nd4j.linalg.learning.config.IUpdater;
 import org.nd4j.linalg.learning.config.Nesterovs;
 import org.nd4j.linalg.learning.config.RmsProp;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import scala.Option;
 import scala.Tuple2;
+import scala.math.Ordering;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -272,6 +278,80 @@ public class TestSparkMultiLayerParameterAveraging extends BaseSparkTest {
 
     }
 
+    @Test
+    public void testHierarchicalAggregation() throws Exception {
+        //Idea: per-executor aggregation followed by cross-executor aggregation should give the same result as plain
+        // (flat tree aggregation) parameter averaging, for the same splits of the data
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().updater(new RmsProp()).seed(12345)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(nIn).nOut(3)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MSE).nIn(3).nOut(nOut).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .build();
+
+        SparkDl4jMultiLayer flat = new SparkDl4jMultiLayer(sc, conf,
+                        new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1).batchSizePerWorker(5)
+                                        .averagingFrequency(1).repartionData(Repartition.Always).rngSeed(12345)
+                                        .build());
+
+        Thread.sleep(100); //Training master IDs are only unique if they are created at least 1 ms apart...
+
+        SparkDl4jMultiLayer hierarchical = new SparkDl4jMultiLayer(sc, conf,
+                        new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1).batchSizePerWorker(5)
+                                        .averagingFrequency(1).repartionData(Repartition.Always).rngSeed(12345)
+                                        .hierarchicalAggregation(true).build());
+
+        INDArray initialParams = flat.getNetwork().params().dup();
+        assertEquals(initialParams, hierarchical.getNetwork().params());
+
+        Nd4j.getRandom().setSeed(12345);
+        List<DataSet> list = new ArrayList<>();
+        for (int i = 0; i < 10 * numExecutors(); i++) {
+            list.add(new DataSet(Nd4j.rand(1, nIn), Nd4j.rand(1, nOut)));
+        }
+        JavaRDD<DataSet> rdd = sc.parallelize(list);
+
+        flat.fit(rdd);
+        hierarchical.fit(rdd);
+
+        INDArray expParams = flat.getNetwork().params();
+        INDArray actParams = hierarchical.getNetwork().params();
+        assertNotEquals(initialParams, actParams);
+        assertTrue(expParams.equalsWithEps(actParams, 1e-5));
+
+        INDArray expUpdater = flat.getNetwork().getUpdater().getStateViewArray();
+        INDArray actUpdater = hierarchical.getNetwork().getUpdater().getStateViewArray();
+        assertTrue(expUpdater.equalsWithEps(actUpdater, 1e-5));
+
+        flat.getTrainingMaster().deleteTempFiles(sc);
+        hierarchical.getTrainingMaster().deleteTempFiles(sc);
+    }
+
+    @Test
+    public void testExecutorPartitionCoalescer() {
+        //Cached partitions should be grouped by the executor holding them: in local mode, there is only one executor
+        JavaRDD<Integer> rdd = sc.parallelize(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), 4);
+        rdd.persist(StorageLevel.MEMORY_ONLY_SER());
+        rdd.count();
+
+        RDD<Integer> coalesced = rdd.rdd().coalesce(rdd.getNumPartitions(), false,
+                        Option.<PartitionCoalescer>apply(new ExecutorPartitionCoalescer()), (Ordering<Integer>) null);
+        JavaRDD<Integer> out = new JavaRDD<>(coalesced, rdd.classTag());
+        assertEquals(1, out.getNumPartitions());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), out.collect());
+
+        //Not cached: no executor location, so partitions are not combined
+        JavaRDD<Integer> notCached = sc.parallelize(Arrays.asList(0, 1, 2, 3), 2);
+        RDD<Integer> c2 = notCached.rdd().coalesce(2, false,
+                        Option.<PartitionCoalescer>apply(new ExecutorPartitionCoalescer()), (Ordering<Integer>) null);
+        assertEquals(2, c2.getNumPartitions());
+
+        rdd.unpersist(false);
+    }
+
     @Test
     public void testDistributedScoring() {
 
@@ -43,6 +43,9 @@
 
 namespace nd4j {
 
+    // per-thread limit for the number of threads used by ops, 0 means no limit
+    static thread_local int _threadLimit = 0;
+
     nd4j::Environment::Environment() {
         _tadThreshold.store(1);
         _elementThreshold.store(1024);
@@ -288,7 +291,21 @@ namespace nd4j {
     }
 
     int Environment::maxMasterThreads() {
-        return _maxMasterThreads.load();
+        auto max = _maxMasterThreads.load();
+        return _threadLimit > 0 && _threadLimit < max ? _threadLimit : max;
+    }
+
+    int Environment::threadLimit() {
+        return _threadLimit;
+    }
+
+    void Environment::setThreadLimit(int max) {
+        _threadLimit = max > 0 ? max : 0;
+
+#ifdef _OPENMP
+        // number of threads for OpenMP parallel regions is also a per-thread setting
+        omp_set_num_threads(_threadLimit > 0 ? _threadLimit : _maxThreads.load());
+#endif
     }
 
     void Environment::setMaxThreads(int max) {
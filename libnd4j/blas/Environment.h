@@ -98,6 +98,14 @@ namespace nd4j{
         int maxMasterThreads();
         void setMaxMasterThreads(int max);
 
+        /**
+         * Per-thread limit for the number of threads used by ops called from the current thread: if > 0, ops called from
+         * this thread use at most this many threads, otherwise the global limit (maxMasterThreads) applies.
+         * This allows multiple models to be executed concurrently (i.e. from multiple threads) without oversubscription.
+         */
+        int threadLimit();
+        void setThreadLimit(int max);
+
         /*
          * Legacy memory limits API, still used in new API as simplified version
          */
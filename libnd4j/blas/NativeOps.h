@@ -113,6 +113,14 @@ ND4J_EXPORT void setElementThreshold(int num);
  */
 ND4J_EXPORT void setTADThreshold(int num);
 
+/**
+ * This method sets maximal size of native TAD cache, in bytes. Least recently used TADs are evicted once it's exceeded.
+ * PLEASE NOTE: TAD cache isn't bounded on CUDA
+ *
+ * @param maxBytes
+ */
+ND4J_EXPORT void setTadCacheLimit(Nd4jLong maxBytes);
+
 /**
    *
    * @param opNum
@@ -456,6 +464,29 @@ ND4J_EXPORT void execTransformStrict(Nd4jPointer *extraPointers,
                       OpaqueDataBuffer *dbZ, Nd4jLong *hZShapeInfo, Nd4jLong *dZShapeInfo,
                       void *extraParams);
 
+/**
+ * This method executes a sequence of ops via a single call, in order. Execution stops at the first failed op,
+ * with the error available via lastErrorCode()/lastErrorMessage()
+ *
+ * Op types: 0 - scalar, 1 - scalar bool, 2 - pairwise, 3 - pairwise bool, 4 - transform float,
+ * 5 - transform strict, 6 - transform same, 7 - transform any, 8 - transform bool, 9 - broadcast
+ *
+ * @param extraPointers
+ * @param numOps number of ops in the batch
+ * @param opTypes op type for each op
+ * @param opNums op number for each op
+ * @param buffers 4 buffers per op: X, Y (or scalar), Z, dimensions. Unused entries are ignored
+ * @param shapes 8 shape info pointers per op: host and device shape info of X, Y, Z and dimensions
+ * @param extraParams extra params pointer for each op
+ */
+ND4J_EXPORT void execBatch(Nd4jPointer *extraPointers,
+                      int numOps,
+                      int *opTypes,
+                      int *opNums,
+                      Nd4jPointer *buffers,
+                      Nd4jPointer *shapes,
+                      Nd4jPointer *extraParams);
+
 /**
  *
  * @param extraPointers
@@ -566,6 +597,28 @@ ND4J_EXPORT void setOmpNumThreads(int threads);
  */
 ND4J_EXPORT void setOmpMinThreads(int threads);
 
+/**
+ * This method returns number of NUMA nodes available to this process
+ * @return
+ */
+ND4J_EXPORT int getNumaNodes();
+
+/**
+ * This method enables or disables NUMA-aware mode: in this mode threads of the internal thread pool are kept within NUMA nodes.
+ *
+ * @param enabled
+ */
+ND4J_EXPORT void setNumaEnabled(bool enabled);
+
+/**
+ * This method pins current thread to the CPUs of specified NUMA node, and makes that node preferred for memory allocations done by this thread.
+ * Negative node id removes binding.
+ *
+ * @param node
+ * @return true if binding was applied
+ */
+ND4J_EXPORT bool bindToNumaNode(int node);
+
 
 ND4J_EXPORT bool isBlasVersionMatches(int major, int minor, int build);
 
@@ -52,6 +52,8 @@ using namespace nd4j;
 #include <loops/special_kernels.h>
 #include <performance/benchmarking/FullBenchmarkSuit.h>
 #include <performance/benchmarking/LightBenchmarkSuit.h>
+#include <execution/NumaHelper.h>
+#include <execution/ThreadPool.h>
 
 cudaDeviceProp *deviceProperties;
 cudaFuncAttributes *funcAttributes = new cudaFuncAttributes[64];
@@ -840,6 +842,79 @@ void execTransformStrict(Nd4jPointer *extraPointers,int opNum,
     }
 }
 
+////////////////////////////////////////////////////////////////////////
+void execBatch(Nd4jPointer *extraPointers,
+               int numOps,
+               int *opTypes,
+               int *opNums,
+               Nd4jPointer *buffers,
+               Nd4jPointer *shapes,
+               Nd4jPointer *extraParams) {
+    try {
+        auto errorReference = nd4j::LaunchContext::defaultContext()->errorReference();
+
+        for (int e = 0; e < numOps; e++) {
+            auto dbX = reinterpret_cast<OpaqueDataBuffer *>(buffers[e * 4]);
+            auto dbY = reinterpret_cast<OpaqueDataBuffer *>(buffers[e * 4 + 1]);
+            auto dbZ = reinterpret_cast<OpaqueDataBuffer *>(buffers[e * 4 + 2]);
+            auto dbDimension = reinterpret_cast<OpaqueDataBuffer *>(buffers[e * 4 + 3]);
+
+            auto hXShapeInfo = reinterpret_cast<Nd4jLong *>(shapes[e * 8]);
+            auto dXShapeInfo = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 1]);
+            auto hYShapeInfo = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 2]);
+            auto dYShapeInfo = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 3]);
+            auto hZShapeInfo = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 4]);
+            auto dZShapeInfo = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 5]);
+            auto hDimensionShape = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 6]);
+            auto dDimensionShape = reinterpret_cast<Nd4jLong *>(shapes[e * 8 + 7]);
+
+            auto extras = extraParams[e];
+
+            switch (opTypes[e]) {
+                case 0:
+                    execScalar(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, dbY, hYShapeInfo, dYShapeInfo, extras);
+                    break;
+                case 1:
+                    execScalarBool(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, dbY, hYShapeInfo, dYShapeInfo, extras);
+                    break;
+                case 2:
+                    execPairwiseTransform(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbY, hYShapeInfo, dYShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 3:
+                    execPairwiseTransformBool(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbY, hYShapeInfo, dYShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 4:
+                    execTransformFloat(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 5:
+                    execTransformStrict(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 6:
+                    execTransformSame(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 7:
+                    execTransformAny(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 8:
+                    execTransformBool(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, extras);
+                    break;
+                case 9:
+                    execBroadcast(extraPointers, opNums[e], dbX, hXShapeInfo, dXShapeInfo, dbY, hYShapeInfo, dYShapeInfo, dbZ, hZShapeInfo, dZShapeInfo, dbDimension, hDimensionShape, dDimensionShape);
+                    break;
+                default:
+                    throw std::runtime_error("execBatch: unknown op type " + std::to_string(opTypes[e]));
+            }
+
+            // every op reports its own error, so we just stop here
+            if (errorReference->errorCode() != 0)
+                return;
+        }
+    } catch (std::exception &e) {
+        nd4j::LaunchContext::defaultContext()->errorReference()->setErrorCode(1);
+        nd4j::LaunchContext::defaultContext()->errorReference()->setErrorMessage(e.what());
+    }
+}
+
 ////////////////////////////////////////////////////////////////////////
 void execTransformFloat(Nd4jPointer *extraPointers,int opNum,
                                     OpaqueDataBuffer *dbX, Nd4jLong *hXShapeInfo, Nd4jLong *dXShapeInfo,
@@ -1599,6 +1674,19 @@ void setOmpMinThreads(int threads) {
     minThreads = nd4j::math::nd4j_min<int>(maxThreads, minThreads);
 }
 
+int getNumaNodes() {
+    return nd4j::NumaHelper::numberOfNodes();
+}
+
+void setNumaEnabled(bool enabled) {
+    nd4j::NumaHelper::setEnabled(enabled);
+    samediff::ThreadPool::getInstance()->rebindThreads();
+}
+
+bool bindToNumaNode(int node) {
+    return nd4j::NumaHelper::bindCurrentThread(node);
+}
+
 int getDevice() {
     return nd4j::AffinityManager::currentDeviceId();
 }
@@ -1611,6 +1699,15 @@ void setTADThreshold(int num) {
     // this is no-op for CUDA
 }
 
+void setTadCacheLimit(Nd4jLong maxBytes) {
+    try {
+        nd4j::ConstantTadHelper::getInstance()->setMaxCachedBytes(maxBytes);
+    } catch (std::exception &e) {
+        nd4j::LaunchContext::defaultContext()->errorReference()->setErrorCode(1);
+        nd4j::LaunchContext::defaultContext()->errorReference()->setErrorMessage(e.what());
+    }
+}
+
 ////////////////////////////////////////////////////////////////////////
 void execSummaryStats(Nd4jPointer *extraPointers,
                                  int opNum,
@@ -22,6 +22,7 @@
 
 #include <dll.h>
 #include <pointercast.h>
+#include <memory>
 
 
 namespace nd4j {
@@ -32,8 +33,12 @@ namespace nd4j {
         Nd4jLong _length = 0;
         Nd4jLong _sizeOf = 0;
 
+        // optional owner of the buffers: shared by all copies, buffers are released once the last copy is destroyed
+        std::shared_ptr<void> _owner;
+
     public:
         ConstantDataBuffer(Nd4jPointer primary, Nd4jPointer special, Nd4jLong numEelements, Nd4jLong sizeOf);
+        ConstantDataBuffer(const std::shared_ptr<void> &owner, Nd4jPointer primary, Nd4jPointer special, Nd4jLong numEelements, Nd4jLong sizeOf);
         ConstantDataBuffer(const ConstantDataBuffer &other);
         ConstantDataBuffer() = default;
         ~ConstantDataBuffer() = default;
@@ -28,6 +28,10 @@ namespace nd4j {
         _sizeOf = sizeOf;
     }
 
+    ConstantDataBuffer::ConstantDataBuffer(const std::shared_ptr<void> &owner, Nd4jPointer primary, Nd4jPointer special, Nd4jLong numEelements, Nd4jLong sizeOf) : ConstantDataBuffer(primary, special, numEelements, sizeOf) {
+        _owner = owner;
+    }
+
     Nd4jPointer ConstantDataBuffer::primary() const {
         return _primaryBuffer;
     }
@@ -49,6 +53,7 @@ namespace nd4j {
         _specialBuffer = other._specialBuffer;
         _length = other._length;
         _sizeOf = other._sizeOf;
+        _owner = other._owner;
     }
 
     template <typename T>
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#ifndef LIBND4J_NUMAHELPER_H
+#define LIBND4J_NUMAHELPER_H
+
+#include <dll.h>
+#include <vector>
+#include <thread>
+
+namespace nd4j {
+    /**
+     * This class provides NUMA topology information, and allows to bind threads to specific NUMA nodes.
+     * Only CPUs available to the current process are taken into account. Nodes without such CPUs are skipped,
+     * so node indices used here are dense, and may differ from OS node ids.
+     *
+     * On platforms other than Linux, or if topology can't be detected, single node with all CPUs is reported.
+     *
+     * NUMA-aware mode is disabled by default, and is enabled from Java side (org.nd4j.cpu.numa system property).
+     * Topology queries and explicit binding work regardless of it, but the thread pool only spreads its threads over
+     * NUMA nodes while this mode is enabled.
+     */
+    class ND4J_EXPORT NumaHelper {
+    public:
+        /**
+         * This method enables or disables NUMA-aware mode
+         */
+        static void setEnabled(bool enabled);
+
+        /**
+         * This method returns true if NUMA-aware mode is enabled
+         */
+        static bool isEnabled();
+
+        /**
+         * This method returns number of NUMA nodes available to this process
+         */
+        static int numberOfNodes();
+
+        /**
+         * This method returns list of CPUs that belong to the given NUMA node
+         */
+        static std::vector<int> cpusForNode(int node);
+
+        /**
+         * This method returns NUMA node of the given CPU, or 0 if CPU is unknown
+         */
+        static int nodeForCpu(int cpu);
+
+        /**
+         * This method returns NUMA node the current thread was bound to, or -1 if it wasn't bound
+         */
+        static int currentNode();
+
+        /**
+         * This method pins current thread to the CPUs of the given NUMA node, and makes that node preferred for
+         * memory allocations done by this thread. Negative node id removes binding.
+         *
+         * @return true if thread affinity was applied, false otherwise
+         */
+        static bool bindCurrentThread(int node);
+
+        /**
+         * This method pins the given native thread to the CPUs of the given NUMA node. Memory policy isn't affected.
+         *
+         * @return true if thread affinity was applied, false otherwise
+         */
+        static bool bindThread(std::thread &thread, int node);
+    };
+}
+
+#endif //LIBND4J_NUMAHELPER_H
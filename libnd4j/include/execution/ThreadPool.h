@@ -41,15 +41,27 @@ namespace samediff {
         std::vector<BlockingQueue<CallableWithArguments*>*> _queues;
         std::vector<CallableInterface*> _interfaces;
 
+        // NUMA node of each thread
+        std::vector<int> _nodes;
+
         std::mutex _lock;
         std::atomic<int> _available;
         std::queue<Ticket*> _tickets;
     protected:
         ThreadPool();
         ~ThreadPool();
+
+        // sets affinity of all threads, must be called with _lock held (or from constructor)
+        void bindThreads();
     public:
         static ThreadPool* getInstance();
 
+        /**
+         * This method re-applies thread affinity, i.e. after NUMA-aware mode was enabled or disabled:
+         * in NUMA-aware mode each thread is kept within its NUMA node, otherwise each thread is pinned to its own core
+         */
+        void rebindThreads();
+
         /**
          * This method returns list of pointers to threads ONLY if num_threads of threads were available upon request, returning empty list otherwise
          * @param num_threads
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <execution/NumaHelper.h>
+#include <algorithm>
+#include <fstream>
+#include <sstream>
+#include <string>
+#include <atomic>
+
+#ifdef __linux__
+#include <sched.h>
+#include <pthread.h>
+#include <unistd.h>
+#include <sys/syscall.h>
+#endif
+
+// these values match linux/mempolicy.h, which isn't always available
+#define ND4J_MPOL_DEFAULT 0
+#define ND4J_MPOL_PREFERRED 1
+
+namespace nd4j {
+
+    // NUMA node the current thread was bound to via NumaHelper::bindCurrentThread
+    static thread_local int _currentNumaNode = -1;
+
+    static std::atomic<bool> _numaEnabled(false);
+
+    struct NumaTopology {
+        // OS node ids, indexed by dense node index
+        std::vector<int> osNodes;
+
+        // CPUs available to this process, per dense node index
+        std::vector<std::vector<int>> cpus;
+
+        // dense node index for each CPU
+        std::vector<int> cpuToNode;
+    };
+
+    // parses lists like "0-3,8,10-11"
+    static std::vector<int> parseList(const std::string &list) {
+        std::vector<int> result;
+        std::stringstream stream(list);
+        std::string token;
+        while (std::getline(stream, token, ',')) {
+            if (token.empty() || token == "\n")
+                continue;
+
+            auto dash = token.find('-');
+            try {
+                if (dash == std::string::npos) {
+                    result.emplace_back(std::stoi(token));
+                } else {
+                    auto first = std::stoi(token.substr(0, dash));
+                    auto last = std::stoi(token.substr(dash + 1));
+                    for (int e = first; e <= last; e++)
+                        result.emplace_back(e);
+                }
+            } catch (...) {
+                return std::vector<int>();
+            }
+        }
+
+        return result;
+    }
+
+    static std::string readFile(const std::string &path) {
+        std::ifstream file(path);
+        if (!file.good())
+            return std::string();
+
+        std::string line;
+        std::getline(file, line);
+        return line;
+    }
+
+    static NumaTopology detectTopology() {
+        NumaTopology topology;
+
+#ifdef __linux__
+        cpu_set_t allowed;
+        CPU_ZERO(&allowed);
+        bool hasMask = sched_getaffinity(0, sizeof(cpu_set_t), &allowed) == 0;
+
+        auto nodes = parseList(readFile("/sys/devices/system/node/online"));
+        for (auto node : nodes) {
+            auto nodeCpus = parseList(readFile("/sys/devices/system/node/node" + std::to_string(node) + "/cpulist"));
+
+            std::vector<int> usable;
+            for (auto cpu : nodeCpus)
+                if (cpu < CPU_SETSIZE && (!hasMask || CPU_ISSET(cpu, &allowed)))
+                    usable.emplace_back(cpu);
+
+            // memory-only nodes, or nodes outside of our cpuset are skipped
+            if (usable.empty())
+                continue;
+
+            topology.osNodes.emplace_back(node);
+            topology.cpus.emplace_back(usable);
+        }
+#endif
+
+        // fallback: single node with all CPUs
+        if (topology.cpus.empty()) {
+            std::vector<int> all;
+            int numCpus = std::max<int>(1, std::thread::hardware_concurrency());
+            for (int e = 0; e < numCpus; e++)
+                all.emplace_back(e);
+
+            topology.osNodes.emplace_back(0);
+            topology.cpus.emplace_back(all);
+        }
+
+        int maxCpu = 0;
+        for (const auto &v : topology.cpus)
+            for (auto cpu : v)
+                maxCpu = std::max(maxCpu, cpu);
+
+        topology.cpuToNode.resize(maxCpu + 1, 0);
+        for (int n = 0; n < (int) topology.cpus.size(); n++)
+            for (auto cpu : topology.cpus[n])
+                topology.cpuToNode[cpu] = n;
+
+        return topology;
+    }
+
+    static const NumaTopology& topology() {
+        // initialization of function-local static is thread-safe since C++11
+        static NumaTopology _topology = detectTopology();
+        return _topology;
+    }
+
+#ifdef __linux__
+    static void fillCpuSet(cpu_set_t &set, int node) {
+        CPU_ZERO(&set);
+        const auto &t = topology();
+        if (node < 0) {
+            for (const auto &v : t.cpus)
+                for (auto cpu : v)
+                    CPU_SET(cpu, &set);
+        } else {
+            for (auto cpu : t.cpus[node])
+                CPU_SET(cpu, &set);
+        }
+    }
+
+    static void setMemoryPolicy(int node) {
+#ifdef SYS_set_mempolicy
+        if (node < 0) {
+            syscall(SYS_set_mempolicy, ND4J_MPOL_DEFAULT, nullptr, 0);
+            return;
+        }
+
+        auto osNode = topology().osNodes[node];
+        const int bitsPerLong = 8 * sizeof(unsigned long);
+        std::vector<unsigned long> mask(osNode / bitsPerLong + 1, 0UL);
+        mask[osNode / bitsPerLong] |= 1UL << (osNode % bitsPerLong);
+
+        // failure here isn't critical: first-touch policy still places memory locally for pinned threads
+        syscall(SYS_set_mempolicy, ND4J_MPOL_PREFERRED, mask.data(), mask.size() * bitsPerLong + 1);
+#endif
+    }
+#endif
+
+    void NumaHelper::setEnabled(bool enabled) {
+        _numaEnabled = enabled;
+    }
+
+    bool NumaHelper::isEnabled() {
+        return _numaEnabled.load();
+    }
+
+    int NumaHelper::numberOfNodes() {
+        return (int) topology().cpus.size();
+    }
+
+    std::vector<int> NumaHelper::cpusForNode(int node) {
+        if (node < 0 || node >= numberOfNodes())
+            return std::vector<int>();
+
+        return topology().cpus[node];
+    }
+
+    int NumaHelper::nodeForCpu(int cpu) {
+        const auto &t = topology();
+        if (cpu < 0 || cpu >= (int) t.cpuToNode.size())
+            return 0;
+
+        return t.cpuToNode[cpu];
+    }
+
+    int NumaHelper::currentNode() {
+        return _currentNumaNode;
+    }
+
+    bool NumaHelper::bindCurrentThread(int node) {
+        if (node >= numberOfNodes())
+            return false;
+
+#ifdef __linux__
+        cpu_set_t set;
+        fillCpuSet(set, node);
+        if (sched_setaffinity(0, sizeof(cpu_set_t), &set) != 0)
+            return false;
+
+        setMemoryPolicy(node);
+        _currentNumaNode = node < 0 ? -1 : node;
+        return true;
+#else
+        return false;
+#endif
+    }
+
+    bool NumaHelper::bindThread(std::thread &thread, int node) {
+        if (node >= numberOfNodes())
+            return false;
+
+#ifdef __linux__
+        cpu_set_t set;
+        fillCpuSet(set, node);
+        return pthread_setaffinity_np(thread.native_handle(), sizeof(cpu_set_t), &set) == 0;
+#else
+        return false;
+#endif
+    }
+}
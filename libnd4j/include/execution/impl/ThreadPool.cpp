@@ -19,6 +19,7 @@
 //
 
 #include <execution/ThreadPool.h>
+#include <execution/NumaHelper.h>
 #include <stdexcept>
 #include <helpers/logger.h>
 
@@ -83,6 +84,7 @@ namespace samediff {
         _queues.resize(_available.load());
         _threads.resize(_available.load());
         _interfaces.resize(_available.load());
+        _nodes.resize(_available.load());
 
         // creating threads here
         for (int e = 0; e < _available.load(); e++) {
@@ -91,6 +93,31 @@ namespace samediff {
             _threads[e] = new std::thread(executionLoopWithInterface_, e, _interfaces[e]);
             _tickets.push(new Ticket());
             // _threads[e] = new std::thread(executionLoop_, e, _queues[e]);
+        }
+
+        bindThreads();
+    }
+
+    void ThreadPool::bindThreads() {
+        // in NUMA-aware mode threads are spread over NUMA nodes proportionally to number of CPUs per node
+        auto numNodes = nd4j::NumaHelper::numberOfNodes();
+        bool numa = nd4j::NumaHelper::isEnabled() && numNodes > 1;
+
+        std::vector<int> cpus;
+        if (numa) {
+            for (int n = 0; n < numNodes; n++) {
+                auto nodeCpus = nd4j::NumaHelper::cpusForNode(n);
+                cpus.insert(cpus.end(), nodeCpus.begin(), nodeCpus.end());
+            }
+        }
+
+        for (int e = 0; e < (int) _threads.size(); e++) {
+            if (numa) {
+                // each thread is kept within its node instead of a single core, so callers bound to a node get local threads
+                auto node = nd4j::NumaHelper::nodeForCpu(cpus[e % cpus.size()]);
+                _nodes[e] = nd4j::NumaHelper::bindThread(*_threads[e], node) ? node : -1;
+                continue;
+            }
 
             // TODO: add other platforms here as well
             // now we must set affinity, and it's going to be platform-specific thing
@@ -101,6 +128,11 @@ namespace samediff {
             int rc = pthread_setaffinity_np(_threads[e]->native_handle(), sizeof(cpu_set_t), &cpuset);
             if (rc != 0)
                 throw std::runtime_error("Failed to set pthread affinity");
+
+            // node of the core this thread is pinned to
+            _nodes[e] = nd4j::NumaHelper::nodeForCpu(e);
+#else
+            _nodes[e] = -1;
 #endif
             /*
 #if defined(_WIN32) || defined(_WIN64)
@@ -119,6 +151,11 @@ namespace samediff {
         }
     }
 
+    void ThreadPool::rebindThreads() {
+        std::unique_lock<std::mutex> lock(_lock);
+        bindThreads();
+    }
+
     ThreadPool::~ThreadPool() {
         // TODO: implement this one properly
         for (int e = 0; e < _queues.size(); e++) {
@@ -164,8 +201,19 @@ namespace samediff {
                 // ticket must contain information about number of threads for the current session
                 t->acquiredThreads(numThreads);
 
-                // filling ticket with executable interfaces
-                for (int e = 0, i = 0; e < _queues.size() && i < numThreads; e++) {
+                // filling ticket with executable interfaces. threads from the caller's NUMA node go first, if caller is bound to any
+                int i = 0;
+                auto node = nd4j::NumaHelper::currentNode();
+                if (node >= 0) {
+                    for (int e = 0; e < _queues.size() && i < numThreads; e++) {
+                        if (_nodes[e] == node && _interfaces[e]->available()) {
+                            t->attach(i++, _interfaces[e]);
+                            _interfaces[e]->markUnavailable();
+                        }
+                    }
+                }
+
+                for (int e = 0; e < _queues.size() && i < numThreads; e++) {
                     if (_interfaces[e]->available()) {
                         t->attach(i++, _interfaces[e]);
                         _interfaces[e]->markUnavailable();
@@ -28,6 +28,15 @@
 
 namespace samediff {
 
+    /**
+     * Applies the per-thread limit (see nd4j::Environment::setThreadLimit) to the requested number of threads
+     */
+    template <typename T>
+    static FORCEINLINE T limitThreads(T numThreads) {
+        auto limit = nd4j::Environment::getInstance()->threadLimit();
+        return limit > 0 && numThreads > static_cast<T>(limit) ? static_cast<T>(limit) : numThreads;
+    }
+
     int ThreadsHelper::numberOfThreads(int maxThreads, uint64_t numberOfElements) {
         // let's see how many threads we actually need first
         auto optimalThreads = nd4j::math::nd4j_max<uint64_t>(1, numberOfElements / 1024);
@@ -340,6 +349,8 @@ namespace samediff {
     }
 
     int Threads::parallel_tad(FUNC_1D function, int64_t start, int64_t stop, int64_t increment, uint32_t numThreads) {
+        numThreads = limitThreads(numThreads);
+
         if (start > stop)
             throw std::runtime_error("Threads::parallel_for got start > stop");
 
@@ -389,6 +400,8 @@ namespace samediff {
     }
 
     int Threads::parallel_for(FUNC_1D function, int64_t start, int64_t stop, int64_t increment, uint32_t numThreads) {
+        numThreads = limitThreads(numThreads);
+
         if (start > stop)
             throw std::runtime_error("Threads::parallel_for got start > stop");
 
@@ -408,6 +421,8 @@ namespace samediff {
     }
 
     int Threads::parallel_for(FUNC_2D function, int64_t startX, int64_t stopX, int64_t incX, int64_t startY, int64_t stopY, int64_t incY, uint64_t numThreads, bool debug) {
+        numThreads = limitThreads(numThreads);
+
         if (startX > stopX)
             throw std::runtime_error("Threads::parallel_for got startX > stopX");
 
@@ -475,6 +490,8 @@ namespace samediff {
 
 
     int Threads::parallel_for(FUNC_3D function, int64_t startX, int64_t stopX, int64_t incX, int64_t startY, int64_t stopY, int64_t incY, int64_t startZ, int64_t stopZ, int64_t incZ, uint64_t numThreads) {
+        numThreads = limitThreads(numThreads);
+
         if (startX > stopX)
             throw std::runtime_error("Threads::parallel_for got startX > stopX");
 
@@ -526,6 +543,8 @@ namespace samediff {
     }
 
     int Threads::parallel_do(FUNC_DO function, uint64_t numThreads) {
+        numThreads = limitThreads(numThreads);
+
         auto ticket = ThreadPool::getInstance()->tryAcquire(numThreads - 1);
         if (ticket != nullptr) {
 
@@ -551,6 +570,8 @@ namespace samediff {
     }
 
     int64_t Threads::parallel_long(FUNC_RL function, FUNC_AL aggregator, int64_t start, int64_t stop, int64_t increment, uint64_t numThreads) {
+        numThreads = limitThreads(numThreads);
+
         if (start > stop)
             throw std::runtime_error("Threads::parallel_long got start > stop");
 
@@ -595,6 +616,8 @@ namespace samediff {
     }
 
     double Threads::parallel_double(FUNC_RD function, FUNC_AD aggregator, int64_t start, int64_t stop, int64_t increment, uint64_t numThreads) {
+        numThreads = limitThreads(numThreads);
+
         if (start > stop)
             throw std::runtime_error("Threads::parallel_long got start > stop");
 
@@ -640,6 +663,8 @@ namespace samediff {
 
 
     int  Threads::parallel_aligned_increment(FUNC_1D function, int64_t start, int64_t stop, int64_t increment, size_t type_size , uint32_t req_numThreads) {
+        req_numThreads = limitThreads(req_numThreads);
+
         if (start > stop)
             throw std::runtime_error("Threads::parallel_for got start > stop");
         auto num_elements = (stop - start);
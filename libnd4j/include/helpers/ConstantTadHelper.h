@@ -26,6 +26,7 @@
 #include <op_boilerplate.h>
 #include <pointercast.h>
 #include <map>
+#include <list>
 #include <vector>
 #include <mutex>
 #include <array/ShapeDescriptor.h>
@@ -40,7 +41,17 @@ namespace nd4j {
         std::mutex _mutex;
         std::vector<std::map<TadDescriptor, TadPack>> _cache;
 
+        // recency order of cached TADs (most recently used first), and cache size limit. TadPacks own their buffers
+        // via reference counting, so evicting an entry never invalidates TadPacks that are still in use
+        std::vector<std::list<TadDescriptor>> _recency;
+        std::vector<std::map<TadDescriptor, std::list<TadDescriptor>::iterator>> _positions;
+        std::vector<Nd4jLong> _cachedBytes;
+        Nd4jLong _maxBytes = 64L * 1024L * 1024L;
+
         ConstantTadHelper();
+
+        void touch(int deviceId, const TadDescriptor &descriptor);
+        void evictIfNeeded(int deviceId);
     public:
         ~ConstantTadHelper() = default;
 
@@ -60,6 +71,20 @@ namespace nd4j {
         TadPack tadForDimensions(ShapeDescriptor &descriptor, std::vector<int> &dimensions, const bool keepUnitiesInShape = false);
         TadPack tadForDimensions(TadDescriptor &descriptor);
 
+        /**
+         * This method sets maximal size of cached TAD shapes/offsets, in bytes, per device.
+         * Least recently used TADs are evicted once this limit is exceeded
+         *
+         * @param maxBytes
+         */
+        void setMaxCachedBytes(Nd4jLong maxBytes);
+
+        /**
+         * This method returns size of cached TAD shapes/offsets on specific device, in bytes
+         * @return
+         */
+        Nd4jLong cachedBytesForDevice(int deviceId);
+
         /**
          * This method returns number of cached TAD shapes/offsets on specific device
          * @return
@@ -89,6 +89,34 @@ namespace nd4j {
          */
         static std::vector<std::string> split(const std::string &haystack, const std::string &delimiter);
 
+        /**
+         * This method converts utf8 string to lower case
+         * PLEASE NOTE: only simple 1:1 mappings for ASCII, Latin-1, Latin Extended-A, Greek and Cyrillic are applied
+         *
+         * @param u8 utf8 string
+         * @return lower case utf8 string
+         */
+        static std::string toLowerCase(const std::string &u8);
+
+        /**
+         * This method stores given strings into string NDArray, expanding its buffer if required
+         * PLEASE NOTE: target array must have the same length as number of strings
+         *
+         * @param target
+         * @param strings
+         */
+        static void assignStrings(NDArray &target, const std::vector<std::string> &strings);
+
+        /**
+         * This method returns 64-bit FNV-1a hash of given bytes, optionally continuing from given hash value
+         *
+         * @param data
+         * @param length
+         * @param hash
+         * @return
+         */
+        static uint64_t fnv1a(const void *data, uint64_t length, uint64_t hash = 14695981039346656037ULL);
+
 
         /**
          * This method convert u8 string to u16
@@ -21,6 +21,7 @@
 #include "../ConstantTadHelper.h"
 #include <TAD.h>
 #include <ShapeUtils.h>
+#include <stdexcept>
 
 #ifndef __CUDABLAS__
 
@@ -29,6 +30,10 @@ namespace nd4j {
     ConstantTadHelper::ConstantTadHelper() {
         std::map<TadDescriptor, TadPack> pack;
         _cache.emplace_back(pack);
+
+        _recency.resize(1);
+        _positions.resize(1);
+        _cachedBytes.resize(1, 0);
     }
 
     ConstantTadHelper* ConstantTadHelper::getInstance() {
@@ -71,12 +76,16 @@ namespace nd4j {
             auto sPtr = new Nd4jLong[shape::shapeInfoLength(subArrRank)];   // shape of sub-arrays (same for all for them)
             auto oPtr = new Nd4jLong[numOfSubArrs];
 
+            // buffers are released once the last TadPack referencing them is destroyed, even if evicted from cache earlier
+            std::shared_ptr<void> sOwner(sPtr, [](void *p) { delete[] reinterpret_cast<Nd4jLong*>(p); });
+            std::shared_ptr<void> oOwner(oPtr, [](void *p) { delete[] reinterpret_cast<Nd4jLong*>(p); });
+
             if (numOfSubArrs > 0)
                 shape::calcSubArrShapeAndOffsets(shapeInfo, numOfSubArrs, dimsToExclude.size(), dimsToExclude.data(), sPtr, oPtr, descriptor.areUnitiesinShape());
 
 
-            ConstantDataBuffer shapesBuffer(sPtr, nullptr, shape::shapeInfoLength(subArrRank)*sizeof(Nd4jLong), DataType::INT64);
-            ConstantDataBuffer offsetsBuffer(oPtr, nullptr, numOfSubArrs*sizeof(Nd4jLong), DataType::INT64);
+            ConstantDataBuffer shapesBuffer(sOwner, sPtr, nullptr, shape::shapeInfoLength(subArrRank)*sizeof(Nd4jLong), DataType::INT64);
+            ConstantDataBuffer offsetsBuffer(oOwner, oPtr, nullptr, numOfSubArrs*sizeof(Nd4jLong), DataType::INT64);
             TadPack t(shapesBuffer, offsetsBuffer, numOfSubArrs);
 
 
@@ -97,8 +106,12 @@ namespace nd4j {
 
 
             _cache[deviceId][descriptor] = t;
+            _cachedBytes[deviceId] += (shape::shapeInfoLength(subArrRank) + numOfSubArrs) * sizeof(Nd4jLong);
+            touch(deviceId, descriptor);
+            evictIfNeeded(deviceId);
 
-            TadPack &r = _cache[deviceId][descriptor];
+            // returned by value: the copy keeps buffers alive even if this entry gets evicted while it's in use
+            TadPack r = t;
             _mutex.unlock();
 
             delete[] shapeInfo;
@@ -106,12 +119,59 @@ namespace nd4j {
             return r;
         } else {
             TadPack r = _cache[deviceId][descriptor];
+            touch(deviceId, descriptor);
             _mutex.unlock();
 
             return r;
         }
     }
 
+    void ConstantTadHelper::touch(int deviceId, const TadDescriptor &descriptor) {
+        auto &recency = _recency[deviceId];
+        auto &positions = _positions[deviceId];
+
+        auto position = positions.find(descriptor);
+        if (position != positions.end()) {
+            // already most recently used entry: nothing to do
+            if (position->second != recency.begin())
+                recency.splice(recency.begin(), recency, position->second);
+        } else {
+            recency.push_front(descriptor);
+            positions[descriptor] = recency.begin();
+        }
+    }
+
+    void ConstantTadHelper::evictIfNeeded(int deviceId) {
+        auto &recency = _recency[deviceId];
+
+        // most recently used entry is never evicted, so TAD bigger than limit is still cached until next one arrives
+        while (_cachedBytes[deviceId] > _maxBytes && recency.size() > 1) {
+            const auto &descriptor = recency.back();
+            auto &pack = _cache[deviceId][descriptor];
+            _cachedBytes[deviceId] -= (pack.shapeInfoLength() + pack.numberOfTads()) * sizeof(Nd4jLong);
+
+            _cache[deviceId].erase(descriptor);
+            _positions[deviceId].erase(descriptor);
+            recency.pop_back();
+        }
+    }
+
+    void ConstantTadHelper::setMaxCachedBytes(Nd4jLong maxBytes) {
+        if (maxBytes <= 0)
+            throw std::invalid_argument("TAD cache size limit must be positive");
+
+        std::lock_guard<std::mutex> lock(_mutex);
+        _maxBytes = maxBytes;
+
+        for (int e = 0; e < _cache.size(); e++)
+            evictIfNeeded(e);
+    }
+
+    Nd4jLong ConstantTadHelper::cachedBytesForDevice(int deviceId) {
+        std::lock_guard<std::mutex> lock(_mutex);
+        return _cachedBytes[deviceId];
+    }
+
     nd4j::ConstantTadHelper* nd4j::ConstantTadHelper::_INSTANCE = 0;
 }
 
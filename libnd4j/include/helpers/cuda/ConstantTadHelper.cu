@@ -25,6 +25,7 @@
 #include <exceptions/cuda_exception.h>
 #include <execution/LaunchContext.h>
 #include <ShapeUtils.h>
+#include <stdexcept>
 
 namespace nd4j {
     ConstantTadHelper::ConstantTadHelper() {
@@ -108,5 +109,23 @@ namespace nd4j {
         }
     }
 
+    void ConstantTadHelper::setMaxCachedBytes(Nd4jLong maxBytes) {
+        // kernels using cached TADs may still be running asynchronously, so TAD cache isn't bounded on CUDA
+        if (maxBytes <= 0)
+            throw std::invalid_argument("TAD cache size limit must be positive");
+
+        _maxBytes = maxBytes;
+    }
+
+    Nd4jLong ConstantTadHelper::cachedBytesForDevice(int deviceId) {
+        std::lock_guard<std::mutex> lock(_mutex);
+
+        Nd4jLong bytes = 0;
+        for (const auto &e : _cache[deviceId])
+            bytes += (e.second.shapeInfoLength() + e.second.numberOfTads()) * sizeof(Nd4jLong);
+
+        return bytes;
+    }
+
     nd4j::ConstantTadHelper* nd4j::ConstantTadHelper::_INSTANCE = 0;
 }
\ No newline at end of file
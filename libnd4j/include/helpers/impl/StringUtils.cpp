@@ -22,6 +22,8 @@
 
 #include <helpers/StringUtils.h>
 #include <exceptions/datatype_exception.h>
+#include <helpers/ShapeUtils.h>
+#include <NDArrayFactory.h>
 
 namespace nd4j {
     static FORCEINLINE bool match(const uint8_t *haystack, const uint8_t *needle, uint64_t length) {
@@ -71,6 +73,105 @@ namespace nd4j {
         return output;
     }
     
+    static FORCEINLINE char32_t lowerCodePoint(char32_t c) {
+        // ASCII
+        if (c < 0x80)
+            return c >= 'A' && c <= 'Z' ? c + 0x20 : c;
+
+        // Latin-1 Supplement, except multiplication sign
+        if (c >= 0xC0 && c <= 0xDE && c != 0xD7)
+            return c + 0x20;
+
+        // Latin Extended-A: upper case letters are at even positions, except dotted I and few odd ranges
+        if (c == 0x178)
+            return 0xFF;
+
+        if (c >= 0x100 && c <= 0x17F && c != 0x130 && c != 0x138 && c != 0x149 && c != 0x17F) {
+            if ((c >= 0x139 && c <= 0x148) || (c >= 0x179 && c <= 0x17E))
+                return (c & 1) ? c + 1 : c;
+
+            return (c & 1) ? c : c + 1;
+        }
+
+        // Greek capital letters
+        if (c >= 0x391 && c <= 0x3AB && c != 0x3A2)
+            return c + 0x20;
+
+        // Cyrillic capital letters
+        if (c >= 0x400 && c <= 0x40F)
+            return c + 0x50;
+
+        if (c >= 0x410 && c <= 0x42F)
+            return c + 0x20;
+
+        return c;
+    }
+
+    std::string StringUtils::toLowerCase(const std::string &u8) {
+        // fast path for pure ASCII strings
+        bool ascii = true;
+        for (auto c: u8)
+            if (static_cast<uint8_t>(c) >= 0x80) {
+                ascii = false;
+                break;
+            }
+
+        if (ascii) {
+            std::string result(u8);
+            for (auto &c: result)
+                if (c >= 'A' && c <= 'Z')
+                    c += 0x20;
+
+            return result;
+        }
+
+        std::u32string u32;
+        if (!u8StringToU32String(u8, u32))
+            throw std::runtime_error("StringUtils::toLowerCase: failed to decode utf8 string");
+
+        for (auto &c: u32)
+            c = lowerCodePoint(c);
+
+        std::string result;
+        if (!u32StringToU8String(u32, result))
+            throw std::runtime_error("StringUtils::toLowerCase: failed to encode utf8 string");
+
+        return result;
+    }
+
+    void StringUtils::assignStrings(NDArray &target, const std::vector<std::string> &strings) {
+        if (!target.isS())
+            throw nd4j::datatype_exception::build("StringUtils::assignStrings expects one of String types;", target.dataType());
+
+        if (target.lengthOf() != strings.size())
+            throw std::runtime_error("StringUtils::assignStrings: number of strings doesn't match target length");
+
+        auto tmp = NDArrayFactory::string({(Nd4jLong) strings.size()}, strings, target.dataType(), target.getContext());
+        auto blen = byteLength(tmp) + ShapeUtils::stringBufferHeaderRequirements(strings.size());
+
+        // for CUDA mostly
+        target.dataBuffer()->allocatePrimary();
+        target.dataBuffer()->expand(blen);
+        memcpy(target.buffer(), tmp.buffer(), blen);
+        target.tickWriteHost();
+
+        target.syncToDevice();
+
+        // we have to tick buffers
+        target.dataBuffer()->writePrimary();
+        target.dataBuffer()->readSpecial();
+    }
+
+    uint64_t StringUtils::fnv1a(const void *vdata, uint64_t length, uint64_t hash) {
+        auto data = reinterpret_cast<const uint8_t*>(vdata);
+        for (uint64_t e = 0; e < length; e++) {
+            hash ^= data[e];
+            hash *= 1099511628211ULL;
+        }
+
+        return hash;
+    }
+
     bool StringUtils::u8StringToU16String(const std::string& u8, std::u16string& u16) {
 
         if (u8.empty()) 
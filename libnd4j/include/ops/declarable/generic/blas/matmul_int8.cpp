@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <op_boilerplate.h>
+#if NOT_EXCLUDED(OP_matmul_int8)
+
+#include <ops/declarable/CustomOperations.h>
+#include <execution/Threads.h>
+#include <memory>
+
+namespace nd4j {
+    namespace ops {
+        // output tile: MR rows of x against NR rows of w
+        static const int MR = 8;
+        static const int NR = 8;
+        // K is processed in chunks of KC, so that the widened row chunks of a tile (8 KB) stay in L1
+        static const Nd4jLong KC = 256;
+
+        static FORCEINLINE int32_t dotInt16(const int16_t *a, const int16_t *b, const Nd4jLong length) {
+            int32_t sum = 0;
+            PRAGMA_OMP_SIMD_ARGS(reduction(+:sum))
+            for (Nd4jLong k = 0; k < length; k++)
+                sum += static_cast<int32_t>(a[k]) * static_cast<int32_t>(b[k]);
+
+            return sum;
+        }
+
+        // z[0:mr, 0:nr] = x[0:mr, :] * w[0:nr, :]^T. Row chunks are widened to int16 once per tile (into stack buffers),
+        // which lets the dot products below vectorize as 16-bit multiply-adds - int8 operands don't vectorize well
+        static void int8Tile(const int8_t *x, const int8_t *w, const Nd4jLong K, const int mr, const int nr, int32_t *z, const Nd4jLong ldz) {
+            alignas(64) int16_t pX[MR * KC];
+            alignas(64) int16_t pW[NR * KC];
+            int32_t acc[MR][NR] = {};
+
+            for (Nd4jLong k0 = 0; k0 < K; k0 += KC) {
+                const Nd4jLong kc = nd4j::math::nd4j_min<Nd4jLong>(KC, K - k0);
+                for (int i = 0; i < mr; i++)
+                    for (Nd4jLong k = 0; k < kc; k++)
+                        pX[i * KC + k] = x[i * K + k0 + k];
+
+                for (int j = 0; j < nr; j++)
+                    for (Nd4jLong k = 0; k < kc; k++)
+                        pW[j * KC + k] = w[j * K + k0 + k];
+
+                for (int i = 0; i < mr; i++)
+                    for (int j = 0; j < nr; j++)
+                        acc[i][j] += dotInt16(pX + i * KC, pW + j * KC, kc);
+            }
+
+            for (int i = 0; i < mr; i++)
+                for (int j = 0; j < nr; j++)
+                    z[i * ldz + j] = acc[i][j];
+        }
+
+        CUSTOM_OP_IMPL(matmul_int8, 2, 1, false, 0, 0) {
+            auto x = INPUT_VARIABLE(0);
+            auto w = INPUT_VARIABLE(1);
+            auto z = OUTPUT_VARIABLE(0);
+
+            REQUIRE_TRUE(x->rankOf() == 2 && w->rankOf() == 2, 0, "matmul_int8: both inputs must be matrices, but got ranks %i and %i", x->rankOf(), w->rankOf());
+            REQUIRE_TRUE(x->sizeAt(1) == w->sizeAt(1), 0, "matmul_int8: inputs must have same number of columns, but got %lld and %lld", x->sizeAt(1), w->sizeAt(1));
+            REQUIRE_TRUE(z->ordering() == 'c' && z->ews() == 1, 0, "matmul_int8: output array must be c-order and contiguous");
+
+            // both operands are traversed row by row, so they must be c-order contiguous. Callers are expected to pass
+            // such arrays (quantized weights are stored that way) - copies are only made as a fallback
+            std::unique_ptr<NDArray> xTmp, wTmp;
+            auto xC = x;
+            auto wC = w;
+            if (x->ordering() != 'c' || x->ews() != 1) {
+                xTmp.reset(new NDArray(x->dup('c')));
+                xC = xTmp.get();
+            }
+
+            if (w->ordering() != 'c' || w->ews() != 1) {
+                wTmp.reset(new NDArray(w->dup('c')));
+                wC = wTmp.get();
+            }
+
+            xC->syncToHost();
+            wC->syncToHost();
+
+            const Nd4jLong M = xC->sizeAt(0);
+            const Nd4jLong N = wC->sizeAt(0);
+            const Nd4jLong K = xC->sizeAt(1);
+
+            auto bX = xC->bufferAsT<int8_t>();
+            auto bW = wC->bufferAsT<int8_t>();
+            auto bZ = z->bufferAsT<int32_t>();
+
+            // z = x * w^T, computed in MR x NR tiles: each row chunk loaded (and widened) is reused for NR (resp. MR)
+            // dot products, instead of once per output element. Tile buffers live on the stack - nothing is allocated here
+            auto func = PRAGMA_THREADS_FOR_2D {
+                for (auto tm = start_x; tm < stop_x; tm += inc_x) {
+                    for (auto tn = start_y; tn < stop_y; tn += inc_y) {
+                        const Nd4jLong m0 = tm * MR;
+                        const Nd4jLong n0 = tn * NR;
+                        const int mr = static_cast<int>(nd4j::math::nd4j_min<Nd4jLong>(MR, M - m0));
+                        const int nr = static_cast<int>(nd4j::math::nd4j_min<Nd4jLong>(NR, N - n0));
+
+                        int8Tile(bX + m0 * K, bW + n0 * K, K, mr, nr, bZ + m0 * N + n0, N);
+                    }
+                }
+            };
+
+            samediff::Threads::parallel_for(func, 0, (M + MR - 1) / MR, 1, 0, (N + NR - 1) / NR, 1);
+            z->tickWriteHost();
+
+            return Status::OK();
+        }
+
+        DECLARE_SHAPE_FN(matmul_int8) {
+            auto xShape = inputShape->at(0);
+            auto wShape = inputShape->at(1);
+
+            return SHAPELIST(ConstantShapeHelper::getInstance()->createShapeInfo(nd4j::DataType::INT32, 'c', std::vector<Nd4jLong>({shape::sizeAt(xShape, 0), shape::sizeAt(wShape, 0)})));
+        }
+
+        DECLARE_TYPES(matmul_int8) {
+            getOpDescriptor()
+                    ->setAllowedInputTypes(nd4j::DataType::INT8)
+                    ->setAllowedOutputTypes(nd4j::DataType::INT32);
+        }
+    }
+}
+
+#endif
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <op_boilerplate.h>
+#if NOT_EXCLUDED(OP_fused_updater)
+
+#include <ops/declarable/CustomOperations.h>
+#include <execution/Threads.h>
+#include <cmath>
+
+namespace nd4j {
+    namespace ops {
+
+        // updater types, must match org.nd4j.linalg.api.ops.impl.updaters.FusedUpdater.Type
+        static const int FUSED_ADAM = 0;
+        static const int FUSED_ADAMAX = 1;
+        static const int FUSED_NESTEROVS = 2;
+        static const int FUSED_RMSPROP = 3;
+
+        template <typename T>
+        static void fusedUpdater_(NDArray *gradient, NDArray *params, NDArray *s0, NDArray *s1, int type, int iteration,
+                                  double lr, double l1, double l2, double wd, double a0, double a1, double a2) {
+            auto g = gradient->bufferAsT<T>();
+            auto p = params != nullptr ? params->bufferAsT<T>() : nullptr;
+            auto st0 = s0->bufferAsT<T>();
+            auto st1 = s1 != nullptr ? s1->bufferAsT<T>() : nullptr;
+            const Nd4jLong length = gradient->lengthOf();
+
+            // per-iteration scalars are calculated once, in double precision - same as the updater implementations in nd4j
+            double alpha = lr;
+            if (type == FUSED_ADAM) {
+                const double beta1t = std::pow(a0, iteration + 1);
+                const double beta2t = std::pow(a1, iteration + 1);
+                alpha = lr * std::sqrt(1.0 - beta2t) / (1.0 - beta1t);
+                if (std::isnan(alpha) || alpha == 0.0)
+                    alpha = a2;
+            } else if (type == FUSED_ADAMAX) {
+                alpha = lr / (1.0 - std::pow(a0, iteration + 1));
+                if (std::isnan(alpha) || std::isinf(alpha) || alpha == 0.0)
+                    alpha = a2;
+            }
+
+            const T tL1 = static_cast<T>(l1);
+            const T tL2 = static_cast<T>(l2);
+            const T tWd = static_cast<T>(wd);
+            const T tLr = static_cast<T>(lr);
+            const T tAlpha = static_cast<T>(alpha);
+            const T tA0 = static_cast<T>(a0);
+            const T tA1 = static_cast<T>(a1);
+            const T tA2 = static_cast<T>(a2);
+            const T one = static_cast<T>(1.0);
+            const T zero = static_cast<T>(0.0);
+
+            auto func = PRAGMA_THREADS_FOR {
+                for (auto e = start; e < stop; e += increment) {
+                    T grad = g[e];
+
+                    // pre-updater regularization: l1 and l2
+                    if (p != nullptr) {
+                        const T param = p[e];
+                        if (tL1 != zero)
+                            grad += tL1 * (param > zero ? one : (param < zero ? -one : zero));
+                        if (tL2 != zero)
+                            grad += tL2 * param;
+                    }
+
+                    T update;
+                    switch (type) {
+                        case FUSED_ADAM: {
+                            st0[e] = tA0 * st0[e] + (one - tA0) * grad;
+                            st1[e] = tA1 * st1[e] + (one - tA1) * grad * grad;
+                            update = tAlpha * st0[e] / (nd4j::math::nd4j_sqrt<T, T>(st1[e]) + tA2);
+                            break;
+                        }
+                        case FUSED_ADAMAX: {
+                            st0[e] = tA0 * st0[e] + (one - tA0) * grad;
+                            st1[e] = nd4j::math::nd4j_max<T>(tA1 * st1[e], nd4j::math::nd4j_abs<T>(grad)) + static_cast<T>(1e-32);
+                            update = tAlpha * st0[e] / st1[e];
+                            break;
+                        }
+                        case FUSED_NESTEROVS: {
+                            const T vPrev = st0[e];
+                            st0[e] = tA0 * vPrev - tLr * grad;
+                            update = tA0 * vPrev + (-tA0 - one) * st0[e];
+                            break;
+                        }
+                        default: {
+                            // RMSProp
+                            st0[e] = tA0 * st0[e] + (one - tA0) * grad * grad;
+                            update = tLr * grad / (nd4j::math::nd4j_sqrt<T, T>(st0[e]) + tA1);
+                            break;
+                        }
+                    }
+
+                    // post-updater regularization: weight decay (learning rate already applied, if required)
+                    if (p != nullptr && tWd != zero)
+                        update += tWd * p[e];
+
+                    g[e] = update;
+                }
+            };
+
+            samediff::Threads::parallel_for(func, 0, length);
+        }
+
+        CUSTOM_OP_IMPL(fused_updater, 3, 1, true, 5, 2) {
+            auto gradient = INPUT_VARIABLE(0);
+            auto params = INPUT_VARIABLE(1);
+            auto update = OUTPUT_VARIABLE(0);
+
+            const int type = INT_ARG(0);
+            const int iteration = INT_ARG(1);
+
+            REQUIRE_TRUE(type >= FUSED_ADAM && type <= FUSED_RMSPROP, 0, "fused_updater: unknown updater type %i", type);
+            const int numStates = (type == FUSED_ADAM || type == FUSED_ADAMAX) ? 2 : 1;
+            const int numTArgs = (type == FUSED_NESTEROVS) ? 5 : (type == FUSED_RMSPROP ? 6 : 7);
+            REQUIRE_TRUE(block.width() == 2 + numStates, 0, "fused_updater: expected %i state arrays for updater type %i, got %i", numStates, type, (int) block.width() - 2);
+            REQUIRE_TRUE(block.getTArguments()->size() == numTArgs, 0, "fused_updater: expected %i T arguments for updater type %i, got %i", numTArgs, type, (int) block.getTArguments()->size());
+
+            const double lr = T_ARG(0);
+            const double l1 = T_ARG(1);
+            const double l2 = T_ARG(2);
+            const double wd = T_ARG(3);
+            const double a0 = T_ARG(4);
+            const double a1 = numTArgs > 5 ? T_ARG(5) : 0.0;
+            const double a2 = numTArgs > 6 ? T_ARG(6) : 0.0;
+
+            auto s0 = INPUT_VARIABLE(2);
+            auto s1 = numStates > 1 ? INPUT_VARIABLE(3) : nullptr;
+
+            // all arrays are traversed linearly and element-wise, so they must have the same length and layout
+            std::vector<NDArray*> arrays({gradient, params, s0, update});
+            if (s1 != nullptr)
+                arrays.emplace_back(s1);
+            auto isFlat = [](NDArray *arr) -> bool { return arr->isVector() || arr->lengthOf() == 1; };
+            for (auto arr : arrays) {
+                REQUIRE_TRUE(arr->lengthOf() == gradient->lengthOf(), 0, "fused_updater: all arrays must have the same length, got %lld and %lld", arr->lengthOf(), gradient->lengthOf());
+                REQUIRE_TRUE(arr->ews() == 1 && (arr->ordering() == gradient->ordering() || (isFlat(arr) && isFlat(gradient))), 0, "fused_updater: all arrays must have element-wise stride 1 and the same ordering");
+                REQUIRE_TRUE(arr->dataType() == gradient->dataType(), 0, "fused_updater: all arrays must have the same data type");
+            }
+
+            // usually executed in-place: output is the gradient array itself
+            if (update->buffer() != gradient->buffer())
+                update->assign(gradient);
+
+            update->syncToHost();
+            params->syncToHost();
+            s0->syncToHost();
+            if (s1 != nullptr)
+                s1->syncToHost();
+
+            // params are only read for regularization
+            const bool needParams = l1 != 0.0 || l2 != 0.0 || wd != 0.0;
+
+            BUILD_SINGLE_SELECTOR(update->dataType(), fusedUpdater_, (update, needParams ? params : nullptr, s0, s1, type, iteration, lr, l1, l2, wd, a0, a1, a2), FLOAT_TYPES);
+
+            update->tickWriteHost();
+            s0->tickWriteHost();
+            if (s1 != nullptr)
+                s1->tickWriteHost();
+
+            return Status::OK();
+        }
+
+        DECLARE_SHAPE_FN(fused_updater) {
+            return SHAPELIST(CONSTANT(inputShape->at(0)));
+        }
+
+        DECLARE_TYPES(fused_updater) {
+            getOpDescriptor()
+                    ->setAllowedInputTypes({ALL_FLOATS})
+                    ->setAllowedOutputTypes({ALL_FLOATS});
+        }
+    }
+}
+
+#endif
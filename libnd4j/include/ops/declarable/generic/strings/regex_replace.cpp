@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <op_boilerplate.h>
+#if NOT_EXCLUDED(OP_regex_replace)
+
+#include <ops/declarable/CustomOperations.h>
+#include <helpers/StringUtils.h>
+#include <regex>
+
+namespace nd4j {
+    namespace ops {
+        CUSTOM_OP_IMPL(regex_replace, 3, 1, false, 0, 0) {
+            auto input = INPUT_VARIABLE(0);
+            auto pattern = INPUT_VARIABLE(1);
+            auto rewrite = INPUT_VARIABLE(2);
+            auto output = OUTPUT_VARIABLE(0);
+
+            REQUIRE_TRUE(pattern->isS() && pattern->lengthOf() == 1, 0, "regex_replace: pattern must be a scalar string");
+            REQUIRE_TRUE(rewrite->isS() && rewrite->lengthOf() == 1, 0, "regex_replace: rewrite must be a scalar string");
+
+            auto global = block.numB() > 0 ? B_ARG(0) : true;
+            auto flags = global ? std::regex_constants::format_default : std::regex_constants::format_first_only;
+
+            input->syncToHost();
+            pattern->syncToHost();
+            rewrite->syncToHost();
+
+            std::regex regex;
+            try {
+                regex = std::regex(pattern->e<std::string>(0), std::regex::ECMAScript);
+            } catch (std::regex_error &e) {
+                REQUIRE_TRUE(false, 0, "regex_replace: invalid pattern [%s]", pattern->e<std::string>(0).c_str());
+            }
+
+            auto r = rewrite->e<std::string>(0);
+
+            std::vector<std::string> strings(input->lengthOf());
+            for (Nd4jLong e = 0; e < input->lengthOf(); e++)
+                strings[e] = std::regex_replace(input->e<std::string>(e), regex, r, flags);
+
+            StringUtils::assignStrings(*output, strings);
+
+            return Status::OK();
+        };
+
+        DECLARE_SHAPE_FN(regex_replace) {
+            auto input = INPUT_VARIABLE(0);
+
+            return SHAPELIST(ConstantShapeHelper::getInstance()->createShapeInfo(input->dataType(), input->ordering(), input->getShapeAsVector()));
+        }
+
+        DECLARE_TYPES(regex_replace) {
+            getOpDescriptor()
+                    ->setAllowedInputTypes({ALL_STRINGS})
+                    ->setAllowedOutputTypes({ALL_STRINGS});
+        }
+    }
+}
+
+#endif
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <op_boilerplate.h>
+#if NOT_EXCLUDED(OP_string_lower)
+
+#include <ops/declarable/CustomOperations.h>
+#include <helpers/StringUtils.h>
+
+namespace nd4j {
+    namespace ops {
+        CUSTOM_OP_IMPL(string_lower, 1, 1, false, 0, 0) {
+            auto input = INPUT_VARIABLE(0);
+            auto output = OUTPUT_VARIABLE(0);
+
+            input->syncToHost();
+
+            std::vector<std::string> strings(input->lengthOf());
+            for (Nd4jLong e = 0; e < input->lengthOf(); e++)
+                strings[e] = StringUtils::toLowerCase(input->e<std::string>(e));
+
+            StringUtils::assignStrings(*output, strings);
+
+            return Status::OK();
+        };
+
+        DECLARE_SHAPE_FN(string_lower) {
+            auto input = INPUT_VARIABLE(0);
+
+            return SHAPELIST(ConstantShapeHelper::getInstance()->createShapeInfo(input->dataType(), input->ordering(), input->getShapeAsVector()));
+        }
+
+        DECLARE_TYPES(string_lower) {
+            getOpDescriptor()
+                    ->setAllowedInputTypes({ALL_STRINGS})
+                    ->setAllowedOutputTypes({ALL_STRINGS});
+        }
+    }
+}
+
+#endif
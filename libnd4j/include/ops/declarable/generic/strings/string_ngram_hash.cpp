@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <op_boilerplate.h>
+#if NOT_EXCLUDED(OP_string_ngram_hash)
+
+#include <ops/declarable/CustomOperations.h>
+#include <helpers/StringUtils.h>
+
+namespace nd4j {
+    namespace ops {
+        CUSTOM_OP_IMPL(string_ngram_hash, 1, 1, false, 0, 2) {
+            auto input = INPUT_VARIABLE(0);
+            auto output = OUTPUT_VARIABLE(0);
+
+            auto n = INT_ARG(0);
+            auto buckets = INT_ARG(1);
+
+            REQUIRE_TRUE(input->rankOf() == 1 || input->rankOf() == 2, 0, "string_ngram_hash: input must have rank 1 or 2, but got rank %i instead", input->rankOf());
+            REQUIRE_TRUE(n > 0 && buckets > 0, 0, "string_ngram_hash: n and number of buckets must be positive, but got %i and %i", (int) n, (int) buckets);
+
+            input->syncToHost();
+
+            auto batch = input->rankOf() == 2 ? input->sizeAt(0) : 1;
+            auto tokens = input->sizeAt(-1);
+            auto grams = tokens - n + 1;
+
+            // hashing each token once, n-gram hashes are combined from token hashes
+            std::vector<uint64_t> hashes(input->lengthOf());
+            for (Nd4jLong e = 0; e < input->lengthOf(); e++) {
+                auto s = input->e<std::string>(e);
+                hashes[e] = StringUtils::fnv1a(s.data(), s.length());
+            }
+
+            for (Nd4jLong b = 0; b < batch; b++) {
+                for (Nd4jLong g = 0; g < grams; g++) {
+                    uint64_t hash = 14695981039346656037ULL;
+                    for (Nd4jLong t = 0; t < n; t++)
+                        hash = StringUtils::fnv1a(&hashes[b * tokens + g + t], sizeof(uint64_t), hash);
+
+                    output->p(b * grams + g, (Nd4jLong) (hash % (uint64_t) buckets));
+                }
+            }
+
+            output->tickWriteHost();
+            output->syncToDevice();
+
+            return Status::OK();
+        };
+
+        DECLARE_SHAPE_FN(string_ngram_hash) {
+            auto input = INPUT_VARIABLE(0);
+            auto n = INT_ARG(0);
+
+            REQUIRE_TRUE(input->sizeAt(-1) >= n, 0, "string_ngram_hash: number of tokens (%i) must be at least n (%i)", (int) input->sizeAt(-1), (int) n);
+
+            auto shape = input->getShapeAsVector();
+            shape[shape.size() - 1] = input->sizeAt(-1) - n + 1;
+
+            return SHAPELIST(ConstantShapeHelper::getInstance()->createShapeInfo(nd4j::DataType::INT64, 'c', shape));
+        }
+
+        DECLARE_TYPES(string_ngram_hash) {
+            getOpDescriptor()
+                    ->setAllowedInputTypes({ALL_STRINGS})
+                    ->setAllowedOutputTypes({nd4j::DataType::INT64});
+        }
+    }
+}
+
+#endif
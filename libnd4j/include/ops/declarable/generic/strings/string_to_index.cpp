@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+#include <op_boilerplate.h>
+#if NOT_EXCLUDED(OP_string_to_index)
+
+#include <ops/declarable/CustomOperations.h>
+#include <unordered_map>
+
+namespace nd4j {
+    namespace ops {
+        CUSTOM_OP_IMPL(string_to_index, 2, 1, false, 0, 0) {
+            auto input = INPUT_VARIABLE(0);
+            auto vocab = INPUT_VARIABLE(1);
+            auto output = OUTPUT_VARIABLE(0);
+
+            REQUIRE_TRUE(vocab->isS() && vocab->rankOf() <= 1, 0, "string_to_index: vocabulary must be a vector of strings");
+
+            Nd4jLong missing = block.numI() > 0 ? INT_ARG(0) : -1;
+
+            input->syncToHost();
+            vocab->syncToHost();
+
+            // first occurrence wins, if vocabulary has duplicates
+            std::unordered_map<std::string, Nd4jLong> lookup;
+            lookup.reserve(vocab->lengthOf());
+            for (Nd4jLong e = 0; e < vocab->lengthOf(); e++)
+                lookup.emplace(vocab->e<std::string>(e), e);
+
+            for (Nd4jLong e = 0; e < input->lengthOf(); e++) {
+                auto it = lookup.find(input->e<std::string>(e));
+                output->p(e, it == lookup.end() ? missing : it->second);
+            }
+
+            output->tickWriteHost();
+            output->syncToDevice();
+
+            return Status::OK();
+        };
+
+        DECLARE_SHAPE_FN(string_to_index) {
+            auto input = INPUT_VARIABLE(0);
+
+            return SHAPELIST(ConstantShapeHelper::getInstance()->createShapeInfo(nd4j::DataType::INT64, input->ordering(), input->getShapeAsVector()));
+        }
+
+        DECLARE_TYPES(string_to_index) {
+            getOpDescriptor()
+                    ->setAllowedInputTypes({ALL_STRINGS})
+                    ->setAllowedOutputTypes({nd4j::DataType::INT64});
+        }
+    }
+}
+
+#endif
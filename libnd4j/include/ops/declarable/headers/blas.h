@@ -105,6 +105,21 @@ namespace nd4j {
          *            if diagSize < IArgs[2] then Jacobi algorithm is used, in opposite case the Divide-And-Conquer is applied
          *            Recommended value is 16. 
          */
+        /**
+         * This op performs int8 matrix multiplication with int32 accumulation: z = x * w^T
+         * Intended for quantized inference, where w holds quantized weights with one row per output column.
+         *
+         * Input arrays:
+         * x[M, K] - INT8 matrix
+         * w[N, K] - INT8 matrix
+         *
+         * Output array:
+         * z[M, N] - INT32 matrix
+         */
+        #if NOT_EXCLUDED(OP_matmul_int8)
+        DECLARE_CUSTOM_OP(matmul_int8, 2, 1, false, 0, 0);
+        #endif
+
         #if NOT_EXCLUDED(OP_svd)
         DECLARE_CUSTOM_OP(svd, 1, 1, false, 0, 3);   
         #endif
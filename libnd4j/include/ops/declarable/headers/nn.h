@@ -136,6 +136,34 @@ namespace nd4j {
         DECLARE_CONFIGURABLE_OP(apply_sgd, 2, 1, true, -2, 0);
         #endif
 
+        /**
+         * This operation calculates the parameter update for a flattened block of parameters in a single pass:
+         * l1/l2 regularization, updater (Adam, AdaMax, Nesterovs or RMSProp) and weight decay.
+         * Parameters themselves are not modified. Updater state arrays are updated in-place.
+         *
+         * Input arrays:
+         * 0: gradients
+         * 1: parameters, same shape as gradients. Only used for regularization
+         * 2, 3: updater state arrays, same shape as gradients. 2 for Adam (m, v) and AdaMax (m, u), 1 for Nesterovs (v) and RMSProp (g)
+         *
+         * Output array:
+         * 0: update, same shape as gradients. Usually in-place (i.e., the gradients array)
+         *
+         * Int args:
+         * 0: updater type: 0 = Adam, 1 = AdaMax, 2 = Nesterovs, 3 = RMSProp
+         * 1: iteration
+         *
+         * T args:
+         * 0: learning rate
+         * 1: l1 coefficient
+         * 2: l2 coefficient
+         * 3: weight decay coefficient, including learning rate if applicable
+         * 4+: Adam/AdaMax: beta1, beta2, epsilon. Nesterovs: momentum. RMSProp: decay, epsilon
+         */
+        #if NOT_EXCLUDED(OP_fused_updater)
+        DECLARE_CUSTOM_OP(fused_updater, 3, 1, true, 5, 2);
+        #endif
+
         /**
          * This operation performs batch normalization of layer, it is based on following article https://arxiv.org/abs/1502.03167.
          * Expected arguments:
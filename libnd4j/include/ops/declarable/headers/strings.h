@@ -35,6 +35,55 @@ namespace nd4j {
         DECLARE_CUSTOM_OP(split_string, 2, 1, true, 0, 0);
     #endif
 
+        /**
+         * This operation converts all strings within input tensor to lower case
+         *
+         * Input[0] - string tensor
+         * Output[0] - string tensor of the same shape
+         */
+    #if NOT_EXCLUDED(OP_string_lower)
+        DECLARE_CUSTOM_OP(string_lower, 1, 1, false, 0, 0);
+    #endif
+
+        /**
+         * This operation replaces matches of regular expression within each string of input tensor
+         *
+         * Input[0] - string tensor
+         * Input[1] - scalar string, regular expression (ECMAScript syntax)
+         * Input[2] - scalar string, replacement
+         *
+         * BArgs[0] - optional, if false only first match within each string is replaced. Default: true
+         */
+    #if NOT_EXCLUDED(OP_regex_replace)
+        DECLARE_CUSTOM_OP(regex_replace, 3, 1, false, 0, 0);
+    #endif
+
+        /**
+         * This operation maps each string of input tensor to its index within vocabulary
+         *
+         * Input[0] - string tensor
+         * Input[1] - vector of strings, vocabulary
+         *
+         * IArgs[0] - optional, index used for strings missing in vocabulary. Default: -1
+         * Output[0] - INT64 tensor of the same shape as input
+         */
+    #if NOT_EXCLUDED(OP_string_to_index)
+        DECLARE_CUSTOM_OP(string_to_index, 2, 1, false, 0, 0);
+    #endif
+
+        /**
+         * This operation hashes n-grams of consecutive strings (tokens) into fixed number of buckets
+         *
+         * Input[0] - string tensor of rank 1 [numTokens] or rank 2 [batch, numTokens]
+         *
+         * IArgs[0] - n, number of tokens per n-gram
+         * IArgs[1] - number of hash buckets
+         * Output[0] - INT64 tensor of shape [numTokens - n + 1] or [batch, numTokens - n + 1]
+         */
+    #if NOT_EXCLUDED(OP_string_ngram_hash)
+        DECLARE_CUSTOM_OP(string_ngram_hash, 1, 1, false, 0, 2);
+    #endif
+
     }
 }
 
@@ -75,6 +75,29 @@ TEST_F(ConstantTadHelperTests, test_cachedAmount_1) {
     ASSERT_EQ(ttlMiddle, ttlAfter);
 }
 
+#ifndef __CUDABLAS__
+TEST_F(ConstantTadHelperTests, test_eviction_1) {
+    auto arrayA = NDArrayFactory::create<float>('c', {5, 7, 11, 13});
+    auto arrayB = NDArrayFactory::create<float>('c', {13, 11, 7, 5});
+
+    // limit that only allows a single TAD of arrayA: 1 shape + 5 * 7 offsets
+    ConstantTadHelper::getInstance()->setMaxCachedBytes(64 * sizeof(Nd4jLong));
+
+    auto packA = ConstantTadHelper::getInstance()->tadForDimensions(arrayA.shapeInfo(), {2, 3});
+    std::vector<Nd4jLong> offsets(packA.primaryOffsets(), packA.primaryOffsets() + packA.numberOfTads());
+
+    // this evicts everything but packB from the cache, but packA still holds its buffers
+    auto packB = ConstantTadHelper::getInstance()->tadForDimensions(arrayB.shapeInfo(), {2, 3});
+    Nd4jLong expected = (packB.shapeInfoLength() + packB.numberOfTads()) * sizeof(Nd4jLong);
+    ASSERT_EQ(expected, ConstantTadHelper::getInstance()->cachedBytesForDevice(0));
+
+    for (int e = 0; e < offsets.size(); e++)
+        ASSERT_EQ(offsets[e], packA.primaryOffsets()[e]);
+
+    ConstantTadHelper::getInstance()->setMaxCachedBytes(64L * 1024L * 1024L);
+}
+#endif
+
 TEST_F(ConstantShapeHelperTests, basic_test_1) {
     auto ptr = ShapeBuilders::createShapeInfo(nd4j::DataType::BFLOAT16, 'f', {5, 10, 15});
     ShapeDescriptor descriptor(ptr);
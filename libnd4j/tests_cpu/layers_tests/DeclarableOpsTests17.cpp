@@ -91,4 +91,187 @@ TEST_F(DeclarableOpsTests17, test_compat_string_split_1) {
     ASSERT_EQ(exp1, *z1);
 
     delete result;
-}
\ No newline at end of file
+}
+TEST_F(DeclarableOpsTests17, test_string_lower_1) {
+    auto x = NDArrayFactory::string( {3}, {"First String", "SECOND", u8"ÀÉÎ ΑΒΓ ДЖЯ"});
+    auto exp = NDArrayFactory::string( {3}, {"first string", "second", u8"àéî αβγ джя"});
+
+    nd4j::ops::string_lower op;
+    auto result = op.evaluate({&x});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_TRUE(exp.isSameShape(z));
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_regex_replace_1) {
+    auto x = NDArrayFactory::string( {2}, {"hello,  world!", "a  b   c"});
+    auto pattern = NDArrayFactory::string("[[:space:]]+");
+    auto rewrite = NDArrayFactory::string(" ");
+    auto exp = NDArrayFactory::string( {2}, {"hello, world!", "a b c"});
+
+    nd4j::ops::regex_replace op;
+    auto result = op.evaluate({&x, &pattern, &rewrite});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_regex_replace_2) {
+    auto x = NDArrayFactory::string( {2}, {"a  b   c", "d"});
+    auto pattern = NDArrayFactory::string(" +");
+    auto rewrite = NDArrayFactory::string("_");
+    auto exp = NDArrayFactory::string( {2}, {"a_b   c", "d"});
+
+    nd4j::ops::regex_replace op;
+    auto result = op.evaluate({&x, &pattern, &rewrite}, {}, {}, {false});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_string_to_index_1) {
+    auto x = NDArrayFactory::string( {2, 2}, {"the", "cat", "sat", "the"});
+    auto vocab = NDArrayFactory::string( {3}, {"<unk>", "the", "cat"});
+    auto exp = NDArrayFactory::create<Nd4jLong>('c', {2, 2}, {1, 2, 0, 1});
+
+    nd4j::ops::string_to_index op;
+    auto result = op.evaluate({&x, &vocab}, {}, {0});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_TRUE(exp.isSameShape(z));
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_string_ngram_hash_1) {
+    auto x = NDArrayFactory::string( {2, 4}, {"a", "b", "c", "d",   "x", "a", "b", "c"});
+
+    nd4j::ops::string_ngram_hash op;
+    auto result = op.evaluate({&x}, {}, {2, 1000});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_EQ(nd4j::DataType::INT64, z->dataType());
+    ASSERT_EQ(2, z->rankOf());
+    ASSERT_EQ(3, z->sizeAt(1));
+
+    // same bigrams produce same buckets: "a b" and "b c"
+    ASSERT_EQ(z->e<Nd4jLong>(0, 0), z->e<Nd4jLong>(1, 1));
+    ASSERT_EQ(z->e<Nd4jLong>(0, 1), z->e<Nd4jLong>(1, 2));
+
+    for (Nd4jLong e = 0; e < z->lengthOf(); e++) {
+        ASSERT_TRUE(z->e<Nd4jLong>(e) >= 0);
+        ASSERT_TRUE(z->e<Nd4jLong>(e) < 1000);
+    }
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_matmul_int8_1) {
+    auto x = NDArrayFactory::create<int8_t>('c', {2, 3}, {1, -2, 3,   127, -127, 0});
+    auto w = NDArrayFactory::create<int8_t>('c', {2, 3}, {1, 1, 1,    127, 127, -5});
+    auto exp = NDArrayFactory::create<int>('c', {2, 2}, {2, -142,   0, 0});
+
+    nd4j::ops::matmul_int8 op;
+    auto result = op.evaluate({&x, &w}, {}, {});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_TRUE(exp.isSameShape(z));
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_matmul_int8_2) {
+    // f-order weights are made contiguous internally
+    auto x = NDArrayFactory::create<int8_t>('c', {1, 2}, {100, 50});
+    auto w = NDArrayFactory::create<int8_t>('f', {3, 2}, {1, 2, 3,   -1, -2, -3});
+    auto exp = NDArrayFactory::create<int>('c', {1, 3}, {50, 100, 150});
+
+    nd4j::ops::matmul_int8 op;
+    auto result = op.evaluate({&x, &w}, {}, {});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_matmul_int8_3) {
+    // partial output tiles, and K split over several chunks
+    const int M = 13, N = 11, K = 600;
+    auto x = NDArrayFactory::create<int8_t>('c', {M, K});
+    auto w = NDArrayFactory::create<int8_t>('c', {N, K});
+    auto exp = NDArrayFactory::create<int>('c', {M, N});
+
+    for (int e = 0; e < M * K; e++)
+        x.p(e, (e * 37) % 255 - 127);
+
+    for (int e = 0; e < N * K; e++)
+        w.p(e, (e * 53) % 255 - 127);
+
+    for (int m = 0; m < M; m++) {
+        for (int n = 0; n < N; n++) {
+            int sum = 0;
+            for (int k = 0; k < K; k++)
+                sum += x.e<int>(m, k) * w.e<int>(n, k);
+
+            exp.p(m, n, sum);
+        }
+    }
+
+    nd4j::ops::matmul_int8 op;
+    auto result = op.evaluate({&x, &w}, {}, {});
+    ASSERT_EQ(Status::OK(), result->status());
+
+    auto z = result->at(0);
+    ASSERT_EQ(exp, *z);
+
+    delete result;
+}
+
+TEST_F(DeclarableOpsTests17, test_fused_updater_nesterovs_1) {
+    auto g = NDArrayFactory::create<float>('c', {1, 2}, {1.f, 2.f});
+    auto p = NDArrayFactory::create<float>('c', {1, 2}, {2.f, -2.f});
+    auto v = NDArrayFactory::create<float>('c', {1, 2}, {0.f, 1.f});
+    auto expUpdate = NDArrayFactory::create<float>('c', {1, 2}, {0.38f, -0.62f});
+    auto expV = NDArrayFactory::create<float>('c', {1, 2}, {-0.2f, 0.8f});
+
+    // lr = 0.1, l1 = 0, l2 = 0.5, weight decay = 0, momentum = 0.9; in-place update of gradient and state
+    nd4j::ops::fused_updater op;
+    auto status = op.execute({&g, &p, &v}, {&g}, {0.1, 0.0, 0.5, 0.0, 0.9}, {2, 0}, {}, {}, true);
+    ASSERT_EQ(Status::OK(), status);
+
+    ASSERT_EQ(expUpdate, g);
+    ASSERT_EQ(expV, v);
+}
+
+TEST_F(DeclarableOpsTests17, test_fused_updater_rmsprop_1) {
+    auto g = NDArrayFactory::create<double>('c', {1, 2}, {2., -4.});
+    auto p = NDArrayFactory::create<double>('c', {1, 2}, {1., 1.});
+    auto c = NDArrayFactory::create<double>('c', {1, 2}, {0., 0.});
+    auto expUpdate = NDArrayFactory::create<double>('c', {1, 2}, {0.24142136, -0.04142136});
+    auto expC = NDArrayFactory::create<double>('c', {1, 2}, {2., 8.});
+
+    // lr = 0.1, weight decay = 0.1, decay = 0.5, epsilon = 0
+    nd4j::ops::fused_updater op;
+    auto status = op.execute({&g, &p, &c}, {&g}, {0.1, 0.0, 0.0, 0.1, 0.5, 0.0}, {3, 0}, {}, {}, true);
+    ASSERT_EQ(Status::OK(), status);
+
+    ASSERT_EQ(expUpdate, g);
+    ASSERT_EQ(expC, c);
+}
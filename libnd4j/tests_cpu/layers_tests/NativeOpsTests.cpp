@@ -705,6 +705,37 @@ TEST_F(NativeOpsTests, ScalarTest_1) {
     ASSERT_TRUE(exp.equalsTo(z));
 }
 
+TEST_F(NativeOpsTests, ExecBatchTest_1) {
+#ifdef __CUDABLAS__
+    printf("Unsupported for CUDA platform yet.\n");
+    return;
+#endif
+    auto x = NDArrayFactory::create<float>('c', {5, 5});
+    auto y = NDArrayFactory::create<float>(10.);
+    auto z = NDArrayFactory::create<float>('c', {5, 5});
+    auto exp = NDArrayFactory::create<float>('c', {5, 5});
+    x.linspace(1.0);
+    exp.linspace(11., 11.);
+
+    OpaqueDataBuffer xBuf(x.dataBuffer());
+    OpaqueDataBuffer yBuf(y.dataBuffer());
+    OpaqueDataBuffer zBuf(z.dataBuffer());
+
+    // z = x * 10, then z = z + x
+    int opTypes[] = {0, 2};
+    int opNums[] = {scalar::Multiply, pairwise::Add};
+    Nd4jPointer buffers[] = {&xBuf, &yBuf, &zBuf, nullptr,
+                             &zBuf, &xBuf, &zBuf, nullptr};
+    Nd4jPointer shapes[] = {x.shapeInfo(), nullptr, y.shapeInfo(), nullptr, z.shapeInfo(), nullptr, nullptr, nullptr,
+                            z.shapeInfo(), nullptr, x.shapeInfo(), nullptr, z.shapeInfo(), nullptr, nullptr, nullptr};
+    Nd4jPointer extras[] = {nullptr, nullptr};
+
+    ::execBatch(nullptr, 2, opTypes, opNums, buffers, shapes, extras);
+
+    ASSERT_EQ(0, ::lastErrorCode());
+    ASSERT_TRUE(exp.equalsTo(z));
+}
+
 TEST_F(NativeOpsTests, ScalarTest_2) {
     auto x = NDArrayFactory::create<float>('c', {5, 5});
     auto y = NDArrayFactory::create<float>(10.f);
@@ -24,6 +24,7 @@
 #include <execution/Threads.h>
 #include <chrono>
 #include <execution/ThreadPool.h>
+#include <execution/NumaHelper.h>
 
 using namespace samediff;
 using namespace nd4j;
@@ -244,4 +245,78 @@ TEST_F(ThreadsTests, basic_test_1) {
 
     nd4j_printf("Threads time: %lld us; OMP time: %lld us; %p\n", outerTimeThreads, outerTimeOmp, instance)
 }
- */
\ No newline at end of file
+ */
+TEST_F(ThreadsTests, numa_topology_test_1) {
+    auto numNodes = NumaHelper::numberOfNodes();
+    ASSERT_TRUE(numNodes >= 1);
+
+    int totalCpus = 0;
+    for (int n = 0; n < numNodes; n++) {
+        auto cpus = NumaHelper::cpusForNode(n);
+        ASSERT_FALSE(cpus.empty());
+
+        for (auto cpu : cpus)
+            ASSERT_EQ(n, NumaHelper::nodeForCpu(cpu));
+
+        totalCpus += cpus.size();
+    }
+
+    ASSERT_TRUE(totalCpus >= 1);
+    ASSERT_TRUE(NumaHelper::cpusForNode(numNodes).empty());
+}
+
+TEST_F(ThreadsTests, numa_binding_test_1) {
+    std::atomic<int> boundNode(-2);
+    std::atomic<int> releasedNode(-2);
+    std::atomic<float> sum(0.f);
+
+    // binding is done in separate thread, so the test thread isn't affected
+    std::thread thread([&] () {
+        if (!NumaHelper::bindCurrentThread(0))
+            return;
+
+        boundNode = NumaHelper::currentNode();
+
+        // ops executed by bound thread still produce correct results
+        auto array = NDArrayFactory::create<float>('c', {512, 768});
+        array.assign(1.0f);
+        sum = array.sumNumber().e<float>(0);
+
+        NumaHelper::bindCurrentThread(-1);
+        releasedNode = NumaHelper::currentNode();
+    });
+    thread.join();
+
+#ifdef __linux__
+    ASSERT_EQ(0, boundNode.load());
+    ASSERT_EQ(-1, releasedNode.load());
+    ASSERT_NEAR(512.f * 768.f, sum.load(), 1e-5f);
+#endif
+
+    ASSERT_FALSE(NumaHelper::bindCurrentThread(NumaHelper::numberOfNodes()));
+    ASSERT_EQ(-1, NumaHelper::currentNode());
+}
+
+TEST_F(ThreadsTests, numa_thread_pool_test_1) {
+    ASSERT_FALSE(NumaHelper::isEnabled());
+
+    // thread pool keeps working after its threads were rebound, in both modes
+    for (auto enabled : {true, false}) {
+        NumaHelper::setEnabled(enabled);
+        ThreadPool::getInstance()->rebindThreads();
+
+        std::atomic<int64_t> sum(0);
+        auto func = PRAGMA_THREADS_FOR {
+            int64_t local = 0;
+            for (auto e = start; e < stop; e += increment)
+                local += e;
+
+            sum += local;
+        };
+
+        samediff::Threads::parallel_for(func, 0, 10000);
+        ASSERT_EQ(10000LL * 9999LL / 2, sum.load());
+    }
+
+    ASSERT_FALSE(NumaHelper::isEnabled());
+}
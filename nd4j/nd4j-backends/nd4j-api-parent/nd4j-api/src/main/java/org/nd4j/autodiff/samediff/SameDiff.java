@@ -182,6 +182,11 @@ public class SameDiff extends SDBaseOps {
      */
     public final SDBitwise bitwise = new SDBitwise(this);
 
+    /**
+     * Op creator object for string operations
+     */
+    public final SDStrings strings = new SDStrings(this);
+
     /**
      * Op creator object for math operations
      */
@@ -238,6 +243,13 @@ public class SameDiff extends SDBaseOps {
         return bitwise;
     }
 
+    /**
+     * Op creator object for string operations
+     */
+    public SDStrings strings(){
+        return strings;
+    }
+
     private Map<String, SameDiff> sameDiffFunctionInstances;
 
     private Table<String, String, String> fieldVariableResolutionMapping;
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.autodiff.samediff.ops;
+
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.linalg.api.ops.compat.CompatStringSplit;
+import org.nd4j.linalg.api.ops.impl.strings.RegexReplace;
+import org.nd4j.linalg.api.ops.impl.strings.StringLower;
+import org.nd4j.linalg.api.ops.impl.strings.StringNGramHash;
+import org.nd4j.linalg.api.ops.impl.strings.StringToIndex;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * SameDiff string operations, applied to whole UTF8 arrays at once
+ */
+public class SDStrings extends SDOps {
+    public SDStrings(SameDiff sameDiff) {
+        super(sameDiff);
+    }
+
+    /**
+     * Split each string of the input by delimiter. Output is sparse: indices, with shape [numSubstrings, rank + 1],
+     * and vector of substrings
+     *
+     * @param names     May be null. Names for the output variables (indices, values)
+     * @param strings   String variable to split
+     * @param delimiter Delimiter
+     * @return Indices and values variables
+     */
+    public SDVariable[] split(String[] names, @NonNull SDVariable strings, @NonNull String delimiter) {
+        SDVariable[] out = new CompatStringSplit(sd, strings, sd.constant(Nd4j.scalar(delimiter))).outputVariables();
+        return sd.updateVariableNamesAndReferences(out, names);
+    }
+
+    /**
+     * Convert each string of the input to lower case
+     *
+     * @param name    May be null. Name for the output variable
+     * @param strings String variable
+     * @return String variable of the same shape
+     */
+    public SDVariable lower(String name, @NonNull SDVariable strings) {
+        SDVariable out = new StringLower(sd, strings).outputVariable();
+        return updateVariableNameAndReference(out, name);
+    }
+
+    /**
+     * Replace all matches of regular expression (ECMAScript syntax) within each string of the input
+     *
+     * @param name    May be null. Name for the output variable
+     * @param strings String variable
+     * @param pattern Regular expression
+     * @param rewrite Replacement, may contain references to groups, i.e. $1
+     * @return String variable of the same shape
+     */
+    public SDVariable regexReplace(String name, @NonNull SDVariable strings, @NonNull String pattern, @NonNull String rewrite) {
+        SDVariable out = new RegexReplace(sd, strings, sd.constant(Nd4j.scalar(pattern)), sd.constant(Nd4j.scalar(rewrite)), true).outputVariable();
+        return updateVariableNameAndReference(out, name);
+    }
+
+    /**
+     * Map each string of the input to its index within vocabulary
+     *
+     * @param name         May be null. Name for the output variable
+     * @param strings      String variable
+     * @param vocabulary   Vector of strings
+     * @param defaultIndex Index for strings missing from vocabulary
+     * @return INT64 variable of the same shape as input
+     */
+    public SDVariable toIndex(String name, @NonNull SDVariable strings, @NonNull SDVariable vocabulary, long defaultIndex) {
+        SDVariable out = new StringToIndex(sd, strings, vocabulary, defaultIndex).outputVariable();
+        return updateVariableNameAndReference(out, name);
+    }
+
+    /**
+     * Hash n-grams of consecutive tokens into fixed number of buckets
+     *
+     * @param name       May be null. Name for the output variable
+     * @param tokens     String variable, with shape [numTokens] or [batch, numTokens]
+     * @param n          Number of tokens per n-gram
+     * @param numBuckets Number of hash buckets
+     * @return INT64 variable, with shape [numTokens - n + 1] or [batch, numTokens - n + 1]
+     */
+    public SDVariable ngramHash(String name, @NonNull SDVariable tokens, int n, long numBuckets) {
+        SDVariable out = new StringNGramHash(sd, tokens, n, numBuckets).outputVariable();
+        return updateVariableNameAndReference(out, name);
+    }
+}
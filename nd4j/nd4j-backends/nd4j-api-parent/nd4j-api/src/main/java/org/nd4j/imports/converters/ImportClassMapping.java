@@ -174,6 +174,7 @@ public class ImportClassMapping {
             org.nd4j.linalg.api.ops.impl.reduce.HashCode.class,
             org.nd4j.linalg.api.ops.impl.reduce.Mmul.class,
             org.nd4j.linalg.api.ops.impl.reduce.MmulBp.class,
+            org.nd4j.linalg.api.ops.impl.reduce.MmulInt8.class,
             org.nd4j.linalg.api.ops.impl.reduce.Moments.class,
             org.nd4j.linalg.api.ops.impl.reduce.NormalizeMoments.class,
             org.nd4j.linalg.api.ops.impl.reduce.SufficientStatistics.class,
@@ -566,6 +567,7 @@ public class ImportClassMapping {
             org.nd4j.linalg.api.ops.impl.transforms.strict.TanDerivative.class,
             org.nd4j.linalg.api.ops.impl.transforms.strict.Tanh.class,
             org.nd4j.linalg.api.ops.impl.transforms.strict.TanhDerivative.class,
+            org.nd4j.linalg.api.ops.impl.updaters.FusedUpdater.class,
             org.nd4j.linalg.api.ops.persistence.RestoreV2.class,
             org.nd4j.linalg.api.ops.persistence.SaveV2.class,
             org.nd4j.linalg.api.ops.random.compat.RandomStandardNormal.class,
@@ -594,6 +596,10 @@ public class ImportClassMapping {
             org.nd4j.linalg.api.ops.util.PrintVariable.class,
             org.nd4j.linalg.api.ops.compat.CompatSparseToDense.class,
             org.nd4j.linalg.api.ops.compat.CompatStringSplit.class,
+            org.nd4j.linalg.api.ops.impl.strings.RegexReplace.class,
+            org.nd4j.linalg.api.ops.impl.strings.StringLower.class,
+            org.nd4j.linalg.api.ops.impl.strings.StringNGramHash.class,
+            org.nd4j.linalg.api.ops.impl.strings.StringToIndex.class,
             org.nd4j.linalg.api.ops.custom.AdjustContrast.class,
             org.nd4j.linalg.api.ops.custom.AdjustContrastV2.class,
             org.nd4j.linalg.api.ops.custom.HsvToRgb.class,
@@ -19,6 +19,7 @@ package org.nd4j.linalg.api.memory;
 import lombok.val;
 import org.bytedeco.javacpp.Pointer;
 import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.memory.conf.PoolConfiguration;
 import org.nd4j.linalg.api.memory.enums.MemoryKind;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.performance.PerformanceTracker;
@@ -216,4 +217,20 @@ public abstract class BasicMemoryManager implements MemoryManager {
     public void releaseCurrentContext() {
         // no-op
     }
+
+    @Override
+    public void setPoolConfiguration(PoolConfiguration configuration) {
+        if (configuration != null)
+            throw new UnsupportedOperationException("Pooled allocation isn't available for this backend");
+    }
+
+    @Override
+    public PoolConfiguration getPoolConfiguration() {
+        return null;
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        return null;
+    }
 }
@@ -18,6 +18,7 @@ package org.nd4j.linalg.api.memory;
 
 import org.bytedeco.javacpp.Pointer;
 import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.memory.conf.PoolConfiguration;
 import org.nd4j.linalg.api.memory.enums.MemoryKind;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
@@ -196,4 +197,24 @@ public interface MemoryManager {
      * This method releases Context (if current backend has one, sure)
      */
     void releaseCurrentContext();
+
+    /**
+     * This method enables pooled allocation of off-heap memory for DataBuffers created outside of workspaces,
+     * with the specified configuration. Pass null to disable pooled allocation (default).
+     *
+     * PLEASE NOTE: Not all backends support pooled allocation
+     *
+     * @param configuration pool configuration, or null to disable pooling
+     */
+    void setPoolConfiguration(PoolConfiguration configuration);
+
+    /**
+     * This method returns current pool configuration, or null if pooled allocation is disabled
+     */
+    PoolConfiguration getPoolConfiguration();
+
+    /**
+     * This method returns statistics for pooled allocation, or null if pooled allocation is disabled
+     */
+    PoolStatistics getPoolStatistics();
 }
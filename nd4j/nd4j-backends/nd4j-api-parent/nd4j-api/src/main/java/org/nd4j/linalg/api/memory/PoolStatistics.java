@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.memory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of the statistics for pooled memory allocation.
+ * See {@link MemoryManager#getPoolStatistics()}
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolStatistics {
+    /**
+     * Number of pooled allocation requests (i.e., requests within pooled size range)
+     */
+    private long allocations;
+
+    /**
+     * Number of allocations served from the thread-local cache
+     */
+    private long threadCacheHits;
+
+    /**
+     * Number of allocations served from the shared pool
+     */
+    private long poolHits;
+
+    /**
+     * Number of allocations that required a new native allocation
+     */
+    private long misses;
+
+    /**
+     * Number of allocations that were too large to be pooled
+     */
+    private long unpooledAllocations;
+
+    /**
+     * Number of chunks returned to the pool via DataBuffer.close()
+     */
+    private long closeReturns;
+
+    /**
+     * Number of chunks returned to the pool once their DataBuffer was garbage collected
+     */
+    private long gcReturns;
+
+    /**
+     * Number of chunks that were released instead of being returned to the pool, because the pool was full
+     */
+    private long discards;
+
+    /**
+     * Number of bytes held by the pool, and not in use
+     */
+    private long cachedBytes;
+
+    /**
+     * Number of bytes (rounded up to size classes) currently in use
+     */
+    private long inUseBytes;
+
+    /**
+     * Number of bytes requested by the allocations currently in use
+     */
+    private long requestedBytes;
+
+    /**
+     * @return Fraction of pooled allocations that were served without a native allocation
+     */
+    public double getHitRate() {
+        return allocations == 0 ? 0.0 : (threadCacheHits + poolHits) / (double) allocations;
+    }
+
+    /**
+     * @return Internal fragmentation: fraction of the in-use bytes that are wasted due to size class rounding
+     */
+    public double getFragmentation() {
+        return inUseBytes == 0 ? 0.0 : 1.0 - requestedBytes / (double) inUseBytes;
+    }
+}
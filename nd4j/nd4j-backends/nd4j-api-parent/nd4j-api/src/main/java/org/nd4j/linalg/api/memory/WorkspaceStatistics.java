@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.memory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of the runtime statistics for a single workspace.
+ * See {@link org.nd4j.linalg.api.memory.abstracts.Nd4jWorkspace#getStatistics()}
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkspaceStatistics {
+    private String id;
+
+    /**
+     * Number of bytes currently allocated for workspace
+     */
+    private long currentSize;
+
+    /**
+     * Number of closed cycles (scopes)
+     */
+    private long cycles;
+
+    /**
+     * Number of bytes allocated during last full cycle
+     */
+    private long lastCycleAllocations;
+
+    /**
+     * Number of bytes allocated during biggest cycle so far
+     */
+    private long peakCycleAllocations;
+
+    /**
+     * Biggest cycle over recent cycles, as used by LearningPolicy.ADAPTIVE
+     */
+    private long rollingHighWaterMark;
+
+    /**
+     * Total number of allocations spilled outside of workspace (SpillPolicy.EXTERNAL or REALLOCATE), since creation
+     */
+    private long spilledAllocations;
+
+    /**
+     * Total number of bytes spilled outside of workspace, since creation
+     */
+    private long spilledBytes;
+
+    /**
+     * Total number of pinned allocations (circular workspaces only), since creation
+     */
+    private long pinnedAllocations;
+
+    /**
+     * Total number of pinned bytes (circular workspaces only), since creation
+     */
+    private long pinnedBytes;
+
+    /**
+     * Number of cycles that had at least one spilled or pinned allocation
+     */
+    private long spilledCycles;
+
+    /**
+     * Number of times workspace memory was reallocated after initial allocation
+     */
+    private long reallocations;
+
+    /**
+     * @return Fraction of workspace memory used during last full cycle. Values above 1.0 mean workspace spilled
+     */
+    public double getUtilization() {
+        return currentSize == 0 ? 0.0 : lastCycleAllocations / (double) currentSize;
+    }
+
+    /**
+     * @return Fraction of cycles that had spilled or pinned allocations
+     */
+    public double getSpillRate() {
+        return cycles == 0 ? 0.0 : spilledCycles / (double) cycles;
+    }
+}
@@ -24,6 +24,7 @@ import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.Pointer;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.WorkspaceStatistics;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.memory.enums.*;
 import org.nd4j.linalg.api.memory.pointers.PagedPointer;
@@ -124,6 +125,19 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
 
     protected AtomicLong generationId = new AtomicLong(0);
 
+    // cumulative counters, never reset. used for telemetry only
+    protected AtomicLong totalSpilledCount = new AtomicLong(0);
+    protected AtomicLong totalSpilledSize = new AtomicLong(0);
+    protected AtomicLong totalPinnedCount = new AtomicLong(0);
+    protected AtomicLong totalPinnedSize = new AtomicLong(0);
+    protected AtomicLong spilledCycles = new AtomicLong(0);
+    protected AtomicLong reallocationsCount = new AtomicLong(0);
+    protected AtomicBoolean cycleSpilled = new AtomicBoolean(false);
+
+    // allocations of recent cycles, used to calculate rolling high-water mark
+    protected long[] recentCycles;
+    protected int recentCyclesPosition = 0;
+
     // this memory manager implementation will be used to allocate real memory for this workspace
 
     public Nd4jWorkspace(@NonNull WorkspaceConfiguration configuration) {
@@ -137,6 +151,7 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
         this.guid = Nd4j.getWorkspaceManager().getUUID();
         this.memoryManager = Nd4j.getMemoryManager();
         this.deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        this.recentCycles = new long[Math.max(1, configuration.getAdaptiveWindow())];
 
         // and actual workspace allocation
         currentSize.set(workspaceConfiguration.getInitialSize());
@@ -399,10 +414,16 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             }
 
             // updating respective counters
-            if (!trimmer)
+            if (!trimmer) {
                 spilledAllocationsSize.addAndGet(requiredMemory);
-            else
+                totalSpilledSize.addAndGet(requiredMemory);
+                totalSpilledCount.incrementAndGet();
+            } else {
                 pinnedAllocationsSize.addAndGet(requiredMemory);
+                totalPinnedSize.addAndGet(requiredMemory);
+                totalPinnedCount.incrementAndGet();
+            }
+            cycleSpilled.set(true);
 
             if (isDebug.get())
                 log.info("Workspace [{}]: step: {}, spilled  {} bytes, capacity of {} elements", id, stepsCount.get(),
@@ -455,6 +476,7 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             if (workspaceConfiguration.getPolicyReset() != ResetPolicy.ENDOFBUFFER_REACHED) {
                 destroyWorkspace(true);
                 isInit.set(false);
+                reallocationsCount.incrementAndGet();
             }
         }
 
@@ -463,6 +485,7 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             destroyWorkspace(false);
             isInit.set(false);
             isOver.set(false);
+            reallocationsCount.incrementAndGet();
         }
 
         if (!isInit.get())
@@ -507,6 +530,95 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             }
     }
 
+    /**
+     * This method grows or shrinks workspace, according to rolling high-water mark over recent cycles.
+     * Workspace grows right after the cycle that spilled, and shrinks once it's oversized by
+     * WorkspaceConfiguration.shrinkThreshold factor over full window of cycles
+     */
+    protected void adaptWorkspaceSize() {
+        long hwm = getRollingHighWaterMark();
+        if (hwm == 0)
+            return;
+
+        long target = hwm;
+        if (workspaceConfiguration.getPolicyAllocation() == AllocationPolicy.OVERALLOCATE
+                        && workspaceConfiguration.getOverallocationLimit() > 0)
+            target += (long) (hwm * workspaceConfiguration.getOverallocationLimit());
+
+        if (workspaceConfiguration.getMaxSize() > 0)
+            target = Math.min(target, workspaceConfiguration.getMaxSize());
+
+        if (workspaceConfiguration.getMinSize() > 0)
+            target = Math.max(target, workspaceConfiguration.getMinSize());
+
+        // alignment to 8 bytes
+        if (target % 8 != 0)
+            target += 8 - (target % 8);
+
+        boolean grow = cycleAllocations.get() > currentSize.get() && target > currentSize.get();
+        boolean shrink = workspaceConfiguration.getShrinkThreshold() >= 1.0
+                        && cyclesCount.get() >= recentCycles.length
+                        && currentSize.get() > target * workspaceConfiguration.getShrinkThreshold();
+
+        if (grow || shrink)
+            resizeWorkspace(target);
+    }
+
+    /**
+     * This method reallocates workspace memory to the given size. All offsets are reset, and spilled allocations are purged
+     *
+     * PLEASE NOTE: Never call this method unless you realize all consequences
+     *
+     * @param newSize new workspace size, in bytes. Overallocation isn't applied
+     */
+    protected void resizeWorkspace(long newSize) {
+        if (isDebug.get())
+            log.info("Workspace [{}]: resizing from {} to {} bytes", id, currentSize.get(), newSize);
+
+        destroyWorkspace(true);
+        isInit.set(false);
+        isOver.set(true);
+
+        currentSize.set(newSize);
+        initialBlockSize.set(newSize);
+        init();
+
+        reallocationsCount.incrementAndGet();
+    }
+
+    /**
+     * This method returns number of bytes of biggest cycle, over last WorkspaceConfiguration.adaptiveWindow cycles
+     * @return
+     */
+    public long getRollingHighWaterMark() {
+        long max = 0;
+        for (long c : recentCycles)
+            max = Math.max(max, c);
+
+        return max;
+    }
+
+    /**
+     * This method returns snapshot of runtime statistics for this workspace
+     * @return
+     */
+    public WorkspaceStatistics getStatistics() {
+        return WorkspaceStatistics.builder()
+                .id(id)
+                .currentSize(currentSize.get())
+                .cycles(cyclesCount.get())
+                .lastCycleAllocations(lastCycleAllocations.get())
+                .peakCycleAllocations(maxCycle.get())
+                .rollingHighWaterMark(getRollingHighWaterMark())
+                .spilledAllocations(totalSpilledCount.get())
+                .spilledBytes(totalSpilledSize.get())
+                .pinnedAllocations(totalPinnedCount.get())
+                .pinnedBytes(totalPinnedSize.get())
+                .spilledCycles(spilledCycles.get())
+                .reallocations(reallocationsCount.get())
+                .build();
+    }
+
     /**
      * This method returns number of spilled allocations, that can be purged at the end of block
      * @return
@@ -628,6 +740,12 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
             maxCycle.set(cycleAllocations.get());
         }
 
+        recentCycles[recentCyclesPosition] = cycleAllocations.get();
+        recentCyclesPosition = (recentCyclesPosition + 1) % recentCycles.length;
+
+        if (cycleSpilled.getAndSet(false))
+            spilledCycles.incrementAndGet();
+
         // checking, if we should reallocate this workspace to higher amount of memory
         if (workspaceConfiguration.getPolicyLearning() != LearningPolicy.NONE && maxCycle.get() > 0) {
             //log.info("Delayed workspace {}, device_{} initialization starts...", id, Nd4j.getAffinityManager().getDeviceForCurrentThread());
@@ -641,7 +759,8 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
 
             if ((workspaceConfiguration.getPolicyLearning() == LearningPolicy.OVER_TIME
                             && workspaceConfiguration.getCyclesBeforeInitialization() == cyclesCount.intValue())
-                            || (workspaceConfiguration.getPolicyLearning() == LearningPolicy.FIRST_LOOP
+                            || ((workspaceConfiguration.getPolicyLearning() == LearningPolicy.FIRST_LOOP
+                                            || workspaceConfiguration.getPolicyLearning() == LearningPolicy.ADAPTIVE)
                                             && currentSize.get() == 0)) {
                 //log.info("Initializing on cycle {}", cyclesCount.get());
 
@@ -654,6 +773,11 @@ public abstract class Nd4jWorkspace implements MemoryWorkspace {
 
                 if (Nd4j.getWorkspaceManager().getDebugMode() != DebugMode.SPILL_EVERYTHING)
                     initializeWorkspace();
+            } else if (workspaceConfiguration.getPolicyLearning() == LearningPolicy.ADAPTIVE
+                            && workspaceConfiguration.getPolicyReset() != ResetPolicy.ENDOFBUFFER_REACHED
+                            && workspaceConfiguration.getPolicyLocation() == LocationPolicy.RAM
+                            && Nd4j.getWorkspaceManager().getDebugMode() != DebugMode.SPILL_EVERYTHING) {
+                adaptWorkspaceSize();
             }
         }
 
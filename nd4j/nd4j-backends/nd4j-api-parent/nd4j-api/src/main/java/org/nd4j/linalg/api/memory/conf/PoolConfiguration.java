@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.memory.conf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * This class is configuration bean for pooled allocation of off-heap memory for DataBuffers created outside of
+ * workspaces. See {@link org.nd4j.linalg.api.memory.MemoryManager#setPoolConfiguration(PoolConfiguration)}.
+ *
+ * Allocations are rounded up to power of 2 size classes. Chunks returned to the pool (either via DataBuffer.close(),
+ * or once the DataBuffer is garbage collected) are reused for subsequent allocations of the same size class.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolConfiguration implements Serializable {
+
+    /**
+     * Smallest size class, in bytes. Must be a power of 2
+     */
+    @Builder.Default protected long minChunkSize = 64;
+
+    /**
+     * Largest size class, in bytes. Must be a power of 2. Allocations larger than this are not pooled
+     */
+    @Builder.Default protected long maxChunkSize = 16L * 1024L * 1024L;
+
+    /**
+     * Maximum number of bytes held by the pool (not in use). Chunks returned to a full pool are released
+     */
+    @Builder.Default protected long maxCachedBytes = 256L * 1024L * 1024L;
+
+    /**
+     * Number of chunks per size class cached for each thread, in addition to the shared pool
+     */
+    @Builder.Default protected int threadCacheSize = 4;
+}
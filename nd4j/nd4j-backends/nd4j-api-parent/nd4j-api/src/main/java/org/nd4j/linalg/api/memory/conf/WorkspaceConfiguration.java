@@ -77,4 +77,16 @@ public class WorkspaceConfiguration implements Serializable {
      * This value is used only for circular workspaces
      */
     @Builder.Default protected int stepsNumber = 2;
+
+    /**
+     * For workspaces with LearningPolicy.ADAPTIVE, this variable defines how many recent cycles are used to calculate
+     * rolling high-water mark of workspace use
+     */
+    @Builder.Default protected int adaptiveWindow = 32;
+
+    /**
+     * For workspaces with LearningPolicy.ADAPTIVE, workspace is shrunk once its size exceeds rolling high-water mark
+     * (with overallocation applied) by this factor. Values below 1.0 disable shrinking.
+     */
+    @Builder.Default protected double shrinkThreshold = 2.0;
 }
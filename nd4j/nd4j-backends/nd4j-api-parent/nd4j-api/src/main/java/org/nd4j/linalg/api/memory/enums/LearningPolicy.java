@@ -37,4 +37,12 @@ public enum LearningPolicy {
      * This policy means - no learning is assumed, WorkspaceConfiguration.initialSize value will be primary determinant for workspace size
      */
     NONE,
+
+    /**
+     * This policy means - we learn during 1 cycle, same as FIRST_LOOP, but workspace size is adjusted afterwards:
+     * workspace grows right after the cycle that spilled, and shrinks once its size exceeds rolling high-water mark
+     * over last WorkspaceConfiguration.adaptiveWindow cycles by WorkspaceConfiguration.shrinkThreshold factor.
+     * Applicable to scoped workspaces only, circular workspaces fall back to FIRST_LOOP behavior.
+     */
+    ADAPTIVE,
 }
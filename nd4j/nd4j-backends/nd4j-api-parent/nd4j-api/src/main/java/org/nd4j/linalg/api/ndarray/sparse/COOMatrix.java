@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ndarray.sparse;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Sparse matrix in coordinate (COO) format: each value is stored along with its row and column index.<br>
+ * Values may be stored in any order. Duplicate (row, column) entries are allowed and are summed, both by
+ * {@link #toDense()} and by matrix multiplication.
+ */
+public class COOMatrix extends SparseMatrix {
+
+    @Getter
+    protected final INDArray rowIndices;
+    @Getter
+    protected final INDArray columnIndices;
+
+    /**
+     * @param values        Values, 1d floating point array of length nnz
+     * @param rowIndices    Row index for each value, 1d LONG array of length nnz
+     * @param columnIndices Column index for each value, 1d LONG array of length nnz
+     * @param rows          Number of rows
+     * @param columns       Number of columns
+     */
+    public COOMatrix(@NonNull INDArray values, @NonNull INDArray rowIndices, @NonNull INDArray columnIndices,
+                     long rows, long columns) {
+        super(values, rows, columns);
+        Preconditions.checkArgument(values.isEmpty() ? rowIndices.isEmpty() && columnIndices.isEmpty() :
+                        rowIndices.length() == values.length() && columnIndices.length() == values.length(),
+                "Values, row indices and column indices must have the same length: got %s values, %s row indices and %s column indices",
+                values.length(), rowIndices.length(), columnIndices.length());
+        this.rowIndices = rowIndices.isEmpty() ? rowIndices : rowIndices.castTo(DataType.LONG);
+        this.columnIndices = columnIndices.isEmpty() ? columnIndices : columnIndices.castTo(DataType.LONG);
+    }
+
+    /**
+     * Create a COO matrix from Java arrays
+     */
+    public static COOMatrix create(@NonNull double[] values, @NonNull long[] rowIndices, @NonNull long[] columnIndices,
+                                   long rows, long columns, DataType dataType) {
+        return new COOMatrix(Nd4j.createFromArray(values).castTo(dataType), Nd4j.createFromArray(rowIndices),
+                Nd4j.createFromArray(columnIndices), rows, columns);
+    }
+
+    @Override
+    public SparseFormat format() {
+        return SparseFormat.COO;
+    }
+
+    @Override
+    public INDArray rowIndices() {
+        return rowIndices;
+    }
+
+    @Override
+    public INDArray columnIndices() {
+        return columnIndices;
+    }
+
+    /**
+     * Convert to CSR format. Values are ordered by row; within each row, the original order is retained
+     */
+    @Override
+    public CSRMatrix toCSR() {
+        long[] rowPointers = new long[(int) rows + 1];
+        if (nnz() == 0) {
+            return new CSRMatrix(values, columnIndices, Nd4j.createFromArray(rowPointers), rows, columns);
+        }
+
+        //Counting sort by row
+        long[] r = rowIndices.toLongVector();
+        for (long row : r) {
+            Preconditions.checkState(row >= 0 && row < rows, "Invalid row index %s for matrix with %s rows", row, rows);
+            rowPointers[(int) row + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            rowPointers[i + 1] += rowPointers[i];
+        }
+
+        long[] next = new long[(int) rows];
+        System.arraycopy(rowPointers, 0, next, 0, (int) rows);
+        long[] positions = new long[r.length];
+        for (int i = 0; i < r.length; i++) {
+            positions[(int) next[(int) r[i]]++] = i;
+        }
+
+        INDArray pos = Nd4j.createFromArray(positions);
+        return new CSRMatrix(CSRMatrix.gather(values, pos), CSRMatrix.gather(columnIndices, pos),
+                Nd4j.createFromArray(rowPointers), rows, columns);
+    }
+
+    @Override
+    public COOMatrix toCOO() {
+        return this;
+    }
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ndarray.sparse;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sparse matrix in compressed sparse row (CSR) format.<br>
+ * Values and column indices are stored ordered by row; row pointers (length rows+1) give the offset of the first value
+ * of each row: the values for row i are in positions rowPointers[i] (inclusive) to rowPointers[i+1] (exclusive).
+ */
+public class CSRMatrix extends SparseMatrix {
+
+    @Getter
+    protected final INDArray columnIndices;
+    @Getter
+    protected final INDArray rowPointers;
+    protected transient INDArray rowIndices;
+
+    /**
+     * @param values        Values, 1d floating point array of length nnz
+     * @param columnIndices Column index for each value, 1d LONG array of length nnz
+     * @param rowPointers   Row pointers, 1d LONG array of length rows+1
+     * @param rows          Number of rows
+     * @param columns       Number of columns
+     */
+    public CSRMatrix(@NonNull INDArray values, @NonNull INDArray columnIndices, @NonNull INDArray rowPointers,
+                     long rows, long columns) {
+        super(values, rows, columns);
+        Preconditions.checkArgument(values.isEmpty() ? columnIndices.isEmpty() : columnIndices.length() == values.length(),
+                "Values and column indices must have the same length: got %s values and %s column indices", values.length(), columnIndices.length());
+        Preconditions.checkArgument(rowPointers.length() == rows + 1, "Row pointers must have length rows+1 = %s, got %s",
+                rows + 1, rowPointers.length());
+        this.columnIndices = columnIndices.isEmpty() ? columnIndices : columnIndices.castTo(DataType.LONG);
+        this.rowPointers = rowPointers.castTo(DataType.LONG);
+    }
+
+    /**
+     * Create a CSR matrix from Java arrays
+     */
+    public static CSRMatrix create(@NonNull double[] values, @NonNull long[] columnIndices, @NonNull long[] rowPointers,
+                                   long columns, DataType dataType) {
+        return new CSRMatrix(Nd4j.createFromArray(values).castTo(dataType), Nd4j.createFromArray(columnIndices),
+                Nd4j.createFromArray(rowPointers), rowPointers.length - 1, columns);
+    }
+
+    @Override
+    public SparseFormat format() {
+        return SparseFormat.CSR;
+    }
+
+    @Override
+    public INDArray columnIndices() {
+        return columnIndices;
+    }
+
+    @Override
+    public synchronized INDArray rowIndices() {
+        if (rowIndices == null && nnz() > 0) {
+            long[] ptr = rowPointers.toLongVector();
+            long[] idx = new long[(int) nnz()];
+            for (int r = 0; r < rows; r++) {
+                Arrays.fill(idx, (int) ptr[r], (int) ptr[r + 1], r);
+            }
+            rowIndices = Nd4j.createFromArray(idx);
+        }
+        return rowIndices;
+    }
+
+    @Override
+    public CSRMatrix toCSR() {
+        return this;
+    }
+
+    @Override
+    public COOMatrix toCOO() {
+        return new COOMatrix(values, rowIndices(), columnIndices, rows, columns);
+    }
+
+    /**
+     * @return Number of stored values in the specified row
+     */
+    public long rowNnz(long row) {
+        Preconditions.checkArgument(row >= 0 && row < rows, "Invalid row index %s for matrix with %s rows", row, rows);
+        return rowPointers.getLong(row + 1) - rowPointers.getLong(row);
+    }
+
+    @Override
+    public CSRMatrix getRows(@NonNull long... rows) {
+        long[] ptr = rowPointers.toLongVector();
+        long[] outPtr = new long[rows.length + 1];
+        for (int i = 0; i < rows.length; i++) {
+            Preconditions.checkArgument(rows[i] >= 0 && rows[i] < this.rows, "Invalid row index %s for matrix with %s rows",
+                    rows[i], this.rows);
+            int r = (int) rows[i];
+            outPtr[i + 1] = outPtr[i] + (ptr[r + 1] - ptr[r]);
+        }
+
+        long outNnz = outPtr[rows.length];
+        if (outNnz == 0) {
+            return new CSRMatrix(Nd4j.empty(dataType()), Nd4j.empty(DataType.LONG), Nd4j.createFromArray(outPtr), rows.length, columns);
+        }
+
+        //Positions of the values to keep, in this matrix
+        long[] positions = new long[(int) outNnz];
+        for (int i = 0; i < rows.length; i++) {
+            int r = (int) rows[i];
+            for (long j = ptr[r]; j < ptr[r + 1]; j++) {
+                positions[(int) (outPtr[i] + j - ptr[r])] = j;
+            }
+        }
+
+        INDArray pos = Nd4j.createFromArray(positions);
+        return new CSRMatrix(gather(values, pos), gather(columnIndices, pos), Nd4j.createFromArray(outPtr), rows.length, columns);
+    }
+
+    protected static INDArray gather(INDArray from, INDArray positions) {
+        INDArray out = Nd4j.createUninitialized(from.dataType(), positions.length());
+        Nd4j.exec(DynamicCustomOp.builder("gather")
+                .addInputs(from, positions)
+                .addIntegerArguments(0)
+                .addOutputs(out)
+                .build());
+        return out;
+    }
+
+    /**
+     * Create a CSR matrix from the non-zero values of the specified dense matrix
+     *
+     * @param dense Dense matrix (rank 2, floating point)
+     * @return CSR matrix
+     */
+    public static CSRMatrix fromDense(@NonNull INDArray dense) {
+        Preconditions.checkArgument(dense.rank() == 2, "Expected rank 2 array, got array with shape %ndShape", dense);
+        Preconditions.checkArgument(dense.dataType().isFPType(), "Expected floating point array, got %s", dense.dataType());
+
+        long rows = dense.size(0);
+        long columns = dense.size(1);
+        //Single bulk copy of the (c order) values, then one pass to find the non-zero positions
+        double[] d = dense.dup('c').reshape(rows * columns).toDoubleVector();
+        long[] rowPointers = new long[(int) rows + 1];
+        long[] cols = new long[16];
+        double[] vals = new double[16];
+        int nnz = 0;
+        int pos = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++, pos++) {
+                if (d[pos] != 0.0) {
+                    if (nnz == vals.length) {
+                        vals = Arrays.copyOf(vals, 2 * nnz);
+                        cols = Arrays.copyOf(cols, 2 * nnz);
+                    }
+                    vals[nnz] = d[pos];
+                    cols[nnz++] = c;
+                }
+            }
+            rowPointers[r + 1] = nnz;
+        }
+
+        return create(Arrays.copyOf(vals, nnz), Arrays.copyOf(cols, nnz), rowPointers, dense.size(1), dense.dataType());
+    }
+
+    /**
+     * Stack the specified CSR matrices vertically (i.e., concatenate rows). All matrices must have the same number of
+     * columns and the same data type
+     *
+     * @param matrices Matrices to stack
+     * @return Stacked matrix
+     */
+    public static CSRMatrix vstack(@NonNull List<CSRMatrix> matrices) {
+        Preconditions.checkArgument(!matrices.isEmpty(), "Cannot stack empty list of matrices");
+        long columns = matrices.get(0).columns();
+        DataType dataType = matrices.get(0).dataType();
+
+        long totalRows = 0;
+        for (CSRMatrix m : matrices) {
+            Preconditions.checkArgument(m.columns() == columns, "All matrices must have the same number of columns: got %s and %s",
+                    columns, m.columns());
+            totalRows += m.rows();
+        }
+
+        long[] rowPointers = new long[(int) totalRows + 1];
+        List<INDArray> values = new ArrayList<>();
+        List<INDArray> colIdxs = new ArrayList<>();
+        int row = 0;
+        long offset = 0;
+        for (CSRMatrix m : matrices) {
+            long[] ptr = m.getRowPointers().toLongVector();
+            for (int i = 1; i < ptr.length; i++) {
+                rowPointers[++row] = offset + ptr[i];
+            }
+            if (m.nnz() > 0) {
+                values.add(m.getValues().castTo(dataType));
+                colIdxs.add(m.getColumnIndices());
+                offset += m.nnz();
+            }
+        }
+
+        if (values.isEmpty()) {
+            return new CSRMatrix(Nd4j.empty(dataType), Nd4j.empty(DataType.LONG), Nd4j.createFromArray(rowPointers), totalRows, columns);
+        }
+
+        INDArray v = values.size() == 1 ? values.get(0) : Nd4j.concat(0, values.toArray(new INDArray[0]));
+        INDArray c = colIdxs.size() == 1 ? colIdxs.get(0) : Nd4j.concat(0, colIdxs.toArray(new INDArray[0]));
+        return new CSRMatrix(v, c, Nd4j.createFromArray(rowPointers), totalRows, columns);
+    }
+}
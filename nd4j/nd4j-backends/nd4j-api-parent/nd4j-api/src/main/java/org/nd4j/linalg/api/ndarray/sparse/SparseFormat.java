@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ndarray.sparse;
+
+/**
+ * Storage format for {@link SparseMatrix} instances.<br>
+ * CSR: compressed sparse row - values and column indices, ordered by row, plus row pointers (offsets into the values
+ * for each row). Efficient row access.<br>
+ * COO: coordinate format - values plus row and column index for each value, in any order. Efficient construction.
+ */
+public enum SparseFormat {
+    CSR,
+    COO
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ndarray.sparse;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+
+/**
+ * A 2d sparse matrix: only the non-zero values are stored, along with their positions. See {@link CSRMatrix} and
+ * {@link COOMatrix} for the supported storage formats.<br>
+ * Values are stored as a 1d {@link INDArray} (of any floating point type), and indices are stored as 1d LONG arrays.
+ * Sparse matrices are immutable: operations such as {@link #getRows(long...)} return new instances, though these may
+ * share index/value arrays with the original.<br>
+ * Sparse x dense matrix multiplication ({@link #mmul(INDArray)}, {@link #transposeMmul(INDArray)}) is implemented as
+ * a gather of the required rows of the dense matrix, scaled by the sparse values, followed by a segment sum - i.e.,
+ * the cost is proportional to the number of non-zero values, not the size of the sparse matrix.
+ */
+public abstract class SparseMatrix implements Serializable {
+
+    protected final long rows;
+    protected final long columns;
+    @Getter
+    protected final INDArray values;
+
+    protected SparseMatrix(@NonNull INDArray values, long rows, long columns) {
+        Preconditions.checkArgument(values.isEmpty() || values.rank() == 1, "Values must be a 1d array, got array with shape %ndShape", values);
+        Preconditions.checkArgument(values.isEmpty() || values.dataType().isFPType(), "Values must be a floating point array, got %s", values.dataType());
+        Preconditions.checkArgument(rows >= 0 && columns >= 0, "Invalid shape: [%s, %s]", rows, columns);
+        this.values = values;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * @return Storage format of this matrix
+     */
+    public abstract SparseFormat format();
+
+    /**
+     * @return Row index for each value, as a 1d LONG array of length {@link #nnz()}. Undefined if nnz is 0
+     */
+    public abstract INDArray rowIndices();
+
+    /**
+     * @return Column index for each value, as a 1d LONG array of length {@link #nnz()}. Undefined if nnz is 0
+     */
+    public abstract INDArray columnIndices();
+
+    /**
+     * @return This matrix in CSR format
+     */
+    public abstract CSRMatrix toCSR();
+
+    /**
+     * @return This matrix in COO format
+     */
+    public abstract COOMatrix toCOO();
+
+    /**
+     * @return Number of stored (non-zero) values
+     */
+    public long nnz() {
+        return values.isEmpty() ? 0 : values.length();
+    }
+
+    /**
+     * @return Number of rows
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return Number of columns
+     */
+    public long columns() {
+        return columns;
+    }
+
+    /**
+     * @return Shape of the matrix: [rows, columns]
+     */
+    public long[] shape() {
+        return new long[]{rows, columns};
+    }
+
+    /**
+     * @return Data type of the values
+     */
+    public DataType dataType() {
+        return values.dataType();
+    }
+
+    /**
+     * @return Fraction of the elements that are stored (non-zero), in range 0 to 1
+     */
+    public double density() {
+        long n = rows * columns;
+        return n == 0 ? 0.0 : nnz() / (double) n;
+    }
+
+    /**
+     * Get the specified rows of this matrix, as a new sparse matrix with shape [rows.length, columns()]
+     *
+     * @param rows Rows to get. May contain duplicates
+     * @return Sparse matrix with the specified rows
+     */
+    public SparseMatrix getRows(long... rows) {
+        return toCSR().getRows(rows);
+    }
+
+    /**
+     * @return This matrix as a dense, c order array
+     */
+    public INDArray toDense() {
+        INDArray out = Nd4j.create(dataType(), rows * columns);
+        if (nnz() == 0)
+            return out.reshape('c', rows, columns);
+
+        //Position of each value in the flattened (c order) output; duplicate positions (COO) are summed
+        INDArray linearIdx = rowIndices().mul(columns).addi(columnIndices());
+        Nd4j.exec(DynamicCustomOp.builder("unsorted_segment_sum")
+                .addInputs(values, linearIdx)
+                .addIntegerArguments(rows * columns)
+                .addOutputs(out)
+                .build());
+        return out.reshape('c', rows, columns);
+    }
+
+    /**
+     * Sparse x dense matrix multiplication: this * other
+     *
+     * @param other Dense matrix, shape [columns(), n]
+     * @return Dense result, shape [rows(), n]
+     */
+    public INDArray mmul(@NonNull INDArray other) {
+        return mmul(other, Nd4j.createUninitialized(other.dataType(), rows, other.size(1)));
+    }
+
+    /**
+     * Sparse x dense matrix multiplication: this * other, with the result placed in the specified array
+     *
+     * @param other  Dense matrix, shape [columns(), n]
+     * @param result Result array, shape [rows(), n]
+     * @return The result array
+     */
+    public INDArray mmul(@NonNull INDArray other, @NonNull INDArray result) {
+        Preconditions.checkArgument(other.rank() == 2 && other.size(0) == columns, "Cannot multiply sparse matrix " +
+                "with shape [%s, %s] by dense matrix with shape %ndShape", rows, columns, other);
+        Preconditions.checkArgument(result.rank() == 2 && result.size(0) == rows && result.size(1) == other.size(1),
+                "Invalid result array shape: expected [%s, %s], got %ndShape", rows, other.size(1), result);
+        return gatherScaleSegmentSum(other, columnIndices(), rowIndices(), result);
+    }
+
+    /**
+     * Transposed sparse x dense matrix multiplication: this^T * other. This is the operation required to compute
+     * the weight gradients for a layer with sparse input.
+     *
+     * @param other Dense matrix, shape [rows(), n]
+     * @return Dense result, shape [columns(), n]
+     */
+    public INDArray transposeMmul(@NonNull INDArray other) {
+        return transposeMmul(other, Nd4j.createUninitialized(other.dataType(), columns, other.size(1)));
+    }
+
+    /**
+     * Transposed sparse x dense matrix multiplication: this^T * other, with the result placed in the specified array
+     *
+     * @param other  Dense matrix, shape [rows(), n]
+     * @param result Result array, shape [columns(), n]
+     * @return The result array
+     */
+    public INDArray transposeMmul(@NonNull INDArray other, @NonNull INDArray result) {
+        Preconditions.checkArgument(other.rank() == 2 && other.size(0) == rows, "Cannot multiply transposed sparse " +
+                "matrix with shape [%s, %s] by dense matrix with shape %ndShape", rows, columns, other);
+        Preconditions.checkArgument(result.rank() == 2 && result.size(0) == columns && result.size(1) == other.size(1),
+                "Invalid result array shape: expected [%s, %s], got %ndShape", columns, other.size(1), result);
+        return gatherScaleSegmentSum(other, rowIndices(), columnIndices(), result);
+    }
+
+    /**
+     * out[segment[i], :] = sum_i values[i] * dense[gather[i], :], for all stored values i
+     */
+    protected INDArray gatherScaleSegmentSum(INDArray dense, INDArray gatherIdx, INDArray segmentIdx, INDArray out) {
+        long nnz = nnz();
+        if (nnz == 0)
+            return out.assign(0);
+
+        INDArray gathered = Nd4j.createUninitialized(dense.dataType(), nnz, dense.size(1));
+        Nd4j.exec(DynamicCustomOp.builder("gather")
+                .addInputs(dense, gatherIdx)
+                .addIntegerArguments(0)
+                .addOutputs(gathered)
+                .build());
+
+        gathered.muliColumnVector(values.castTo(dense.dataType()).reshape(nnz, 1));
+
+        Nd4j.exec(DynamicCustomOp.builder("unsorted_segment_sum")
+                .addInputs(gathered, segmentIdx)
+                .addIntegerArguments(out.size(0))
+                .addOutputs(out)
+                .build());
+        return out;
+    }
+
+    /**
+     * Create a sparse matrix (CSR format) from the non-zero values of the specified dense matrix
+     *
+     * @param dense Dense matrix (rank 2, floating point)
+     * @return Sparse matrix
+     */
+    public static CSRMatrix fromDense(@NonNull INDArray dense) {
+        return CSRMatrix.fromDense(dense);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(shape=[" + rows + "," + columns + "],nnz=" + nnz() + ",dataType=" + dataType() + ")";
+    }
+}
@@ -16,10 +16,17 @@
 
 package org.nd4j.linalg.api.ops.compat;
 
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
 import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.DynamicCustomOp;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * This is a wrapper for StringSplit op that impelements corresponding TF operation
  *
@@ -44,8 +51,18 @@ public class CompatStringSplit extends DynamicCustomOp {
         outputArguments.add(values);
     }
 
+    public CompatStringSplit(@NonNull SameDiff sameDiff, @NonNull SDVariable strings, @NonNull SDVariable delimiter) {
+        super("", sameDiff, new SDVariable[]{strings, delimiter});
+    }
+
     @Override
     public String opName() {
         return "compat_string_split";
     }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> inputDataTypes){
+        Preconditions.checkState(inputDataTypes != null && inputDataTypes.size() == 2, "Expected 2 input data types for %s, got %s", getClass(), inputDataTypes);
+        return Arrays.asList(DataType.INT64, inputDataTypes.get(0));
+    }
 }
@@ -41,6 +41,7 @@ import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.primitives.AtomicBoolean;
 import org.nd4j.linalg.primitives.Optional;
+import org.nd4j.linalg.profiler.OpMetrics;
 import org.nd4j.linalg.profiler.OpProfiler;
 import org.nd4j.linalg.profiler.ProfilerConfig;
 import org.nd4j.linalg.util.ArrayUtil;
@@ -224,6 +225,12 @@ public class DefaultOpExecutioner implements OpExecutioner {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void exec(OpBatch batch) {
+        for (Op op : batch.getOps())
+            exec(op);
+    }
+
     /**
      * This method executes specified RandomOp using default RNG available via Nd4j.getRandom()
      *
@@ -510,6 +517,8 @@ public class DefaultOpExecutioner implements OpExecutioner {
 
 
     public void profilingConfigurableHookOut(Op op, long timeStart) {
+        OpMetrics.getInstance().record(op, timeStart);
+
         if (OpProfiler.getInstance().getConfig() == null)
             return;
 
@@ -543,6 +552,8 @@ public class DefaultOpExecutioner implements OpExecutioner {
     }
 
     public void profilingConfigurableHookOut(CustomOp op, long timeStart) {
+        OpMetrics.getInstance().record(op, timeStart);
+
         if (OpProfiler.getInstance().getConfig() == null)
             return;
 
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.executioner;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.ops.BroadcastOp;
+import org.nd4j.linalg.api.ops.Op;
+import org.nd4j.linalg.api.ops.ScalarOp;
+import org.nd4j.linalg.api.ops.TransformOp;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequence of ops, recorded once and submitted for execution as a whole, possibly many times.
+ *
+ * Shapes, lengths and data types of all ops are validated once, when op is added to the batch. Backends may
+ * additionally precompute everything required for native calls (buffers, shape descriptors, extra arguments) on first
+ * submission, and reuse it for subsequent submissions. The CPU backend packs consecutive scalar, transform, pairwise
+ * and broadcast ops into a single native call, so the JNI overhead is paid once per run of such ops, instead of
+ * once per op. Other ops are executed one by one, in order.
+ *
+ * Ops are executed in the order they were added. Arrays used by ops must stay valid (i.e. not closed, and not reset
+ * by a workspace) while the batch is used. All ops must have Z arrays defined.
+ */
+public class OpBatch {
+    private final List<Op> ops;
+
+    /**
+     * Backend-specific execution plan for this batch, built on first submission. Reset whenever batch is modified
+     */
+    @Getter
+    @Setter
+    private volatile Object executionPlan;
+
+    public OpBatch() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize expected number of ops in this batch
+     */
+    public OpBatch(int expectedSize) {
+        this.ops = new ArrayList<>(expectedSize);
+    }
+
+    /**
+     * This method validates op, and appends it to the end of this batch
+     *
+     * @param op op to be added
+     * @return this batch
+     */
+    public OpBatch add(@NonNull Op op) {
+        validate(op);
+        ops.add(op);
+        executionPlan = null;
+        return this;
+    }
+
+    /**
+     * This method appends all given ops to the end of this batch
+     */
+    public OpBatch addAll(@NonNull Op... ops) {
+        for (Op op : ops)
+            add(op);
+        return this;
+    }
+
+    /**
+     * @return unmodifiable list of ops in this batch
+     */
+    public List<Op> getOps() {
+        return Collections.unmodifiableList(ops);
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    /**
+     * This method removes all ops from this batch
+     */
+    public void clear() {
+        ops.clear();
+        executionPlan = null;
+    }
+
+    /**
+     * This method executes all ops in this batch, using current OpExecutioner
+     */
+    public void submit() {
+        Nd4j.getExecutioner().exec(this);
+    }
+
+    protected static void validate(Op op) {
+        Preconditions.checkArgument(op.x() != null, "Op.X must be defined for batched op %s", op.opName());
+        Preconditions.checkArgument(op.z() != null, "Op.Z must be defined for batched op %s", op.opName());
+        Preconditions.checkArgument(!op.x().isEmpty() && !op.z().isEmpty(), "Batched op %s can't use empty arrays", op.opName());
+
+        boolean experimental = Nd4j.getExecutioner().isExperimentalMode();
+        if (op instanceof BroadcastOp) {
+            ((BroadcastOp) op).validateDataTypes(experimental);
+            return;
+        }
+
+        if (op instanceof ScalarOp || op instanceof TransformOp) {
+            Preconditions.checkArgument(op.x().length() == op.z().length(), "Op.X and Op.Z must have the same length for batched op %s, got %s and %s",
+                    op.opName(), op.x().length(), op.z().length());
+            if (op instanceof TransformOp && op.y() != null)
+                Preconditions.checkArgument(op.x().length() == op.y().length(), "Op.X and Op.Y must have the same length for batched op %s, got %s and %s",
+                        op.opName(), op.x().length(), op.y().length());
+
+            if (op instanceof ScalarOp)
+                ((ScalarOp) op).validateDataTypes(experimental);
+            else
+                ((TransformOp) op).validateDataTypes(experimental);
+        }
+    }
+}
@@ -216,6 +216,13 @@ public interface OpExecutioner {
      */
     void exec(List<Aggregate> batch);
 
+    /**
+     * This method executes all ops from the given batch, in order
+     *
+     * @param batch batch of ops
+     */
+    void exec(OpBatch batch);
+
     /**
      * This method executes specified RandomOp using default RNG available via Nd4j.getRandom()
      *
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.impl.reduce;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.base.Preconditions;
+import org.nd4j.imports.NoOpNameFoundException;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Int8 matrix multiplication with int32 accumulation, for quantized inference: z = x * w^T<br>
+ * x has shape [M, K], w has shape [N, K] (i.e., one row per output column), both of type BYTE (int8).
+ * Output has shape [M, N] and type INT (int32).
+ */
+@NoArgsConstructor
+public class MmulInt8 extends DynamicCustomOp {
+
+    public MmulInt8(SameDiff sameDiff, SDVariable x, SDVariable w) {
+        super(null, sameDiff, new SDVariable[] {x, w}, false);
+    }
+
+    public MmulInt8(@NonNull INDArray x, @NonNull INDArray w) {
+        this(x, w, null);
+    }
+
+    public MmulInt8(@NonNull INDArray x, @NonNull INDArray w, INDArray z) {
+        super(new INDArray[]{x, w}, z == null ? null : new INDArray[]{z});
+        Preconditions.checkArgument(x.dataType() == DataType.BYTE && w.dataType() == DataType.BYTE,
+                "Both inputs must be of type BYTE, got %s and %s", x.dataType(), w.dataType());
+        Preconditions.checkArgument(x.rank() == 2 && w.rank() == 2 && x.size(1) == w.size(1),
+                "Expected inputs with shapes [M,K] and [N,K], got %ndShape and %ndShape", x, w);
+    }
+
+    @Override
+    public String opName() {
+        return "matmul_int8";
+    }
+
+    @Override
+    public String onnxName() {
+        throw new NoOpNameFoundException("No onnx name found for shape " + opName());
+    }
+
+    @Override
+    public String tensorflowName() {
+        throw new NoOpNameFoundException("No tf name found for shape " + opName());
+    }
+
+    @Override
+    public List<SDVariable> doDiff(List<SDVariable> grad) {
+        throw new UnsupportedOperationException("Backprop is not supported for " + getClass().getSimpleName() + ": inference only");
+    }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> dataTypes){
+        Preconditions.checkState(dataTypes != null && dataTypes.size() == 2, "Expected 2 datatypes for %s, got %s", getClass(), dataTypes);
+        return Collections.singletonList(DataType.INT);
+    }
+}
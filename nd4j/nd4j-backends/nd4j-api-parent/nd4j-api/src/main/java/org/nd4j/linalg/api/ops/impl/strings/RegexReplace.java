@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.impl.strings;
+
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replaces matches of regular expression (ECMAScript syntax) within each string of input array
+ */
+public class RegexReplace extends DynamicCustomOp {
+
+    public RegexReplace() {
+        //
+    }
+
+    public RegexReplace(@NonNull INDArray strings, @NonNull String pattern, @NonNull String rewrite, boolean replaceGlobal) {
+        this(strings, Nd4j.scalar(pattern), Nd4j.scalar(rewrite), replaceGlobal);
+    }
+
+    public RegexReplace(@NonNull INDArray strings, @NonNull INDArray pattern, @NonNull INDArray rewrite, boolean replaceGlobal) {
+        Preconditions.checkArgument(strings.isS() && pattern.isS() && rewrite.isS(), "Input arrays must have one of UTF types");
+        addInputArgument(strings, pattern, rewrite);
+        addBArgument(replaceGlobal);
+    }
+
+    public RegexReplace(@NonNull SameDiff sameDiff, @NonNull SDVariable strings, @NonNull SDVariable pattern,
+                        @NonNull SDVariable rewrite, boolean replaceGlobal) {
+        super("", sameDiff, new SDVariable[]{strings, pattern, rewrite});
+        addBArgument(replaceGlobal);
+    }
+
+    @Override
+    public String opName() {
+        return "regex_replace";
+    }
+
+    @Override
+    public String tensorflowName() {
+        return "RegexReplace";
+    }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> inputDataTypes){
+        Preconditions.checkState(inputDataTypes != null && inputDataTypes.size() == 3, "Expected 3 input data types for %s, got %s", getClass(), inputDataTypes);
+        return Collections.singletonList(inputDataTypes.get(0));
+    }
+}
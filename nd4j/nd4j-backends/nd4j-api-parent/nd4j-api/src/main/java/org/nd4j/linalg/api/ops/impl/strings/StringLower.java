@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.impl.strings;
+
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Converts all strings within input array to lower case
+ */
+public class StringLower extends DynamicCustomOp {
+
+    public StringLower() {
+        //
+    }
+
+    public StringLower(@NonNull INDArray strings) {
+        Preconditions.checkArgument(strings.isS(), "Input array must have one of UTF types, got %s", strings.dataType());
+        addInputArgument(strings);
+    }
+
+    public StringLower(@NonNull SameDiff sameDiff, @NonNull SDVariable strings) {
+        super("", sameDiff, new SDVariable[]{strings});
+    }
+
+    @Override
+    public String opName() {
+        return "string_lower";
+    }
+
+    @Override
+    public String tensorflowName() {
+        return "StringLower";
+    }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> inputDataTypes){
+        Preconditions.checkState(inputDataTypes != null && inputDataTypes.size() == 1, "Expected 1 input data type for %s, got %s", getClass(), inputDataTypes);
+        return Collections.singletonList(inputDataTypes.get(0));
+    }
+}
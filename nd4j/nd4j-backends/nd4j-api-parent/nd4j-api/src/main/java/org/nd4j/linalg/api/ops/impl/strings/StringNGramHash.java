@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.impl.strings;
+
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hashes n-grams of consecutive strings (tokens) into fixed number of buckets.
+ * Input is a string array with shape [numTokens] or [batch, numTokens], output is INT64 array with shape
+ * [numTokens - n + 1] or [batch, numTokens - n + 1], with values in range [0, numBuckets)
+ */
+public class StringNGramHash extends DynamicCustomOp {
+
+    public StringNGramHash() {
+        //
+    }
+
+    public StringNGramHash(@NonNull INDArray tokens, int n, long numBuckets) {
+        Preconditions.checkArgument(tokens.isS(), "Input array must have one of UTF types, got %s", tokens.dataType());
+        Preconditions.checkArgument(tokens.rank() == 1 || tokens.rank() == 2, "Input array must have rank 1 or 2, got array with shape %ndShape", tokens);
+        Preconditions.checkArgument(n > 0 && numBuckets > 0, "N and number of buckets must be positive, got %s and %s", n, numBuckets);
+        addInputArgument(tokens);
+        addIArgument(n, numBuckets);
+    }
+
+    public StringNGramHash(@NonNull SameDiff sameDiff, @NonNull SDVariable tokens, int n, long numBuckets) {
+        super("", sameDiff, new SDVariable[]{tokens});
+        Preconditions.checkArgument(n > 0 && numBuckets > 0, "N and number of buckets must be positive, got %s and %s", n, numBuckets);
+        addIArgument(n, numBuckets);
+    }
+
+    @Override
+    public String opName() {
+        return "string_ngram_hash";
+    }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> inputDataTypes){
+        Preconditions.checkState(inputDataTypes != null && inputDataTypes.size() == 1, "Expected 1 input data type for %s, got %s", getClass(), inputDataTypes);
+        return Collections.singletonList(DataType.INT64);
+    }
+}
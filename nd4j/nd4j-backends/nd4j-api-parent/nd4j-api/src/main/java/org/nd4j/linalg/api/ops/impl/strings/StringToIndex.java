@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.impl.strings;
+
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps each string of input array to its index within vocabulary. Strings missing from vocabulary are mapped to
+ * the provided default index. Output is INT64 array of the same shape as input
+ */
+public class StringToIndex extends DynamicCustomOp {
+
+    public StringToIndex() {
+        //
+    }
+
+    public StringToIndex(@NonNull INDArray strings, @NonNull INDArray vocabulary, long defaultIndex) {
+        Preconditions.checkArgument(strings.isS() && vocabulary.isS(), "Input arrays must have one of UTF types");
+        Preconditions.checkArgument(vocabulary.rank() <= 1, "Vocabulary must be a vector, got array with shape %ndShape", vocabulary);
+        addInputArgument(strings, vocabulary);
+        addIArgument(defaultIndex);
+    }
+
+    public StringToIndex(@NonNull SameDiff sameDiff, @NonNull SDVariable strings, @NonNull SDVariable vocabulary, long defaultIndex) {
+        super("", sameDiff, new SDVariable[]{strings, vocabulary});
+        addIArgument(defaultIndex);
+    }
+
+    @Override
+    public String opName() {
+        return "string_to_index";
+    }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> inputDataTypes){
+        Preconditions.checkState(inputDataTypes != null && inputDataTypes.size() == 2, "Expected 2 input data types for %s, got %s", getClass(), inputDataTypes);
+        return Collections.singletonList(DataType.INT64);
+    }
+}
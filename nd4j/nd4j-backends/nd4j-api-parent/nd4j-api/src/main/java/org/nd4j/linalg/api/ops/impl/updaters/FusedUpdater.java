@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.impl.updaters;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.nd4j.autodiff.samediff.SDVariable;
+import org.nd4j.base.Preconditions;
+import org.nd4j.imports.NoOpNameFoundException;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.learning.config.*;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fused updater op: calculates the update for a (flattened) block of parameters in a single pass over the arrays,
+ * instead of one op per step. Equivalent to applying, in order:<br>
+ * - L1 and L2 regularization ({@link org.nd4j.linalg.learning.regularization.L1Regularization},
+ * {@link org.nd4j.linalg.learning.regularization.L2Regularization})<br>
+ * - The updater: {@link Adam}, {@link AdaMax}, {@link Nesterovs} or {@link RmsProp}<br>
+ * - Weight decay ({@link org.nd4j.linalg.learning.regularization.WeightDecay})<br>
+ * The gradient array is replaced by the update (i.e., params -= update should be applied afterwards) and the updater
+ * state arrays are modified in-place; the parameters are not modified.<br>
+ * The updater state arrays are as per the corresponding {@link org.nd4j.linalg.learning.GradientUpdater}: [m, v] for
+ * Adam, [m, u] for AdaMax, [v] for Nesterovs and [lastGradient] for RmsProp. All arrays must have the same length,
+ * data type and layout, with element-wise stride 1.
+ */
+@NoArgsConstructor
+public class FusedUpdater extends DynamicCustomOp {
+
+    /**
+     * Updater types supported by the fused updater op
+     */
+    public enum Type {ADAM, ADAMAX, NESTEROVS, RMSPROP}
+
+    /**
+     * @param gradient    Gradient. Replaced by the update (in-place)
+     * @param params      Parameters. Only used for regularization
+     * @param state       Updater state arrays, modified in-place
+     * @param config      Updater configuration. Must be supported - see {@link #typeFor(IUpdater)}
+     * @param iteration   Current iteration
+     * @param epoch       Current epoch
+     * @param l1          L1 regularization coefficient (0 for none)
+     * @param l2          L2 regularization coefficient (0 for none)
+     * @param weightDecay Weight decay coefficient (0 for none), already multiplied by the learning rate if applicable
+     */
+    public FusedUpdater(@NonNull INDArray gradient, @NonNull INDArray params, @NonNull INDArray[] state, @NonNull IUpdater config,
+                        int iteration, int epoch, double l1, double l2, double weightDecay) {
+        super(null, inputs(gradient, params, state), new INDArray[]{gradient});
+        Type type = typeFor(config);
+        Preconditions.checkArgument(type != null, "Updater configuration is not supported by fused updater op: %s", config);
+        int numStates = (type == Type.ADAM || type == Type.ADAMAX) ? 2 : 1;
+        Preconditions.checkArgument(state.length == numStates, "Expected %s updater state arrays for updater %s, got %s",
+                numStates, type, state.length);
+
+        addIArgument(type.ordinal(), iteration);
+        addTArgument(config.getLearningRate(iteration, epoch), l1, l2, weightDecay);
+        switch (type) {
+            case ADAM:
+                Adam adam = (Adam) config;
+                addTArgument(adam.getBeta1(), adam.getBeta2(), adam.getEpsilon());
+                break;
+            case ADAMAX:
+                AdaMax adaMax = (AdaMax) config;
+                addTArgument(adaMax.getBeta1(), adaMax.getBeta2(), adaMax.getEpsilon());
+                break;
+            case NESTEROVS:
+                addTArgument(((Nesterovs) config).currentMomentum(iteration, epoch));
+                break;
+            case RMSPROP:
+                RmsProp rmsProp = (RmsProp) config;
+                addTArgument(rmsProp.getRmsDecay(), rmsProp.getEpsilon());
+                break;
+        }
+    }
+
+    private static INDArray[] inputs(INDArray gradient, INDArray params, INDArray[] state) {
+        INDArray[] in = new INDArray[2 + state.length];
+        in[0] = gradient;
+        in[1] = params;
+        System.arraycopy(state, 0, in, 2, state.length);
+        return in;
+    }
+
+    /**
+     * @param config Updater configuration
+     * @return The fused updater type for the given configuration, or null if it is not supported
+     */
+    public static Type typeFor(IUpdater config) {
+        if (config == null)
+            return null;
+        //Exact classes only: subclasses may change the updater math
+        Class<?> c = config.getClass();
+        if (c == Adam.class)
+            return Type.ADAM;
+        if (c == AdaMax.class)
+            return Type.ADAMAX;
+        if (c == Nesterovs.class)
+            return Type.NESTEROVS;
+        if (c == RmsProp.class)
+            return Type.RMSPROP;
+        return null;
+    }
+
+    @Override
+    public String opName() {
+        return "fused_updater";
+    }
+
+    @Override
+    public String onnxName() {
+        throw new NoOpNameFoundException("No onnx name found for shape " + opName());
+    }
+
+    @Override
+    public String tensorflowName() {
+        throw new NoOpNameFoundException("No tf name found for shape " + opName());
+    }
+
+    @Override
+    public List<SDVariable> doDiff(List<SDVariable> grad) {
+        throw new UnsupportedOperationException("Backprop is not supported for " + getClass().getSimpleName());
+    }
+
+    @Override
+    public List<DataType> calculateOutputDataTypes(List<DataType> dataTypes){
+        Preconditions.checkState(dataTypes != null && dataTypes.size() >= 3, "Expected at least 3 datatypes for %s, got %s", getClass(), dataTypes);
+        return Collections.singletonList(dataTypes.get(0));
+    }
+}
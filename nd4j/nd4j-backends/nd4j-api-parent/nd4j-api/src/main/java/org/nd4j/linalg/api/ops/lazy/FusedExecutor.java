@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.lazy;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.Op;
+import org.nd4j.linalg.api.ops.impl.broadcast.*;
+import org.nd4j.linalg.api.ops.impl.scalar.*;
+import org.nd4j.linalg.api.ops.impl.transforms.floating.Sqrt;
+import org.nd4j.linalg.api.ops.impl.transforms.pairwise.arithmetic.*;
+import org.nd4j.linalg.api.ops.impl.transforms.same.*;
+import org.nd4j.linalg.api.ops.impl.transforms.strict.*;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes {@link LazyExpression} as a single pipeline over tiles of the output.
+ *
+ * The expression tree is compiled into a linear list of steps over registers. Register 0 is the output tile
+ * itself, other registers are tile-sized scratch buffers, reused across tiles. So each element of the inputs is read
+ * from memory once, and each element of the output is written once, while intermediate values stay in cache.
+ *
+ * Tiles are formed along the flattened output for contiguous c-order arrays, or along rows if expression contains
+ * row/column broadcasts. Arrays with other layouts are processed as a single tile.
+ */
+class FusedExecutor {
+    /**
+     * Default tile length, in elements. Large enough to keep native ops multi-threaded, small enough to stay in L2/L3
+     */
+    protected static final long DEFAULT_TILE_LENGTH = 256 * 1024;
+
+    private enum Mode {
+        WHOLE, FLAT, ROWS
+    }
+
+    private enum OperandType {
+        ARRAY, ROW_VECTOR, COLUMN_VECTOR, REGISTER
+    }
+
+    private static class Operand {
+        private final OperandType type;
+        private final int index;
+
+        private Operand(OperandType type, int index) {
+            this.type = type;
+            this.index = index;
+        }
+    }
+
+    private static class Step {
+        private final LazyExpression node;
+        private final Operand x;
+        private final Operand y;
+        private final int z;
+
+        private Step(LazyExpression node, Operand x, Operand y, int z) {
+            this.node = node;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+
+    private final LazyExpression root;
+    private final INDArray result;
+    private final long tileLength;
+    private final List<INDArray> arrays = new ArrayList<>();
+    private final List<Step> steps = new ArrayList<>();
+    private int numRegisters = 1;
+
+    protected FusedExecutor(LazyExpression root, INDArray result, long tileLength) {
+        this.root = root;
+        this.result = result;
+        this.tileLength = tileLength;
+    }
+
+    protected void execute() {
+        if (root.getKind() == LazyExpression.Kind.LEAF) {
+            if (root.array != result)
+                result.assign(root.array);
+            return;
+        }
+
+        Operand output = compile(root, 0);
+        if (output.type != OperandType.REGISTER || output.index != 0)
+            throw new IllegalStateException("Expression result must be stored in register 0");
+
+        // result may only alias the leftmost array: it's consumed by the very first step that writes into register 0
+        boolean aliased = false;
+        for (int e = 0; e < arrays.size(); e++) {
+            INDArray array = arrays.get(e);
+            if (e == 0 && array == result)
+                continue;
+            if (underlying(array) == underlying(result))
+                aliased = true;
+        }
+
+        long length = result.length();
+        Mode mode;
+        if (length <= tileLength)
+            mode = Mode.WHOLE;
+        else if (root.hasBroadcast())
+            mode = Mode.ROWS;
+        else if (isContiguous(result) && allContiguous())
+            mode = Mode.FLAT;
+        else
+            mode = Mode.WHOLE;
+
+        long tileRows = mode == Mode.ROWS ? Math.max(1, tileLength / result.size(1)) : 0;
+        long tileSize = mode == Mode.WHOLE ? length : mode == Mode.FLAT ? tileLength : tileRows * result.size(1);
+
+        // flat views, created once
+        INDArray[] flat = new INDArray[arrays.size()];
+        for (int e = 0; e < arrays.size(); e++)
+            if (mode == Mode.FLAT || isVectorOperand(e))
+                flat[e] = arrays.get(e).reshape(arrays.get(e).length());
+        INDArray flatResult = mode == Mode.FLAT ? result.reshape(length) : result;
+
+        // scratch registers
+        INDArray[] registers = new INDArray[numRegisters];
+        for (int r = aliased ? 0 : 1; r < numRegisters; r++) {
+            if (mode == Mode.WHOLE)
+                registers[r] = Nd4j.createUninitialized(root.getDataType(), result.shape(), 'c');
+            else if (mode == Mode.FLAT)
+                registers[r] = Nd4j.createUninitialized(root.getDataType(), tileSize);
+            else
+                registers[r] = Nd4j.createUninitialized(root.getDataType(), tileRows, result.size(1));
+        }
+
+        try {
+            long total = mode == Mode.ROWS ? result.size(0) : length;
+            long step = mode == Mode.ROWS ? tileRows : tileSize;
+            INDArray[] tiles = new INDArray[arrays.size()];
+            INDArray[] regs = new INDArray[numRegisters];
+            for (long start = 0; start < total; start += step) {
+                long end = Math.min(total, start + step);
+                boolean full = end - start == step;
+
+                for (int e = 0; e < arrays.size(); e++)
+                    tiles[e] = tile(mode, arrays.get(e), flat[e], e, start, end);
+
+                for (int r = 0; r < numRegisters; r++) {
+                    if (registers[r] == null)
+                        regs[r] = null;
+                    else if (mode == Mode.WHOLE || full)
+                        regs[r] = registers[r];
+                    else if (mode == Mode.FLAT)
+                        regs[r] = registers[r].get(NDArrayIndex.interval(0, end - start));
+                    else
+                        regs[r] = registers[r].get(NDArrayIndex.interval(0, end - start), NDArrayIndex.all());
+                }
+
+                INDArray outTile = mode == Mode.WHOLE ? result : mode == Mode.FLAT ? flatResult.get(NDArrayIndex.interval(start, end))
+                        : result.get(NDArrayIndex.interval(start, end), NDArrayIndex.all());
+                if (!aliased)
+                    regs[0] = outTile;
+
+                for (Step s : steps)
+                    Nd4j.getExecutioner().exec(createOp(s, tiles, regs));
+
+                if (aliased)
+                    outTile.assign(regs[0]);
+            }
+        } finally {
+            for (INDArray r : registers)
+                if (r != null && r.closeable())
+                    r.close();
+        }
+    }
+
+    /**
+     * This method emits steps for the given node, storing its result in the target register, and returns result operand
+     */
+    private Operand compile(LazyExpression node, int target) {
+        switch (node.getKind()) {
+            case LEAF: {
+                arrays.add(node.array);
+                return new Operand(OperandType.ARRAY, arrays.size() - 1);
+            }
+            case UNARY:
+            case SCALAR: {
+                Operand x = compile(node.left, target);
+                steps.add(new Step(node, x, null, target));
+                return new Operand(OperandType.REGISTER, target);
+            }
+            case PAIRWISE: {
+                Operand x = compile(node.left, target);
+                Operand y;
+                if (node.right.getKind() == LazyExpression.Kind.LEAF) {
+                    y = compile(node.right, target);
+                } else {
+                    // right subtree needs its own register, everything above target is free at this point
+                    int reg = target + 1;
+                    numRegisters = Math.max(numRegisters, reg + 1);
+                    y = compile(node.right, reg);
+                }
+                steps.add(new Step(node, x, y, target));
+                return new Operand(OperandType.REGISTER, target);
+            }
+            case ROW_BROADCAST:
+            case COLUMN_BROADCAST: {
+                Operand x = compile(node.left, target);
+                arrays.add(node.array);
+                Operand y = new Operand(node.getKind() == LazyExpression.Kind.ROW_BROADCAST ? OperandType.ROW_VECTOR : OperandType.COLUMN_VECTOR, arrays.size() - 1);
+                steps.add(new Step(node, x, y, target));
+                return new Operand(OperandType.REGISTER, target);
+            }
+            default:
+                throw new IllegalStateException("Unknown expression kind: " + node.getKind());
+        }
+    }
+
+    private boolean isVectorOperand(int index) {
+        for (Step s : steps)
+            if (s.y != null && s.y.index == index && (s.y.type == OperandType.ROW_VECTOR || s.y.type == OperandType.COLUMN_VECTOR))
+                return true;
+        return false;
+    }
+
+    private INDArray tile(Mode mode, INDArray array, INDArray flat, int index, long start, long end) {
+        boolean vector = isVectorOperand(index);
+        if (mode == Mode.WHOLE)
+            return vector ? flat : array;
+        if (mode == Mode.FLAT)
+            return flat.get(NDArrayIndex.interval(start, end));
+
+        if (!vector)
+            return array.get(NDArrayIndex.interval(start, end), NDArrayIndex.all());
+        for (Step s : steps)
+            if (s.y != null && s.y.index == index && s.y.type == OperandType.COLUMN_VECTOR)
+                return flat.get(NDArrayIndex.interval(start, end));
+        return flat;
+    }
+
+    private static INDArray resolve(Operand operand, INDArray[] tiles, INDArray[] regs) {
+        return operand.type == OperandType.REGISTER ? regs[operand.index] : tiles[operand.index];
+    }
+
+    private static Op createOp(Step step, INDArray[] tiles, INDArray[] regs) {
+        LazyExpression node = step.node;
+        INDArray x = resolve(step.x, tiles, regs);
+        INDArray z = regs[step.z];
+        switch (node.getKind()) {
+            case UNARY:
+                return unaryOp(node.unary, x, z);
+            case SCALAR:
+                return scalarOp(node.binary, x, z, node.scalar);
+            case PAIRWISE:
+                return pairwiseOp(node.binary, x, resolve(step.y, tiles, regs), z);
+            case ROW_BROADCAST:
+                return broadcastOp(node.binary, x, tiles[step.y.index], z, 1);
+            case COLUMN_BROADCAST:
+                return broadcastOp(node.binary, x, tiles[step.y.index], z, 0);
+            default:
+                throw new IllegalStateException("Unknown step kind: " + node.getKind());
+        }
+    }
+
+    private static Op unaryOp(LazyExpression.Unary op, INDArray x, INDArray z) {
+        switch (op) {
+            case ABS: return new Abs(x, z);
+            case NEG: return new Negative(x, z);
+            case EXP: return new Exp(x, z);
+            case LOG: return new Log(x, z);
+            case SQRT: return new Sqrt(x, z);
+            case SQUARE: return new Square(x, z);
+            case SIGMOID: return new Sigmoid(x, z);
+            case TANH: return new Tanh(x, z);
+            case RELU: return new RectifiedLinear(x, z, 0.0);
+            case SOFTPLUS: return new SoftPlus(x, z);
+            case SWISH: return new Swish(x, z);
+            default:
+                throw new UnsupportedOperationException("Unknown unary op: " + op);
+        }
+    }
+
+    private static Op scalarOp(LazyExpression.Binary op, INDArray x, INDArray z, Number scalar) {
+        switch (op) {
+            case ADD: return new ScalarAdd(x, null, z, scalar);
+            case SUB: return new ScalarSubtraction(x, null, z, scalar);
+            case MUL: return new ScalarMultiplication(x, null, z, scalar);
+            case DIV: return new ScalarDivision(x, null, z, scalar);
+            case RSUB: return new ScalarReverseSubtraction(x, null, z, scalar);
+            case RDIV: return new ScalarReverseDivision(x, null, z, scalar);
+            case MAX: return new ScalarMax(x, null, z, scalar);
+            case MIN: return new ScalarMin(x, null, z, scalar);
+            default:
+                throw new UnsupportedOperationException("Unknown scalar op: " + op);
+        }
+    }
+
+    private static Op pairwiseOp(LazyExpression.Binary op, INDArray x, INDArray y, INDArray z) {
+        switch (op) {
+            case ADD: return new AddOp(x, y, z);
+            case SUB: return new SubOp(x, y, z);
+            case MUL: return new MulOp(x, y, z);
+            case DIV: return new DivOp(x, y, z);
+            case RSUB: return new RSubOp(x, y, z);
+            case RDIV: return new RDivOp(x, y, z);
+            case MAX: return new Max(x, y, z);
+            case MIN: return new Min(x, y, z);
+            default:
+                throw new UnsupportedOperationException("Unknown pairwise op: " + op);
+        }
+    }
+
+    private static Op broadcastOp(LazyExpression.Binary op, INDArray x, INDArray y, INDArray z, int dimension) {
+        switch (op) {
+            case ADD: return new BroadcastAddOp(x, y, z, dimension);
+            case SUB: return new BroadcastSubOp(x, y, z, dimension);
+            case MUL: return new BroadcastMulOp(x, y, z, dimension);
+            case DIV: return new BroadcastDivOp(x, y, z, dimension);
+            case RSUB: return new BroadcastRSubOp(x, y, z, dimension);
+            case RDIV: return new BroadcastRDivOp(x, y, z, dimension);
+            case MAX: return new BroadcastMax(x, y, z, dimension);
+            case MIN: return new BroadcastMin(x, y, z, dimension);
+            default:
+                throw new UnsupportedOperationException("Unknown broadcast op: " + op);
+        }
+    }
+
+    private boolean allContiguous() {
+        for (INDArray array : arrays)
+            if (!isContiguous(array))
+                return false;
+        return true;
+    }
+
+    private static boolean isContiguous(INDArray array) {
+        return array.ordering() == 'c' && Shape.hasDefaultStridesForShape(array);
+    }
+
+    private static DataBuffer underlying(INDArray array) {
+        DataBuffer buffer = array.data();
+        return buffer.originalDataBuffer() != null ? buffer.originalDataBuffer() : buffer;
+    }
+}
@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.lazy;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lazily evaluated chain of elementwise, scalar and broadcast ops.
+ *
+ * Nothing is executed while the expression is built: ops are recorded into an expression tree, which is executed as
+ * a single fused pipeline once {@link #eval()} is called. Intermediate results are kept in a few tile-sized scratch
+ * buffers instead of full-size arrays, so i.e.
+ * <pre>
+ * {@code
+ * // x * a + b, then * c: one output array, no full-size intermediates
+ * INDArray out = LazyExpression.of(x).mul(a).add(b).mul(c).eval();
+ *
+ * // equivalent to Transforms.sigmoid(x.add(y))
+ * INDArray s = LazyExpression.of(x).add(y).sigmoid().eval();
+ * }
+ * </pre>
+ *
+ * Expressions are immutable: every method returns a new expression node.
+ */
+public class LazyExpression {
+
+    public enum Binary {
+        ADD, SUB, MUL, DIV, RSUB, RDIV, MAX, MIN
+    }
+
+    public enum Unary {
+        ABS, NEG, EXP, LOG, SQRT, SQUARE, SIGMOID, TANH, RELU, SOFTPLUS, SWISH
+    }
+
+    protected enum Kind {
+        LEAF, UNARY, SCALAR, PAIRWISE, ROW_BROADCAST, COLUMN_BROADCAST
+    }
+
+    @Getter
+    protected final Kind kind;
+    protected final INDArray array;
+    protected final Number scalar;
+    protected final Binary binary;
+    protected final Unary unary;
+    protected final LazyExpression left;
+    protected final LazyExpression right;
+
+    @Getter
+    private final long[] shape;
+    @Getter
+    private final DataType dataType;
+
+    private LazyExpression(Kind kind, INDArray array, Number scalar, Binary binary, Unary unary, LazyExpression left, LazyExpression right) {
+        this.kind = kind;
+        this.array = array;
+        this.scalar = scalar;
+        this.binary = binary;
+        this.unary = unary;
+        this.left = left;
+        this.right = right;
+        this.shape = kind == Kind.LEAF ? array.shape() : left.shape;
+        this.dataType = kind == Kind.LEAF ? array.dataType() : left.dataType;
+    }
+
+    /**
+     * This method creates new expression, starting with the given array
+     */
+    public static LazyExpression of(@NonNull INDArray array) {
+        Preconditions.checkArgument(!array.isEmpty(), "Lazy expressions can't be built over empty arrays");
+        return new LazyExpression(Kind.LEAF, array, null, null, null, null, null);
+    }
+
+    public LazyExpression add(Number scalar) {
+        return scalar(Binary.ADD, scalar);
+    }
+
+    public LazyExpression add(INDArray other) {
+        return pairwise(Binary.ADD, of(other));
+    }
+
+    public LazyExpression add(LazyExpression other) {
+        return pairwise(Binary.ADD, other);
+    }
+
+    public LazyExpression sub(Number scalar) {
+        return scalar(Binary.SUB, scalar);
+    }
+
+    public LazyExpression sub(INDArray other) {
+        return pairwise(Binary.SUB, of(other));
+    }
+
+    public LazyExpression sub(LazyExpression other) {
+        return pairwise(Binary.SUB, other);
+    }
+
+    public LazyExpression mul(Number scalar) {
+        return scalar(Binary.MUL, scalar);
+    }
+
+    public LazyExpression mul(INDArray other) {
+        return pairwise(Binary.MUL, of(other));
+    }
+
+    public LazyExpression mul(LazyExpression other) {
+        return pairwise(Binary.MUL, other);
+    }
+
+    public LazyExpression div(Number scalar) {
+        return scalar(Binary.DIV, scalar);
+    }
+
+    public LazyExpression div(INDArray other) {
+        return pairwise(Binary.DIV, of(other));
+    }
+
+    public LazyExpression div(LazyExpression other) {
+        return pairwise(Binary.DIV, other);
+    }
+
+    public LazyExpression rsub(Number scalar) {
+        return scalar(Binary.RSUB, scalar);
+    }
+
+    public LazyExpression rsub(INDArray other) {
+        return pairwise(Binary.RSUB, of(other));
+    }
+
+    public LazyExpression rdiv(Number scalar) {
+        return scalar(Binary.RDIV, scalar);
+    }
+
+    public LazyExpression rdiv(INDArray other) {
+        return pairwise(Binary.RDIV, of(other));
+    }
+
+    public LazyExpression max(Number scalar) {
+        return scalar(Binary.MAX, scalar);
+    }
+
+    public LazyExpression min(Number scalar) {
+        return scalar(Binary.MIN, scalar);
+    }
+
+    public LazyExpression addRowVector(INDArray rowVector) {
+        return broadcast(Kind.ROW_BROADCAST, Binary.ADD, rowVector);
+    }
+
+    public LazyExpression subRowVector(INDArray rowVector) {
+        return broadcast(Kind.ROW_BROADCAST, Binary.SUB, rowVector);
+    }
+
+    public LazyExpression mulRowVector(INDArray rowVector) {
+        return broadcast(Kind.ROW_BROADCAST, Binary.MUL, rowVector);
+    }
+
+    public LazyExpression divRowVector(INDArray rowVector) {
+        return broadcast(Kind.ROW_BROADCAST, Binary.DIV, rowVector);
+    }
+
+    public LazyExpression addColumnVector(INDArray columnVector) {
+        return broadcast(Kind.COLUMN_BROADCAST, Binary.ADD, columnVector);
+    }
+
+    public LazyExpression subColumnVector(INDArray columnVector) {
+        return broadcast(Kind.COLUMN_BROADCAST, Binary.SUB, columnVector);
+    }
+
+    public LazyExpression mulColumnVector(INDArray columnVector) {
+        return broadcast(Kind.COLUMN_BROADCAST, Binary.MUL, columnVector);
+    }
+
+    public LazyExpression divColumnVector(INDArray columnVector) {
+        return broadcast(Kind.COLUMN_BROADCAST, Binary.DIV, columnVector);
+    }
+
+    public LazyExpression abs() {
+        return transform(Unary.ABS);
+    }
+
+    public LazyExpression neg() {
+        return transform(Unary.NEG);
+    }
+
+    public LazyExpression exp() {
+        return transform(Unary.EXP);
+    }
+
+    public LazyExpression log() {
+        return transform(Unary.LOG);
+    }
+
+    public LazyExpression sqrt() {
+        return transform(Unary.SQRT);
+    }
+
+    public LazyExpression square() {
+        return transform(Unary.SQUARE);
+    }
+
+    public LazyExpression sigmoid() {
+        return transform(Unary.SIGMOID);
+    }
+
+    public LazyExpression tanh() {
+        return transform(Unary.TANH);
+    }
+
+    public LazyExpression relu() {
+        return transform(Unary.RELU);
+    }
+
+    public LazyExpression softPlus() {
+        return transform(Unary.SOFTPLUS);
+    }
+
+    public LazyExpression swish() {
+        return transform(Unary.SWISH);
+    }
+
+    public LazyExpression transform(@NonNull Unary op) {
+        return new LazyExpression(Kind.UNARY, null, null, null, op, this, null);
+    }
+
+    public LazyExpression scalar(@NonNull Binary op, @NonNull Number scalar) {
+        return new LazyExpression(Kind.SCALAR, null, scalar, op, null, this, null);
+    }
+
+    public LazyExpression pairwise(@NonNull Binary op, @NonNull LazyExpression other) {
+        Preconditions.checkArgument(Arrays.equals(shape, other.shape), "Pairwise %s requires equal shapes, got %s and %s",
+                op, Arrays.toString(shape), Arrays.toString(other.shape));
+        Preconditions.checkArgument(dataType == other.dataType, "Pairwise %s requires equal data types, got %s and %s",
+                op, dataType, other.dataType);
+        return new LazyExpression(Kind.PAIRWISE, null, null, op, null, this, other);
+    }
+
+    protected LazyExpression broadcast(Kind kind, @NonNull Binary op, @NonNull INDArray vector) {
+        Preconditions.checkArgument(shape.length == 2, "Row/column broadcast requires rank 2 expression, got shape %s", Arrays.toString(shape));
+        Preconditions.checkArgument(vector.isVector() || vector.isScalar(), "Expected vector for broadcast %s, got array with shape %ndShape", op, vector);
+        long expected = kind == Kind.ROW_BROADCAST ? shape[1] : shape[0];
+        Preconditions.checkArgument(vector.length() == expected, "Broadcast vector length must be %s for expression shape %s, got %s",
+                expected, Arrays.toString(shape), vector.length());
+        Preconditions.checkArgument(dataType == vector.dataType(), "Broadcast %s requires equal data types, got %s and %s",
+                op, dataType, vector.dataType());
+        return new LazyExpression(kind, vector, null, op, null, this, null);
+    }
+
+    /**
+     * This method evaluates expression into new array
+     */
+    public INDArray eval() {
+        INDArray result = Nd4j.createUninitialized(dataType, shape);
+        return eval(result);
+    }
+
+    /**
+     * This method evaluates expression into the given array. Output array may be one of the arrays used by this
+     * expression, i.e. {@code LazyExpression.of(x).mul(2.0).add(y).eval(x)}
+     *
+     * @param result array to store the result in. Must have the same shape and data type as this expression
+     * @return result array
+     */
+    public INDArray eval(@NonNull INDArray result) {
+        return eval(result, FusedExecutor.DEFAULT_TILE_LENGTH);
+    }
+
+    /**
+     * This method evaluates expression into the given array, processing at most tileLength elements at once
+     */
+    public INDArray eval(@NonNull INDArray result, long tileLength) {
+        Preconditions.checkArgument(Arrays.equals(shape, result.shape()), "Result array must have shape %s, got %ndShape", Arrays.toString(shape), result);
+        Preconditions.checkArgument(dataType == result.dataType(), "Result array must have data type %s, got %s", dataType, result.dataType());
+        Preconditions.checkArgument(tileLength > 0, "Tile length must be positive, got %s", tileLength);
+        new FusedExecutor(this, result, tileLength).execute();
+        return result;
+    }
+
+    /**
+     * @return number of ops recorded in this expression
+     */
+    public int numOps() {
+        if (kind == Kind.LEAF)
+            return 0;
+        return 1 + left.numOps() + (right == null ? 0 : right.numOps());
+    }
+
+    protected boolean hasBroadcast() {
+        if (kind == Kind.ROW_BROADCAST || kind == Kind.COLUMN_BROADCAST)
+            return true;
+        return (left != null && left.hasBroadcast()) || (right != null && right.hasBroadcast());
+    }
+
+    /**
+     * This method collects all arrays referenced by this expression, including broadcast vectors
+     */
+    protected void collectArrays(List<INDArray> target) {
+        if (left != null)
+            left.collectArrays(target);
+        if (array != null)
+            target.add(array);
+        if (right != null)
+            right.collectArrays(target);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case LEAF:
+                return "array" + Arrays.toString(shape);
+            case UNARY:
+                return unary.name().toLowerCase() + "(" + left + ")";
+            case SCALAR:
+                return binary.name().toLowerCase() + "(" + left + ", " + scalar + ")";
+            case PAIRWISE:
+                return binary.name().toLowerCase() + "(" + left + ", " + right + ")";
+            default:
+                return binary.name().toLowerCase() + (kind == Kind.ROW_BROADCAST ? "Row(" : "Column(") + left + ", vector)";
+        }
+    }
+}
@@ -179,6 +179,13 @@ public class LongShapeDescriptor {
         return new LongShapeDescriptor(shape, stride, offset, ews, order, extras);
     }
 
+    /**
+     * Return a copy of this LongShapeDescriptor
+     */
+    public LongShapeDescriptor dup() {
+        return new LongShapeDescriptor(shape, stride, offset, ews, order, extras);
+    }
+
     public boolean isEmpty(){
         return ArrayOptionsHelper.hasBitSet(extras, ArrayOptionsHelper.ATYPE_EMPTY_BIT);
     }
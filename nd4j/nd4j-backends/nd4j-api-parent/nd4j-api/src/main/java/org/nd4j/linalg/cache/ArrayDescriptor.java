@@ -33,30 +33,36 @@ public class ArrayDescriptor {
     long[] longArray = null;
 
     private DataType dtype;
+    private int hash;
 
     public ArrayDescriptor(boolean[] array, DataType dtype) {
         this.boolArray = array;
         this.dtype = dtype;
+        this.hash = computeHashCode();
     }
 
     public ArrayDescriptor(int[] array, DataType dtype) {
         this.intArray = array;
         this.dtype = dtype;
+        this.hash = computeHashCode();
     }
 
     public ArrayDescriptor(float[] array, DataType dtype) {
         this.floatArray = array;
         this.dtype = dtype;
+        this.hash = computeHashCode();
     }
 
     public ArrayDescriptor(double[] array, DataType dtype) {
         this.doubleArray = array;
         this.dtype = dtype;
+        this.hash = computeHashCode();
     }
 
     public ArrayDescriptor(long[] array, DataType dtype) {
         this.longArray = array;
         this.dtype = dtype;
+        this.hash = computeHashCode();
     }
 
     @Override
@@ -68,13 +74,13 @@ public class ArrayDescriptor {
 
         ArrayDescriptor that = (ArrayDescriptor) o;
 
-        if (this.dtype != that.dtype)
+        if (this.dtype != that.dtype || this.hash != that.hash)
             return false;
 
         if (intArray != null && that.intArray != null) {
             return Arrays.equals(intArray, that.intArray);
         } else if (boolArray != null && that.boolArray != null) {
-            return Arrays.equals(intArray, that.intArray);
+            return Arrays.equals(boolArray, that.boolArray);
         } else if (floatArray != null && that.floatArray != null) {
             return Arrays.equals(floatArray, that.floatArray);
         } else if (doubleArray != null && that.doubleArray != null) {
@@ -88,6 +94,10 @@ public class ArrayDescriptor {
 
     @Override
     public int hashCode() {
+        return hash;
+    }
+
+    private int computeHashCode() {
         if (intArray != null) {
             return intArray.getClass().hashCode() + 31 * Arrays.hashCode(intArray) + 31 * dtype.ordinal();
         } else if (floatArray != null) {
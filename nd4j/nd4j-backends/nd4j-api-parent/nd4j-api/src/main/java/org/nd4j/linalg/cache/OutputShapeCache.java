@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cache;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.nd4j.config.ND4JSystemProperties;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.CustomOp;
+import org.nd4j.linalg.api.shape.LongShapeDescriptor;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-thread cache of output shapes calculated for custom ops.
+ *
+ * Entries are keyed by op hash, input shape infos, and all op arguments. Many ops use values of their inputs to
+ * calculate output shapes (i.e. reshape with shape passed as array, top_k with k passed as array, gather with axis
+ * passed as array), so values of small inputs are made part of the key too - except for ops from
+ * {@link #VALUE_INDEPENDENT_OPS}, which are known to calculate output shapes from input shapes and op arguments only.
+ * Ops that calculate output shapes using values of arbitrary sized inputs (i.e. unique) are never cached.
+ */
+public class OutputShapeCache {
+    /**
+     * Values of inputs with length up to this are used as part of the key
+     */
+    protected static final int MAX_VALUE_INPUT_LENGTH = 64;
+    protected static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * Ops with output shapes depending on values of arbitrary sized inputs
+     */
+    protected static final Set<String> DATA_DEPENDENT_OPS = new HashSet<>(Arrays.asList(
+            "Where", "where_np", "unique", "unique_with_counts", "dynamic_partition", "dynamic_stitch", "listdiff",
+            "non_max_suppression", "non_max_suppression_v3", "non_max_suppression_overlaps", "bincount",
+            "confusion_matrix", "choose", "sequence_mask", "segment_max", "segment_min", "segment_mean",
+            "segment_prod", "segment_sum", "clone_list", "create_list", "gather_list", "pick_list", "read_list",
+            "scatter_list", "size_list", "split_list", "stack_list", "unstack_list", "write_list"));
+
+    /**
+     * Ops with output shapes depending only on input shapes and op arguments, never on input values. Values of
+     * their inputs aren't part of the key, so calls with different (small) input values share a cache entry.
+     * Any op not listed here is treated as potentially value dependent
+     */
+    protected static final Set<String> VALUE_INDEPENDENT_OPS = new HashSet<>(Arrays.asList(
+            //Pairwise/broadcastable ops: output shape is the broadcast shape of the inputs
+            "add", "subtract", "multiply", "divide", "reversesubtract", "reversedivide", "realdiv", "floordiv",
+            "floormod", "mod", "truncatediv", "maximum", "minimum", "squaredsubtract", "pow", "tf_atan2", "assign",
+            "equals", "not_equals", "less", "less_equal", "greater", "greater_equal", "boolean_and", "boolean_or",
+            "boolean_xor", "meshgrid",
+            //Linear algebra, convolution, pooling and normalization ops: shapes from input shapes and op arguments
+            "matmul", "tensormmul", "batched_gemm", "biasadd", "conv1d", "conv2d", "conv3dnew", "deconv2d",
+            "deconv3d", "depthwise_conv2d", "sconv2d", "pointwise_conv2d", "maxpool2d", "avgpool2d", "pnormpool2d",
+            "maxpool3dnew", "avgpool3dnew", "upsampling2d", "upsampling3d", "im2col", "col2im", "batchnorm",
+            "layer_norm", "lrn", "softmax", "log_softmax", "relu_layer", "xw_plus_b", "lstmBlock", "lstmLayer",
+            "gruCell", "lstmCell", "sruCell", "matmul_int8",
+            //Backprop ops: output shapes are input shapes
+            "add_bp", "subtract_bp", "multiply_bp", "divide_bp", "matmul_bp", "biasadd_bp", "conv1d_bp", "conv2d_bp",
+            "conv3dnew_bp", "deconv2d_bp", "deconv3d_bp", "depthwise_conv2d_bp", "sconv2d_bp", "maxpool2d_bp",
+            "avgpool2d_bp", "pnormpool2d_bp", "maxpool3dnew_bp", "avgpool3dnew_bp", "upsampling2d_bp",
+            "upsampling3d_bp", "batchnorm_bp", "layer_norm_bp", "lrn_bp", "softmax_bp", "log_softmax_bp",
+            //Other ops with output shapes equal to (or derived from) input shapes
+            "cast", "identity", "identity_n", "stop_gradient", "zeros_as", "ones_as", "zeros_like", "ones_like",
+            "shape_of", "shapes_of", "size", "rank", "clipbyvalue", "clipbynorm", "clip_by_global_norm",
+            "cumsum", "cumprod", "reverse", "fused_updater"));
+
+    @Getter
+    @Setter
+    private volatile boolean enabled;
+    private final int maxEntries;
+    private final ThreadLocal<Map<Key, List<LongShapeDescriptor>>> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public OutputShapeCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries maximum number of cached entries, per thread
+     */
+    public OutputShapeCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.enabled = Boolean.parseBoolean(System.getProperty(ND4JSystemProperties.OUTPUT_SHAPE_CACHE_ENABLED, "true"));
+        this.cache = new ThreadLocal<Map<Key, List<LongShapeDescriptor>>>() {
+            @Override
+            protected Map<Key, List<LongShapeDescriptor>> initialValue() {
+                return new LinkedHashMap<Key, List<LongShapeDescriptor>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Key, List<LongShapeDescriptor>> eldest) {
+                        if (size() > OutputShapeCache.this.maxEntries) {
+                            evictions.increment();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * This method builds cache key for the given op, or returns null if output shapes of this op can't be cached
+     */
+    public Key keyFor(@NonNull CustomOp op) {
+        if (!enabled || DATA_DEPENDENT_OPS.contains(op.opName()))
+            return null;
+
+        long[] data = new long[64];
+        int pos = 0;
+
+        boolean useValues = !VALUE_INDEPENDENT_OPS.contains(op.opName());
+        List<INDArray> inputs = op.inputArguments();
+        data[pos++] = inputs.size();
+        for (INDArray in : inputs) {
+            if (in == null || in.dataType() == DataType.UTF8 || in.dataType() == DataType.COMPRESSED)
+                return null;
+
+            long[] shapeInfo = in.shapeInfoJava();
+            data = ensure(data, pos + shapeInfo.length + 2);
+            data[pos++] = shapeInfo.length;
+            System.arraycopy(shapeInfo, 0, data, pos, shapeInfo.length);
+            pos += shapeInfo.length;
+
+            long length = in.isEmpty() ? 0 : in.length();
+            if (!useValues || length > MAX_VALUE_INPUT_LENGTH) {
+                data[pos++] = -1;
+                continue;
+            }
+
+            data = ensure(data, pos + (int) length + 1);
+            data[pos++] = length;
+            for (int e = 0; e < length; e++)
+                data[pos++] = in.isR() ? Double.doubleToLongBits(in.getDouble(e)) : in.getLong(e);
+        }
+
+        long[] iArgs = op.iArgs();
+        double[] tArgs = op.tArgs();
+        boolean[] bArgs = op.bArgs();
+        DataType[] dArgs = op.dArgs();
+        data = ensure(data, pos + iArgs.length + tArgs.length + bArgs.length + dArgs.length + 4);
+
+        data[pos++] = iArgs.length;
+        for (long i : iArgs)
+            data[pos++] = i;
+
+        data[pos++] = tArgs.length;
+        for (double t : tArgs)
+            data[pos++] = Double.doubleToLongBits(t);
+
+        data[pos++] = bArgs.length;
+        for (boolean b : bArgs)
+            data[pos++] = b ? 1 : 0;
+
+        data[pos++] = dArgs.length;
+        for (DataType d : dArgs)
+            data[pos++] = d.ordinal();
+
+        return new Key(op.opHash(), Arrays.copyOf(data, pos));
+    }
+
+    /**
+     * This method returns cached output shapes for the given key, or null if there's nothing cached
+     */
+    public List<LongShapeDescriptor> get(Key key) {
+        if (key == null)
+            return null;
+
+        List<LongShapeDescriptor> shapes = cache.get().get(key);
+        if (shapes == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        List<LongShapeDescriptor> result = new ArrayList<>(shapes.size());
+        for (LongShapeDescriptor d : shapes)
+            result.add(d.dup());
+        return result;
+    }
+
+    /**
+     * This method stores output shapes for the given key
+     */
+    public void put(Key key, @NonNull List<LongShapeDescriptor> shapes) {
+        if (key == null || shapes.isEmpty())
+            return;
+
+        List<LongShapeDescriptor> copy = new ArrayList<>(shapes.size());
+        for (LongShapeDescriptor d : shapes)
+            copy.add(d.dup());
+        cache.get().put(key, Collections.unmodifiableList(copy));
+    }
+
+    /**
+     * This method removes all entries cached by the current thread
+     */
+    public void clear() {
+        cache.get().clear();
+    }
+
+    public CacheStatistics getStatistics() {
+        return CacheStatistics.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .entries(cache.get().size())
+                .maxEntries(maxEntries)
+                .build();
+    }
+
+    private static long[] ensure(long[] data, int length) {
+        return data.length >= length ? data : Arrays.copyOf(data, Math.max(length, data.length * 2));
+    }
+
+    /**
+     * Cache key: op hash and flattened description of inputs and arguments
+     */
+    public static class Key {
+        private final long opHash;
+        private final long[] data;
+        private final int hash;
+
+        protected Key(long opHash, long[] data) {
+            this.opHash = opHash;
+            this.data = data;
+            this.hash = 31 * Long.hashCode(opHash) + Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key other = (Key) o;
+            return opHash == other.opHash && hash == other.hash && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
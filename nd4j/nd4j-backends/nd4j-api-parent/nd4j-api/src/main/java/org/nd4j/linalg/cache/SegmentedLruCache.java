@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cache;
+
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Size bounded segmented LRU cache, used for TAD and constant buffers.
+ *
+ * Entries are first placed into the probationary segment, and are moved to the protected segment on their second
+ * access. When either the byte budget or the entry limit is exceeded, entries are evicted from the LRU end of the
+ * probationary segment first, so one-off keys (i.e. from variable-shape traffic) can't flush frequently used entries.
+ *
+ * Reads don't take a lock: values are looked up in a ConcurrentHashMap, and accesses are recorded into a bounded
+ * buffer that is replayed against the segments by whichever thread holds the lock next. If the buffer is full, access
+ * is not recorded, so recency is approximate under heavy concurrent reads.
+ *
+ * Concurrent misses on the same key are coalesced: only one thread runs the loader, others wait for its result.
+ */
+public class SegmentedLruCache<K, V> {
+    private static final double PROTECTED_FRACTION = 0.8;
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+    private final ConcurrentHashMap<K, Entry<K, V>> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, FutureTask<V>> loading = new ConcurrentHashMap<>();
+
+    // segments below are guarded by the lock, and only define eviction order
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<K, V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<K, V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Queue<Entry<K, V>> readBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readBufferSize = new AtomicInteger(0);
+
+    private final ToLongFunction<V> weigher;
+    private final Consumer<V> evictionListener;
+
+    private volatile long maxBytes;
+    private volatile long maxEntries;
+    private long bytes = 0;
+    private long protectedBytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxBytes         maximum total weight of cached values, in bytes
+     * @param maxEntries       maximum number of cached values
+     * @param weigher          function returning size of a value, in bytes
+     * @param evictionListener optional listener, called for every value removed from the cache (including clear())
+     */
+    public SegmentedLruCache(long maxBytes, long maxEntries, @NonNull ToLongFunction<V> weigher, Consumer<V> evictionListener) {
+        Preconditions.checkArgument(maxBytes > 0 && maxEntries > 0, "Max bytes and max entries must be positive, got %s and %s", maxBytes, maxEntries);
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * This method returns cached value for the given key, or null if there's no such value
+     */
+    public V get(@NonNull K key) {
+        V value = lookup(key);
+        if (value != null)
+            hits.increment();
+        else
+            misses.increment();
+        return value;
+    }
+
+    /**
+     * This method returns cached value for the given key, or loads (and caches) it if there's no such value.
+     * Concurrent calls for the same missing key result in a single loader invocation.
+     */
+    public V get(@NonNull K key, @NonNull Function<? super K, ? extends V> loader) {
+        V value = lookup(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        FutureTask<V> task = new FutureTask<>(() -> loader.apply(key));
+        FutureTask<V> existing = loading.putIfAbsent(key, task);
+        if (existing != null)
+            return await(existing);
+
+        try {
+            task.run();
+            value = await(task);
+            put(key, value);
+            return value;
+        } finally {
+            loading.remove(key, task);
+        }
+    }
+
+    /**
+     * This method stores value in the cache, replacing existing value (if any)
+     */
+    public void put(@NonNull K key, @NonNull V value) {
+        long weight = weigher.applyAsLong(value);
+        if (weight > maxBytes) {
+            // value can't fit into the cache at all
+            if (evictionListener != null)
+                evictionListener.accept(value);
+            return;
+        }
+
+        lock.lock();
+        try {
+            drainReadBuffer();
+            remove(key);
+            Entry<K, V> entry = new Entry<>(key, value, weight);
+            probation.put(key, entry);
+            data.put(key, entry);
+            bytes += weight;
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method removes value for the given key, if it's present
+     */
+    public void invalidate(@NonNull K key) {
+        Entry<K, V> entry;
+        lock.lock();
+        try {
+            drainReadBuffer();
+            entry = remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null && evictionListener != null)
+            evictionListener.accept(entry.value);
+    }
+
+    /**
+     * This method removes all values from the cache
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            drainReadBuffer();
+            if (evictionListener != null) {
+                for (Entry<K, V> e : probation.values())
+                    evictionListener.accept(e.value);
+                for (Entry<K, V> e : protectedSegment.values())
+                    evictionListener.accept(e.value);
+            }
+            data.clear();
+            probation.clear();
+            protectedSegment.clear();
+            bytes = 0;
+            protectedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "Max bytes must be positive, got %s", maxBytes);
+        lock.lock();
+        try {
+            this.maxBytes = maxBytes;
+            drainReadBuffer();
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        Preconditions.checkArgument(maxEntries > 0, "Max entries must be positive, got %s", maxEntries);
+        lock.lock();
+        try {
+            this.maxEntries = maxEntries;
+            drainReadBuffer();
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public long bytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        lock.lock();
+        try {
+            return CacheStatistics.builder()
+                    .hits(hits.sum())
+                    .misses(misses.sum())
+                    .evictions(evictions.sum())
+                    .entries(data.size())
+                    .bytes(bytes)
+                    .maxBytes(maxBytes)
+                    .maxEntries(maxEntries)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V lookup(K key) {
+        Entry<K, V> entry = data.get(key);
+        if (entry == null)
+            return null;
+
+        // recency is updated lazily: if the buffer is full, this access just isn't recorded
+        if (readBufferSize.incrementAndGet() <= READ_BUFFER_SIZE)
+            readBuffer.offer(entry);
+        else
+            readBufferSize.decrementAndGet();
+
+        if (readBufferSize.get() >= READ_BUFFER_DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return entry.value;
+    }
+
+    /**
+     * Replays recorded accesses against the segments. Must be called with the lock held
+     */
+    private void drainReadBuffer() {
+        Entry<K, V> entry;
+        while ((entry = readBuffer.poll()) != null) {
+            readBufferSize.decrementAndGet();
+            onAccess(entry);
+        }
+    }
+
+    private void onAccess(Entry<K, V> entry) {
+        K key = entry.key;
+
+        // access order of the protected segment is updated by get()
+        if (protectedSegment.get(key) == entry)
+            return;
+
+        // entry might've been replaced or evicted after it was read
+        if (probation.get(key) != entry)
+            return;
+
+        // second access: promote to protected segment, demoting its LRU entries if it's over its share
+        probation.remove(key);
+        protectedSegment.put(key, entry);
+        protectedBytes += entry.weight;
+        long protectedMax = (long) (maxBytes * PROTECTED_FRACTION);
+        Iterator<Map.Entry<K, Entry<K, V>>> iterator = protectedSegment.entrySet().iterator();
+        while (protectedBytes > protectedMax && protectedSegment.size() > 1) {
+            Map.Entry<K, Entry<K, V>> lru = iterator.next();
+            iterator.remove();
+            protectedBytes -= lru.getValue().weight;
+            probation.put(lru.getKey(), lru.getValue());
+        }
+    }
+
+    private Entry<K, V> remove(K key) {
+        Entry<K, V> entry = probation.remove(key);
+        if (entry == null) {
+            entry = protectedSegment.remove(key);
+            if (entry != null)
+                protectedBytes -= entry.weight;
+        }
+        if (entry != null) {
+            data.remove(key, entry);
+            bytes -= entry.weight;
+        }
+        return entry;
+    }
+
+    private void evictIfNeeded() {
+        while (bytes > maxBytes || probation.size() + protectedSegment.size() > maxEntries) {
+            boolean fromProtected = probation.isEmpty();
+            Iterator<Map.Entry<K, Entry<K, V>>> iterator = (fromProtected ? protectedSegment : probation).entrySet().iterator();
+            if (!iterator.hasNext())
+                return;
+
+            Map.Entry<K, Entry<K, V>> lru = iterator.next();
+            iterator.remove();
+            data.remove(lru.getKey(), lru.getValue());
+            bytes -= lru.getValue().weight;
+            if (fromProtected)
+                protectedBytes -= lru.getValue().weight;
+            evictions.increment();
+            if (evictionListener != null)
+                evictionListener.accept(lru.getValue().value);
+        }
+    }
+
+    private static <V> V await(FutureTask<V> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long weight;
+
+        private Entry(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -16,13 +16,15 @@
 
 package org.nd4j.linalg.cache;
 
-import lombok.Data;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.shape.Shape;
 
+import java.util.Arrays;
+
 /**
  * This is utility class, made to compare TADs for caching purposes.
  *
@@ -32,18 +34,19 @@ import org.nd4j.linalg.api.shape.Shape;
  *
  * Of note here is that when used as a key,
  * we preserve immutability of the shape buffer
- * in the ndarray by copying the values with
- * {@link TadDescriptor#dataBufferToArray(DataBuffer)}
+ * in the ndarray by copying the values of
+ * {@link INDArray#shapeInfoJava()}
  *
  *
  * @author raver119@gmail.com
  */
 @Slf4j
-@Data
+@Getter
 public class TadDescriptor {
     private int dimensionLength;
     private int[] dimension;
     private long[] shape;
+    private int hash;
 
     /**
      * Pass in an ndarray to get the databuffer
@@ -54,10 +57,25 @@ public class TadDescriptor {
      */
     public TadDescriptor(INDArray array, int[] dimension) {
         this.dimensionLength = dimension == null ? 0 : dimension.length;
-        this.dimension = dimension;
+        this.dimension = dimension == null ? null : dimension.clone();
+        this.shape = array.shapeInfoJava().clone();
+        this.hash = 31 * Arrays.hashCode(this.shape) + Arrays.hashCode(this.dimension);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        TadDescriptor that = (TadDescriptor) o;
+        return hash == that.hash && Arrays.equals(dimension, that.dimension) && Arrays.equals(shape, that.shape);
+    }
 
-        // TODO: change this to fill shapeInfo
-        this.shape = dataBufferToArray(array.shapeInfoDataBuffer());
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
 
@@ -73,6 +73,29 @@ public interface Environment {
     /** Set the maximum number of master threads for C++ op execution (if applicable) */
     void setMaxMasterThreads(int max);
 
+    /**
+     * Returns the limit for the number of threads used by C++ ops executed from the current thread, or 0 if there is no
+     * limit (in which case {@link #maxMasterThreads()} applies)
+     */
+    int threadLimit();
+    /**
+     * Set the limit for the number of threads used by C++ ops executed from the current thread (if applicable).
+     * Unlike {@link #setMaxMasterThreads(int)}, this applies only to the calling thread: it can be used to run multiple
+     * models concurrently (for example, one per thread) without oversubscription of CPU cores.
+     * Use 0 to remove the limit.<br>
+     * The limit also applies to BLAS calls (such as GEMM) made from the current thread only if
+     * {@link #isBlasThreadLimitSupported()} returns true; otherwise BLAS calls still use all BLAS threads.
+     */
+    void setThreadLimit(int max);
+
+    /**
+     * Returns true if {@link #setThreadLimit(int)} also limits the number of threads used by BLAS calls from the
+     * current thread. This is the case for MKL, and for OpenBLAS built with OpenMP - but not for OpenBLAS built with
+     * pthreads (which only has a global number of threads, see {@link org.nd4j.linalg.api.blas.Blas#setMaxThreads(int)}),
+     * nor for CUDA.
+     */
+    boolean isBlasThreadLimitSupported();
+
     /** Set the maximum primary memory */
     void setMaxPrimaryMemory(long maxBytes);
     /** Set the maximum special memory */
@@ -20,6 +20,7 @@ import org.nd4j.linalg.factory.ops.NDBitwise;
 import org.nd4j.linalg.factory.ops.NDMath;
 import org.nd4j.linalg.factory.ops.NDNN;
 import org.nd4j.linalg.factory.ops.NDRandom;
+import org.nd4j.linalg.factory.ops.NDStrings;
 import org.nd4j.shade.guava.primitives.Ints;
 import org.nd4j.shade.guava.primitives.Longs;
 import lombok.NonNull;
@@ -133,6 +134,10 @@ public class Nd4j {
      * Neural network namespace - operations related to neural networks
      */
     public static final NDNN nn = new NDNN();
+    /**
+     * Strings namespace - operations on UTF8 arrays
+     */
+    public static final NDStrings strings = new NDStrings();
 
     /**
      * Bitwise namespace - operations related to bitwise manipulation of arrays
@@ -162,6 +167,13 @@ public class Nd4j {
         return nn;
     }
 
+    /**
+     * Strings namespace - operations on UTF8 arrays
+     */
+    public static NDStrings strings() {
+        return strings;
+    }
+
     private final static String DATA_BUFFER_OPS = "databufferfactory";
     private final static String CONVOLUTION_OPS = "convops";
     /**@deprecated Use {@link ND4JSystemProperties#DTYPE}*/
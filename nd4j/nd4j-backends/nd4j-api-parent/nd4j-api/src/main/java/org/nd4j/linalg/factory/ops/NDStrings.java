@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.factory.ops;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.compat.CompatStringSplit;
+import org.nd4j.linalg.api.ops.impl.strings.RegexReplace;
+import org.nd4j.linalg.api.ops.impl.strings.StringLower;
+import org.nd4j.linalg.api.ops.impl.strings.StringNGramHash;
+import org.nd4j.linalg.api.ops.impl.strings.StringToIndex;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * String operations, applied to whole UTF8 arrays at once, without creating Java objects per string
+ */
+public class NDStrings {
+  public NDStrings() {
+  }
+
+  /**
+   * Split each string of the input by delimiter. Output is sparse: indices, with shape [numSubstrings, rank + 1],
+   * and vector of substrings<br>
+   *
+   * @param strings Strings to split (UTF8 type)
+   * @param delimiter Delimiter
+   * @return output Indices (INT64 type) and values (UTF8 type)
+   */
+  public INDArray[] split(@NonNull INDArray strings, @NonNull String delimiter) {
+    return Nd4j.exec(new CompatStringSplit(strings, Nd4j.scalar(delimiter)));
+  }
+
+  /**
+   * Convert each string of the input to lower case<br>
+   *
+   * @param strings Input array (UTF8 type)
+   * @return output Array of the same shape (UTF8 type)
+   */
+  public INDArray lower(@NonNull INDArray strings) {
+    return Nd4j.exec(new StringLower(strings))[0];
+  }
+
+  /**
+   * Replace all matches of regular expression (ECMAScript syntax) within each string of the input<br>
+   *
+   * @param strings Input array (UTF8 type)
+   * @param pattern Regular expression
+   * @param rewrite Replacement, may contain references to groups, i.e. $1
+   * @return output Array of the same shape (UTF8 type)
+   */
+  public INDArray regexReplace(@NonNull INDArray strings, @NonNull String pattern, @NonNull String rewrite) {
+    return Nd4j.exec(new RegexReplace(strings, pattern, rewrite, true))[0];
+  }
+
+  /**
+   * Map each string of the input to its index within vocabulary<br>
+   *
+   * @param strings Input array (UTF8 type)
+   * @param vocabulary Vocabulary vector (UTF8 type)
+   * @param defaultIndex Index for strings missing from vocabulary
+   * @return output Array of the same shape as input (INT64 type)
+   */
+  public INDArray toIndex(@NonNull INDArray strings, @NonNull INDArray vocabulary, long defaultIndex) {
+    return Nd4j.exec(new StringToIndex(strings, vocabulary, defaultIndex))[0];
+  }
+
+  /**
+   * Hash n-grams of consecutive tokens into fixed number of buckets<br>
+   *
+   * @param tokens Input array with shape [numTokens] or [batch, numTokens] (UTF8 type)
+   * @param n Number of tokens per n-gram
+   * @param numBuckets Number of hash buckets
+   * @return output Array with shape [numTokens - n + 1] or [batch, numTokens - n + 1] (INT64 type)
+   */
+  public INDArray ngramHash(@NonNull INDArray tokens, int n, long numBuckets) {
+    return Nd4j.exec(new StringNGramHash(tokens, n, numBuckets))[0];
+  }
+}
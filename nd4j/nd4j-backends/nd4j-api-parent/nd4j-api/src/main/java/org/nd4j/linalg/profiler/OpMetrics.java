@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.profiler;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.config.ND4JSystemProperties;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.CustomOp;
+import org.nd4j.linalg.api.ops.Op;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lightweight, always-on capable op execution metrics: per op name invocation counts, latency histograms,
+ * bytes touched (inputs + outputs) and bytes allocated by the executioner for op outputs.<br>
+ * Unlike {@link OpProfiler}, all counters are lock-free striped counters ({@link LongAdder}), and no strings or stack
+ * traces are built on the execution path. Latency and bytes touched can additionally be sampled (1 in N invocations,
+ * see {@link #setSamplingRate(int)}); invocation counts are always exact.<br>
+ * Metrics are disabled by default. They can be enabled via {@link #setEnabled(boolean)} or the
+ * {@link ND4JSystemProperties#OP_METRICS_ENABLED} system property, and are exposed programmatically via
+ * {@link #getOpMetrics()}, or via JMX (see {@link #registerMBean()}).
+ */
+@Slf4j
+public class OpMetrics implements OpMetricsMXBean {
+
+    public static final String MBEAN_NAME = "org.nd4j:type=OpMetrics";
+
+    /**
+     * Number of latency histogram buckets. Bucket 0: < 1 microsecond; bucket i: [2^(i-1), 2^i) microseconds; the last
+     * bucket also contains everything above its lower bound
+     */
+    public static final int NUM_LATENCY_BUCKETS = 32;
+
+    private static final OpMetrics INSTANCE = new OpMetrics();
+
+    private final ConcurrentHashMap<String, OpStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile int samplingRate = 1;
+    private ObjectName registeredName;
+
+    private OpMetrics() {
+        if (Boolean.parseBoolean(System.getProperty(ND4JSystemProperties.OP_METRICS_ENABLED, "false"))) {
+            enabled = true;
+            registerMBean();
+        }
+    }
+
+    public static OpMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    /**
+     * Set the sampling rate for latency and bytes touched: one in every {@code samplingRate} invocations (chosen at
+     * random) is recorded. Use 1 (default) to record all invocations
+     */
+    @Override
+    public void setSamplingRate(int samplingRate) {
+        if (samplingRate < 1)
+            throw new IllegalArgumentException("Sampling rate must be >= 1, got " + samplingRate);
+        this.samplingRate = samplingRate;
+    }
+
+    /**
+     * Record execution of the specified op
+     *
+     * @param op        Op that was executed
+     * @param timeStart Time (System.nanoTime()) at which execution started
+     */
+    public void record(@NonNull Op op, long timeStart) {
+        if (!enabled)
+            return;
+
+        OpStats s = statsFor(op.opName());
+        s.invocations.increment();
+        if (isSampled()) {
+            long bytes = bytes(op.x()) + bytes(op.y()) + bytes(op.z());
+            s.recordSample(System.nanoTime() - timeStart, bytes);
+        }
+    }
+
+    /**
+     * Record execution of the specified custom op
+     *
+     * @param op        Op that was executed
+     * @param timeStart Time (System.nanoTime()) at which execution started
+     */
+    public void record(@NonNull CustomOp op, long timeStart) {
+        if (!enabled)
+            return;
+
+        OpStats s = statsFor(op.opName());
+        s.invocations.increment();
+        if (isSampled()) {
+            long bytes = 0;
+            for (INDArray arr : op.inputArguments())
+                bytes += bytes(arr);
+            for (INDArray arr : op.outputArguments())
+                bytes += bytes(arr);
+            s.recordSample(System.nanoTime() - timeStart, bytes);
+        }
+    }
+
+    /**
+     * Record an array allocated by the op executioner, for the output of the specified op
+     *
+     * @param opName Name of the op
+     * @param array  Allocated array
+     */
+    public void recordAllocation(@NonNull String opName, INDArray array) {
+        if (!enabled || array == null)
+            return;
+
+        statsFor(opName).bytesAllocated.add(bytes(array));
+    }
+
+    /**
+     * @return Snapshot of the metrics for all ops executed so far, sorted by op name
+     */
+    @Override
+    public Map<String, OpMetricsSnapshot> getOpMetrics() {
+        Map<String, OpMetricsSnapshot> out = new TreeMap<>();
+        for (Map.Entry<String, OpStats> e : stats.entrySet()) {
+            out.put(e.getKey(), e.getValue().snapshot(e.getKey()));
+        }
+        return out;
+    }
+
+    /**
+     * @return Snapshot of the metrics for the specified op, or null if no such op has been recorded
+     */
+    public OpMetricsSnapshot getOpMetrics(@NonNull String opName) {
+        OpStats s = stats.get(opName);
+        return s == null ? null : s.snapshot(opName);
+    }
+
+    @Override
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Register this instance with the platform MBean server, as {@link #MBEAN_NAME}. No-op if already registered
+     */
+    public synchronized void registerMBean() {
+        if (registeredName != null)
+            return;
+
+        try {
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            registeredName = name;
+        } catch (Exception e) {
+            log.warn("Unable to register op metrics MBean", e);
+        }
+    }
+
+    /**
+     * Unregister this instance from the platform MBean server, if registered
+     */
+    public synchronized void unregisterMBean() {
+        if (registeredName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (Exception e) {
+            log.warn("Unable to unregister op metrics MBean", e);
+        }
+        registeredName = null;
+    }
+
+    private boolean isSampled() {
+        int rate = samplingRate;
+        return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    private OpStats statsFor(String opName) {
+        OpStats s = stats.get(opName);
+        if (s == null) {
+            s = new OpStats();
+            OpStats prev = stats.putIfAbsent(opName, s);
+            if (prev != null)
+                s = prev;
+        }
+        return s;
+    }
+
+    private static long bytes(INDArray array) {
+        if (array == null || array.isEmpty())
+            return 0;
+        return array.length() * array.dataType().width();
+    }
+
+    protected static int latencyBucket(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, NUM_LATENCY_BUCKETS - 1);
+    }
+
+    private static class OpStats {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder sampled = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+        private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+        private final LongAdder bytesTouched = new LongAdder();
+        private final LongAdder bytesAllocated = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[NUM_LATENCY_BUCKETS];
+
+        private OpStats() {
+            for (int i = 0; i < histogram.length; i++)
+                histogram[i] = new LongAdder();
+        }
+
+        private void recordSample(long nanos, long bytes) {
+            sampled.increment();
+            totalTime.add(nanos);
+            maxTime.accumulate(nanos);
+            bytesTouched.add(bytes);
+            histogram[latencyBucket(nanos)].increment();
+        }
+
+        private OpMetricsSnapshot snapshot(String opName) {
+            long[] h = new long[histogram.length];
+            for (int i = 0; i < h.length; i++)
+                h[i] = histogram[i].sum();
+
+            return new OpMetricsSnapshot(opName, invocations.sum(), sampled.sum(), totalTime.sum(), maxTime.get(),
+                            bytesTouched.sum(), bytesAllocated.sum(), h);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.profiler;
+
+import java.util.Map;
+
+/**
+ * JMX management interface for {@link OpMetrics}
+ */
+public interface OpMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int getSamplingRate();
+
+    void setSamplingRate(int samplingRate);
+
+    /**
+     * @return Metrics for each op executed so far. Key: op name
+     */
+    Map<String, OpMetricsSnapshot> getOpMetrics();
+
+    /**
+     * Clear all metrics collected so far
+     */
+    void reset();
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.profiler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Point-in-time metrics for a single op, as collected by {@link OpMetrics}.<br>
+ * Note that the latency and bytes touched values are collected only for sampled invocations (see
+ * {@link OpMetrics#setSamplingRate(int)}) - these should be interpreted relative to {@link #getSampledInvocations()}
+ * rather than {@link #getInvocations()}
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OpMetricsSnapshot {
+    private final String opName;
+    /** Total number of invocations */
+    private final long invocations;
+    /** Number of invocations for which latency and bytes touched were recorded */
+    private final long sampledInvocations;
+    /** Total execution time (nanoseconds) for the sampled invocations */
+    private final long totalTimeNanos;
+    /** Maximum execution time (nanoseconds) for the sampled invocations */
+    private final long maxTimeNanos;
+    /** Total size (bytes) of op inputs and outputs for the sampled invocations */
+    private final long bytesTouched;
+    /** Total size (bytes) of op output arrays allocated by the executioner, for all invocations */
+    private final long bytesAllocated;
+    /** Latency histogram: see {@link OpMetrics#NUM_LATENCY_BUCKETS} for the bucket boundaries */
+    private final long[] latencyHistogram;
+
+    /**
+     * @return Mean execution time (nanoseconds) of the sampled invocations, or 0 if no invocations were sampled
+     */
+    public long getMeanTimeNanos() {
+        return sampledInvocations == 0 ? 0 : totalTimeNanos / sampledInvocations;
+    }
+
+    /**
+     * Estimate the specified latency percentile from the histogram. The returned value is the upper bound of the
+     * histogram bucket that contains the percentile, hence is accurate to within a factor of 2
+     *
+     * @param percentile Percentile, 0 to 100
+     * @return Latency estimate, in nanoseconds
+     */
+    public long latencyPercentileNanos(double percentile) {
+        if (sampledInvocations == 0)
+            return 0;
+
+        long target = (long) Math.ceil(sampledInvocations * percentile / 100.0);
+        long count = 0;
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            count += latencyHistogram[i];
+            if (count >= target && count > 0)
+                return i == latencyHistogram.length - 1 ? maxTimeNanos : (1L << i) * 1000L;
+        }
+        return maxTimeNanos;
+    }
+}
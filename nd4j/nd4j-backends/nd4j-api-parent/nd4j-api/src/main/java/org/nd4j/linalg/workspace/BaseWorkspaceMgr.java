@@ -20,10 +20,13 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.WorkspaceStatistics;
+import org.nd4j.linalg.api.memory.abstracts.Nd4jWorkspace;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -138,6 +141,41 @@ public abstract class BaseWorkspaceMgr<T extends Enum<T>> implements WorkspaceMg
         setConfiguration(forEnum, configuration);
     }
 
+    /**
+     * Get the runtime statistics (size, peak use, spilled bytes, reallocations etc) of the workspace used for the
+     * specified array type in the current thread
+     *
+     * @param arrayType Array type
+     * @return Workspace statistics, or null if array type is scoped out, or workspace wasn't created in this thread yet
+     */
+    public WorkspaceStatistics getWorkspaceStatistics(@NonNull T arrayType) {
+        if (scopeOutOfWs.contains(arrayType) || getWorkspaceName(arrayType) == null)
+            return null;
+
+        if (!Nd4j.getWorkspaceManager().checkIfWorkspaceExists(getWorkspaceName(arrayType)))
+            return null;
+
+        MemoryWorkspace ws = Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(getWorkspaceName(arrayType));
+        return ws instanceof Nd4jWorkspace ? ((Nd4jWorkspace) ws).getStatistics() : null;
+    }
+
+    /**
+     * Get the runtime statistics of all workspaces used by this workspace manager in the current thread.
+     * Array types sharing the same workspace will have the same statistics
+     *
+     * @param arrayTypeClass Array type class
+     * @return Map of statistics, for array types with existing workspaces only
+     */
+    public Map<T, WorkspaceStatistics> getWorkspaceStatistics(@NonNull Class<T> arrayTypeClass) {
+        Map<T, WorkspaceStatistics> result = new EnumMap<>(arrayTypeClass);
+        for (T t : arrayTypeClass.getEnumConstants()) {
+            WorkspaceStatistics stats = getWorkspaceStatistics(t);
+            if (stats != null)
+                result.put(t, stats);
+        }
+        return result;
+    }
+
     @Override
     public boolean isWorkspaceOpen(@NonNull T arrayType) {
         validateConfig(arrayType);
@@ -42,6 +42,15 @@ public interface NativeOps {
      */
     void setTADThreshold(int value);
 
+    /**
+     * This method sets maximal size of native TAD cache, in bytes. Least recently used TADs are evicted once
+     * this limit is exceeded. TADs that are still in use by native code are released only after that use ends.
+     * PLEASE NOTE: TAD cache isn't bounded on CUDA
+     *
+     * @param maxBytes
+     */
+    void setTadCacheLimit(long maxBytes);
+
     /**
      * @param opNum
      * @param x
@@ -505,6 +514,28 @@ public interface NativeOps {
                                             @Cast("Nd4jLong *") LongPointer dresultShapeInfo,
                                             Pointer extraParams);
 
+    /**
+     * Executes a sequence of ops via a single native call, in order. Execution stops at the first failed op.
+     *
+     * Op types: 0 - scalar, 1 - scalar bool, 2 - pairwise, 3 - pairwise bool, 4 - transform float,
+     * 5 - transform strict, 6 - transform same, 7 - transform any, 8 - transform bool, 9 - broadcast
+     *
+     * @param extraPointers
+     * @param numOps number of ops in the batch
+     * @param opTypes op type for each op
+     * @param opNums op number for each op
+     * @param buffers 4 buffers per op: X, Y (or scalar), Z, dimensions
+     * @param shapes 8 shape info pointers per op: host and device shape info of X, Y, Z and dimensions
+     * @param extraParams extra params pointer for each op
+     */
+    void execBatch(PointerPointer extraPointers,
+                   int numOps,
+                   IntPointer opTypes,
+                   IntPointer opNums,
+                   PointerPointer buffers,
+                   PointerPointer shapes,
+                   PointerPointer extraParams);
+
     void execTransformBool(PointerPointer extraPointers,
                                            int opNum,
                                             OpaqueDataBuffer x,
@@ -617,6 +648,28 @@ public interface NativeOps {
      */
     void setOmpMinThreads(int threads);
 
+    /**
+     * This method returns number of NUMA nodes available to this process
+     */
+    int getNumaNodes();
+
+    /**
+     * This method enables or disables NUMA-aware mode: in this mode threads of the internal thread pool
+     * are kept within NUMA nodes
+     *
+     * @param enabled
+     */
+    void setNumaEnabled(boolean enabled);
+
+    /**
+     * This method pins current thread to the CPUs of specified NUMA node, and makes that node preferred
+     * for memory allocations done by this thread. Negative node id removes binding.
+     *
+     * @param node NUMA node index
+     * @return true if binding was applied
+     */
+    boolean bindToNumaNode(int node);
+
     /**
      * NEVER EVER USE THIS METHOD OUTSIDE OF  CUDA
      */
@@ -196,10 +196,16 @@ public class CudaWorkspace extends Nd4jWorkspace {
                     return alloc(requiredMemory, kind, type, initialize);
                 }
 
-                if (!trimmer)
+                if (!trimmer) {
                     spilledAllocationsSize.addAndGet(requiredMemory);
-                else
+                    totalSpilledSize.addAndGet(requiredMemory);
+                    totalSpilledCount.incrementAndGet();
+                } else {
                     pinnedAllocationsSize.addAndGet(requiredMemory);
+                    totalPinnedSize.addAndGet(requiredMemory);
+                    totalPinnedCount.incrementAndGet();
+                }
+                cycleSpilled.set(true);
 
                 if (isDebug.get()) {
                     log.info("Workspace [{}] device_{}: spilled DEVICE array of {} bytes, capacity of {} elements", id, Nd4j.getAffinityManager().getDeviceForCurrentThread(), requiredMemory, numElements);
@@ -148,6 +148,21 @@ public class CudaEnvironment implements Environment {
         e.setMaxMasterThreads(max);
     }
 
+    @Override
+    public int threadLimit() {
+        return e.threadLimit();
+    }
+
+    @Override
+    public void setThreadLimit(int max) {
+        e.setThreadLimit(max);
+    }
+
+    @Override
+    public boolean isBlasThreadLimitSupported() {
+        return false;
+    }
+
     @Override
     public void setMaxPrimaryMemory(long maxBytes) {
         e.setMaxPrimaryMemory(maxBytes);
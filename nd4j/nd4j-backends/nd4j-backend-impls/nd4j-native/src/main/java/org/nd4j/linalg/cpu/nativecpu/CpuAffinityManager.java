@@ -16,14 +16,182 @@
 
 package org.nd4j.linalg.cpu.nativecpu;
 
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.nd4j.config.ND4JSystemProperties;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.concurrency.BasicAffinityManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.nativeblas.NativeOpsHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * AffinityManager for CPU backend.
+ *
+ * By default single device is reported, and device-related methods have no effect. If NUMA-aware mode is enabled
+ * (see {@link ND4JSystemProperties#NUMA_AWARE}), each NUMA node is reported as a separate device: threads assigned
+ * to a device via {@link #unsafeSetDevice(Integer)} are pinned to the CPUs of that node, and memory they allocate
+ * is preferably placed on that node.
+ *
  * @author raver119@gmail.com
  */
+@Slf4j
 public class CpuAffinityManager extends BasicAffinityManager {
+    private final boolean numaAware;
+    private volatile int numberOfNodes = -1;
+    private final Map<Long, Integer> affinityMap = new ConcurrentHashMap<>();
+    private final AtomicBoolean bindingWarned = new AtomicBoolean(false);
+
+    public CpuAffinityManager() {
+        this(Boolean.parseBoolean(System.getProperty(ND4JSystemProperties.NUMA_AWARE, "false")));
+    }
+
+    /**
+     * @param numaAware if true, NUMA nodes are reported as devices
+     */
+    public CpuAffinityManager(boolean numaAware) {
+        this.numaAware = numaAware;
+
+        // native thread pool only spreads its threads over NUMA nodes in NUMA-aware mode
+        if (numaAware)
+            NativeOpsHolder.getInstance().getDeviceNativeOps().setNumaEnabled(true);
+    }
+
+    /**
+     * @return true if NUMA nodes are reported as devices
+     */
+    public boolean isNumaAware() {
+        return numaAware;
+    }
+
+    @Override
+    public int getNumberOfDevices() {
+        if (!numaAware)
+            return 1;
+
+        if (numberOfNodes < 0)
+            numberOfNodes = Math.max(1, NativeOpsHolder.getInstance().getDeviceNativeOps().getNumaNodes());
+
+        return numberOfNodes;
+    }
+
+    @Override
+    public Integer getDeviceForCurrentThread() {
+        return getDeviceForThread(Thread.currentThread().getId());
+    }
+
+    @Override
+    public Integer getDeviceForThread(long threadId) {
+        if (!numaAware)
+            return 0;
+
+        val node = affinityMap.get(threadId);
+        return node == null ? 0 : node;
+    }
+
+    /**
+     * This method pins current thread to the CPUs of the given NUMA node, and makes that node preferred for memory
+     * allocations of this thread. Has no effect unless NUMA-aware mode is enabled.
+     *
+     * @param deviceId NUMA node index
+     */
+    @Override
+    public void unsafeSetDevice(Integer deviceId) {
+        if (!numaAware)
+            return;
+
+        if (deviceId < 0 || deviceId >= getNumberOfDevices())
+            throw new IllegalArgumentException("NUMA node [" + deviceId + "] is out of range [0.." + getNumberOfDevices() + ")");
+
+        bind(deviceId);
+        affinityMap.put(Thread.currentThread().getId(), deviceId);
+    }
+
+    /**
+     * This method removes NUMA binding of the current thread, if any
+     */
+    public void releaseCurrentThread() {
+        if (!numaAware)
+            return;
+
+        if (affinityMap.remove(Thread.currentThread().getId()) != null)
+            bind(-1);
+    }
+
+    /**
+     * This method creates a copy of the given INDArray, placed on the given NUMA node.
+     * If NUMA-aware mode isn't enabled, this is a plain detached copy.
+     *
+     * @param deviceId target NUMA node
+     * @param array    INDArray to replicate
+     * @return
+     */
+    @Override
+    public INDArray replicateToDevice(Integer deviceId, INDArray array) {
+        if (array == null)
+            return null;
+
+        val previous = switchTo(deviceId);
+        try (val ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            return array.dup(array.ordering());
+        } finally {
+            switchBack(deviceId, previous);
+        }
+    }
+
+    /**
+     * This method creates a copy of the given DataBuffer, placed on the given NUMA node.
+     * If NUMA-aware mode isn't enabled, this is a plain detached copy.
+     *
+     * @param deviceId target NUMA node
+     * @param buffer
+     * @return
+     */
+    @Override
+    public DataBuffer replicateToDevice(Integer deviceId, DataBuffer buffer) {
+        if (buffer == null)
+            return null;
+
+        val previous = switchTo(deviceId);
+        try (val ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            return buffer.dup();
+        } finally {
+            switchBack(deviceId, previous);
+        }
+    }
+
+    /**
+     * @return NUMA node current thread was bound to, or null if it wasn't bound
+     */
+    private Integer switchTo(Integer deviceId) {
+        if (!numaAware)
+            return null;
+
+        val previous = affinityMap.get(Thread.currentThread().getId());
+        if (!deviceId.equals(previous))
+            unsafeSetDevice(deviceId);
+
+        return previous;
+    }
+
+    private void switchBack(Integer deviceId, Integer previous) {
+        if (!numaAware || deviceId.equals(previous))
+            return;
+
+        if (previous == null)
+            releaseCurrentThread();
+        else
+            unsafeSetDevice(previous);
+    }
+
+    private void bind(int node) {
+        if (!NativeOpsHolder.getInstance().getDeviceNativeOps().bindToNumaNode(node) && bindingWarned.compareAndSet(false, true))
+            log.warn("Failed to bind thread to NUMA node [{}]: thread affinity isn't supported on this platform", node);
+    }
 
     /**
      * Utility method, to associate INDArray with specific device (backend-specific)
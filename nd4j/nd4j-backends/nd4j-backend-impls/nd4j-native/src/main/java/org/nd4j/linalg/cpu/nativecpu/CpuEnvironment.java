@@ -15,6 +15,7 @@
  ******************************************************************************/
 package org.nd4j.linalg.cpu.nativecpu;
 
+import org.nd4j.linalg.cpu.nativecpu.blas.CpuBlas;
 import org.nd4j.linalg.factory.Environment;
 import org.nd4j.nativeblas.Nd4jCpu;
 
@@ -148,6 +149,22 @@ public class CpuEnvironment implements Environment {
         e.setMaxMasterThreads(max);
     }
 
+    @Override
+    public int threadLimit() {
+        return e.threadLimit();
+    }
+
+    @Override
+    public void setThreadLimit(int max) {
+        e.setThreadLimit(max);
+        CpuBlas.setThreadLimit(max);
+    }
+
+    @Override
+    public boolean isBlasThreadLimitSupported() {
+        return CpuBlas.isThreadLimitSupported();
+    }
+
     @Override
     public void setMaxPrimaryMemory(long maxBytes) {
         e.setMaxPrimaryMemory(maxBytes);
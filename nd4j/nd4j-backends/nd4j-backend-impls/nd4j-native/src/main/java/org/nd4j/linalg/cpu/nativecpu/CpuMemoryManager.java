@@ -18,13 +18,17 @@ package org.nd4j.linalg.cpu.nativecpu;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 import org.bytedeco.javacpp.Pointer;
 import org.nd4j.linalg.api.memory.AllocationsTracker;
+import org.nd4j.linalg.api.memory.PoolStatistics;
+import org.nd4j.linalg.api.memory.conf.PoolConfiguration;
 import org.nd4j.linalg.api.memory.enums.AllocationKind;
 import org.nd4j.linalg.api.memory.enums.MemoryKind;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.api.memory.BasicMemoryManager;
+import org.nd4j.linalg.cpu.nativecpu.buffer.CpuMemoryPool;
 import org.nd4j.nativeblas.NativeOpsHolder;
 
 import java.util.Map;
@@ -34,6 +38,8 @@ import java.util.Map;
  */
 @Slf4j
 public class CpuMemoryManager extends BasicMemoryManager {
+    private volatile CpuMemoryPool memoryPool;
+
     /**
      * This method returns
      * PLEASE NOTE: Cache options depend on specific implementations
@@ -106,6 +112,50 @@ public class CpuMemoryManager extends BasicMemoryManager {
         return null;
     }
 
+    /**
+     * This method purges cached memory chunks of the memory pool, if pooled allocation is enabled
+     */
+    @Override
+    public void purgeCaches() {
+        val pool = memoryPool;
+        if (pool != null)
+            pool.purge();
+    }
+
+    /**
+     * This method enables pooled allocation for DataBuffers created outside of workspaces.
+     * Previous pool (if any) is closed: its cached chunks are released, and chunks still in use will be released
+     * (instead of being pooled) once returned
+     *
+     * @param configuration pool configuration, or null to disable pooling
+     */
+    @Override
+    public synchronized void setPoolConfiguration(PoolConfiguration configuration) {
+        val old = memoryPool;
+        memoryPool = configuration == null ? null : new CpuMemoryPool(configuration);
+        if (old != null)
+            old.close();
+    }
+
+    @Override
+    public PoolConfiguration getPoolConfiguration() {
+        val pool = memoryPool;
+        return pool == null ? null : pool.getConfiguration();
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        val pool = memoryPool;
+        return pool == null ? null : pool.getStatistics();
+    }
+
+    /**
+     * This method returns current memory pool, or null if pooled allocation is disabled
+     */
+    public CpuMemoryPool getMemoryPool() {
+        return memoryPool;
+    }
+
     @Override
     public long allocatedMemory(Integer deviceId) {
         return Pointer.totalBytes() + AllocationsTracker.getInstance().bytesOnDevice(AllocationKind.GENERAL, deviceId) + AllocationsTracker.getInstance().bytesOnDevice(AllocationKind.WORKSPACE, deviceId);
@@ -31,6 +31,7 @@ import org.nd4j.linalg.compression.CompressionUtils;
 import org.nd4j.linalg.cpu.nativecpu.buffer.BaseCpuDataBuffer;
 import org.nd4j.linalg.cpu.nativecpu.buffer.LongBuffer;
 import org.nd4j.linalg.cpu.nativecpu.buffer.Utf8Buffer;
+import org.nd4j.linalg.cpu.nativecpu.cache.OpScope;
 import org.nd4j.linalg.primitives.Pair;
 import org.bytedeco.javacpp.*;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
@@ -533,6 +534,15 @@ public class CpuNDArrayFactory extends BaseNativeNDArrayFactory {
 
     @Override
     public INDArray[] tear(INDArray tensor, int... dimensions) {
+        OpScope.open();
+        try {
+            return doTear(tensor, dimensions);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray[] doTear(INDArray tensor, int... dimensions) {
         if (tensor.isCompressed())
             Nd4j.getCompressor().decompressi(tensor);
 
@@ -656,6 +666,15 @@ public class CpuNDArrayFactory extends BaseNativeNDArrayFactory {
     }
 
     public INDArray pullRows(INDArray source, INDArray destination, int sourceDimension, long[] indexes) {
+        OpScope.open();
+        try {
+            return doPullRows(source, destination, sourceDimension, indexes);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray doPullRows(INDArray source, INDArray destination, int sourceDimension, long[] indexes) {
         if (indexes == null || indexes.length < 1)
             throw new IllegalStateException("Indexes can't be null or zero-length");
 
@@ -873,6 +892,15 @@ public class CpuNDArrayFactory extends BaseNativeNDArrayFactory {
      */
     @Override
     public void shuffle(List<INDArray> arrays, Random rnd, List<int[]> dimensions) {
+        OpScope.open();
+        try {
+            doShuffle(arrays, rnd, dimensions);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private void doShuffle(List<INDArray> arrays, Random rnd, List<int[]> dimensions) {
         if (dimensions == null || dimensions.size() == 0)
             throw new RuntimeException("Dimension can't be null or 0-length");
 
@@ -1055,6 +1083,15 @@ public class CpuNDArrayFactory extends BaseNativeNDArrayFactory {
 
     @Override
     public INDArray sort(INDArray x, boolean descending, int... dimension) {
+        OpScope.open();
+        try {
+            return doSort(x, descending, dimension);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray doSort(INDArray x, boolean descending, int... dimension) {
         if (x.isScalar())
             return x;
 
@@ -18,39 +18,49 @@ package org.nd4j.linalg.cpu.nativecpu;
 
 import lombok.NonNull;
 import lombok.val;
+import org.nd4j.config.ND4JSystemProperties;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.cache.CacheStatistics;
 import org.nd4j.linalg.cache.ConstantHandler;
+import org.nd4j.linalg.cache.SegmentedLruCache;
 import org.nd4j.linalg.cache.TADManager;
 import org.nd4j.linalg.cache.TadDescriptor;
+import org.nd4j.linalg.cpu.nativecpu.cache.CachedValue;
+import org.nd4j.linalg.cpu.nativecpu.cache.OpScope;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.primitives.Pair;
 import org.nd4j.nativeblas.NativeOps;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * TAD manager for the CPU backend. TAD packs are cached on native side, this class additionally keeps a size bounded
+ * LRU cache of their java-side copies, so repeated lookups don't cross JNI. Both caches are bounded by the same byte
+ * budget (see {@link ND4JSystemProperties#TAD_CACHE_MAX_BYTES}).
+ *
+ * Cached TADs are reference counted: TADs returned while an {@link OpScope} is open stay reachable until the op is
+ * done, even if they're evicted in the meantime. Native TAD packs are reference counted by libnd4j the same way.
+ *
  * @author raver119@gmail.com
  */
 public class CpuTADManager implements TADManager {
-    private Map<TadDescriptor, Pair<DataBuffer, DataBuffer>> cache = new ConcurrentHashMap<>();
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+    private static final long MAX_ENTRIES = 10000;
+
+    private final SegmentedLruCache<TadDescriptor, CachedValue<Pair<DataBuffer, DataBuffer>>> cache;
     private NativeOps nativeOps;
     private ConstantHandler constantHandler;
-    private AtomicLong bytes = new AtomicLong(0);
-    private AtomicInteger counter = new AtomicInteger(0);
-    private static final int MAX_ENTRIES = 100;
 
     public CpuTADManager() {
-        //
+        long maxBytes = Long.getLong(ND4JSystemProperties.TAD_CACHE_MAX_BYTES, DEFAULT_MAX_BYTES);
+        this.cache = new SegmentedLruCache<>(maxBytes, MAX_ENTRIES, v -> sizeOf(v.value()), CachedValue::evict);
     }
 
     public void init(@NonNull NativeOps nativeOps, @NonNull ConstantHandler constantHandler) {
         this.nativeOps = nativeOps;
         this.constantHandler = constantHandler;
+        nativeOps.setTadCacheLimit(cache.getStatistics().getMaxBytes());
     }
 
     /**
@@ -58,7 +68,7 @@ public class CpuTADManager implements TADManager {
      */
     @Override
     public void purgeBuffers() {
-        cache = new ConcurrentHashMap<>();
+        cache.clear();
     }
 
     @Override
@@ -69,69 +79,41 @@ public class CpuTADManager implements TADManager {
         if (dimension == null)
             dimension = new int[] {Integer.MAX_VALUE};
 
-        val pack = Nd4j.getExecutioner().tadShapeInfoAndOffsets(array, dimension);
-
-        //   logger.info("TAD shapeInfo after construction: {}", Arrays.toString(TadDescriptor.dataBufferToArray(outputBuffer)));
-        // now we need to copy this buffer to either device global memory or device cache
-
-        return new Pair<>(pack.getTadShapeInfo(), pack.getTadOffsets());
-
-        /*
-        if (dimension != null && dimension.length > 1)
-            Arrays.sort(dimension);
-
-        if (dimension == null || dimension.length >= 1 && dimension[0] == Integer.MAX_VALUE) {
-            return new Pair<>(array.shapeInfoDataBuffer(), null);
-        } else {
-            TadDescriptor descriptor = new TadDescriptor(array, dimension);
-
-            if (!cache.containsKey(descriptor)) {
-                int dimensionLength = dimension.length;
-
-                // FIXME: this is fast triage, remove it later
-                int targetRank = array.rank(); //dimensionLength <= 1 ? 2 : dimensionLength;
-                long offsetLength;
-                long tadLength = 1;
-                for (int i = 0; i < dimensionLength; i++) {
-                    tadLength *= array.shape()[dimension[i]];
-                }
-
-                offsetLength = array.lengthLong() / tadLength;
-
-                DataBuffer outputBuffer = new LongBuffer(targetRank * 2 + 4);
-                DataBuffer offsetsBuffer = new LongBuffer(offsetLength);
-
-                DataBuffer dimensionBuffer = constantHandler.getConstantBuffer(dimension, DataType.INT);
-                Pointer dimensionPointer = dimensionBuffer.addressPointer();
-
-                Pointer xShapeInfo = array.shapeInfoDataBuffer().addressPointer();
-                Pointer targetPointer = outputBuffer.addressPointer();
-                Pointer offsetsPointer = offsetsBuffer.addressPointer();
-
-                nativeOps.tadOnlyShapeInfo((LongPointer) xShapeInfo, (IntPointer) dimensionPointer, dimension.length);
-                if (1 > 0)
-                    throw new RuntimeException();
-
+        final int[] dims = dimension;
+        return cache.get(new TadDescriptor(array, dims), d -> {
+            val pack = Nd4j.getExecutioner().tadShapeInfoAndOffsets(array, dims);
+            return new CachedValue<>(new Pair<>(pack.getTadShapeInfo(), pack.getTadOffsets()), null);
+        }).acquire();
+    }
 
-                // If the line below will be uncommented, shapes from JVM will be used on native side
-                //outputBuffer = array.tensorAlongDimension(0, dimension).shapeInfoDataBuffer();
-                Pair<DataBuffer, DataBuffer> pair = new Pair<>(outputBuffer, offsetsBuffer);
-                if (counter.get() < MAX_ENTRIES) {
-                    counter.incrementAndGet();
-                    cache.put(descriptor, pair);
+    @Override
+    public long getCachedBytes() {
+        return cache.bytes();
+    }
 
-                    bytes.addAndGet((outputBuffer.length() * 4) + (offsetsBuffer.length() * 8));
-                }
-                return pair;
-            }
+    /**
+     * This method returns hit/miss/eviction statistics of the TAD cache
+     */
+    public CacheStatistics getCacheStatistics() {
+        return cache.getStatistics();
+    }
 
-            return cache.get(descriptor);
-        }
-        */
+    /**
+     * This method changes byte budget of the TAD cache, both java-side and native. Least recently used entries are
+     * evicted if necessary
+     */
+    public void setMaxCachedBytes(long maxBytes) {
+        cache.setMaxBytes(maxBytes);
+        if (nativeOps != null)
+            nativeOps.setTadCacheLimit(maxBytes);
     }
 
-    @Override
-    public long getCachedBytes() {
-        return bytes.get();
+    private static long sizeOf(Pair<DataBuffer, DataBuffer> pair) {
+        long bytes = 0;
+        if (pair.getFirst() != null)
+            bytes += pair.getFirst().length() * 8;
+        if (pair.getSecond() != null)
+            bytes += pair.getSecond().length() * 8;
+        return bytes;
     }
 }
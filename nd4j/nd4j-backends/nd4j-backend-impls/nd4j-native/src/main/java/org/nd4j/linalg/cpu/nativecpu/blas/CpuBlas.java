@@ -17,6 +17,8 @@
 package org.nd4j.linalg.cpu.nativecpu.blas;
 
 import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.mkl.global.mkl_rt;
+import org.nd4j.linalg.api.blas.Blas;
 import org.nd4j.nativeblas.Nd4jBlas;
 
 import static org.bytedeco.openblas.global.openblas_nolapack.*;
@@ -130,6 +132,30 @@ public class CpuBlas extends Nd4jBlas {
         }
     }
 
+    /**
+     * Returns true if the number of threads used by BLAS calls can be limited for a single calling thread, i.e., if
+     * {@link #setThreadLimit(int)} has an effect. This is the case for MKL, and for OpenBLAS built with OpenMP (where
+     * OpenBLAS uses the OpenMP thread count of the calling thread, as set by libnd4j for the thread limit).
+     * OpenBLAS built with pthreads only has a global thread count, so BLAS threads are not limited per thread.
+     */
+    public static boolean isThreadLimitSupported() {
+        int vendor = blas_get_vendor();
+        return vendor == Blas.Vendor.MKL.ordinal()
+                || (vendor == Blas.Vendor.OPENBLAS.ordinal() && openblas_get_parallel() == 2);
+    }
+
+    /**
+     * Limit the number of threads used by BLAS calls made from the current thread, if supported by the BLAS library
+     * (see {@link #isThreadLimitSupported()}). Use 0 to remove the limit.
+     */
+    public static void setThreadLimit(int max) {
+        if (blas_get_vendor() == Blas.Vendor.MKL.ordinal()) {
+            //0 removes the thread local setting, so the global number of threads applies again
+            mkl_rt.MKL_Set_Num_Threads_Local(Math.max(max, 0));
+        }
+        //For OpenMP builds of OpenBLAS, the OpenMP setting of the calling thread is applied by libnd4j
+    }
+
     @Override
     public void setMaxThreads(int num) {
         blas_set_num_threads(num);
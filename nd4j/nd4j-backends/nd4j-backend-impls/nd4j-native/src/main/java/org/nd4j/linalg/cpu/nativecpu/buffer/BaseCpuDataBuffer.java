@@ -27,6 +27,7 @@ import org.nd4j.linalg.api.memory.Deallocatable;
 import org.nd4j.linalg.api.memory.Deallocator;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.memory.pointers.PagedPointer;
+import org.nd4j.linalg.cpu.nativecpu.CpuMemoryManager;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.nativeblas.OpaqueDataBuffer;
 
@@ -43,6 +44,8 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
 
     protected transient OpaqueDataBuffer ptrDataBuffer;
 
+    protected transient CpuMemoryPool.Chunk pooledChunk;
+
     private transient final long instanceId = Nd4j.getDeallocatorService().nextValue();
 
     protected BaseCpuDataBuffer() {
@@ -64,6 +67,46 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
         return ptrDataBuffer;
     }
 
+    /**
+     * This method returns pooled memory chunk backing this buffer, or null if this buffer wasn't allocated from the pool
+     */
+    public CpuMemoryPool.Chunk getPooledChunk() {
+        return pooledChunk;
+    }
+
+    /**
+     * This method creates native DataBuffer of the given length. If pooled allocation is enabled, memory comes from
+     * the memory pool, and native DataBuffer doesn't own it: it'll be returned to the pool on close() or after GC
+     */
+    protected OpaqueDataBuffer allocateDataBuffer(long length, DataType dataType) {
+        val memoryManager = Nd4j.getMemoryManager();
+        val pool = memoryManager instanceof CpuMemoryManager ? ((CpuMemoryManager) memoryManager).getMemoryPool() : null;
+        if (pool != null) {
+            pooledChunk = pool.allocate(length * Nd4j.sizeOfDataType(dataType));
+            if (pooledChunk != null) {
+                val buffer = OpaqueDataBuffer.allocateDataBuffer(0, dataType, false);
+                buffer.setPrimaryBuffer(pooledChunk.getPointer(), length);
+                return buffer;
+            }
+        }
+
+        return OpaqueDataBuffer.allocateDataBuffer(length, dataType, false);
+    }
+
+    @Override
+    protected void release() {
+        if (pooledChunk == null) {
+            super.release();
+            return;
+        }
+
+        // memory goes back to the pool right away, native DataBuffer itself will be released by DeallocatorService
+        this.released = true;
+        this.indexer = null;
+        this.pointer = null;
+        pooledChunk.release(true);
+    }
+
     @Override
     public int targetDevice() {
         // TODO: once we add NUMA support this might change. Or might not.
@@ -86,7 +129,7 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
         this.elementSize = (byte) elementSize;
 
         if (dataType() != DataType.UTF8)
-            ptrDataBuffer = OpaqueDataBuffer.allocateDataBuffer(length, dataType(), false);
+            ptrDataBuffer = allocateDataBuffer(length, dataType());
 
         if (dataType() == DataType.DOUBLE) {
             pointer = new PagedPointer(ptrDataBuffer.primaryBuffer(), length).asDoublePointer();
@@ -261,7 +304,7 @@ public abstract class BaseCpuDataBuffer extends BaseDataBuffer implements Deallo
             throw new IllegalArgumentException("Unable to create a buffer of length <= 0");
 
         if (dataType() != DataType.UTF8)
-            ptrDataBuffer = OpaqueDataBuffer.allocateDataBuffer(length, dataType(), false);
+            ptrDataBuffer = allocateDataBuffer(length, dataType());
 
         if (dataType() == DataType.DOUBLE) {
             pointer = new PagedPointer(ptrDataBuffer.primaryBuffer(), length).asDoublePointer();
@@ -29,9 +29,11 @@ import org.nd4j.nativeblas.OpaqueDataBuffer;
 @Slf4j
 public class CpuDeallocator implements Deallocator {
     private final transient OpaqueDataBuffer opaqueDataBuffer;
+    private final transient CpuMemoryPool.Chunk pooledChunk;
 
     public CpuDeallocator(BaseCpuDataBuffer buffer) {
         opaqueDataBuffer = buffer.getOpaqueDataBuffer();
+        pooledChunk = buffer.getPooledChunk();
     }
 
     @Override
@@ -40,5 +42,9 @@ public class CpuDeallocator implements Deallocator {
             throw new RuntimeException("opaqueDataBuffer is null");
 
         NativeOpsHolder.getInstance().getDeviceNativeOps().deleteDataBuffer(opaqueDataBuffer);
+
+        // pooled memory isn't owned by native DataBuffer, so it goes back to the pool (unless it was returned already)
+        if (pooledChunk != null)
+            pooledChunk.release(false);
     }
 }
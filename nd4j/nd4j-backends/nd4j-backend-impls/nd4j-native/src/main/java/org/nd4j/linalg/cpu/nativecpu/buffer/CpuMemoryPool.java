@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cpu.nativecpu.buffer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.bytedeco.javacpp.Pointer;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.memory.PoolStatistics;
+import org.nd4j.linalg.api.memory.conf.PoolConfiguration;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.nativeblas.NativeOpsHolder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size class pooled allocator for off-heap memory of DataBuffers created outside of workspaces.
+ *
+ * Requests are rounded up to power of 2 size classes. Each size class has a shared lock-free pool, and each thread
+ * additionally caches a few chunks per size class, so that allocate/close cycles on the same thread avoid any shared
+ * state. Chunks are returned to the thread cache when the DataBuffer is closed explicitly, or to the shared pool
+ * once the DataBuffer is garbage collected (via DeallocatorService).
+ *
+ * If NUMA-aware mode is enabled, shared pools are kept per NUMA node, so chunks are only reused on the node
+ * they were allocated on.
+ */
+public class CpuMemoryPool {
+    private static final int RECLAIM_FREQUENCY = 1024;
+
+    @Getter
+    private final PoolConfiguration configuration;
+    private final int minShift;
+    private final int numClasses;
+    private final int numNodes;
+    private final Queue<Pointer>[][] pools;
+    private final Queue<ThreadCache> threadCaches = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<>();
+    private volatile boolean closed = false;
+
+    private final AtomicLong cachedBytes = new AtomicLong(0);
+    private final AtomicLong inUseBytes = new AtomicLong(0);
+    private final AtomicLong requestedBytes = new AtomicLong(0);
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder threadCacheHits = new LongAdder();
+    private final LongAdder poolHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder unpooled = new LongAdder();
+    private final LongAdder closeReturns = new LongAdder();
+    private final LongAdder gcReturns = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    public CpuMemoryPool(@NonNull PoolConfiguration configuration) {
+        Preconditions.checkArgument(Long.bitCount(configuration.getMinChunkSize()) == 1 && Long.bitCount(configuration.getMaxChunkSize()) == 1,
+                "Min and max chunk sizes must be powers of 2, got %s and %s", configuration.getMinChunkSize(), configuration.getMaxChunkSize());
+        Preconditions.checkArgument(configuration.getMinChunkSize() <= configuration.getMaxChunkSize(),
+                "Min chunk size must be <= max chunk size, got %s and %s", configuration.getMinChunkSize(), configuration.getMaxChunkSize());
+        this.configuration = configuration;
+        this.minShift = Long.numberOfTrailingZeros(configuration.getMinChunkSize());
+        this.numClasses = Long.numberOfTrailingZeros(configuration.getMaxChunkSize()) - minShift + 1;
+        this.numNodes = Math.max(1, Nd4j.getAffinityManager().getNumberOfDevices());
+        this.pools = new Queue[numNodes][numClasses];
+        for (int n = 0; n < numNodes; n++)
+            for (int i = 0; i < numClasses; i++)
+                pools[n][i] = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * This method returns a chunk of at least the specified number of bytes, or null if the request is too large to
+     * be pooled
+     *
+     * @param bytes number of bytes requested
+     */
+    public Chunk allocate(long bytes) {
+        int sizeClass = sizeClass(bytes);
+        if (closed || sizeClass >= numClasses) {
+            unpooled.increment();
+            return null;
+        }
+
+        allocations.increment();
+        long chunkBytes = classBytes(sizeClass);
+        int node = currentNode();
+
+        Pointer ptr = null;
+        ThreadCache cache = threadCache();
+        if (cache.node == node) {
+            synchronized (cache) {
+                ptr = cache.chunks[sizeClass].poll();
+            }
+        }
+
+        if (ptr != null) {
+            threadCacheHits.increment();
+            cachedBytes.addAndGet(-chunkBytes);
+        } else {
+            ptr = pools[node][sizeClass].poll();
+            if (ptr != null) {
+                poolHits.increment();
+                cachedBytes.addAndGet(-chunkBytes);
+            } else {
+                misses.increment();
+                if (misses.sum() % RECLAIM_FREQUENCY == 0)
+                    reclaimDeadThreads();
+
+                ptr = NativeOpsHolder.getInstance().getDeviceNativeOps().mallocHost(chunkBytes, 0);
+                if (ptr == null || ptr.address() == 0L)
+                    throw new OutOfMemoryError("Failed to allocate [" + chunkBytes + "] bytes");
+            }
+        }
+
+        inUseBytes.addAndGet(chunkBytes);
+        requestedBytes.addAndGet(bytes);
+        return new Chunk(this, ptr, sizeClass, node, bytes);
+    }
+
+    /**
+     * This method returns chunk to the pool
+     *
+     * @param chunk         chunk to return
+     * @param deterministic true if chunk is returned via DataBuffer.close(), false if it's returned after GC
+     */
+    protected void release(Chunk chunk, boolean deterministic) {
+        long chunkBytes = classBytes(chunk.sizeClass);
+        inUseBytes.addAndGet(-chunkBytes);
+        requestedBytes.addAndGet(-chunk.requestedBytes);
+        if (deterministic)
+            closeReturns.increment();
+        else
+            gcReturns.increment();
+
+        if (closed) {
+            free(chunk.pointer);
+            return;
+        }
+
+        if (deterministic) {
+            ThreadCache cache = threadCache();
+            if (cache.node == chunk.node) {
+                synchronized (cache) {
+                    if (cache.chunks[chunk.sizeClass].size() < configuration.getThreadCacheSize()) {
+                        cache.chunks[chunk.sizeClass].add(chunk.pointer);
+                        cachedBytes.addAndGet(chunkBytes);
+                        return;
+                    }
+                }
+            }
+        }
+
+        offerToPool(chunk.pointer, chunk.sizeClass, chunk.node);
+    }
+
+    private void offerToPool(Pointer pointer, int sizeClass, int node) {
+        long chunkBytes = classBytes(sizeClass);
+        if (cachedBytes.addAndGet(chunkBytes) > configuration.getMaxCachedBytes()) {
+            cachedBytes.addAndGet(-chunkBytes);
+            discards.increment();
+            free(pointer);
+            return;
+        }
+        pools[node][sizeClass].add(pointer);
+    }
+
+    /**
+     * This method releases all cached chunks. Chunks that are in use are not affected
+     */
+    public void purge() {
+        for (ThreadCache cache : threadCaches) {
+            synchronized (cache) {
+                drain(cache);
+            }
+        }
+        for (int n = 0; n < numNodes; n++) {
+            for (int i = 0; i < numClasses; i++) {
+                Pointer p;
+                while ((p = pools[n][i].poll()) != null) {
+                    cachedBytes.addAndGet(-classBytes(i));
+                    free(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method releases all cached chunks, and disables further pooling: chunks that are still in use will be
+     * released once returned
+     */
+    public void close() {
+        closed = true;
+        purge();
+    }
+
+    public PoolStatistics getStatistics() {
+        return PoolStatistics.builder()
+                .allocations(allocations.sum())
+                .threadCacheHits(threadCacheHits.sum())
+                .poolHits(poolHits.sum())
+                .misses(misses.sum())
+                .unpooledAllocations(unpooled.sum())
+                .closeReturns(closeReturns.sum())
+                .gcReturns(gcReturns.sum())
+                .discards(discards.sum())
+                .cachedBytes(cachedBytes.get())
+                .inUseBytes(inUseBytes.get())
+                .requestedBytes(requestedBytes.get())
+                .build();
+    }
+
+    protected int sizeClass(long bytes) {
+        if (bytes <= configuration.getMinChunkSize())
+            return 0;
+        return 64 - Long.numberOfLeadingZeros(bytes - 1) - minShift;
+    }
+
+    protected long classBytes(int sizeClass) {
+        return 1L << (minShift + sizeClass);
+    }
+
+    private ThreadCache threadCache() {
+        ThreadCache cache = threadCache.get();
+        if (cache == null) {
+            cache = new ThreadCache(Thread.currentThread(), currentNode(), numClasses);
+            threadCache.set(cache);
+            threadCaches.add(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Chunks cached by threads that are no longer alive are moved to the shared pool
+     */
+    private void reclaimDeadThreads() {
+        Iterator<ThreadCache> iterator = threadCaches.iterator();
+        while (iterator.hasNext()) {
+            ThreadCache cache = iterator.next();
+            Thread owner = cache.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                synchronized (cache) {
+                    for (int i = 0; i < numClasses; i++) {
+                        Pointer p;
+                        while ((p = cache.chunks[i].poll()) != null) {
+                            cachedBytes.addAndGet(-classBytes(i));
+                            offerToPool(p, i, cache.node);
+                        }
+                    }
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private void drain(ThreadCache cache) {
+        for (int i = 0; i < numClasses; i++) {
+            Pointer p;
+            while ((p = cache.chunks[i].poll()) != null) {
+                cachedBytes.addAndGet(-classBytes(i));
+                free(p);
+            }
+        }
+    }
+
+    private int currentNode() {
+        if (numNodes == 1)
+            return 0;
+
+        int node = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        return node < numNodes ? node : 0;
+    }
+
+    private static void free(Pointer pointer) {
+        NativeOpsHolder.getInstance().getDeviceNativeOps().freeHost(pointer);
+    }
+
+    private static class ThreadCache {
+        private final WeakReference<Thread> owner;
+        private final int node;
+        private final ArrayDeque<Pointer>[] chunks;
+
+        private ThreadCache(Thread owner, int node, int numClasses) {
+            this.owner = new WeakReference<>(owner);
+            this.node = node;
+            this.chunks = new ArrayDeque[numClasses];
+            for (int i = 0; i < numClasses; i++)
+                chunks[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Chunk of pooled memory, owned by a single DataBuffer
+     */
+    public static class Chunk {
+        private final CpuMemoryPool pool;
+        @Getter
+        private final Pointer pointer;
+        private final int sizeClass;
+        private final int node;
+        private final long requestedBytes;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Chunk(CpuMemoryPool pool, Pointer pointer, int sizeClass, int node, long requestedBytes) {
+            this.pool = pool;
+            this.pointer = pointer;
+            this.sizeClass = sizeClass;
+            this.node = node;
+            this.requestedBytes = requestedBytes;
+        }
+
+        /**
+         * This method returns this chunk to the pool. Subsequent calls have no effect
+         *
+         * @param deterministic true if called from DataBuffer.close(), false if called after GC
+         */
+        public void release(boolean deterministic) {
+            if (released.compareAndSet(false, true))
+                pool.release(this, deterministic);
+        }
+
+        public boolean wasReleased() {
+            return released.get();
+        }
+    }
+}
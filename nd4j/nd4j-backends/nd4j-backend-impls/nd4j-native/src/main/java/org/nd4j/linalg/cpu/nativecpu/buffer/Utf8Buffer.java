@@ -30,6 +30,7 @@ import org.nd4j.linalg.api.memory.MemoryWorkspace;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -148,15 +149,13 @@ public class Utf8Buffer extends BaseCpuDataBuffer {
         long currentLength = 0;
         for (val s: strings) {
             headerPointer.put(cnt++, currentLength);
-            val length = s.length();
-            val chars = s.toCharArray();
+            val bytes = s.getBytes(StandardCharsets.UTF_8);
+            val length = bytes.length;
 
-            // putting down chars
-            for (int e = 0; e < length; e++) {
-                val b = (byte) chars[e];
-                val idx = headerLength + currentLength + e;
-                dataPointer.put(idx, b);
-            }
+            // putting down utf8 bytes
+            dataPointer.position(headerLength + currentLength);
+            dataPointer.put(bytes);
+            dataPointer.position(0);
 
             currentLength += length;
         }
@@ -218,7 +217,7 @@ public class Utf8Buffer extends BaseCpuDataBuffer {
         long size = (strings.size() + 1) * 8;
 
         for (val s:strings)
-            size += s.length();
+            size += s.getBytes(StandardCharsets.UTF_8).length;
 
         return size;
     }
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cpu.nativecpu.cache;
+
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Reference counted cache value. Each op that uses the value holds a reference to it for the duration of its
+ * {@link OpScope}; a value evicted from its cache is released only once the last of these references is dropped.
+ *
+ * @param <V> value type
+ */
+public class CachedValue<V> {
+    private final V value;
+    private final Consumer<V> releaser;
+    private final AtomicInteger references = new AtomicInteger(0);
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    private volatile boolean evicted = false;
+
+    /**
+     * @param value    cached value
+     * @param releaser optional callback, called once the value is evicted and no longer referenced by any op
+     */
+    public CachedValue(@NonNull V value, Consumer<V> releaser) {
+        this.value = value;
+        this.releaser = releaser;
+    }
+
+    /**
+     * This method returns the value. If an op scope is open for the current thread, the value is referenced until
+     * that scope is closed
+     */
+    public V acquire() {
+        references.incrementAndGet();
+        if (!OpScope.acquire(this))
+            release();
+        return value;
+    }
+
+    /**
+     * This method marks the value as evicted from its cache. It's released immediately if no op references it
+     */
+    public void evict() {
+        evicted = true;
+        releaseIfUnused();
+    }
+
+    /**
+     * @return number of op scopes currently referencing this value
+     */
+    public int references() {
+        return references.get();
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    /**
+     * @return the value, without acquiring a reference
+     */
+    public V value() {
+        return value;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0)
+            releaseIfUnused();
+    }
+
+    private void releaseIfUnused() {
+        if (evicted && references.get() == 0 && released.compareAndSet(false, true) && releaser != null)
+            releaser.accept(value);
+    }
+}
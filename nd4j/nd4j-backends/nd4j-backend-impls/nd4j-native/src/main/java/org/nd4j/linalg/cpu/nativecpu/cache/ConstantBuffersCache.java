@@ -16,138 +16,97 @@
 
 package org.nd4j.linalg.cpu.nativecpu.cache;
 
+import org.nd4j.config.ND4JSystemProperties;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.memory.AllocationsTracker;
 import org.nd4j.linalg.api.memory.enums.AllocationKind;
 import org.nd4j.linalg.cache.ArrayDescriptor;
 import org.nd4j.linalg.cache.BasicConstantHandler;
+import org.nd4j.linalg.cache.CacheStatistics;
+import org.nd4j.linalg.cache.SegmentedLruCache;
 import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
+ * Constant buffers cache for the CPU backend. Buffers are kept in a size bounded LRU cache: once the byte budget is
+ * exceeded, least recently used buffers are dropped from the cache (and released by GC once no longer referenced).
+ *
+ * Callers usually keep only the address of a constant buffer while native code runs, so the buffer itself could be
+ * evicted and released in the middle of a native call. To avoid that, buffers are reference counted: a buffer
+ * returned while an {@link OpScope} is open is referenced by that scope until the op is done, and an evicted
+ * buffer is released (and reported to the allocations tracker) only once no op references it.
+ *
  * @author raver119@gmail.com
  */
 public class ConstantBuffersCache extends BasicConstantHandler {
-    protected Map<ArrayDescriptor, DataBuffer> buffersCache = new ConcurrentHashMap<>();
-    private AtomicInteger counter = new AtomicInteger(0);
-    private AtomicLong bytes = new AtomicLong(0);
-    private static final int MAX_ENTRIES = 1000;
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+    private static final long MAX_ENTRIES = 10000;
+
+    protected final SegmentedLruCache<ArrayDescriptor, CachedValue<DataBuffer>> buffersCache;
+
+    public ConstantBuffersCache() {
+        long maxBytes = Long.getLong(ND4JSystemProperties.CONSTANT_CACHE_MAX_BYTES, DEFAULT_MAX_BYTES);
+        this.buffersCache = new SegmentedLruCache<>(maxBytes, MAX_ENTRIES, v -> sizeOf(v.value()), CachedValue::evict);
+    }
 
     /**
      * This method removes all cached constants
      */
     @Override
     public void purgeConstants() {
-        buffersCache = new ConcurrentHashMap<>();
+        buffersCache.clear();
     }
 
     @Override
     public DataBuffer getConstantBuffer(int[] array, DataType dataType) {
-        ArrayDescriptor descriptor = new ArrayDescriptor(array, dataType);
-
-        if (!buffersCache.containsKey(descriptor)) {
-            DataBuffer buffer = Nd4j.createTypedBufferDetached(array, dataType);
-
-            if (counter.get() < MAX_ENTRIES) {
-                counter.incrementAndGet();
-                buffersCache.put(descriptor, buffer);
-
-                bytes.addAndGet(array.length * Nd4j.sizeOfDataType(dataType));
-                AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, array.length * Nd4j.sizeOfDataType(dataType));
-            }
-            return buffer;
-        }
-
-        return buffersCache.get(descriptor);
+        return buffersCache.get(new ArrayDescriptor(array, dataType), d -> track(Nd4j.createTypedBufferDetached(array, dataType))).acquire();
     }
 
     @Override
     public DataBuffer getConstantBuffer(boolean[] array, DataType dataType) {
-        ArrayDescriptor descriptor = new ArrayDescriptor(array, dataType);
-
-        if (!buffersCache.containsKey(descriptor)) {
-            DataBuffer buffer = Nd4j.createTypedBufferDetached(array, dataType);
-
-            if (counter.get() < MAX_ENTRIES) {
-                counter.incrementAndGet();
-                buffersCache.put(descriptor, buffer);
-
-                bytes.addAndGet(array.length * Nd4j.sizeOfDataType(dataType));
-                AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, array.length * Nd4j.sizeOfDataType(dataType));
-            }
-            return buffer;
-        }
-
-        return buffersCache.get(descriptor);
+        return buffersCache.get(new ArrayDescriptor(array, dataType), d -> track(Nd4j.createTypedBufferDetached(array, dataType))).acquire();
     }
 
     @Override
     public DataBuffer getConstantBuffer(double[] array, DataType dataType) {
-        ArrayDescriptor descriptor = new ArrayDescriptor(array, dataType);
-
-        if (!buffersCache.containsKey(descriptor)) {
-            DataBuffer buffer = Nd4j.createTypedBufferDetached(array, dataType);
-
-            if (counter.get() < MAX_ENTRIES) {
-                counter.incrementAndGet();
-                buffersCache.put(descriptor, buffer);
-
-                bytes.addAndGet(array.length * Nd4j.sizeOfDataType(dataType));
-                AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, array.length * Nd4j.sizeOfDataType(dataType));
-            }
-            return buffer;
-        }
-
-        return buffersCache.get(descriptor);
+        return buffersCache.get(new ArrayDescriptor(array, dataType), d -> track(Nd4j.createTypedBufferDetached(array, dataType))).acquire();
     }
 
     @Override
     public DataBuffer getConstantBuffer(float[] array, DataType dataType) {
-        ArrayDescriptor descriptor = new ArrayDescriptor(array, dataType);
-
-        if (!buffersCache.containsKey(descriptor)) {
-            DataBuffer buffer = Nd4j.createTypedBufferDetached(array, dataType);
-
-            if (counter.get() < MAX_ENTRIES) {
-                counter.incrementAndGet();
-                buffersCache.put(descriptor, buffer);
-
-                bytes.addAndGet(array.length * Nd4j.sizeOfDataType(dataType));
-                AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, array.length * Nd4j.sizeOfDataType(dataType));
-            }
-            return buffer;
-        }
-
-        return buffersCache.get(descriptor);
+        return buffersCache.get(new ArrayDescriptor(array, dataType), d -> track(Nd4j.createTypedBufferDetached(array, dataType))).acquire();
     }
 
     @Override
     public DataBuffer getConstantBuffer(long[] array, DataType dataType) {
-        ArrayDescriptor descriptor = new ArrayDescriptor(array, dataType);
+        return buffersCache.get(new ArrayDescriptor(array, dataType), d -> track(Nd4j.createBufferDetached(array))).acquire();
+    }
 
-        if (!buffersCache.containsKey(descriptor)) {
-            DataBuffer buffer = Nd4j.createBufferDetached(array);
+    @Override
+    public long getCachedBytes() {
+        return buffersCache.bytes();
+    }
 
-            if (counter.get() < MAX_ENTRIES) {
-                counter.incrementAndGet();
-                buffersCache.put(descriptor, buffer);
+    /**
+     * This method returns hit/miss/eviction statistics of the constant buffers cache
+     */
+    public CacheStatistics getCacheStatistics() {
+        return buffersCache.getStatistics();
+    }
 
-                bytes.addAndGet(array.length * Nd4j.sizeOfDataType(dataType));
-                AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, array.length * Nd4j.sizeOfDataType(dataType));
-            }
-            return buffer;
-        }
+    /**
+     * This method changes byte budget of the constant buffers cache. Least recently used buffers are evicted if necessary
+     */
+    public void setMaxCachedBytes(long maxBytes) {
+        buffersCache.setMaxBytes(maxBytes);
+    }
 
-        return buffersCache.get(descriptor);
+    private static CachedValue<DataBuffer> track(DataBuffer buffer) {
+        AllocationsTracker.getInstance().markAllocated(AllocationKind.CONSTANT, 0, sizeOf(buffer));
+        return new CachedValue<>(buffer, b -> AllocationsTracker.getInstance().markReleased(AllocationKind.CONSTANT, 0, sizeOf(b)));
     }
 
-    @Override
-    public long getCachedBytes() {
-        return bytes.get();
+    private static long sizeOf(DataBuffer buffer) {
+        return buffer.length() * buffer.getElementSize();
     }
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cpu.nativecpu.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread scope of a native op execution. Cached buffers (constants, TADs) looked up while a scope is open are
+ * acquired by the scope, and released when the outermost scope of the thread is closed - so buffers evicted from
+ * their cache in the meantime stay reachable until the op that uses them is done.
+ *
+ * Usage:
+ * <pre>
+ * OpScope.open();
+ * try {
+ *     ...
+ * } finally {
+ *     OpScope.close();
+ * }
+ * </pre>
+ */
+public class OpScope {
+    private static final ThreadLocal<OpScope> SCOPE = new ThreadLocal<OpScope>() {
+        @Override
+        protected OpScope initialValue() {
+            return new OpScope();
+        }
+    };
+
+    private int depth = 0;
+    private final List<CachedValue<?>> acquired = new ArrayList<>();
+
+    private OpScope() {
+    }
+
+    /**
+     * This method opens op scope for the current thread. Scopes may be nested
+     */
+    public static void open() {
+        SCOPE.get().depth++;
+    }
+
+    /**
+     * This method closes op scope for the current thread. Once the outermost scope is closed, all values acquired
+     * within it are released
+     */
+    public static void close() {
+        OpScope scope = SCOPE.get();
+        if (scope.depth == 0)
+            throw new IllegalStateException("No open op scope for thread " + Thread.currentThread().getName());
+
+        if (--scope.depth == 0) {
+            for (CachedValue<?> value : scope.acquired)
+                value.release();
+            scope.acquired.clear();
+        }
+    }
+
+    /**
+     * @return true if op scope is open for the current thread
+     */
+    public static boolean isOpen() {
+        return SCOPE.get().depth > 0;
+    }
+
+    static boolean acquire(CachedValue<?> value) {
+        OpScope scope = SCOPE.get();
+        if (scope.depth == 0)
+            return false;
+
+        scope.acquired.add(value);
+        return true;
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.nd4j.linalg.cpu.nativecpu.ops;
 
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.val;
 import org.bytedeco.javacpp.*;
 import org.nd4j.linalg.api.buffer.DataType;
@@ -35,6 +37,7 @@ import org.nd4j.nativeblas.OpaqueContext;
 import org.nd4j.nativeblas.OpaqueRandomGenerator;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * CPU backend Context wrapper
@@ -47,13 +50,26 @@ public class CpuOpContext extends BaseOpContext implements OpContext, Deallocata
     private OpaqueContext context = nativeOps.createGraphContext(1);
     private final transient long id = Nd4j.getDeallocatorService().nextValue();
 
+    /**
+     * Shared with the deallocator, so native context is released exactly once: either by close(), or by GC
+     */
+    private final transient AtomicBoolean released = new AtomicBoolean(false);
+
+    /**
+     * True while context is used by the executioner, so reusable contexts aren't taken by nested calls
+     */
+    @Getter
+    @Setter
+    private transient boolean inUse = false;
+
     public CpuOpContext() {
         Nd4j.getDeallocatorService().pickObject(this);
     }
 
     @Override
     public void close() {
-        // no-op
+        if (released.compareAndSet(false, true))
+            nativeOps.deleteGraphContext(context);
     }
 
     @Override
@@ -151,6 +167,26 @@ public class CpuOpContext extends BaseOpContext implements OpContext, Deallocata
         nativeOps.ctxPurge(context);
     }
 
+    /**
+     * This method resets this context to its initial state: arrays, arguments and flags are removed,
+     * so the context can be reused for another op
+     */
+    public void reset() {
+        purge();
+
+        fastpath_i.clear();
+        fastpath_t.clear();
+        fastpath_b.clear();
+        fastpath_d.clear();
+        nativeOps.setGraphContextIArguments(context, null, 0);
+        nativeOps.setGraphContextTArguments(context, null, 0);
+        nativeOps.setGraphContextBArguments(context, null, 0);
+        nativeOps.setGraphContextDArguments(context, null, 0);
+
+        markInplace(false);
+        shapeFunctionOverride(false);
+    }
+
     @Override
     public String getUniqueId() {
         return new String("CTX_" + id);
@@ -158,7 +194,7 @@ public class CpuOpContext extends BaseOpContext implements OpContext, Deallocata
 
     @Override
     public Deallocator deallocator() {
-        return new CpuOpContextDeallocator(this);
+        return new CpuOpContextDeallocator(this, released);
     }
 
     @Override
@@ -20,15 +20,21 @@ import org.nd4j.linalg.api.memory.Deallocator;
 import org.nd4j.nativeblas.NativeOpsHolder;
 import org.nd4j.nativeblas.OpaqueContext;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class CpuOpContextDeallocator implements Deallocator {
     private transient final OpaqueContext context;
+    private transient final AtomicBoolean released;
 
-    public CpuOpContextDeallocator(CpuOpContext ctx) {
+    public CpuOpContextDeallocator(CpuOpContext ctx, AtomicBoolean released) {
         context = (OpaqueContext) ctx.contextPointer();
+        this.released = released;
     }
 
     @Override
     public void deallocate() {
-        NativeOpsHolder.getInstance().getDeviceNativeOps().deleteGraphContext(context);
+        // context might've been released explicitly already, via CpuOpContext.close()
+        if (released.compareAndSet(false, true))
+            NativeOpsHolder.getInstance().getDeviceNativeOps().deleteGraphContext(context);
     }
 }
@@ -39,6 +39,7 @@ import org.nd4j.linalg.api.ops.*;
 import org.nd4j.linalg.api.ops.aggregates.Aggregate;
 import org.nd4j.linalg.api.ops.aggregates.Batch;
 import org.nd4j.linalg.api.ops.executioner.DefaultOpExecutioner;
+import org.nd4j.linalg.api.ops.executioner.OpBatch;
 import org.nd4j.linalg.api.ops.executioner.OpStatus;
 import org.nd4j.linalg.api.ops.impl.scatter.ScatterUpdate;
 import org.nd4j.linalg.api.ops.impl.summarystats.Variance;
@@ -51,6 +52,7 @@ import org.nd4j.linalg.api.shape.TadPack;
 import org.nd4j.linalg.api.shape.options.ArrayOptionsHelper;
 import org.nd4j.linalg.api.shape.options.ArrayType;
 import org.nd4j.linalg.cache.ConstantHandler;
+import org.nd4j.linalg.cache.OutputShapeCache;
 import org.nd4j.linalg.cache.TADManager;
 import org.nd4j.linalg.compression.CompressionDescriptor;
 import org.nd4j.linalg.compression.CompressionType;
@@ -59,6 +61,7 @@ import org.nd4j.linalg.cpu.nativecpu.CpuTADManager;
 import org.nd4j.linalg.cpu.nativecpu.buffer.BaseCpuDataBuffer;
 import org.nd4j.linalg.cpu.nativecpu.buffer.LongBuffer;
 import org.nd4j.linalg.cpu.nativecpu.buffer.Utf8Buffer;
+import org.nd4j.linalg.cpu.nativecpu.cache.OpScope;
 import org.nd4j.linalg.cpu.nativecpu.rng.CpuNativeRandom;
 import org.nd4j.linalg.exception.ND4JIllegalArgumentException;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
@@ -68,6 +71,8 @@ import org.nd4j.linalg.api.memory.MemcpyDirection;
 import org.nd4j.linalg.primitives.AtomicBoolean;
 import org.nd4j.linalg.primitives.Optional;
 import org.nd4j.linalg.primitives.Pair;
+import org.nd4j.linalg.profiler.OpMetrics;
+import org.nd4j.linalg.profiler.OpProfiler;
 import org.nd4j.linalg.util.ArrayUtil;
 import org.nd4j.nativeblas.*;
 
@@ -86,6 +91,9 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
     private ConstantHandler constantHandler = Nd4j.getConstantHandler();
     @Getter
     private CpuTADManager tadManager = new CpuTADManager();
+    @Getter
+    private final OutputShapeCache outputShapeCache = new OutputShapeCache();
+    private final ThreadLocal<CpuOpContext> reusableContext = new ThreadLocal<>();
 
     //thread locals for custom op inputs and outputs to prevent allocations
     //every time exec(CustomOp) is called
@@ -163,6 +171,15 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
 
     @Override
     public INDArray exec(IndexAccumulation op) {
+        OpScope.open();
+        try {
+            return execIndexReduce(op);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray execIndexReduce(IndexAccumulation op) {
         checkForCompression(op);
 
         if (extraz.get() == null)
@@ -183,6 +200,7 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
             val ret = Nd4j.createUninitialized(DataType.LONG, retShape);
 
             op.setZ(ret);
+            OpMetrics.getInstance().recordAllocation(op.opName(), ret);
         } else if(!Arrays.equals(retShape, op.z().shape())){
             throw new IllegalStateException("Z array shape does not match expected return type for op " + op
                     + ": expected shape " + Arrays.toString(retShape) + ", z.shape()=" + Arrays.toString(op.z().shape()));
@@ -233,6 +251,15 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
 
     @Override
     public INDArray exec(ReduceOp op) {
+        OpScope.open();
+        try {
+            return execReduce(op);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray execReduce(ReduceOp op) {
         Preconditions.checkNotNull(op.x(), "Op.x() cannot be null: Was null for op %s", op);
         op.validateDataTypes();
 
@@ -312,6 +339,7 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
 
             }
             op.setZ(ret);
+            OpMetrics.getInstance().recordAllocation(op.opName(), ret);
         } else {
             // compare length
             long shapeProduct = (retShape.length == 0 ? 1 : ArrayUtil.prodLong(retShape));
@@ -520,6 +548,8 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
         if (loop.lastErrorCode() != 0)
             throw new RuntimeException(loop.lastErrorMessage());
 
+        profilingConfigurableHookOut(op, st);
+
         return ret;
     }
 
@@ -595,6 +625,15 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
     }
 
     public INDArray exec(ScalarOp op) {
+        OpScope.open();
+        try {
+            return execScalar(op);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray execScalar(ScalarOp op) {
         long st = profilingConfigurableHookIn(op);
 
         //validateDataType(Nd4j.dataType(), op);
@@ -610,6 +649,7 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
                 default:
                     throw new ND4JIllegalStateException("Unknown op type: [" + op.getOpType() +"]");
             }
+            OpMetrics.getInstance().recordAllocation(op.opName(), op.z());
         }
 
         if (op.x().length() != op.z().length())
@@ -670,6 +710,15 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
     }
 
     private void exec(TransformOp op) {
+        OpScope.open();
+        try {
+            execTransform(op);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private void execTransform(TransformOp op) {
         long st = 0;
 
 //        validateDataType(Nd4j.dataType(), op);
@@ -725,8 +774,10 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
 
             if (op.y() != null) {
 
-                if (op.z() == null)
+                if (op.z() == null) {
                     op.setZ(Nd4j.create(op.resultType(), op.x().shape()));
+                    OpMetrics.getInstance().recordAllocation(op.opName(), op.z());
+                }
 
 
                 op.validateDataTypes(experimentalMode.get());
@@ -776,8 +827,10 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
                 }
             } else {
 
-                if (op.z() == null)
+                if (op.z() == null) {
                     op.setZ(Nd4j.createUninitialized(op.resultType(), op.x().shape()));
+                    OpMetrics.getInstance().recordAllocation(op.opName(), op.z());
+                }
 
                 op.validateDataTypes(experimentalMode.get());
 
@@ -845,6 +898,15 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
     }
 
     public INDArray exec(BroadcastOp op) {
+        OpScope.open();
+        try {
+            return execBroadcast(op);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private INDArray execBroadcast(BroadcastOp op) {
         long st = profilingConfigurableHookIn(op);
 
         op.validateDataTypes(experimentalMode.get());
@@ -912,6 +974,8 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
         if (loop.lastErrorCode() != 0)
             throw new RuntimeException(loop.lastErrorMessage());
 
+        profilingConfigurableHookOut(op, st);
+
         return op.z();
     }
 
@@ -1244,6 +1308,229 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
         return op.z();
     }
 
+    /**
+     * This method executes batch of ops. On first submission every op is converted into a {@link BatchCommand},
+     * and consecutive commands are packed into {@link BatchSegment}s, so each segment is executed via single
+     * native call, without validation or pointer marshalling on subsequent submissions. Ops that can't be packed
+     * are executed via regular per-op path, in order. Profiling and OpMetrics, if enabled, are served via regular
+     * per-op path as well.
+     */
+    @Override
+    public void exec(@NonNull OpBatch batch) {
+        if (batch.isEmpty())
+            return;
+
+        if (OpProfiler.getInstance().getConfig() != null || OpMetrics.getInstance().isEnabled() || isVerbose() || isDebug()) {
+            super.exec(batch);
+            return;
+        }
+
+        List<BatchSegment> segments = (List<BatchSegment>) batch.getExecutionPlan();
+        if (segments == null) {
+            segments = compileSegments(batch.getOps());
+            batch.setExecutionPlan(segments);
+        }
+
+        for (val op : batch.getOps()) {
+            if (op.x().wasClosed() || (op.y() != null && op.y().wasClosed()) || op.z().wasClosed())
+                throw new IllegalStateException("One of arguments of batched op [" + op.opName() + "] was closed before call");
+        }
+
+        if (extraz.get() == null)
+            extraz.set(new PointerPointer(32));
+
+        PointerPointer dummy = extraz.get();
+        for (val s : segments) {
+            if (s.fallback != null) {
+                // not supported by native batch
+                exec(s.fallback);
+                continue;
+            }
+
+            loop.execBatch(dummy, s.numOps, s.opTypes, s.opNums, s.buffers, s.shapes, s.extras);
+
+            if (loop.lastErrorCode() != 0)
+                throw new RuntimeException(loop.lastErrorMessage());
+        }
+    }
+
+    protected List<BatchSegment> compileSegments(List<Op> ops) {
+        val segments = new ArrayList<BatchSegment>();
+        val run = new ArrayList<BatchCommand>();
+        for (val op : ops) {
+            val c = compileCommand(op);
+            if (c.type != BatchCommand.Type.FALLBACK) {
+                run.add(c);
+                continue;
+            }
+
+            if (!run.isEmpty()) {
+                segments.add(new BatchSegment(run));
+                run.clear();
+            }
+            segments.add(new BatchSegment(op));
+        }
+
+        if (!run.isEmpty())
+            segments.add(new BatchSegment(run));
+
+        return segments;
+    }
+
+    protected BatchCommand compileCommand(Op op) {
+        val c = new BatchCommand(op);
+        c.x = ((BaseCpuDataBuffer) op.x().data()).getOpaqueDataBuffer();
+        c.xShape = (LongPointer) op.x().shapeInfoDataBuffer().addressPointer();
+        c.z = ((BaseCpuDataBuffer) op.z().data()).getOpaqueDataBuffer();
+        c.zShape = (LongPointer) op.z().shapeInfoDataBuffer().addressPointer();
+
+        if (op instanceof ScalarOp) {
+            val s = (ScalarOp) op;
+            if (s.dimensions() != null || (s.getOpType() != Op.Type.SCALAR && s.getOpType() != Op.Type.SCALAR_BOOL))
+                return c;
+
+            c.y = ((BaseCpuDataBuffer) s.scalar().data()).getOpaqueDataBuffer();
+            c.yShape = (LongPointer) s.scalar().shapeInfoDataBuffer().addressPointer();
+            c.extras = getPointerForExtraArgs(op, s.getOpType() == Op.Type.SCALAR ? op.z().dataType() : op.x().dataType());
+            c.type = s.getOpType() == Op.Type.SCALAR ? BatchCommand.Type.SCALAR : BatchCommand.Type.SCALAR_BOOL;
+        } else if (op instanceof TransformOp) {
+            // IsMax with dimensions and Pow with scalar Y need special treatment, see exec(TransformOp)
+            if (op.opNum() == 31 || op.opName().equalsIgnoreCase("ismax"))
+                return c;
+
+            val type = op.getOpType();
+            if (op.y() != null) {
+                c.y = ((BaseCpuDataBuffer) op.y().data()).getOpaqueDataBuffer();
+                c.yShape = (LongPointer) op.y().shapeInfoDataBuffer().addressPointer();
+                if (type == Op.Type.TRANSFORM_BOOL || type == Op.Type.PAIRWISE_BOOL) {
+                    c.extras = getPointerForExtraArgs(op, op.x().dataType());
+                    c.type = BatchCommand.Type.PAIRWISE_BOOL;
+                } else {
+                    c.extras = getPointerForExtraArgs(op, op.z().dataType());
+                    c.type = BatchCommand.Type.PAIRWISE;
+                }
+            } else {
+                switch (type) {
+                    case TRANSFORM_FLOAT:
+                        c.type = BatchCommand.Type.TRANSFORM_FLOAT;
+                        break;
+                    case TRANSFORM_STRICT:
+                        c.type = BatchCommand.Type.TRANSFORM_STRICT;
+                        break;
+                    case TRANSFORM_SAME:
+                        c.type = BatchCommand.Type.TRANSFORM_SAME;
+                        break;
+                    case TRANSFORM_ANY:
+                        c.type = BatchCommand.Type.TRANSFORM_ANY;
+                        break;
+                    case TRANSFORM_BOOL:
+                        c.type = BatchCommand.Type.TRANSFORM_BOOL;
+                        break;
+                    default:
+                        return c;
+                }
+                boolean xType = type == Op.Type.TRANSFORM_ANY || type == Op.Type.TRANSFORM_BOOL;
+                c.extras = getPointerForExtraArgs(op, xType ? op.x().dataType() : op.z().dataType());
+            }
+        } else if (op instanceof BroadcastOp && op.getOpType() == Op.Type.BROADCAST) {
+            // TADs are resolved by native side, via its own cache
+            val b = (BroadcastOp) op;
+            c.y = ((BaseCpuDataBuffer) op.y().data()).getOpaqueDataBuffer();
+            c.yShape = (LongPointer) op.y().shapeInfoDataBuffer().addressPointer();
+            c.dimensions = ((BaseCpuDataBuffer) b.dimensions().data()).getOpaqueDataBuffer();
+            c.dimensionsShape = (LongPointer) b.dimensions().shapeInfoDataBuffer().addressPointer();
+            c.type = BatchCommand.Type.BROADCAST;
+        }
+
+        return c;
+    }
+
+    /**
+     * This class holds everything required to execute single batched op via native call
+     */
+    protected static class BatchCommand {
+        /**
+         * Op types, with codes as expected by native execBatch() call
+         */
+        protected enum Type {
+            FALLBACK(-1), SCALAR(0), SCALAR_BOOL(1), PAIRWISE(2), PAIRWISE_BOOL(3), TRANSFORM_FLOAT(4),
+            TRANSFORM_STRICT(5), TRANSFORM_SAME(6), TRANSFORM_ANY(7), TRANSFORM_BOOL(8), BROADCAST(9);
+
+            private final int code;
+
+            Type(int code) {
+                this.code = code;
+            }
+        }
+
+        private final Op op;
+        private final int opNum;
+        private Type type = Type.FALLBACK;
+        private OpaqueDataBuffer x, y, z, dimensions;
+        private LongPointer xShape, yShape, zShape, dimensionsShape;
+        private Pointer extras;
+
+        private BatchCommand(Op op) {
+            this.op = op;
+            this.opNum = op.opNum();
+        }
+    }
+
+    /**
+     * This class holds either consecutive commands packed for single native execBatch() call, or single op that
+     * has to be executed via regular per-op path
+     */
+    protected static class BatchSegment {
+        private final Op fallback;
+        private final int numOps;
+        // commands are referenced here, so pointers packed below can't be released while segment exists
+        private final BatchCommand[] commands;
+        private IntPointer opTypes, opNums;
+        private PointerPointer buffers, shapes, extras;
+
+        private BatchSegment(Op fallback) {
+            this.fallback = fallback;
+            this.numOps = 1;
+            this.commands = null;
+        }
+
+        private BatchSegment(List<BatchCommand> commands) {
+            this.fallback = null;
+            this.numOps = commands.size();
+            this.commands = commands.toArray(new BatchCommand[numOps]);
+
+            val types = new int[numOps];
+            val nums = new int[numOps];
+            buffers = new PointerPointer(numOps * 4);
+            shapes = new PointerPointer(numOps * 8);
+            extras = new PointerPointer(numOps);
+            for (int e = 0; e < numOps; e++) {
+                val c = this.commands[e];
+                types[e] = c.type.code;
+                nums[e] = c.opNum;
+
+                buffers.put(e * 4, c.x);
+                buffers.put(e * 4 + 1, c.y);
+                buffers.put(e * 4 + 2, c.z);
+                buffers.put(e * 4 + 3, c.dimensions);
+
+                // CPU backend has no device shape info, so odd entries stay null
+                shapes.put(e * 8, c.xShape);
+                shapes.put(e * 8 + 1, (Pointer) null);
+                shapes.put(e * 8 + 2, c.yShape);
+                shapes.put(e * 8 + 3, (Pointer) null);
+                shapes.put(e * 8 + 4, c.zShape);
+                shapes.put(e * 8 + 5, (Pointer) null);
+                shapes.put(e * 8 + 6, c.dimensionsShape);
+                shapes.put(e * 8 + 7, (Pointer) null);
+
+                extras.put(e, c.extras);
+            }
+            opTypes = new IntPointer(types);
+            opNums = new IntPointer(nums);
+        }
+    }
+
     @Override
     public TADManager getTADManager() {
         return tadManager;
@@ -1604,8 +1891,11 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
                 if (list.isEmpty())
                     throw new ND4JIllegalStateException("Op name " + op.opName() + " failed to calculate output datatypes");
 
-                for (LongShapeDescriptor shape : list)
-                    op.addOutputArgument(Nd4j.create(shape, false));
+                for (LongShapeDescriptor shape : list) {
+                    INDArray out = Nd4j.create(shape, false);
+                    op.addOutputArgument(out);
+                    OpMetrics.getInstance().recordAllocation(op.opName(), out);
+                }
 
                 shapeOverride = true;
             } catch (ND4JIllegalStateException e){
@@ -1617,11 +1907,25 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
         }
 
         val name = op.opName();
-        try (val context = buildContext()) {
+
+        // thread-local context is reused, unless we're already inside of another exec call on this thread
+        CpuOpContext context = reusableContext.get();
+        boolean nested = false;
+        if (context == null) {
+            context = (CpuOpContext) buildContext();
+            reusableContext.set(context);
+        } else if (context.isInUse()) {
+            // temporary context, released as soon as this op is done
+            context = (CpuOpContext) buildContext();
+            nested = true;
+        }
+
+        try {
+            context.reset();
+            context.setInUse(true);
 
             // optionally skip shape validation on op execution
-            if (shapeOverride)
-                context.shapeFunctionOverride(true);
+            context.shapeFunctionOverride(shapeOverride);
 
             context.markInplace(op.isInplaceCall());
 
@@ -1660,6 +1964,12 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
             throw e;
         } catch (Exception e) {
             throw new RuntimeException("Op [" + name + "] execution failed", e);
+        } finally {
+            // we don't want to keep references to arrays between calls
+            context.reset();
+            context.setInUse(false);
+            if (nested)
+                context.close();
         }
     }
 
@@ -1681,6 +1991,11 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
         val lc = op.opName().toLowerCase();
         val hash = op.opHash();
 
+        val key = outputShapeCache.keyFor(op);
+        val cached = outputShapeCache.get(key);
+        if (cached != null)
+            return cached;
+
         val result = new ArrayList<LongShapeDescriptor>();
         if(op.numInputArguments() < 1 && op.getDescriptor().getNumInputs() != -2) {
             if(log.isTraceEnabled()){
@@ -1781,6 +2096,8 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
             }
             log.trace("Calculated output shapes for op {} - {}", op.getClass().getName(), Arrays.toString(arr));
         }
+
+        outputShapeCache.put(key, result);
         return result;
     }
 
@@ -1927,6 +2244,15 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
 
     @Override
     public void scatterUpdate(ScatterUpdate.UpdateOp op, @NonNull INDArray array, @NonNull INDArray indices, @NonNull INDArray updates, @NonNull int[] axis) {
+        OpScope.open();
+        try {
+            doScatterUpdate(op, array, indices, updates, axis);
+        } finally {
+            OpScope.close();
+        }
+    }
+
+    private void doScatterUpdate(ScatterUpdate.UpdateOp op, @NonNull INDArray array, @NonNull INDArray indices, @NonNull INDArray updates, @NonNull int[] axis) {
         val tadX = tadManager.getTADOnlyShapeInfo(array, axis);
         val tadY = tadManager.getTADOnlyShapeInfo(updates, axis);
 
@@ -2080,11 +2406,18 @@ public class NativeOpExecutioner extends DefaultOpExecutioner {
         if (loop.lastErrorCode() != 0)
             throw new RuntimeException(loop.lastErrorMessage());
 
-        val tadShape = new LongBuffer(loop.getPrimaryShapeInfo(pack), loop.getShapeInfoLength(pack));
-        val tadOffsets = new LongBuffer(loop.getPrimaryOffsets(pack), loop.getNumberOfTads(pack));
+        // copied into java-owned buffers: native TAD cache is bounded, so its buffers may be released once pack is deleted
+        val shape = new long[loop.getShapeInfoLength(pack)];
+        val offsets = new long[(int) loop.getNumberOfTads(pack)];
+        loop.getPrimaryShapeInfo(pack).get(shape);
+        if (offsets.length > 0)
+            loop.getPrimaryOffsets(pack).get(offsets);
 
         loop.deleteTadPack(pack);
 
+        val tadShape = Nd4j.createBufferDetached(shape);
+        val tadOffsets = Nd4j.createBufferDetached(offsets);
+
         return new TadPack(tadShape, tadOffsets);
     }
 
@@ -884,6 +884,14 @@ public class Nd4jCpu extends org.nd4j.nativeblas.Nd4jCpuHelper {
         public native int maxMasterThreads();
         public native void setMaxMasterThreads(int max);
 
+        /**
+         * Per-thread limit for the number of threads used by ops called from the current thread: if > 0, ops called from
+         * this thread use at most this many threads, otherwise the global limit (maxMasterThreads) applies.
+         * This allows multiple models to be executed concurrently (i.e. from multiple threads) without oversubscription.
+         */
+        public native int threadLimit();
+        public native void setThreadLimit(int max);
+
         /*
          * Legacy memory limits API, still used in new API as simplified version
          */
@@ -1108,6 +1116,14 @@ public native void setElementThreshold(int num);
  */
 public native void setTADThreshold(int num);
 
+/**
+ * This method sets maximal size of native TAD cache, in bytes. Least recently used TADs are evicted once it's exceeded.
+ * PLEASE NOTE: TAD cache isn't bounded on CUDA
+ *
+ * @param maxBytes
+ */
+public native void setTadCacheLimit(@Cast("Nd4jLong") long maxBytes);
+
 /**
    *
    * @param opNum
@@ -1793,6 +1809,43 @@ public native void execTransformStrict(@Cast("Nd4jPointer*") PointerPointer extr
                       OpaqueDataBuffer dbZ, @Cast("Nd4jLong*") long[] hZShapeInfo, @Cast("Nd4jLong*") long[] dZShapeInfo,
                       Pointer extraParams);
 
+/**
+ * This method executes a sequence of ops via a single call, in order. Execution stops at the first failed op,
+ * with the error available via lastErrorCode()/lastErrorMessage()
+ *
+ * Op types: 0 - scalar, 1 - scalar bool, 2 - pairwise, 3 - pairwise bool, 4 - transform float,
+ * 5 - transform strict, 6 - transform same, 7 - transform any, 8 - transform bool, 9 - broadcast
+ *
+ * @param extraPointers
+ * @param numOps number of ops in the batch
+ * @param opTypes op type for each op
+ * @param opNums op number for each op
+ * @param buffers 4 buffers per op: X, Y (or scalar), Z, dimensions. Unused entries are ignored
+ * @param shapes 8 shape info pointers per op: host and device shape info of X, Y, Z and dimensions
+ * @param extraParams extra params pointer for each op
+ */
+public native void execBatch(@Cast("Nd4jPointer*") PointerPointer extraPointers,
+                      int numOps,
+                      IntPointer opTypes,
+                      IntPointer opNums,
+                      @Cast("Nd4jPointer*") PointerPointer buffers,
+                      @Cast("Nd4jPointer*") PointerPointer shapes,
+                      @Cast("Nd4jPointer*") PointerPointer extraParams);
+public native void execBatch(@Cast("Nd4jPointer*") PointerPointer extraPointers,
+                      int numOps,
+                      IntBuffer opTypes,
+                      IntBuffer opNums,
+                      @Cast("Nd4jPointer*") PointerPointer buffers,
+                      @Cast("Nd4jPointer*") PointerPointer shapes,
+                      @Cast("Nd4jPointer*") PointerPointer extraParams);
+public native void execBatch(@Cast("Nd4jPointer*") PointerPointer extraPointers,
+                      int numOps,
+                      int[] opTypes,
+                      int[] opNums,
+                      @Cast("Nd4jPointer*") PointerPointer buffers,
+                      @Cast("Nd4jPointer*") PointerPointer shapes,
+                      @Cast("Nd4jPointer*") PointerPointer extraParams);
+
 /**
  *
  * @param extraPointers
@@ -1959,6 +2012,28 @@ public native void setOmpNumThreads(int threads);
  */
 public native void setOmpMinThreads(int threads);
 
+/**
+ * This method returns number of NUMA nodes available to this process
+ * @return
+ */
+public native int getNumaNodes();
+
+/**
+ * This method enables or disables NUMA-aware mode: in this mode threads of the internal thread pool are kept within NUMA nodes.
+ *
+ * @param enabled
+ */
+public native void setNumaEnabled(@Cast("bool") boolean enabled);
+
+/**
+ * This method pins current thread to the CPUs of specified NUMA node, and makes that node preferred for memory allocations done by this thread.
+ * Negative node id removes binding.
+ *
+ * @param node
+ * @return true if binding was applied
+ */
+public native @Cast("bool") boolean bindToNumaNode(int node);
+
 
 public native @Cast("bool") boolean isBlasVersionMatches(int major, int minor, int build);
 
@@ -17,11 +17,16 @@ package org.nd4j.linalg.api;
 
 import org.junit.Test;
 import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.blas.Blas;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Environment;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.factory.Nd4jBackend;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
 
 public class TestEnvironment extends BaseNd4jTest {
 
@@ -45,4 +50,67 @@ public class TestEnvironment extends BaseNd4jTest {
         assertFalse(e.isDebugAndVerbose());
         System.out.println("Max master threads: " + e.maxMasterThreads());
     }
+
+    @Test
+    public void testThreadLimit() throws Exception {
+        final Environment e = Nd4j.getEnvironment();
+        int max = e.maxMasterThreads();
+        assertEquals(0, e.threadLimit());
+
+        e.setThreadLimit(1);
+        try {
+            assertEquals(1, e.threadLimit());
+            assertEquals(1, e.maxMasterThreads());
+
+            //Limit applies to the current thread only
+            final int[] other = new int[2];
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    other[0] = e.threadLimit();
+                    other[1] = e.maxMasterThreads();
+                }
+            });
+            t.start();
+            t.join();
+            assertEquals(0, other[0]);
+            assertEquals(max, other[1]);
+
+            //Ops still work as normal with the limit applied
+            INDArray arr = Nd4j.linspace(1, 100000, 100000, DataType.DOUBLE);
+            assertEquals(100000 * 100001 / 2.0, arr.sumNumber().doubleValue(), 1e-6);
+        } finally {
+            e.setThreadLimit(0);
+        }
+        assertEquals(0, e.threadLimit());
+        assertEquals(max, e.maxMasterThreads());
+    }
+
+    @Test
+    public void testBlasThreadLimit() {
+        Environment e = Nd4j.getEnvironment();
+        Blas blas = Nd4j.factory().blas();
+        System.out.println("BLAS vendor: " + blas.getBlasVendor() + ", thread limit supported: " + e.isBlasThreadLimitSupported());
+        assumeTrue(e.isBlasThreadLimitSupported());
+        assertEquals(0, e.threadLimit());
+
+        INDArray a = Nd4j.rand(DataType.DOUBLE, 256, 256);
+        INDArray b = Nd4j.rand(DataType.DOUBLE, 256, 256);
+        INDArray exp = a.mmul(b);
+        int max = blas.getMaxThreads();
+
+        e.setThreadLimit(1);
+        try {
+            //OpenMP builds of OpenBLAS pick up the OpenMP setting of the calling thread on the next call
+            INDArray out = a.mmul(b);
+            assertEquals(1, blas.getMaxThreads());
+            assertEquals(exp, out);
+        } finally {
+            e.setThreadLimit(0);
+        }
+
+        //Global BLAS setting applies again once the limit is removed
+        a.mmul(b);
+        assertEquals(max > 1, blas.getMaxThreads() > 1);
+    }
 }
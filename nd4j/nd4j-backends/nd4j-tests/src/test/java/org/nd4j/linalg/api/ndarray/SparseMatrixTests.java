@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ndarray;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.sparse.COOMatrix;
+import org.nd4j.linalg.api.ndarray.sparse.CSRMatrix;
+import org.nd4j.linalg.api.ndarray.sparse.SparseFormat;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class SparseMatrixTests extends BaseNd4jTest {
+
+    public SparseMatrixTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+
+    private static INDArray sparseDense() {
+        INDArray dense = Nd4j.create(DataType.DOUBLE, 4, 6);
+        dense.putScalar(0, 1, 1.0);
+        dense.putScalar(0, 4, 2.0);
+        dense.putScalar(2, 0, 3.0);
+        dense.putScalar(3, 5, -4.0);
+        dense.putScalar(3, 2, 5.0);
+        return dense;
+    }
+
+    @Test
+    public void testDenseConversion() {
+        INDArray dense = sparseDense();
+        CSRMatrix csr = CSRMatrix.fromDense(dense);
+
+        assertEquals(SparseFormat.CSR, csr.format());
+        assertEquals(5, csr.nnz());
+        assertArrayEquals(new long[]{4, 6}, csr.shape());
+        assertArrayEquals(new long[]{0, 2, 2, 3, 5}, csr.getRowPointers().toLongVector());
+        assertArrayEquals(new long[]{1, 4, 0, 2, 5}, csr.getColumnIndices().toLongVector());
+        assertEquals(dense, csr.toDense());
+
+        COOMatrix coo = csr.toCOO();
+        assertArrayEquals(new long[]{0, 0, 2, 3, 3}, coo.getRowIndices().toLongVector());
+        assertEquals(dense, coo.toDense());
+        assertEquals(dense, coo.toCSR().toDense());
+    }
+
+    @Test
+    public void testUnorderedCOO() {
+        INDArray dense = sparseDense();
+        COOMatrix coo = COOMatrix.create(new double[]{-4.0, 3.0, 1.0, 5.0, 2.0},
+                new long[]{3, 2, 0, 3, 0}, new long[]{5, 0, 1, 2, 4}, 4, 6, DataType.DOUBLE);
+        assertEquals(dense, coo.toDense());
+
+        CSRMatrix csr = coo.toCSR();
+        assertArrayEquals(new long[]{0, 2, 2, 3, 5}, csr.getRowPointers().toLongVector());
+        assertEquals(dense, csr.toDense());
+    }
+
+    @Test
+    public void testMmul() {
+        INDArray dense = sparseDense();
+        INDArray other = Nd4j.rand(DataType.DOUBLE, 6, 3);
+        INDArray other2 = Nd4j.rand(DataType.DOUBLE, 4, 3);
+
+        for (boolean csr : new boolean[]{true, false}) {
+            CSRMatrix m = CSRMatrix.fromDense(dense);
+            INDArray exp = dense.mmul(other);
+            INDArray act = csr ? m.mmul(other) : m.toCOO().mmul(other);
+            assertEquals(exp, act);
+
+            INDArray expT = dense.transpose().mmul(other2);
+            INDArray actT = csr ? m.transposeMmul(other2) : m.toCOO().transposeMmul(other2);
+            assertEquals(expT, actT);
+        }
+    }
+
+    @Test
+    public void testGetRowsAndStack() {
+        INDArray dense = sparseDense();
+        CSRMatrix csr = CSRMatrix.fromDense(dense);
+
+        CSRMatrix rows = csr.getRows(3, 1, 0, 3);
+        assertArrayEquals(new long[]{4, 6}, rows.shape());
+        assertEquals(Nd4j.pullRows(dense, 1, 3, 1, 0, 3), rows.toDense());
+
+        CSRMatrix empty = csr.getRows(1);
+        assertEquals(0, empty.nnz());
+        assertEquals(Nd4j.create(DataType.DOUBLE, 1, 6), empty.toDense());
+
+        CSRMatrix stacked = CSRMatrix.vstack(Arrays.asList(csr.getRows(0, 1), empty, csr.getRows(2, 3)));
+        assertArrayEquals(new long[]{5, 6}, stacked.shape());
+        assertEquals(Nd4j.pullRows(dense, 1, 0, 1, 1, 2, 3), stacked.toDense());
+    }
+
+    @Test
+    public void testEmptyMmul() {
+        CSRMatrix csr = CSRMatrix.fromDense(Nd4j.create(DataType.FLOAT, 3, 5));
+        assertEquals(0, csr.nnz());
+        assertEquals(Nd4j.create(DataType.FLOAT, 3, 2), csr.mmul(Nd4j.rand(DataType.FLOAT, 5, 2)));
+        assertEquals(Nd4j.create(DataType.FLOAT, 5, 2), csr.transposeMmul(Nd4j.rand(DataType.FLOAT, 3, 2)));
+    }
+}
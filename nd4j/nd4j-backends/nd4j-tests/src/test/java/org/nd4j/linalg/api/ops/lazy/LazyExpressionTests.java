@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.api.ops.lazy;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class LazyExpressionTests extends BaseNd4jTest {
+    public LazyExpressionTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Test
+    public void testScalarPairwiseChain_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 10, 37);
+        val a = Nd4j.rand(DataType.FLOAT, 10, 37);
+        val b = Nd4j.rand(DataType.FLOAT, 10, 37);
+
+        val expected = x.mul(a).addi(b).muli(3.0);
+        val expression = LazyExpression.of(x).mul(a).add(b).mul(3.0);
+        assertEquals(3, expression.numOps());
+
+        // whole array at once, and with tiles not aligned to array length
+        assertEquals(expected, expression.eval());
+        assertEquals(expected, expression.eval(Nd4j.create(DataType.FLOAT, 10, 37), 16));
+    }
+
+    @Test
+    public void testUnaryOfSum_1() {
+        val x = Nd4j.rand(DataType.DOUBLE, 64, 50);
+        val y = Nd4j.rand(DataType.DOUBLE, 64, 50);
+
+        val expected = Transforms.sigmoid(x.add(y));
+        val result = LazyExpression.of(x).add(y).sigmoid().eval(Nd4j.create(DataType.DOUBLE, 64, 50), 100);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testNestedRightOperand_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 1000);
+        val y = Nd4j.rand(DataType.FLOAT, 1000);
+        val z = Nd4j.rand(DataType.FLOAT, 1000);
+
+        // (x + 1) * tanh(y - z)
+        val expected = x.add(1.0).muli(Transforms.tanh(y.sub(z)));
+        val expression = LazyExpression.of(x).add(1.0).mul(LazyExpression.of(y).sub(z).tanh());
+        assertEquals(expected, expression.eval(Nd4j.create(DataType.FLOAT, 1000), 128));
+    }
+
+    @Test
+    public void testBroadcast_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 33, 20);
+        val row = Nd4j.rand(DataType.FLOAT, 1, 20);
+        val column = Nd4j.rand(DataType.FLOAT, 33, 1);
+
+        val expected = Transforms.relu(x.mulRowVector(row).addColumnVector(column).subi(0.5));
+        val expression = LazyExpression.of(x).mulRowVector(row).addColumnVector(column).sub(0.5).relu();
+
+        assertEquals(expected, expression.eval());
+        assertEquals(expected, expression.eval(Nd4j.create(DataType.FLOAT, 33, 20), 100));
+    }
+
+    @Test
+    public void testInPlace_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 100, 10);
+        val y = Nd4j.rand(DataType.FLOAT, 100, 10);
+        val expected = x.mul(2.0).addi(y);
+
+        val result = LazyExpression.of(x).mul(2.0).add(y).eval(x, 64);
+        assertSame(x, result);
+        assertEquals(expected, x);
+    }
+
+    @Test
+    public void testAliasedOperand_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 100, 10);
+        val expected = x.mul(2.0).addi(x.mul(3.0));
+
+        // x is used twice, so it can't be overwritten before both reads
+        LazyExpression.of(x).mul(2.0).add(LazyExpression.of(x).mul(3.0)).eval(x, 64);
+        assertEquals(expected, x);
+    }
+
+    @Test
+    public void testNonContiguous_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 'f', 50, 40);
+        val y = Nd4j.rand(DataType.FLOAT, 50, 40);
+        val expected = x.add(y).muli(y);
+
+        assertEquals(expected, LazyExpression.of(x).add(y).mul(y).eval(Nd4j.create(DataType.FLOAT, 50, 40), 64));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShapeMismatch_1() {
+        LazyExpression.of(Nd4j.create(DataType.FLOAT, 3, 4)).add(Nd4j.create(DataType.FLOAT, 4, 3));
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ops.DynamicCustomOp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class OutputShapeCacheTests extends BaseNd4jTest {
+    public OutputShapeCacheTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Test
+    public void testCacheKeys_1() {
+        val cache = new OutputShapeCache();
+        cache.setEnabled(true);
+
+        val x = Nd4j.create(DataType.FLOAT, 2, 6);
+        val op1 = DynamicCustomOp.builder("reshape").addInputs(x, Nd4j.createFromArray(3, 4)).build();
+        val op2 = DynamicCustomOp.builder("reshape").addInputs(x, Nd4j.createFromArray(3, 4)).build();
+        val op3 = DynamicCustomOp.builder("reshape").addInputs(x, Nd4j.createFromArray(4, 3)).build();
+
+        // same shapes and same small input values produce equal keys
+        assertEquals(cache.keyFor(op1), cache.keyFor(op2));
+        assertEquals(cache.keyFor(op1).hashCode(), cache.keyFor(op2).hashCode());
+
+        // different shape argument values must produce different keys
+        assertNotEquals(cache.keyFor(op1), cache.keyFor(op3));
+    }
+
+    @Test
+    public void testCacheKeys_2() {
+        val cache = new OutputShapeCache();
+        cache.setEnabled(true);
+
+        val op = DynamicCustomOp.builder("unique").addInputs(Nd4j.createFromArray(1, 2, 2, 3)).build();
+        assertNull(cache.keyFor(op));
+
+        cache.setEnabled(false);
+        val op2 = DynamicCustomOp.builder("reshape").addInputs(Nd4j.create(DataType.FLOAT, 2, 6), Nd4j.createFromArray(3, 4)).build();
+        assertNull(cache.keyFor(op2));
+    }
+
+    @Test
+    public void testCacheKeys_3() {
+        val cache = new OutputShapeCache();
+        cache.setEnabled(true);
+
+        // output shape of pairwise ops doesn't depend on input values, so values aren't part of the key
+        val op1 = DynamicCustomOp.builder("add").addInputs(Nd4j.createFromArray(1.f, 2.f), Nd4j.createFromArray(3.f, 4.f)).build();
+        val op2 = DynamicCustomOp.builder("add").addInputs(Nd4j.createFromArray(5.f, 6.f), Nd4j.createFromArray(7.f, 8.f)).build();
+        assertEquals(cache.keyFor(op1), cache.keyFor(op2));
+    }
+
+    @Test
+    public void testCachedShapes_1() {
+        val cache = new OutputShapeCache();
+        cache.setEnabled(true);
+        cache.clear();
+
+        val x = Nd4j.create(DataType.FLOAT, 2, 6);
+        val op = DynamicCustomOp.builder("reshape").addInputs(x, Nd4j.createFromArray(3, 4)).build();
+        val key = cache.keyFor(op);
+        assertNull(cache.get(key));
+
+        val shapes = Nd4j.getExecutioner().calculateOutputShape(op);
+        cache.put(key, shapes);
+
+        val cached = cache.get(key);
+        assertNotNull(cached);
+        assertEquals(shapes, cached);
+
+        // returned descriptors are copies, so modifying them doesn't affect the cache
+        cached.get(0).setExtras(0);
+        assertEquals(shapes, cache.get(key));
+
+        val stats = cache.getStatistics();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+    }
+
+    @Test
+    public void testCachedShapes_2() {
+        val cache = new OutputShapeCache(4);
+        cache.setEnabled(true);
+        cache.clear();
+
+        val shapes = Nd4j.getExecutioner().calculateOutputShape(DynamicCustomOp.builder("reshape")
+                .addInputs(Nd4j.create(DataType.FLOAT, 2, 6), Nd4j.createFromArray(3, 4)).build());
+
+        for (int e = 1; e <= 10; e++) {
+            val op = DynamicCustomOp.builder("reshape").addInputs(Nd4j.create(DataType.FLOAT, e, 12), Nd4j.createFromArray(3, 4 * e)).build();
+            cache.put(cache.keyFor(op), shapes);
+        }
+
+        val stats = cache.getStatistics();
+        assertEquals(4, stats.getEntries());
+        assertEquals(6, stats.getEvictions());
+    }
+
+    @Test
+    public void testRepeatedExecution_1() {
+        for (int e = 0; e < 10; e++) {
+            val x = Nd4j.linspace(DataType.FLOAT, 1, 12, 1).reshape(2, 6);
+            val shape = e % 2 == 0 ? Nd4j.createFromArray(3, 4) : Nd4j.createFromArray(4, 3);
+
+            val out = Nd4j.exec(DynamicCustomOp.builder("reshape").addInputs(x, shape).build())[0];
+            assertArrayEquals(e % 2 == 0 ? new long[]{3, 4} : new long[]{4, 3}, out.shape());
+            assertEquals(Nd4j.linspace(DataType.FLOAT, 1, 12, 1), out.reshape(12));
+        }
+    }
+
+    @Test
+    public void testRepeatedExecution_2() {
+        val x = Nd4j.linspace(DataType.FLOAT, 1, 6, 1).reshape(2, 3);
+        val y = Nd4j.linspace(DataType.FLOAT, 7, 6, 1).reshape(2, 3);
+
+        for (int e = 0; e < 10; e++) {
+            val out = Nd4j.exec(DynamicCustomOp.builder("concat").addInputs(x, y).addIntegerArguments(e % 2).build())[0];
+            assertArrayEquals(e % 2 == 0 ? new long[]{4, 3} : new long[]{2, 6}, out.shape());
+            assertEquals(Nd4j.concat(e % 2, x, y), out);
+        }
+    }
+
+    @Test
+    public void testRepeatedExecution_3() {
+        // top_k: k passed as input
+        val x = Nd4j.linspace(DataType.FLOAT, 1, 10, 1).reshape(2, 5);
+        for (int e = 0; e < 4; e++) {
+            int k = e % 2 == 0 ? 2 : 3;
+            val out = Nd4j.exec(DynamicCustomOp.builder("top_k").addInputs(x, Nd4j.scalar(k)).build());
+            assertArrayEquals(new long[]{2, k}, out[0].shape());
+            assertArrayEquals(new long[]{2, k}, out[1].shape());
+        }
+    }
+
+    @Test
+    public void testRepeatedExecution_4() {
+        // scatter_nd: output shape passed as input
+        val indices = Nd4j.createFromArray(new int[][]{{0}, {1}});
+        val updates = Nd4j.linspace(DataType.FLOAT, 1, 6, 1).reshape(2, 3);
+        for (int e = 0; e < 4; e++) {
+            val shape = e % 2 == 0 ? Nd4j.createFromArray(4, 3) : Nd4j.createFromArray(5, 3);
+            val out = Nd4j.exec(DynamicCustomOp.builder("scatter_nd").addInputs(indices, updates, shape).build())[0];
+            assertArrayEquals(e % 2 == 0 ? new long[]{4, 3} : new long[]{5, 3}, out.shape());
+            assertEquals(updates, out.get(NDArrayIndex.interval(0, 2), NDArrayIndex.all()));
+        }
+    }
+
+    @Test
+    public void testRepeatedExecution_5() {
+        // gather: axis passed as input
+        val x = Nd4j.linspace(DataType.FLOAT, 1, 12, 1).reshape(3, 4);
+        val indices = Nd4j.createFromArray(0, 1);
+        for (int e = 0; e < 4; e++) {
+            int axis = e % 2;
+            val out = Nd4j.exec(DynamicCustomOp.builder("gather").addInputs(x, indices, Nd4j.scalar(axis)).build())[0];
+            assertArrayEquals(axis == 0 ? new long[]{2, 4} : new long[]{3, 2}, out.shape());
+        }
+    }
+
+    @Test
+    public void testCacheKeys_4() {
+        val cache = new OutputShapeCache();
+        cache.setEnabled(true);
+
+        // ops not known to be value independent use small input values as part of the key
+        val x = Nd4j.create(DataType.FLOAT, 2, 5);
+        val op1 = DynamicCustomOp.builder("top_k").addInputs(x, Nd4j.scalar(2)).build();
+        val op2 = DynamicCustomOp.builder("top_k").addInputs(x, Nd4j.scalar(3)).build();
+        assertNotEquals(cache.keyFor(op1), cache.keyFor(op2));
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
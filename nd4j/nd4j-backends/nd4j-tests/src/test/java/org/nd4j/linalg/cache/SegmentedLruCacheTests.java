@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class SegmentedLruCacheTests extends BaseNd4jTest {
+    public SegmentedLruCacheTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Test
+    public void testByteBudget_1() {
+        val released = new AtomicLong(0);
+        val cache = new SegmentedLruCache<Integer, long[]>(100, 1000, v -> v.length, v -> released.addAndGet(v.length));
+
+        for (int e = 0; e < 50; e++)
+            cache.put(e, new long[10]);
+
+        val stats = cache.getStatistics();
+        assertTrue(cache.bytes() <= 100);
+        assertEquals(10, stats.getEntries());
+        assertEquals(40, stats.getEvictions());
+        assertEquals(400, released.get());
+
+        // oldest entries were evicted
+        assertNull(cache.get(0));
+        assertNotNull(cache.get(49));
+    }
+
+    @Test
+    public void testScanResistance_1() {
+        val cache = new SegmentedLruCache<Integer, long[]>(100, 1000, v -> v.length, null);
+
+        // hot entries are accessed twice, and end up in protected segment
+        for (int e = 0; e < 5; e++) {
+            cache.put(e, new long[10]);
+            assertNotNull(cache.get(e));
+        }
+
+        // stream of one-off keys shouldn't flush hot entries
+        for (int e = 100; e < 200; e++)
+            cache.put(e, new long[10]);
+
+        for (int e = 0; e < 5; e++)
+            assertNotNull("Hot entry " + e + " was evicted", cache.get(e));
+    }
+
+    @Test
+    public void testLoaderSingleFlight_1() throws Exception {
+        val cache = new SegmentedLruCache<String, long[]>(1000, 1000, v -> v.length, null);
+        val loads = new AtomicInteger(0);
+        val latch = new CountDownLatch(1);
+        val threads = new ArrayList<Thread>();
+
+        for (int t = 0; t < 8; t++) {
+            val thread = new Thread(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                val result = cache.get("key", k -> {
+                    loads.incrementAndGet();
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return new long[4];
+                });
+                assertEquals(4, result.length);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        latch.countDown();
+        for (val thread : threads)
+            thread.join();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccess_1() throws Exception {
+        val cache = new SegmentedLruCache<Integer, long[]>(1000, 50, v -> v.length, null);
+        val threads = new ArrayList<Thread>();
+        val failures = new AtomicInteger(0);
+
+        for (int t = 0; t < 8; t++) {
+            val seed = t;
+            val thread = new Thread(() -> {
+                val random = new Random(seed);
+                for (int e = 0; e < 100000; e++) {
+                    val key = random.nextInt(200);
+                    val result = cache.get(key, k -> new long[5]);
+                    if (result == null || result.length != 5)
+                        failures.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        for (val thread : threads)
+            thread.join();
+
+        assertEquals(0, failures.get());
+        assertTrue(cache.size() <= 50);
+        assertEquals(cache.size() * 5, cache.bytes());
+    }
+
+    @Test
+    public void testClear_1() {
+        val released = new AtomicLong(0);
+        val cache = new SegmentedLruCache<Integer, long[]>(1000, 1000, v -> v.length, v -> released.addAndGet(v.length));
+        for (int e = 0; e < 10; e++)
+            cache.put(e, new long[10]);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+        assertEquals(100, released.get());
+
+        // cache keeps working after purge
+        cache.put(1, new long[10]);
+        assertNotNull(cache.get(1));
+    }
+
+    @Test
+    public void testArrayDescriptor_1() {
+        val a = new ArrayDescriptor(new boolean[]{true, false}, DataType.BOOL);
+        val b = new ArrayDescriptor(new boolean[]{true, false}, DataType.BOOL);
+        val c = new ArrayDescriptor(new boolean[]{false, true}, DataType.BOOL);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testTadDescriptor_1() {
+        val a = new TadDescriptor(Nd4j.create(DataType.FLOAT, 3, 4), new int[]{1});
+        val b = new TadDescriptor(Nd4j.create(DataType.FLOAT, 3, 4), new int[]{1});
+        val c = new TadDescriptor(Nd4j.create(DataType.FLOAT, 4, 3), new int[]{1});
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testTadCacheConsistency_1() {
+        val array = Nd4j.linspace(DataType.FLOAT, 1, 12, 1).reshape(3, 4);
+        for (int e = 0; e < 3; e++) {
+            val sum = array.sum(1);
+            assertEquals(Nd4j.createFromArray(10.f, 26.f, 42.f), sum);
+        }
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class AffinityManagerTests extends BaseNd4jTest {
+    public AffinityManagerTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Test
+    public void testReplicateToDevice_1() {
+        val array = Nd4j.linspace(DataType.FLOAT, 1, 12, 1).reshape(3, 4);
+        val device = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+
+        for (int e = 0; e < Nd4j.getAffinityManager().getNumberOfDevices(); e++) {
+            val replica = Nd4j.getAffinityManager().replicateToDevice(e, array);
+            assertNotNull(replica);
+            assertNotSame(array, replica);
+            assertEquals(array, replica);
+
+            // replica is independent copy
+            replica.addi(1.0f);
+            assertNotEquals(array, replica);
+        }
+
+        // replication doesn't change affinity of the current thread
+        assertEquals(device, Nd4j.getAffinityManager().getDeviceForCurrentThread());
+    }
+
+    @Test
+    public void testDeviceThreads_1() throws Exception {
+        val numDevices = Nd4j.getAffinityManager().getNumberOfDevices();
+        val counter = new AtomicInteger(0);
+
+        for (int e = 0; e < numDevices; e++) {
+            final int deviceId = e;
+            val t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Nd4j.getAffinityManager().unsafeSetDevice(deviceId);
+                    assertEquals(deviceId, Nd4j.getAffinityManager().getDeviceForCurrentThread().intValue());
+                    assertEquals(deviceId, Nd4j.getAffinityManager().getDeviceForThread(Thread.currentThread().getId()).intValue());
+
+                    // memory allocated by pinned thread is usable as usual
+                    val array = Nd4j.ones(DataType.FLOAT, 128, 128);
+                    assertEquals(128 * 128, array.sumNumber().intValue());
+                    counter.incrementAndGet();
+                }
+            });
+
+            t.start();
+            t.join();
+        }
+
+        assertEquals(numDevices, counter.get());
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -19,12 +19,19 @@ package org.nd4j.linalg.custom;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.junit.Test;
+import org.nd4j.autodiff.samediff.SameDiff;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ops.compat.CompatStringSplit;
 import org.nd4j.linalg.api.ops.util.PrintVariable;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * This is special test suit: we test operations that on C++ side modify arrays that come from Java
@@ -48,6 +55,62 @@ public class ExpandableOpsTests {
         assertEquals(exp1, results[1]);
     }
 
+    @Test
+    public void testStringLower_1() {
+        val array = Nd4j.create("First String", "SECOND", "\u00C0\u00C9 \u0391\u0392 \u0414\u0416");
+        val exp = Nd4j.create("first string", "second", "\u00E0\u00E9 \u03B1\u03B2 \u0434\u0436");
+
+        val result = Nd4j.strings().lower(array);
+        assertEquals(exp, result);
+        assertEquals("\u00E0\u00E9 \u03B1\u03B2 \u0434\u0436", result.getString(2));
+    }
+
+    @Test
+    public void testRegexReplace_1() {
+        val array = Nd4j.create("hello,  world!", "a  b   c");
+        val exp = Nd4j.create("hello, world!", "a b c");
+
+        assertEquals(exp, Nd4j.strings().regexReplace(array, "\\s+", " "));
+    }
+
+    @Test
+    public void testStringToIndex_1() {
+        val array = Nd4j.create(Arrays.asList("the", "cat", "sat", "the"), 2, 2);
+        val vocab = Nd4j.create("<unk>", "the", "cat");
+        val exp = Nd4j.createFromArray(new long[][]{{1, 2}, {0, 1}});
+
+        val result = Nd4j.strings().toIndex(array, vocab, 0);
+        assertEquals(DataType.INT64, result.dataType());
+        assertEquals(exp, result);
+    }
+
+    @Test
+    public void testNGramHash_1() {
+        val tokens = Nd4j.create(Arrays.asList("a", "b", "c", "d", "x", "a", "b", "c"), 2, 4);
+
+        val result = Nd4j.strings().ngramHash(tokens, 2, 1000);
+        assertArrayEquals(new long[]{2, 3}, result.shape());
+
+        // same bigrams get same buckets
+        assertEquals(result.getLong(0, 0), result.getLong(1, 1));
+        assertEquals(result.getLong(0, 1), result.getLong(1, 2));
+        assertTrue(result.minNumber().longValue() >= 0 && result.maxNumber().longValue() < 1000);
+    }
+
+    @Test
+    public void testSameDiffTokenizeToIds_1() {
+        val sd = SameDiff.create();
+        val text = sd.placeHolder("text", DataType.UTF8, -1);
+        val vocab = sd.constant("vocab", Nd4j.create("<unk>", "hello", "world"));
+
+        val cleaned = sd.strings().regexReplace("cleaned", sd.strings().lower("lower", text), "[^a-z ]", "");
+        val split = sd.strings().split(new String[]{"indices", "tokens"}, cleaned, " ");
+        val ids = sd.strings().toIndex("ids", split[1], vocab, 0);
+
+        val out = sd.output(Collections.singletonMap("text", Nd4j.create("Hello, World!", "HELLO there")), "ids").get("ids");
+        assertEquals(Nd4j.createFromArray(1L, 2L, 1L, 0L), out);
+    }
+
     @Test
     public void test() {
         val arr = Nd4j.createFromArray(0, 1, 2, 3, 4, 5, 6, 7, 8).reshape(3, 3);
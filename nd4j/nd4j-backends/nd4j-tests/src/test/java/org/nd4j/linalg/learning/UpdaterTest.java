@@ -20,11 +20,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.updaters.FusedUpdater;
 import org.nd4j.linalg.api.rng.distribution.Distribution;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.learning.config.*;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import static org.junit.Assert.assertEquals;
 
@@ -170,6 +174,46 @@ public class UpdaterTest extends BaseNd4jTest {
         }
     }
 
+    @Test
+    public void testFusedUpdater() {
+        int length = 20;
+        double l1 = 0.01;
+        double l2 = 0.02;
+        double wd = 0.03;
+        IUpdater[] updaters = {new Adam(0.1), new AdaMax(0.1), new Nesterovs(0.1, 0.9), new RmsProp(0.1)};
+
+        for (IUpdater u : updaters) {
+            Nd4j.getRandom().setSeed(12345);
+            int stateSize = (int) u.stateSize(length);
+            INDArray params = Nd4j.rand(DataType.DOUBLE, 1, length).subi(0.5);
+            INDArray stateExp = Nd4j.zeros(DataType.DOUBLE, 1, stateSize);
+            INDArray stateAct = stateExp.dup();
+            GradientUpdater ref = u.instantiate(stateExp, true);
+
+            INDArray[] state = new INDArray[stateSize / length];
+            for (int i = 0; i < state.length; i++) {
+                state[i] = stateAct.get(NDArrayIndex.interval(0, 0, true), NDArrayIndex.interval(i * length, (i + 1) * length));
+            }
+
+            for (int iter = 0; iter < 3; iter++) {
+                INDArray grad = Nd4j.rand(DataType.DOUBLE, 1, length).subi(0.5);
+
+                //Reference: separate ops for regularization, updater and weight decay
+                INDArray exp = grad.dup();
+                exp.addi(Transforms.sign(params, true).muli(l1)).addi(params.mul(l2));
+                ref.applyUpdater(exp, iter, 0);
+                exp.addi(params.mul(wd * u.getLearningRate(iter, 0)));
+
+                INDArray act = grad.dup();
+                Nd4j.exec(new FusedUpdater(act, params, state, u, iter, 0, l1, l2, wd * u.getLearningRate(iter, 0)));
+
+                String msg = u.getClass().getSimpleName() + ", iteration " + iter;
+                assertEquals(msg, exp, act);
+                assertEquals(msg, stateExp, stateAct);
+            }
+        }
+    }
+
     @Override
     public char ordering() {
         return 'f';
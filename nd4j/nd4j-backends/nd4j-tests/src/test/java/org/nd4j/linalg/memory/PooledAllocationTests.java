@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.conf.PoolConfiguration;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class PooledAllocationTests extends BaseNd4jTest {
+    public PooledAllocationTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Before
+    public void setUp() {
+        boolean supported;
+        try {
+            Nd4j.getMemoryManager().setPoolConfiguration(PoolConfiguration.builder().build());
+            supported = true;
+        } catch (UnsupportedOperationException e) {
+            supported = false;
+        }
+        assumeTrue("Pooled allocation isn't supported by this backend", supported);
+    }
+
+    @After
+    public void tearDown() {
+        Nd4j.getMemoryManager().setPoolConfiguration(null);
+    }
+
+    @Test
+    public void testPooledRelease_1() {
+        val before = Nd4j.getMemoryManager().getPoolStatistics();
+
+        for (int e = 0; e < 100; e++) {
+            try (val array = Nd4j.create(DataType.FLOAT, 100)) {
+                array.addi(1.0f);
+                assertEquals(100.0, array.sumNumber().doubleValue(), 1e-5);
+            }
+        }
+
+        val after = Nd4j.getMemoryManager().getPoolStatistics();
+        assertTrue(after.getCloseReturns() - before.getCloseReturns() >= 100);
+        assertTrue(after.getThreadCacheHits() - before.getThreadCacheHits() >= 99);
+        assertTrue(after.getHitRate() > 0.0);
+    }
+
+    @Test
+    public void testPooledZeroInitialization_1() {
+        for (int e = 0; e < 10; e++) {
+            try (val array = Nd4j.create(DataType.DOUBLE, 10, 10)) {
+                assertEquals(0.0, array.sumNumber().doubleValue(), 0.0);
+                array.assign(e + 1);
+            }
+        }
+    }
+
+    @Test
+    public void testPoolStatistics_1() {
+        val array = Nd4j.create(DataType.FLOAT, 100);
+        val stats = Nd4j.getMemoryManager().getPoolStatistics();
+        assertTrue(stats.getInUseBytes() >= 512);
+        assertTrue(stats.getRequestedBytes() >= 400);
+        assertTrue(stats.getFragmentation() >= 0.0 && stats.getFragmentation() < 1.0);
+        array.close();
+        assertTrue(Nd4j.getMemoryManager().getPoolStatistics().getCloseReturns() > stats.getCloseReturns());
+
+        Nd4j.getMemoryManager().purgeCaches();
+    }
+
+    @Test
+    public void testLargeAllocationNotPooled_1() {
+        Nd4j.getMemoryManager().setPoolConfiguration(PoolConfiguration.builder().maxChunkSize(1024).build());
+        val before = Nd4j.getMemoryManager().getPoolStatistics().getUnpooledAllocations();
+
+        try (val array = Nd4j.create(DataType.FLOAT, 1000)) {
+            array.assign(1.0f);
+            assertEquals(1000.0, array.sumNumber().doubleValue(), 1e-5);
+        }
+
+        assertTrue(Nd4j.getMemoryManager().getPoolStatistics().getUnpooledAllocations() > before);
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -130,4 +130,15 @@ public class StringArrayTests extends BaseNd4jTest {
         assertEquals(arrayX, arrayZ0);
         assertEquals(arrayX, arrayZ1);
     }
+
+    @Test
+    public void testBasicStrings_6() {
+        // multi-byte characters must be stored as utf8 bytes
+        val arrayX = Nd4j.create("\u00E0lpha", "\u03B2eta", "\u6C34");
+
+        assertEquals(3, arrayX.length());
+        assertEquals("\u00E0lpha", arrayX.getString(0));
+        assertEquals("\u03B2eta", arrayX.getString(1));
+        assertEquals("\u6C34", arrayX.getString(2));
+    }
 }
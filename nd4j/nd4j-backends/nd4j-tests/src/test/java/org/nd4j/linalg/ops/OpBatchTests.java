@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.ops;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ops.executioner.OpBatch;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastAddOp;
+import org.nd4j.linalg.api.ops.impl.reduce.same.Sum;
+import org.nd4j.linalg.api.ops.impl.scalar.ScalarMultiplication;
+import org.nd4j.linalg.api.ops.impl.transforms.pairwise.arithmetic.AddOp;
+import org.nd4j.linalg.api.ops.impl.transforms.strict.Sigmoid;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class OpBatchTests extends BaseNd4jTest {
+    public OpBatchTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Test
+    public void testBatchExecution_1() {
+        val x = Nd4j.rand(DataType.FLOAT, 4, 5);
+        val y = Nd4j.rand(DataType.FLOAT, 4, 5);
+        val row = Nd4j.rand(DataType.FLOAT, 5);
+        val z = Nd4j.create(DataType.FLOAT, 4, 5);
+        val sum = Nd4j.scalar(DataType.FLOAT, 0.0f);
+
+        val batch = new OpBatch()
+                .add(new AddOp(x, y, z))
+                .add(new ScalarMultiplication(z, null, z, 2.0))
+                .add(new BroadcastAddOp(z, row, z, 1))
+                .add(new Sigmoid(z, z))
+                .add(new Sum(z, sum));
+        assertEquals(5, batch.size());
+
+        val expected = Transforms.sigmoid(x.add(y).muli(2.0).addiRowVector(row));
+
+        // plan is built on first submission, and reused after
+        for (int e = 0; e < 3; e++) {
+            batch.submit();
+            assertEquals(expected, z);
+            assertEquals(expected.sumNumber().floatValue(), sum.getFloat(0), 1e-4f);
+        }
+    }
+
+    @Test
+    public void testBatchExecution_2() {
+        val x = Nd4j.rand(DataType.DOUBLE, 3, 4);
+        val y = Nd4j.rand(DataType.DOUBLE, 3, 4);
+        val z = Nd4j.create(DataType.DOUBLE, 3, 4);
+        val sum = Nd4j.scalar(DataType.DOUBLE, 0.0);
+
+        // reduction in the middle of the batch has to see results of preceding ops, but not of following ones
+        val batch = new OpBatch()
+                .add(new AddOp(x, y, z))
+                .add(new Sum(z, sum))
+                .add(new ScalarMultiplication(z, null, z, 2.0))
+                .add(new Sigmoid(z, z));
+
+        val added = x.add(y);
+        for (int e = 0; e < 2; e++) {
+            batch.submit();
+            assertEquals(added.sumNumber().doubleValue(), sum.getDouble(0), 1e-6);
+            assertEquals(Transforms.sigmoid(added.mul(2.0)), z);
+        }
+    }
+
+    @Test
+    public void testBatchReuseWithUpdatedInputs_1() {
+        val x = Nd4j.create(DataType.DOUBLE, 3);
+        val z = Nd4j.create(DataType.DOUBLE, 3);
+        val batch = new OpBatch().add(new ScalarMultiplication(x, null, z, 3.0));
+
+        for (int e = 1; e <= 5; e++) {
+            x.assign(e);
+            batch.submit();
+            assertEquals(Nd4j.valueArrayOf(new long[]{3}, 3.0 * e, DataType.DOUBLE), z);
+        }
+    }
+
+    @Test
+    public void testBatchModification_1() {
+        val x = Nd4j.ones(DataType.FLOAT, 3);
+        val batch = new OpBatch().add(new ScalarMultiplication(x, null, x, 2.0));
+        batch.submit();
+
+        batch.add(new ScalarMultiplication(x, null, x, 3.0));
+        batch.submit();
+        assertEquals(Nd4j.valueArrayOf(new long[]{3}, 12.0f, DataType.FLOAT), x);
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+        batch.submit();
+        assertEquals(Nd4j.valueArrayOf(new long[]{3}, 12.0f, DataType.FLOAT), x);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidation_1() {
+        new OpBatch().add(new AddOp(Nd4j.create(DataType.FLOAT, 3), Nd4j.create(DataType.FLOAT, 4), Nd4j.create(DataType.FLOAT, 3)));
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
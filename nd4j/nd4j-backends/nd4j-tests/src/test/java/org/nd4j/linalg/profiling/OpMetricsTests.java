@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.profiler.OpMetrics;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class OpMetricsTests extends BaseNd4jTest {
+    public OpMetricsTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @Before
+    public void setUp() {
+        OpMetrics.getInstance().reset();
+        OpMetrics.getInstance().setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        OpMetrics.getInstance().setEnabled(false);
+        OpMetrics.getInstance().setSamplingRate(1);
+        OpMetrics.getInstance().unregisterMBean();
+        OpMetrics.getInstance().reset();
+    }
+
+    @Test
+    public void testOpMetrics_1() {
+        val x = Nd4j.create(DataType.FLOAT, 10, 10);
+        val y = Nd4j.create(DataType.FLOAT, 10, 10);
+
+        for (int e = 0; e < 5; e++)
+            x.addi(y);
+
+        val metrics = OpMetrics.getInstance().getOpMetrics("add");
+        assertNotNull(metrics);
+        assertEquals(5, metrics.getInvocations());
+        assertEquals(5, metrics.getSampledInvocations());
+        assertEquals(5 * 3 * 100 * 4, metrics.getBytesTouched());
+
+        long histogramCount = 0;
+        for (long c : metrics.getLatencyHistogram())
+            histogramCount += c;
+        assertEquals(5, histogramCount);
+        assertTrue(metrics.latencyPercentileNanos(50) <= metrics.latencyPercentileNanos(99));
+    }
+
+    @Test
+    public void testOpMetricsAllocations_1() {
+        val x = Nd4j.create(DataType.FLOAT, 10, 10);
+        val sum = x.sum(1);
+
+        val metrics = OpMetrics.getInstance().getOpMetrics("reduce_sum");
+        assertNotNull(metrics);
+        assertEquals(1, metrics.getInvocations());
+        assertEquals(sum.length() * 4, metrics.getBytesAllocated());
+    }
+
+    @Test
+    public void testOpMetricsDisabled_1() {
+        OpMetrics.getInstance().setEnabled(false);
+
+        val x = Nd4j.create(DataType.FLOAT, 10, 10);
+        x.addi(1.0);
+
+        assertTrue(OpMetrics.getInstance().getOpMetrics().isEmpty());
+    }
+
+    @Test
+    public void testOpMetricsSampling_1() {
+        OpMetrics.getInstance().setSamplingRate(1000000);
+
+        val x = Nd4j.create(DataType.FLOAT, 10, 10);
+        for (int e = 0; e < 10; e++)
+            x.addi(1.0);
+
+        val metrics = OpMetrics.getInstance().getOpMetrics("add_scalar");
+        assertNotNull(metrics);
+        assertEquals(10, metrics.getInvocations());
+        assertTrue(metrics.getSampledInvocations() <= 10);
+    }
+
+    @Test
+    public void testOpMetricsMBean_1() throws Exception {
+        OpMetrics.getInstance().registerMBean();
+
+        val x = Nd4j.create(DataType.FLOAT, 10, 10);
+        x.addi(1.0);
+
+        val server = ManagementFactory.getPlatformMBeanServer();
+        val name = new ObjectName(OpMetrics.MBEAN_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(true, server.getAttribute(name, "Enabled"));
+        assertNotNull(server.getAttribute(name, "OpMetrics"));
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2019 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.linalg.workspace;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.memory.abstracts.Nd4jWorkspace;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.api.memory.enums.ResetPolicy;
+import org.nd4j.linalg.api.memory.enums.SpillPolicy;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import static org.junit.Assert.*;
+
+@Slf4j
+@RunWith(Parameterized.class)
+public class AdaptiveWorkspaceTests extends BaseNd4jTest {
+    public AdaptiveWorkspaceTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    @After
+    public void shutUp() {
+        Nd4j.getMemoryManager().setCurrentWorkspace(null);
+        Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
+    }
+
+    private static WorkspaceConfiguration configuration(LearningPolicy learningPolicy) {
+        return WorkspaceConfiguration.builder()
+                .initialSize(0)
+                .policyAllocation(AllocationPolicy.STRICT)
+                .policySpill(SpillPolicy.EXTERNAL)
+                .policyLearning(learningPolicy)
+                .policyReset(ResetPolicy.BLOCK_LEFT)
+                .adaptiveWindow(4)
+                .shrinkThreshold(2.0)
+                .build();
+    }
+
+    private static void cycle(WorkspaceConfiguration configuration, String id, long... lengths) {
+        try (val ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(configuration, id)) {
+            for (long length : lengths)
+                Nd4j.create(DataType.FLOAT, length);
+        }
+    }
+
+    @Test
+    public void testSpillStatistics_1() {
+        val configuration = configuration(LearningPolicy.FIRST_LOOP);
+
+        // learning cycle: everything is spilled
+        cycle(configuration, "WS_STATS", 100);
+
+        val workspace = (Nd4jWorkspace) Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread("WS_STATS");
+        assertEquals(400, workspace.getCurrentSize());
+
+        cycle(configuration, "WS_STATS", 50);
+        cycle(configuration, "WS_STATS", 100, 100);
+
+        val stats = workspace.getStatistics();
+        assertEquals("WS_STATS", stats.getId());
+        assertEquals(3, stats.getCycles());
+        assertEquals(2, stats.getSpilledAllocations());
+        assertEquals(800, stats.getSpilledBytes());
+        assertEquals(2, stats.getSpilledCycles());
+        assertEquals(0, stats.getReallocations());
+        assertEquals(800, stats.getPeakCycleAllocations());
+        assertEquals(800, stats.getRollingHighWaterMark());
+        assertEquals(2.0, stats.getUtilization(), 1e-5);
+
+        // FIRST_LOOP never resizes with EXTERNAL spill policy
+        assertEquals(400, workspace.getCurrentSize());
+    }
+
+    @Test
+    public void testAdaptiveGrow_1() {
+        val configuration = configuration(LearningPolicy.ADAPTIVE);
+
+        cycle(configuration, "WS_ADAPTIVE", 100);
+
+        val workspace = (Nd4jWorkspace) Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread("WS_ADAPTIVE");
+        assertEquals(400, workspace.getCurrentSize());
+
+        // this cycle spills, so workspace should grow right after it
+        cycle(configuration, "WS_ADAPTIVE", 100, 100);
+        assertEquals(800, workspace.getCurrentSize());
+        assertEquals(1, workspace.getStatistics().getReallocations());
+
+        // and now everything fits
+        cycle(configuration, "WS_ADAPTIVE", 100, 100);
+        val stats = workspace.getStatistics();
+        assertEquals(800, workspace.getCurrentSize());
+        assertEquals(1, stats.getReallocations());
+        assertEquals(2, stats.getSpilledCycles());
+        assertEquals(1.0, stats.getUtilization(), 1e-5);
+    }
+
+    @Test
+    public void testAdaptiveShrink_1() {
+        val configuration = configuration(LearningPolicy.ADAPTIVE);
+
+        cycle(configuration, "WS_ADAPTIVE", 1000);
+
+        val workspace = (Nd4jWorkspace) Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread("WS_ADAPTIVE");
+        assertEquals(4000, workspace.getCurrentSize());
+
+        // large cycle is still within window, so no shrink yet
+        for (int e = 0; e < 3; e++) {
+            cycle(configuration, "WS_ADAPTIVE", 100);
+            assertEquals(4000, workspace.getCurrentSize());
+        }
+
+        // large cycle leaves the window now
+        cycle(configuration, "WS_ADAPTIVE", 100);
+        assertEquals(400, workspace.getCurrentSize());
+        assertEquals(400, workspace.getRollingHighWaterMark());
+        assertEquals(1, workspace.getStatistics().getReallocations());
+
+        // workspace is usable after resize
+        try (val ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(configuration, "WS_ADAPTIVE")) {
+            val array = Nd4j.create(DataType.FLOAT, 100);
+            assertTrue(array.isAttached());
+        }
+
+        // only the learning cycle spilled
+        assertEquals(1, workspace.getStatistics().getSpilledAllocations());
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
@@ -132,6 +132,49 @@ public class ND4JSystemProperties {
      */
     public static final String RESOURCES_LOCAL_DIRS = "org.nd4j.strumpf.resource.dirs";
 
+    /**
+     * Applicability: always<br>
+     * Description: If set to true, op metrics (per-op invocation counts, latency histograms, bytes touched/allocated)
+     * are collected from startup, and published via JMX as {@code org.nd4j:type=OpMetrics}. Metrics can also be
+     * enabled at runtime via {@code OpMetrics.getInstance().setEnabled(true)}.<br>
+     * Default: false
+     */
+    public static final String OP_METRICS_ENABLED = "org.nd4j.linalg.opmetrics";
+
+    /**
+     * Applicability: nd4j-native backend<br>
+     * Description: Maximum number of bytes held by the constant buffers cache. Least recently used buffers are
+     * evicted once this budget is exceeded.<br>
+     * Default: 64MB
+     */
+    public static final String CONSTANT_CACHE_MAX_BYTES = "org.nd4j.linalg.cache.constant.maxbytes";
+
+    /**
+     * Applicability: nd4j-native backend<br>
+     * Description: Maximum number of bytes held by the TAD cache. Least recently used TADs are evicted once this
+     * budget is exceeded. The same budget applies to the java-side and the native TAD caches.<br>
+     * Default: 64MB
+     */
+    public static final String TAD_CACHE_MAX_BYTES = "org.nd4j.linalg.cache.tad.maxbytes";
+
+    /**
+     * Applicability: nd4j-native backend<br>
+     * Description: If set to false, output shapes of custom ops are calculated on every execution, instead of
+     * being cached per thread for repeated input shapes and arguments.<br>
+     * Default: true
+     */
+    public static final String OUTPUT_SHAPE_CACHE_ENABLED = "org.nd4j.linalg.cache.outputshape";
+
+    /**
+     * Applicability: nd4j-native backend<br>
+     * Description: If set to true, NUMA nodes are reported as devices by the AffinityManager. Threads that are
+     * assigned to a device (i.e. ParallelWrapper and ParallelInference workers) are pinned to CPUs of that node,
+     * and memory they allocate (workspaces, model replicas) is placed on that node. Threads of the native thread pool
+     * are kept within NUMA nodes as well. If false, thread pool threads are pinned to individual cores, as before.<br>
+     * Default: false
+     */
+    public static final String NUMA_AWARE = "org.nd4j.cpu.numa";
+
     private ND4JSystemProperties() {
     }
 }